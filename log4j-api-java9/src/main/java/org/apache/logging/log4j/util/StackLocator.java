@@ -16,9 +16,19 @@
  */
 package org.apache.logging.log4j.util;
 
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * <em>Consider this class private.</em> Determines the caller's class.
@@ -29,6 +39,26 @@ public class StackLocator {
 
     private final static StackWalker stackWalker = StackWalker.getInstance();
 
+    /**
+     * Number of frames the location walker fetches in its first batch: enough for the logging API frames and the
+     * caller in the common case, so the rest of the stack is never materialized.
+     */
+    private final static int LOCATION_DEPTH_ESTIMATE = 16;
+
+    private final static StackWalker locationWalker = StackWalker.getInstance(
+            EnumSet.of(StackWalker.Option.RETAIN_CLASS_REFERENCE), LOCATION_DEPTH_ESTIMATE);
+
+    /** Resolved locations per call site of each class that logs with location. */
+    private final static ClassValue<CallSiteCache> callSites = new ClassValue<CallSiteCache>() {
+        @Override
+        protected CallSiteCache computeValue(final Class<?> type) {
+            return new CallSiteCache(type);
+        }
+    };
+
+    /** Reusable walk functions per logger FQCN, so that a location lookup does not allocate a capturing lambda. */
+    private final static ConcurrentMap<String, LocationFunction> locationFunctions = new ConcurrentHashMap<>();
+
     private final static StackLocator INSTANCE = new StackLocator();
 
 
@@ -67,16 +97,150 @@ public class StackLocator {
         return stack;
     }
 
+    /**
+     * Returns the location of the first frame below the frames of the specified logger class. Only the top of the stack
+     * is walked, and the {@code StackTraceElement} of each call site is resolved once and then served from a cache
+     * keyed by the declaring class, method name and bytecode index of the frame.
+     *
+     * @param fqcnOfLogger the fully qualified class name of the logger
+     * @return the location of the caller or {@code null} if the logger class is not on the stack
+     */
     public StackTraceElement calcLocation(final String fqcnOfLogger) {
-        return stackWalker.walk(
-                s -> s.dropWhile(f -> !f.getClassName().equals(fqcnOfLogger)) // drop the top frames until we reach the logger
-                        .dropWhile(f -> f.getClassName().equals(fqcnOfLogger)) // drop the logger frames
-                        .findFirst())
-                .get()
-                .toStackTraceElement();
+        if (fqcnOfLogger == null) {
+            return null;
+        }
+        LocationFunction function = locationFunctions.get(fqcnOfLogger);
+        if (function == null) {
+            function = new LocationFunction(fqcnOfLogger);
+            final LocationFunction existing = locationFunctions.putIfAbsent(fqcnOfLogger, function);
+            if (existing != null) {
+                function = existing;
+            }
+        }
+        return locationWalker.walk(function);
     }
 
     public StackTraceElement getStackTraceElement(final int depth) {
         return stackWalker.walk(s -> s.skip(depth).findFirst()).get().toStackTraceElement();
     }
+
+    /**
+     * Walks the stack until it has passed the frames of the logger class and resolves the next frame.
+     */
+    private static final class LocationFunction implements Function<Stream<StackWalker.StackFrame>, StackTraceElement> {
+
+        private final String fqcnOfLogger;
+
+        LocationFunction(final String fqcnOfLogger) {
+            this.fqcnOfLogger = fqcnOfLogger;
+        }
+
+        @Override
+        public StackTraceElement apply(final Stream<StackWalker.StackFrame> frames) {
+            boolean inLogger = false;
+            final Iterator<StackWalker.StackFrame> iterator = frames.iterator();
+            while (iterator.hasNext()) {
+                final StackWalker.StackFrame frame = iterator.next();
+                if (fqcnOfLogger.equals(frame.getClassName())) {
+                    inLogger = true;
+                } else if (inLogger) {
+                    return callSites.get(frame.getDeclaringClass()).getLocation(frame);
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Caches the {@code StackTraceElement}s of the call sites in one class. A call site is identified by its method
+     * name and bytecode index. Methods that are overloaded can not be told apart by name, so their call sites are
+     * always resolved from the frame.
+     */
+    private static final class CallSiteCache {
+
+        /** Maximum number of cached call sites per method, to bound the cost of the linear search. */
+        private static final int MAX_CALL_SITES_PER_METHOD = 64;
+
+        private final Set<String> overloadedMethods;
+        private final ConcurrentMap<String, MethodCallSites> methods = new ConcurrentHashMap<>();
+
+        CallSiteCache(final Class<?> type) {
+            this.overloadedMethods = findOverloadedMethods(type);
+        }
+
+        private static Set<String> findOverloadedMethods(final Class<?> type) {
+            final Set<String> names = new HashSet<>();
+            final Set<String> overloaded = new HashSet<>();
+            try {
+                for (final Method method : type.getDeclaredMethods()) {
+                    if (!names.add(method.getName())) {
+                        overloaded.add(method.getName());
+                    }
+                }
+                if (type.getDeclaredConstructors().length > 1) {
+                    overloaded.add("<init>");
+                }
+            } catch (final SecurityException | LinkageError e) {
+                // can't tell the methods apart: don't cache anything for this class
+                return null;
+            }
+            return overloaded;
+        }
+
+        StackTraceElement getLocation(final StackWalker.StackFrame frame) {
+            final String methodName = frame.getMethodName();
+            if (overloadedMethods == null || overloadedMethods.contains(methodName)) {
+                return frame.toStackTraceElement();
+            }
+            MethodCallSites sites = methods.get(methodName);
+            if (sites == null) {
+                sites = new MethodCallSites();
+                final MethodCallSites existing = methods.putIfAbsent(methodName, sites);
+                if (existing != null) {
+                    sites = existing;
+                }
+            }
+            final int bci = frame.getByteCodeIndex();
+            StackTraceElement element = sites.get(bci);
+            if (element == null) {
+                element = frame.toStackTraceElement();
+                sites.add(bci, element);
+            }
+            return element;
+        }
+    }
+
+    /**
+     * Copy-on-write table of the resolved call sites in one method, indexed by bytecode index.
+     */
+    private static final class MethodCallSites {
+
+        private volatile int[] byteCodeIndexes = new int[0];
+        private volatile StackTraceElement[] elements = new StackTraceElement[0];
+
+        StackTraceElement get(final int bci) {
+            final StackTraceElement[] currentElements = elements;
+            final int[] currentIndexes = byteCodeIndexes;
+            final int length = Math.min(currentElements.length, currentIndexes.length);
+            for (int i = 0; i < length; i++) {
+                if (currentIndexes[i] == bci) {
+                    return currentElements[i];
+                }
+            }
+            return null;
+        }
+
+        synchronized void add(final int bci, final StackTraceElement element) {
+            final int length = elements.length;
+            if (length >= CallSiteCache.MAX_CALL_SITES_PER_METHOD || get(bci) != null) {
+                return;
+            }
+            final int[] newIndexes = Arrays.copyOf(byteCodeIndexes, length + 1);
+            final StackTraceElement[] newElements = Arrays.copyOf(elements, length + 1);
+            newIndexes[length] = bci;
+            newElements[length] = element;
+            elements = newElements; // readers see the new element before its index
+            byteCodeIndexes = newIndexes;
+        }
+    }
 }
@@ -135,6 +135,36 @@ public class StackLocatorTest {
         assertEquals(100, element.getLineNumber());
     }
 
+    @Test
+    public void testCalcLocationIsCachedPerCallSite() {
+        final StackTraceElement first = new Foo().foo();
+        final StackTraceElement second = new Foo().foo();
+        assertSame(first, second);
+        assertEquals(100, second.getLineNumber());
+    }
+
+    private StackTraceElement overloaded(final int ignored) {
+        return new Bar().bar();
+    }
+
+    private StackTraceElement overloaded(final String ignored) {
+        return new Bar().bar();
+    }
+
+    @Test
+    public void testCalcLocationDistinguishesOverloadedMethods() {
+        final StackTraceElement intElement = overloaded(0);
+        final StackTraceElement stringElement = overloaded("");
+        assertEquals("overloaded", intElement.getMethodName());
+        assertEquals("overloaded", stringElement.getMethodName());
+        assertEquals(intElement.getLineNumber() + 4, stringElement.getLineNumber());
+    }
+
+    @Test
+    public void testCalcLocationReturnsNullWhenLoggerNotOnStack() {
+        assertEquals(null, stackLocator.calcLocation("org.apache.logging.log4j.NoSuchLogger"));
+    }
+
     class ClassLocator {
 
         public Class<?> locateClass() {
@@ -19,6 +19,7 @@ package org.apache.logging.log4j;
 import java.util.Arrays;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.logging.log4j.util.PerformanceSensitive;
 import org.apache.logging.log4j.util.StringBuilderFormattable;
@@ -30,6 +31,8 @@ public final class MarkerManager {
 
     private static final ConcurrentMap<String, Marker> MARKERS = new ConcurrentHashMap<>();
 
+    private static final AtomicInteger VERSION = new AtomicInteger();
+
     private MarkerManager() {
         // do nothing
     }
@@ -39,6 +42,20 @@ public final class MarkerManager {
      */
     public static void clear() {
         MARKERS.clear();
+        VERSION.incrementAndGet();
+    }
+
+    /**
+     * Returns a number that changes whenever the parents of a Marker change or the Markers are cleared. Callers that
+     * cache the result of {@link Marker#isInstanceOf(String)} for Markers of this Manager can use it to detect that the
+     * result may have changed. Creating a Marker does not change the number: no existing Marker has the new Marker as
+     * a parent, so the result for existing Markers stays the same.
+     *
+     * @return the current version of the Marker hierarchy.
+     * @since 2.10.1
+     */
+    public static int getVersion() {
+        return VERSION.get();
     }
 
     /**
@@ -177,6 +194,7 @@ public final class MarkerManager {
                 }
             }
             this.parents = markers;
+            VERSION.incrementAndGet();
             return this;
         }
 
@@ -191,6 +209,7 @@ public final class MarkerManager {
             if (localParentsLength == 1) {
                 if (localParents[0].equals(parent)) {
                     parents = null;
+                    VERSION.incrementAndGet();
                     return true;
                 }
                 return false;
@@ -209,6 +228,7 @@ public final class MarkerManager {
                 }
             }
             parents = markers;
+            VERSION.incrementAndGet();
             return true;
         }
 
@@ -221,6 +241,7 @@ public final class MarkerManager {
                 System.arraycopy(markers, 0, array, 0, markers.length);
                 this.parents = array;
             }
+            VERSION.incrementAndGet();
             return this;
         }
 
@@ -0,0 +1,37 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.message;
+
+/**
+ * An operation that accepts a message parameter, its index and a state object and returns no result. Passing the
+ * state to the operation allows a single instance to be reused without allocating a new object for every message.
+ *
+ * @param <S> type of the state
+ * @see ParameterVisitable
+ * @since 2.10.1
+ */
+public interface ParameterConsumer<S> {
+
+    /**
+     * Performs the operation given the specified arguments.
+     *
+     * @param parameter the message parameter, may be {@code null}
+     * @param parameterIndex the index of the parameter
+     * @param state the state object
+     */
+    void accept(Object parameter, int parameterIndex, S state);
+}
@@ -24,6 +24,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
+import org.apache.logging.log4j.util.BoundedStringBuilderFormattable;
 import org.apache.logging.log4j.util.StringBuilderFormattable;
 import org.apache.logging.log4j.util.StringBuilders;
 
@@ -262,6 +263,132 @@ final class ParameterFormatter {
         handleRemainingCharIfAny(messagePattern, len, buffer, escapeCounter, i);
     }
 
+    /**
+     * Replace placeholders in the given messagePattern with arguments, stopping once more than {@code maxLength}
+     * characters have been written. The first {@code maxLength} characters are the same as the ones written by
+     * {@link #formatMessage(StringBuilder, String, Object[], int)}.
+     *
+     * @param buffer the buffer to write the formatted message into
+     * @param messagePattern the message pattern containing placeholders.
+     * @param arguments      the arguments to be used to replace placeholders.
+     * @param maxLength      the number of characters after which formatting can stop.
+     */
+    static void formatMessage(final StringBuilder buffer, final String messagePattern,
+            final Object[] arguments, final int argCount, final int maxLength) {
+        final int limit = limitOf(buffer, maxLength);
+        if (messagePattern == null || arguments == null || argCount == 0) {
+            appendLimited(buffer, messagePattern, limit);
+            return;
+        }
+        int escapeCounter = 0;
+        int currentArgument = 0;
+        int i = 0;
+        final int len = messagePattern.length();
+        for (; i < len - 1; i++) { // last char is excluded from the loop
+            if (buffer.length() > limit) {
+                return;
+            }
+            final char curChar = messagePattern.charAt(i);
+            if (curChar == ESCAPE_CHAR) {
+                escapeCounter++;
+            } else {
+                if (isDelimPair(curChar, messagePattern, i)) { // looks ahead one char
+                    i++;
+                    writeEscapedEscapeChars(escapeCounter, buffer);
+                    if (isOdd(escapeCounter) || currentArgument >= argCount) {
+                        writeDelimPair(buffer);
+                    } else {
+                        appendArgument(arguments[currentArgument], buffer, limit);
+                    }
+                    if (!isOdd(escapeCounter)) {
+                        currentArgument++;
+                    }
+                } else {
+                    handleLiteralChar(buffer, escapeCounter, curChar);
+                }
+                escapeCounter = 0;
+            }
+        }
+        if (buffer.length() <= limit) {
+            handleRemainingCharIfAny(messagePattern, len, buffer, escapeCounter, i);
+        }
+    }
+
+    /**
+     * Replace placeholders in the given messagePattern with arguments, stopping once more than {@code maxLength}
+     * characters have been written. The first {@code maxLength} characters are the same as the ones written by
+     * {@link #formatMessage2(StringBuilder, String, Object[], int, int[])}.
+     *
+     * @param buffer the buffer to write the formatted message into
+     * @param messagePattern the message pattern containing placeholders.
+     * @param arguments      the arguments to be used to replace placeholders.
+     * @param maxLength      the number of characters after which formatting can stop.
+     */
+    static void formatMessage2(final StringBuilder buffer, final String messagePattern,
+            final Object[] arguments, final int argCount, final int[] indices, final int maxLength) {
+        final int limit = limitOf(buffer, maxLength);
+        if (messagePattern == null || arguments == null || argCount == 0) {
+            appendLimited(buffer, messagePattern, limit);
+            return;
+        }
+        int previous = 0;
+        for (int i = 0; i < argCount; i++) {
+            appendLimited(buffer, messagePattern, previous, indices[i], limit);
+            if (buffer.length() > limit) {
+                return;
+            }
+            previous = indices[i] + 2;
+            appendArgument(arguments[i], buffer, limit);
+        }
+        appendLimited(buffer, messagePattern, previous, messagePattern.length(), limit);
+    }
+
+    /**
+     * Returns the buffer length after which bounded formatting stops.
+     */
+    static int limitOf(final StringBuilder buffer, final int maxLength) {
+        return maxLength > Integer.MAX_VALUE - buffer.length() ? Integer.MAX_VALUE : buffer.length() + maxLength;
+    }
+
+    /**
+     * Appends the specified text, or "null", but no more than one character beyond the specified buffer length.
+     */
+    static void appendLimited(final StringBuilder buffer, final CharSequence text, final int limit) {
+        final CharSequence value = text == null ? "null" : text;
+        final int room = limit - buffer.length();
+        if (value.length() <= room) {
+            buffer.append(value);
+        } else {
+            appendLimited(buffer, value, 0, value.length(), limit);
+        }
+    }
+
+    /**
+     * Appends the specified range of the text, but no more than one character beyond the specified buffer length.
+     */
+    private static void appendLimited(final StringBuilder buffer, final CharSequence text, final int start,
+            final int end, final int limit) {
+        final int room = limit - buffer.length();
+        if (end - start <= room) {
+            buffer.append(text, start, end);
+        } else if (room >= 0) {
+            buffer.append(text, start, start + room + 1);
+        }
+    }
+
+    /**
+     * Appends an argument, stopping early if it is a String or a {@link BoundedStringBuilderFormattable}.
+     */
+    private static void appendArgument(final Object argument, final StringBuilder buffer, final int limit) {
+        if (argument instanceof String) {
+            appendLimited(buffer, (String) argument, limit);
+        } else if (argument instanceof BoundedStringBuilderFormattable) {
+            ((BoundedStringBuilderFormattable) argument).formatTo(buffer, limit - buffer.length());
+        } else {
+            recursiveDeepToString(argument, buffer, null);
+        }
+    }
+
     /**
      * Returns {@code true} if the specified char and the char at {@code curCharIndex + 1} in the specified message
      * pattern together form a "{}" delimiter pair, returns {@code false} otherwise.
@@ -0,0 +1,37 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.message;
+
+/**
+ * Messages with parameters that can be visited without copying the parameter array, for example to write the format
+ * string and the parameters of a message instead of the formatted text.
+ *
+ * @see ParameterConsumer
+ * @since 2.10.1
+ */
+public interface ParameterVisitable {
+
+    /**
+     * Performs the specified action for each parameter of this message, in order. The state object is passed to the
+     * action so that the action does not need to capture it.
+     *
+     * @param action the action to perform
+     * @param state the state object passed to the action
+     * @param <S> type of the state
+     */
+    <S> void forEachParameter(ParameterConsumer<S> action, S state);
+}
@@ -19,7 +19,7 @@ package org.apache.logging.log4j.message;
 import java.util.Arrays;
 
 import org.apache.logging.log4j.util.Constants;
-import org.apache.logging.log4j.util.StringBuilderFormattable;
+import org.apache.logging.log4j.util.BoundedStringBuilderFormattable;
 import org.apache.logging.log4j.util.StringBuilders;
 
 /**
@@ -30,7 +30,7 @@ import org.apache.logging.log4j.util.StringBuilders;
  * licensed under the LGPL. It has been relicensed here with his permission providing that this attribution remain.
  * </p>
  */
-public class ParameterizedMessage implements Message, StringBuilderFormattable {
+public class ParameterizedMessage implements Message, BoundedStringBuilderFormattable, ParameterVisitable {
 
     // Should this be configurable?
     private static final int DEFAULT_STRING_BUILDER_SIZE = 255;
@@ -178,6 +178,16 @@ public class ParameterizedMessage implements Message, StringBuilderFormattable {
         return argArray;
     }
 
+    @Override
+    public <S> void forEachParameter(final ParameterConsumer<S> action, final S state) {
+        final Object[] parameters = argArray;
+        if (parameters != null) {
+            for (int i = 0; i < parameters.length; i++) {
+                action.accept(parameters[i], i, state);
+            }
+        }
+    }
+
     /**
      * Returns the Throwable that was given as the last argument, if any.
      * It will not survive serialization. The Throwable exists as part of the message
@@ -230,6 +240,22 @@ public class ParameterizedMessage implements Message, StringBuilderFormattable {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @since 2.10.1
+     */
+    @Override
+    public void formatTo(final StringBuilder buffer, final int maxLength) {
+        if (formattedMessage != null) {
+            ParameterFormatter.appendLimited(buffer, formattedMessage, ParameterFormatter.limitOf(buffer, maxLength));
+        } else if (indices[0] < 0) {
+            ParameterFormatter.formatMessage(buffer, messagePattern, argArray, usedCount, maxLength);
+        } else {
+            ParameterFormatter.formatMessage2(buffer, messagePattern, argArray, usedCount, indices, maxLength);
+        }
+    }
+
     /**
      * Replace placeholders in the given messagePattern with arguments.
      *
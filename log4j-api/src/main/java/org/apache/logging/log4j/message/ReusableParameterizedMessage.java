@@ -18,6 +18,7 @@ package org.apache.logging.log4j.message;
 
 import java.util.Arrays;
 
+import org.apache.logging.log4j.util.BoundedStringBuilderFormattable;
 import org.apache.logging.log4j.util.Constants;
 import org.apache.logging.log4j.util.PerformanceSensitive;
 import org.apache.logging.log4j.util.StringBuilders;
@@ -30,7 +31,8 @@ import org.apache.logging.log4j.util.StringBuilders;
  * @since 2.6
  */
 @PerformanceSensitive("allocation")
-public class ReusableParameterizedMessage implements ReusableMessage {
+public class ReusableParameterizedMessage implements ReusableMessage, ParameterVisitable,
+        BoundedStringBuilderFormattable {
 
     private static final int MIN_BUILDER_SIZE = 512;
     private static final int MAX_PARMS = 10;
@@ -268,6 +270,14 @@ public class ReusableParameterizedMessage implements ReusableMessage {
         return getTrimmedParams();
     }
 
+    @Override
+    public <S> void forEachParameter(final ParameterConsumer<S> action, final S state) {
+        final Object[] parameters = getParams();
+        for (int i = 0; i < argCount; i++) {
+            action.accept(parameters[i], i, state);
+        }
+    }
+
     /**
      * Returns the Throwable that was given as the last argument, if any.
      * It will not survive serialization. The Throwable exists as part of the message
@@ -318,6 +328,20 @@ public class ReusableParameterizedMessage implements ReusableMessage {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @since 2.10.1
+     */
+    @Override
+    public void formatTo(final StringBuilder builder, final int maxLength) {
+        if (indices[0] < 0) {
+            ParameterFormatter.formatMessage(builder, messagePattern, getParams(), argCount, maxLength);
+        } else {
+            ParameterFormatter.formatMessage2(builder, messagePattern, getParams(), usedCount, indices, maxLength);
+        }
+    }
+
     /**
      * Sets the reserved flag to true and returns this object.
      * @return this object
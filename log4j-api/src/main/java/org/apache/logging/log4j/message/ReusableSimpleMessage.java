@@ -16,6 +16,7 @@
  */
 package org.apache.logging.log4j.message;
 
+import org.apache.logging.log4j.util.BoundedStringBuilderFormattable;
 import org.apache.logging.log4j.util.PerformanceSensitive;
 
 /**
@@ -23,7 +24,7 @@ import org.apache.logging.log4j.util.PerformanceSensitive;
  * @since 2.6
  */
 @PerformanceSensitive("allocation")
-public class ReusableSimpleMessage implements ReusableMessage, CharSequence {
+public class ReusableSimpleMessage implements ReusableMessage, CharSequence, BoundedStringBuilderFormattable {
     private static final long serialVersionUID = -9199974506498249809L;
     private static Object[] EMPTY_PARAMS = new Object[0];
     private CharSequence charSequence;
@@ -61,6 +62,16 @@ public class ReusableSimpleMessage implements ReusableMessage, CharSequence {
         buffer.append(charSequence);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @since 2.10.1
+     */
+    @Override
+    public void formatTo(final StringBuilder buffer, final int maxLength) {
+        ParameterFormatter.appendLimited(buffer, charSequence, ParameterFormatter.limitOf(buffer, maxLength));
+    }
+
     /**
      * This message does not have any parameters, so this method returns the specified array.
      * @param emptyReplacement the parameter array to return
@@ -19,12 +19,12 @@ package org.apache.logging.log4j.message;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
-import org.apache.logging.log4j.util.StringBuilderFormattable;
+import org.apache.logging.log4j.util.BoundedStringBuilderFormattable;
 
 /**
  * The simplest possible implementation of Message. It just returns the String given as the constructor argument.
  */
-public class SimpleMessage implements Message, StringBuilderFormattable, CharSequence {
+public class SimpleMessage implements Message, BoundedStringBuilderFormattable, CharSequence {
     private static final long serialVersionUID = -8398002534962715992L;
 
     private String message;
@@ -69,6 +69,17 @@ public class SimpleMessage implements Message, StringBuilderFormattable, CharSeq
 	buffer.append(message != null ? message : charSequence);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @since 2.10.1
+     */
+    @Override
+    public void formatTo(final StringBuilder buffer, final int maxLength) {
+        ParameterFormatter.appendLimited(buffer, message != null ? message : charSequence,
+                ParameterFormatter.limitOf(buffer, maxLength));
+    }
+
     /**
      * Returns the message.
      * @return the message.
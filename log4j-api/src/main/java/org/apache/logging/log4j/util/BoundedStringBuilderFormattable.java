@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.util;
+
+/**
+ * Objects that implement this interface can stop converting themselves to text once a number of characters has been
+ * written. Layouts that truncate the text use this to avoid formatting very long messages in full.
+ *
+ * @since 2.10.1
+ */
+public interface BoundedStringBuilderFormattable extends StringBuilderFormattable {
+
+    /**
+     * Writes a text representation of this object into the specified {@code StringBuilder}, stopping once more than
+     * {@code maxLength} characters have been written. The first {@code maxLength} characters written are the same as
+     * the ones written by {@link #formatTo(StringBuilder)}; more characters may be written, and the caller is
+     * responsible for truncating them. If the text is longer than {@code maxLength}, at least {@code maxLength + 1}
+     * characters are written, so callers can detect that the text was truncated.
+     *
+     * @param buffer the StringBuilder to write into
+     * @param maxLength the number of characters after which writing can stop
+     */
+    void formatTo(StringBuilder buffer, int maxLength);
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.util;
+
+import java.util.Arrays;
+
+import org.apache.logging.log4j.spi.AbstractLogger;
+
+/**
+ * <em>Consider this class private.</em> Holds the caller location of the current logging call when it was computed at
+ * build time, so that {@link StackLocatorUtil#calcLocation(String)} does not need to walk the stack.
+ * <p>
+ * Calls to this class are inserted around {@code Logger} method invocations by the {@code log4j-location-maven-plugin}
+ * bytecode post-processor; application code should not call it directly.
+ * </p>
+ *
+ * @since 2.10.1
+ */
+public final class InjectedLocation {
+
+    private static final ThreadLocal<StackTraceElement[]> LOCATIONS = new ThreadLocal<>();
+
+    private InjectedLocation() {
+    }
+
+    /**
+     * Sets the location of the logging call that the current thread is about to make.
+     *
+     * @param location the location of the call site
+     */
+    public static void set(final StackTraceElement location) {
+        final int depth = AbstractLogger.getRecursionDepth();
+        StackTraceElement[] locations = LOCATIONS.get();
+        if (locations == null || locations.length <= depth) {
+            locations = locations == null ? new StackTraceElement[Math.max(4, depth + 1)]
+                    : Arrays.copyOf(locations, depth + 1);
+            LOCATIONS.set(locations);
+        }
+        locations[depth] = location;
+    }
+
+    /**
+     * Clears the location after the logging call returned.
+     */
+    public static void clear() {
+        final StackTraceElement[] locations = LOCATIONS.get();
+        final int depth = AbstractLogger.getRecursionDepth();
+        if (locations != null && depth < locations.length) {
+            locations[depth] = null;
+        }
+    }
+
+    /**
+     * Returns the location of the current logging call if it was injected at build time, and clears it.
+     * <p>
+     * Locations are kept per {@linkplain AbstractLogger#getRecursionDepth() recursion level}, so a location is only
+     * returned to the logging call it was set for. Logging calls made while that call runs, for example from the
+     * {@code toString()} method of a parameter or from an appender, are one level deeper: they neither see nor
+     * overwrite the location of the outer call.
+     * </p>
+     *
+     * @return the injected location or {@code null}
+     */
+    static StackTraceElement take() {
+        final StackTraceElement[] locations = LOCATIONS.get();
+        if (locations == null) {
+            return null;
+        }
+        final int depth = Math.max(0, AbstractLogger.getRecursionDepth() - 1);
+        if (depth >= locations.length) {
+            return null;
+        }
+        final StackTraceElement location = locations[depth];
+        locations[depth] = null;
+        return location;
+    }
+}
@@ -68,6 +68,10 @@ public final class StackLocatorUtil {
     }
 
     public static StackTraceElement calcLocation(final String fqcnOfLogger) {
+        final StackTraceElement injected = InjectedLocation.take();
+        if (injected != null) {
+            return injected;
+        }
         return stackLocator.calcLocation(fqcnOfLogger);
     }
 }
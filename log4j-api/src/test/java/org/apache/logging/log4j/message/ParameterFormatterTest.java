@@ -41,6 +41,42 @@ public class ParameterFormatterTest {
         assertEquals(5, ParameterFormatter.countArgumentPlaceholders("{}{}{}a{}b{}"));
     }
 
+    private static void assertBoundedFormat(final String pattern, final Object... args) {
+        final String expected = ParameterFormatter.format(pattern, args);
+        final int[] indices = new int[Math.max(1, args.length)];
+        final int count = ParameterFormatter.countArgumentPlaceholders2(pattern, indices);
+        for (int maxLength = 0; maxLength <= expected.length() + 1; maxLength++) {
+            final StringBuilder escaped = new StringBuilder("x");
+            ParameterFormatter.formatMessage(escaped, pattern, args, args.length, maxLength);
+            assertBoundedPrefix(expected, escaped, maxLength);
+            if (indices[0] >= 0) {
+                final StringBuilder plain = new StringBuilder("x");
+                ParameterFormatter.formatMessage2(plain, pattern, args, Math.min(count, args.length), indices,
+                        maxLength);
+                assertBoundedPrefix(expected, plain, maxLength);
+            }
+        }
+    }
+
+    private static void assertBoundedPrefix(final String expected, final StringBuilder actual, final int maxLength) {
+        final String text = actual.substring(1);
+        if (expected.length() <= maxLength) {
+            assertEquals(expected, text);
+        } else {
+            assertTrue(text, text.length() > maxLength);
+            assertEquals(expected.substring(0, maxLength + 1), text.substring(0, maxLength + 1));
+        }
+    }
+
+    @Test
+    public void testFormatMessageWithMaxLength() {
+        assertBoundedFormat("Test message {}{} {}", "a", "bbbbbbbbbb", "c");
+        assertBoundedFormat("Test message {} {}", "a", null);
+        assertBoundedFormat("Test message \\{}{} {}", "a", "b", "c");
+        assertBoundedFormat("{}{}", new StringBuilder("builder"), 12345);
+        assertBoundedFormat("no placeholders");
+    }
+
     @Test
     public void testFormat3StringArgs() {
         final String testMsg = "Test message {}{} {}";
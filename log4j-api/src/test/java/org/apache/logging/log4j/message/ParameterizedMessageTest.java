@@ -16,6 +16,10 @@
  */
 package org.apache.logging.log4j.message;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import org.apache.logging.log4j.junit.Mutable;
 import org.junit.Test;
 
@@ -142,4 +146,18 @@ public class ParameterizedMessageTest {
         final String after = msg.getFormattedMessage();
         assertEquals("Should not change after rendered once", "Test message XYZ", after);
     }
+
+    @Test
+    public void testForEachParameter() {
+        final ParameterizedMessage msg = new ParameterizedMessage("{} {}", "a", 2);
+        final List<Object> visited = new ArrayList<>();
+        msg.forEachParameter(new ParameterConsumer<List<Object>>() {
+            @Override
+            public void accept(final Object parameter, final int parameterIndex, final List<Object> state) {
+                assertEquals(state.size(), parameterIndex);
+                state.add(parameter);
+            }
+        }, visited);
+        assertEquals(Arrays.asList("a", 2), visited);
+    }
 }
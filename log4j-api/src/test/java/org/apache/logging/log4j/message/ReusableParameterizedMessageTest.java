@@ -16,6 +16,10 @@
  */
 package org.apache.logging.log4j.message;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import org.apache.logging.log4j.junit.Mutable;
 import org.junit.Test;
 
@@ -144,4 +148,26 @@ public class ReusableParameterizedMessageTest {
         msg.set(testMsg, "msgs", EXCEPTION2);
         assertSame(EXCEPTION2, msg.getThrowable());
     }
+
+    @Test
+    public void testForEachParameter() {
+        final ReusableParameterizedMessage msg = new ReusableParameterizedMessage();
+        final List<Object> visited = new ArrayList<>();
+        final ParameterConsumer<List<Object>> collector = new ParameterConsumer<List<Object>>() {
+            @Override
+            public void accept(final Object parameter, final int parameterIndex, final List<Object> state) {
+                assertEquals(state.size(), parameterIndex);
+                state.add(parameter);
+            }
+        };
+        msg.set("{} {} {}", "a", null, 3);
+        msg.forEachParameter(collector, visited);
+        assertEquals(Arrays.asList("a", null, 3), visited);
+
+        visited.clear();
+        final Object[] varargs = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11};
+        msg.set("{}", varargs);
+        msg.forEachParameter(collector, visited);
+        assertEquals(Arrays.asList(varargs), visited);
+    }
 }
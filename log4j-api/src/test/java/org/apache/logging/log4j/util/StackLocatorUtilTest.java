@@ -97,4 +97,18 @@ public class StackLocatorUtilTest {
         assertEquals("Incorrect class", this.getClass(), clazz);
     }
 
+    @Test
+    public void testCalcLocationReturnsInjectedLocation() {
+        final StackTraceElement injected = new StackTraceElement("com.example.Foo", "bar", "Foo.java", 42);
+        InjectedLocation.set(injected);
+        try {
+            assertSame(injected, StackLocatorUtil.calcLocation(StackLocatorUtilTest.class.getName()));
+            assertNotSame("location should only be read once", injected,
+                    StackLocatorUtil.calcLocation(StackLocatorUtilTest.class.getName()));
+        } finally {
+            InjectedLocation.clear();
+        }
+        assertNotSame(injected, StackLocatorUtil.calcLocation(StackLocatorUtilTest.class.getName()));
+    }
+
 }
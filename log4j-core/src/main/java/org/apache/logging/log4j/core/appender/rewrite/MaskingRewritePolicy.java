@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.appender.rewrite;
+
+import java.util.regex.Pattern;
+
+import org.apache.logging.log4j.core.Core;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginElement;
+import org.apache.logging.log4j.core.config.plugins.PluginFactory;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.core.pattern.MaskingAutomaton;
+import org.apache.logging.log4j.core.pattern.RegexReplacement;
+import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.apache.logging.log4j.status.StatusLogger;
+import org.apache.logging.log4j.util.StringBuilderFormattable;
+
+/**
+ * Masks the matches of regular expressions in the formatted message of log events.
+ * <p>
+ * Each {@code Replace} element gives a regular expression and the text to replace its matches with. As with
+ * {@code RegexReplacement}, the replacement may refer to groups with {@code $n}; such a replacement replaces the
+ * whole match. If the replacement has no group reference and the regular expression has a capturing group, only the
+ * text of the first group is replaced. All regular expressions are applied in a single pass over the message, see
+ * {@link MaskingAutomaton}. Events whose message contains no match
+ * are not rewritten.
+ * </p>
+ *
+ * @since 2.10.1
+ */
+@Plugin(name = "MaskingRewritePolicy", category = Core.CATEGORY_NAME, elementType = "rewritePolicy", printObject = true)
+public final class MaskingRewritePolicy implements RewritePolicy {
+
+    private final MaskingAutomaton automaton;
+
+    private MaskingRewritePolicy(final MaskingAutomaton automaton) {
+        this.automaton = automaton;
+    }
+
+    /**
+     * Creates a policy that masks the specified regular expressions.
+     *
+     * @param replacements The regular expressions to mask and their replacements.
+     * @return a new MaskingRewritePolicy, or {@code null} if no replacement was given or a replacement is invalid
+     */
+    @PluginFactory
+    public static MaskingRewritePolicy createPolicy(
+            @PluginElement("Replace") final RegexReplacement[] replacements) {
+        if (replacements == null || replacements.length == 0) {
+            StatusLogger.getLogger().error("MaskingRewritePolicy requires at least one Replace element");
+            return null;
+        }
+        final Pattern[] patterns = new Pattern[replacements.length];
+        final String[] substitutions = new String[replacements.length];
+        for (int i = 0; i < replacements.length; i++) {
+            patterns[i] = replacements[i].getPattern();
+            substitutions[i] = replacements[i].getSubstitution() == null ? "" : replacements[i].getSubstitution();
+        }
+        try {
+            return new MaskingRewritePolicy(new MaskingAutomaton(patterns, substitutions));
+        } catch (final IllegalArgumentException ex) {
+            StatusLogger.getLogger().error("Invalid replacement in MaskingRewritePolicy: {}", ex.getMessage(), ex);
+            return null;
+        }
+    }
+
+    @Override
+    public LogEvent rewrite(final LogEvent source) {
+        final Message msg = source.getMessage();
+        if (msg == null) {
+            return source;
+        }
+        final StringBuilder text = new StringBuilder();
+        if (msg instanceof StringBuilderFormattable) {
+            ((StringBuilderFormattable) msg).formatTo(text);
+        } else {
+            text.append(msg.getFormattedMessage());
+        }
+        if (!automaton.mask(text, 0)) {
+            return source;
+        }
+        return new Log4jLogEvent.Builder(source).setMessage(new SimpleMessage(text.toString())).build();
+    }
+
+    @Override
+    public String toString() {
+        return automaton.toString();
+    }
+}
@@ -327,6 +327,7 @@ public class AsyncLogger extends Logger implements EventTranslatorVararg<RingBuf
         final EventRoute eventRoute = loggerDisruptor.getEventRoute(level);
         switch (eventRoute) {
             case ENQUEUE:
+                final long start = System.nanoTime();
                 loggerDisruptor.getDisruptor().getRingBuffer().publishEvent(this,
                         this, // asyncLogger: 0
                         location, // location: 1
@@ -335,6 +336,7 @@ public class AsyncLogger extends Logger implements EventTranslatorVararg<RingBuf
                         marker, // 4
                         msg, // 5
                         thrown); // 6
+                loggerDisruptor.getMetrics().recordBlockedPublish(System.nanoTime() - start);
                 break;
             case SYNCHRONOUS:
                 logMessageInCurrentThread(fqcn, level, marker, msg, thrown);
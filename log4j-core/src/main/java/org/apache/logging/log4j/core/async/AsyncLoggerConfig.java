@@ -37,6 +37,7 @@ import org.apache.logging.log4j.core.config.plugins.PluginConfiguration;
 import org.apache.logging.log4j.core.config.plugins.PluginElement;
 import org.apache.logging.log4j.core.config.plugins.PluginFactory;
 import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.core.jmx.AsyncQueueMetricsAdmin;
 import org.apache.logging.log4j.core.jmx.RingBufferAdmin;
 import org.apache.logging.log4j.core.util.Booleans;
 import org.apache.logging.log4j.message.Message;
@@ -159,6 +160,45 @@ public class AsyncLoggerConfig extends LoggerConfig {
         return delegate.createRingBufferAdmin(contextName, getName());
     }
 
+    /**
+     * Creates and returns a new {@code AsyncQueueMetricsAdmin} that exposes the backpressure and latency
+     * statistics of the ringbuffer of this {@code AsyncLoggerConfig}.
+     *
+     * @param contextName name of the {@code LoggerContext}
+     * @return a new {@code AsyncQueueMetricsAdmin}, or {@code null} if the delegate does not keep metrics
+     * @see AsyncLoggerConfigMetricsDelegate
+     * @since 2.10.1
+     */
+    public AsyncQueueMetricsAdmin createAsyncQueueMetricsAdmin(final String contextName) {
+        if (delegate instanceof AsyncLoggerConfigMetricsDelegate) {
+            return ((AsyncLoggerConfigMetricsDelegate) delegate).createAsyncQueueMetricsAdmin(contextName, getName());
+        }
+        return null;
+    }
+
+    /**
+     * Factory method to create a LoggerConfig.
+     *
+     * @param additivity True if additive, false otherwise.
+     * @param levelName The Level to be associated with the Logger.
+     * @param loggerName The name of the Logger.
+     * @param includeLocation "true" if location should be passed downstream
+     * @param refs An array of Appender names.
+     * @param properties Properties to pass to the Logger.
+     * @param config The Configuration.
+     * @param filter A Filter.
+     * @return A new LoggerConfig.
+     * @deprecated Deprecated in 2.10.1; use
+     *             {@link #createLogger(String, String, String, String, String, AppenderRef[], Property[], Configuration, Filter)}
+     */
+    @Deprecated
+    public static LoggerConfig createLogger(final String additivity, final String levelName, final String loggerName,
+            final String includeLocation, final AppenderRef[] refs, final Property[] properties,
+            final Configuration config, final Filter filter) {
+        return createLogger(additivity, levelName, loggerName, includeLocation, null, refs, properties, config,
+                filter);
+    }
+
     /**
      * Factory method to create a LoggerConfig.
      *
@@ -166,11 +206,13 @@ public class AsyncLoggerConfig extends LoggerConfig {
      * @param levelName The Level to be associated with the Logger.
      * @param loggerName The name of the Logger.
      * @param includeLocation "true" if location should be passed downstream
+     * @param shareLayoutEncoding "true" if appenders with equivalent layouts share the encoded bytes of an event
      * @param refs An array of Appender names.
      * @param properties Properties to pass to the Logger.
      * @param config The Configuration.
      * @param filter A Filter.
      * @return A new LoggerConfig.
+     * @since 2.10.1
      */
     @PluginFactory
     public static LoggerConfig createLogger(
@@ -178,6 +220,7 @@ public class AsyncLoggerConfig extends LoggerConfig {
             @PluginAttribute("level") final String levelName,
             @PluginAttribute("name") final String loggerName,
             @PluginAttribute("includeLocation") final String includeLocation,
+            @PluginAttribute("shareLayoutEncoding") final String shareLayoutEncoding,
             @PluginElement("AppenderRef") final AppenderRef[] refs,
             @PluginElement("Properties") final Property[] properties,
             @PluginConfiguration final Configuration config,
@@ -200,8 +243,10 @@ public class AsyncLoggerConfig extends LoggerConfig {
         final String name = loggerName.equals(LoggerConfig.ROOT) ? Strings.EMPTY : loggerName;
         final boolean additive = Booleans.parseBoolean(additivity, true);
 
-        return new AsyncLoggerConfig(name, appenderRefs, filter, level,
+        final LoggerConfig loggerConfig = new AsyncLoggerConfig(name, appenderRefs, filter, level,
                 additive, properties, config, includeLocation(includeLocation));
+        loggerConfig.setShareLayoutEncoding(shareLayoutEncoding(shareLayoutEncoding));
+        return loggerConfig;
     }
 
     // Note: for asynchronous loggers, includeLocation default is FALSE
@@ -215,11 +260,26 @@ public class AsyncLoggerConfig extends LoggerConfig {
     @Plugin(name = "asyncRoot", category = Core.CATEGORY_NAME, printObject = true)
     public static class RootLogger extends LoggerConfig {
 
+        /**
+         * @deprecated Deprecated in 2.10.1; use
+         *             {@link #createLogger(String, String, String, String, AppenderRef[], Property[], Configuration, Filter)}
+         */
+        @Deprecated
+        public static LoggerConfig createLogger(final String additivity, final String levelName,
+                final String includeLocation, final AppenderRef[] refs, final Property[] properties,
+                final Configuration config, final Filter filter) {
+            return createLogger(additivity, levelName, includeLocation, null, refs, properties, config, filter);
+        }
+
+        /**
+         * @since 2.10.1
+         */
         @PluginFactory
         public static LoggerConfig createLogger(
                 @PluginAttribute("additivity") final String additivity,
                 @PluginAttribute("level") final String levelName,
                 @PluginAttribute("includeLocation") final String includeLocation,
+                @PluginAttribute("shareLayoutEncoding") final String shareLayoutEncoding,
                 @PluginElement("AppenderRef") final AppenderRef[] refs,
                 @PluginElement("Properties") final Property[] properties,
                 @PluginConfiguration final Configuration config,
@@ -236,9 +296,11 @@ public class AsyncLoggerConfig extends LoggerConfig {
             }
             final boolean additive = Booleans.parseBoolean(additivity, true);
 
-            return new AsyncLoggerConfig(LogManager.ROOT_LOGGER_NAME,
+            final LoggerConfig loggerConfig = new AsyncLoggerConfig(LogManager.ROOT_LOGGER_NAME,
                     appenderRefs, filter, level, additive, properties, config,
                     AsyncLoggerConfig.includeLocation(includeLocation));
+            loggerConfig.setShareLayoutEncoding(shareLayoutEncoding(shareLayoutEncoding));
+            return loggerConfig;
         }
     }
 }
@@ -26,6 +26,7 @@ import org.apache.logging.log4j.core.impl.Log4jLogEvent;
 import org.apache.logging.log4j.core.impl.LogEventFactory;
 import org.apache.logging.log4j.core.impl.MutableLogEvent;
 import org.apache.logging.log4j.core.impl.ReusableLogEventFactory;
+import org.apache.logging.log4j.core.jmx.AsyncQueueMetricsAdmin;
 import org.apache.logging.log4j.core.jmx.RingBufferAdmin;
 import org.apache.logging.log4j.core.util.Log4jThreadFactory;
 import org.apache.logging.log4j.core.util.Throwables;
@@ -54,11 +55,16 @@ import com.lmax.disruptor.dsl.ProducerType;
  * This class serves to make the dependency on the Disruptor optional, so that these classes are only loaded when the
  * {@code AsyncLoggerConfig} is actually used.
  */
-public class AsyncLoggerConfigDisruptor extends AbstractLifeCycle implements AsyncLoggerConfigDelegate {
+public class AsyncLoggerConfigDisruptor extends AbstractLifeCycle implements AsyncLoggerConfigDelegate,
+        AsyncLoggerConfigMetricsDelegate {
 
     private static final int MAX_DRAIN_ATTEMPTS_BEFORE_SHUTDOWN = 200;
     private static final int SLEEP_MILLIS_BETWEEN_DRAIN_ATTEMPTS = 50;
 
+    /** Whether the time an event is published is recorded, see {@link AsyncQueueMetrics}. */
+    private static final boolean RECORD_ENQUEUE_TIME =
+            AsyncQueueMetrics.isLatencyEnabled("AsyncLoggerConfig.LatencyMetrics");
+
     /**
      * RingBuffer events contain all information necessary to perform the work in a separate thread.
      */
@@ -72,6 +78,7 @@ public class AsyncLoggerConfigDisruptor extends AbstractLifeCycle implements Asy
 
         private AsyncLoggerConfig loggerConfig;
         private LogEvent event;
+        private long enqueueNanoTime;
 
         /**
          * Release references held by ring buffer to allow objects to be garbage-collected.
@@ -96,9 +103,14 @@ public class AsyncLoggerConfigDisruptor extends AbstractLifeCycle implements Asy
      */
     private static class Log4jEventWrapperHandler implements SequenceReportingEventHandler<Log4jEventWrapper> {
         private static final int NOTIFY_PROGRESS_THRESHOLD = 50;
+        private final AsyncQueueMetrics metrics;
         private Sequence sequenceCallback;
         private int counter;
 
+        Log4jEventWrapperHandler(final AsyncQueueMetrics metrics) {
+            this.metrics = metrics;
+        }
+
         @Override
         public void setSequenceCallback(final Sequence sequenceCallback) {
             this.sequenceCallback = sequenceCallback;
@@ -107,8 +119,10 @@ public class AsyncLoggerConfigDisruptor extends AbstractLifeCycle implements Asy
         @Override
         public void onEvent(final Log4jEventWrapper event, final long sequence, final boolean endOfBatch)
                 throws Exception {
+            final long start = metrics.nanoTimeIfEnabled();
             event.event.setEndOfBatch(endOfBatch);
             event.loggerConfig.asyncCallAppenders(event.event);
+            metrics.recordProcessed(event.enqueueNanoTime, start, endOfBatch);
             event.clear();
 
             notifyIntermediateProgress(sequence);
@@ -159,6 +173,7 @@ public class AsyncLoggerConfigDisruptor extends AbstractLifeCycle implements Asy
                 final LogEvent logEvent, final AsyncLoggerConfig loggerConfig) {
             ringBufferElement.event = logEvent;
             ringBufferElement.loggerConfig = loggerConfig;
+            ringBufferElement.enqueueNanoTime = RECORD_ENQUEUE_TIME ? System.nanoTime() : 0;
         }
     };
 
@@ -173,6 +188,7 @@ public class AsyncLoggerConfigDisruptor extends AbstractLifeCycle implements Asy
                 final LogEvent logEvent, final AsyncLoggerConfig loggerConfig) {
             ((MutableLogEvent) ringBufferElement.event).initFrom(logEvent);
             ringBufferElement.loggerConfig = loggerConfig;
+            ringBufferElement.enqueueNanoTime = RECORD_ENQUEUE_TIME ? System.nanoTime() : 0;
         }
     };
 
@@ -185,6 +201,7 @@ public class AsyncLoggerConfigDisruptor extends AbstractLifeCycle implements Asy
     private EventFactory<Log4jEventWrapper> factory;
     private EventTranslatorTwoArg<Log4jEventWrapper, LogEvent, AsyncLoggerConfig> translator;
     private volatile boolean alreadyLoggedWarning = false;
+    private final AsyncQueueMetrics metrics = new AsyncQueueMetrics(RECORD_ENQUEUE_TIME);
 
     public AsyncLoggerConfigDisruptor() {
     }
@@ -231,7 +248,7 @@ public class AsyncLoggerConfigDisruptor extends AbstractLifeCycle implements Asy
         final ExceptionHandler<Log4jEventWrapper> errorHandler = DisruptorUtil.getAsyncLoggerConfigExceptionHandler();
         disruptor.setDefaultExceptionHandler(errorHandler);
 
-        final Log4jEventWrapperHandler[] handlers = {new Log4jEventWrapperHandler()};
+        final Log4jEventWrapperHandler[] handlers = {new Log4jEventWrapperHandler(metrics)};
         disruptor.handleEventsWith(handlers);
 
         LOGGER.debug("Starting AsyncLoggerConfig disruptor for this configuration with ringbufferSize={}, "
@@ -298,7 +315,9 @@ public class AsyncLoggerConfigDisruptor extends AbstractLifeCycle implements Asy
         if (remainingCapacity < 0) {
             return EventRoute.DISCARD;
         }
-        return asyncQueueFullPolicy.getRoute(backgroundThreadId, logLevel);
+        final EventRoute result = asyncQueueFullPolicy.getRoute(backgroundThreadId, logLevel);
+        metrics.recordQueueFull(result);
+        return result;
     }
 
     private int remainingDisruptorCapacity() {
@@ -369,7 +388,9 @@ public class AsyncLoggerConfigDisruptor extends AbstractLifeCycle implements Asy
     }
 
     private void enqueue(final LogEvent logEvent, final AsyncLoggerConfig asyncLoggerConfig) {
+        final long start = System.nanoTime();
         disruptor.getRingBuffer().publishEvent(translator, logEvent, asyncLoggerConfig);
+        metrics.recordBlockedPublish(System.nanoTime() - start);
     }
 
     @Override
@@ -402,4 +423,17 @@ public class AsyncLoggerConfigDisruptor extends AbstractLifeCycle implements Asy
     public RingBufferAdmin createRingBufferAdmin(final String contextName, final String loggerConfigName) {
         return RingBufferAdmin.forAsyncLoggerConfig(disruptor.getRingBuffer(), contextName, loggerConfigName);
     }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * org.apache.logging.log4j.core.async.AsyncLoggerConfigMetricsDelegate#createAsyncQueueMetricsAdmin(java.lang.String,
+     * java.lang.String)
+     */
+    @Override
+    public AsyncQueueMetricsAdmin createAsyncQueueMetricsAdmin(final String contextName,
+            final String loggerConfigName) {
+        return AsyncQueueMetricsAdmin.forAsyncLoggerConfig(metrics, contextName, loggerConfigName);
+    }
 }
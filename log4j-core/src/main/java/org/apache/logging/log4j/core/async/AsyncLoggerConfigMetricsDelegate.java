@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.async;
+
+import org.apache.logging.log4j.core.jmx.AsyncQueueMetricsAdmin;
+
+/**
+ * Optional interface of an {@link AsyncLoggerConfigDelegate} that keeps {@link AsyncQueueMetrics} about its queue.
+ * {@link AsyncLoggerConfig} only exposes the metrics of delegates that implement it, so that implementations of
+ * {@code AsyncLoggerConfigDelegate} that predate the metrics keep working.
+ *
+ * @since 2.10.1
+ */
+public interface AsyncLoggerConfigMetricsDelegate {
+
+    /**
+     * Creates and returns a new {@code AsyncQueueMetricsAdmin} that exposes the backpressure and latency statistics of
+     * the ringbuffer of this {@code AsyncLoggerConfig}.
+     *
+     * @param contextName name of the {@code LoggerContext}
+     * @param loggerConfigName name of the logger config
+     * @return the AsyncQueueMetricsAdmin that exposes the statistics
+     */
+    AsyncQueueMetricsAdmin createAsyncQueueMetricsAdmin(final String contextName, final String loggerConfigName);
+}
@@ -23,6 +23,7 @@ import org.apache.logging.log4j.core.Logger;
 import org.apache.logging.log4j.core.LoggerContext;
 import org.apache.logging.log4j.core.config.Configuration;
 import org.apache.logging.log4j.core.config.DefaultConfiguration;
+import org.apache.logging.log4j.core.jmx.AsyncQueueMetricsAdmin;
 import org.apache.logging.log4j.core.jmx.RingBufferAdmin;
 import org.apache.logging.log4j.message.MessageFactory;
 import org.apache.logging.log4j.status.StatusLogger;
@@ -117,6 +118,17 @@ public class AsyncLoggerContext extends LoggerContext {
         return loggerDisruptor.createRingBufferAdmin(getName());
     }
 
+    /**
+     * Creates and returns a new {@code AsyncQueueMetricsAdmin} that exposes the backpressure and latency statistics of
+     * the queue of the {@code AsyncLogger}s.
+     *
+     * @return a new {@code AsyncQueueMetricsAdmin}
+     * @since 2.10.1
+     */
+    public AsyncQueueMetricsAdmin createAsyncQueueMetricsAdmin() {
+        return loggerDisruptor.createAsyncQueueMetricsAdmin(getName());
+    }
+
     /**
      * Signals this context whether it is allowed to use ThreadLocal objects for efficiency.
      * @param useThreadLocals whether this context is allowed to use ThreadLocal objects
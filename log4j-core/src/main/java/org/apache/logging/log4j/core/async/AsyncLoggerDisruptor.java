@@ -22,6 +22,7 @@ import java.util.concurrent.TimeUnit;
 
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.core.AbstractLifeCycle;
+import org.apache.logging.log4j.core.jmx.AsyncQueueMetricsAdmin;
 import org.apache.logging.log4j.core.jmx.RingBufferAdmin;
 import org.apache.logging.log4j.core.util.Log4jThreadFactory;
 import org.apache.logging.log4j.core.util.Throwables;
@@ -44,6 +45,9 @@ class AsyncLoggerDisruptor extends AbstractLifeCycle {
     private static final int MAX_DRAIN_ATTEMPTS_BEFORE_SHUTDOWN = 200;
 
     private volatile Disruptor<RingBufferLogEvent> disruptor;
+    private volatile StagingBufferDispatcher stagingDispatcher;
+    private final AsyncQueueMetrics metrics = new AsyncQueueMetrics(RingBufferLogEvent.RECORD_ENQUEUE_TIME);
+    private AsyncQueueMetrics.Consumer stagingMetrics;
     private String contextName;
 
     private boolean useThreadLocalTranslator = true;
@@ -100,7 +104,7 @@ class AsyncLoggerDisruptor extends AbstractLifeCycle {
         final ExceptionHandler<RingBufferLogEvent> errorHandler = DisruptorUtil.getAsyncLoggerExceptionHandler();
         disruptor.setDefaultExceptionHandler(errorHandler);
 
-        final RingBufferLogEventHandler[] handlers = {new RingBufferLogEventHandler()};
+        final RingBufferLogEventHandler[] handlers = {new RingBufferLogEventHandler(metrics)};
         disruptor.handleEventsWith(handlers);
 
         LOGGER.debug("[{}] Starting AsyncLogger disruptor for this context with ringbufferSize={}, waitStrategy={}, "
@@ -108,6 +112,19 @@ class AsyncLoggerDisruptor extends AbstractLifeCycle {
                 .getClass().getSimpleName(), errorHandler);
         disruptor.start();
 
+        final int stagingBufferSize = DisruptorUtil.calculateStagingBufferSize("AsyncLogger.StagingBufferSize");
+        if (stagingBufferSize > 0) {
+            LOGGER.debug("[{}] Starting AsyncLogger per-thread staging buffers with stagingBufferSize={}...",
+                    contextName, stagingBufferSize);
+            if (stagingMetrics == null) {
+                stagingMetrics = metrics.newConsumer();
+            }
+            final StagingBufferDispatcher dispatcher = new StagingBufferDispatcher(contextName, stagingBufferSize,
+                    errorHandler, stagingMetrics);
+            dispatcher.start();
+            stagingDispatcher = dispatcher;
+        }
+
         LOGGER.trace("[{}] AsyncLoggers use a {} translator", contextName, useThreadLocalTranslator ? "threadlocal"
                 : "vararg");
         super.start();
@@ -130,6 +147,16 @@ class AsyncLoggerDisruptor extends AbstractLifeCycle {
         // We must guarantee that publishing to the RingBuffer has stopped before we call disruptor.shutdown().
         disruptor = null; // client code fails with NPE if log after stop. This is by design.
 
+        final StagingBufferDispatcher dispatcher = stagingDispatcher;
+        if (dispatcher != null) {
+            stagingDispatcher = null;
+            // the staging thread may still hand events to AsyncLoggers, so drain it before the disruptor
+            if (!dispatcher.stop(timeout, timeUnit)) {
+                LOGGER.warn("[{}] AsyncLoggerDisruptor: staging buffers not drained after {} {}", contextName,
+                        timeout, timeUnit);
+            }
+        }
+
         // Calling Disruptor.shutdown() will wait until all enqueued events are fully processed,
         // but this waiting happens in a busy-spin. To avoid (postpone) wasting CPU,
         // we sleep in short chunks, up to 10 seconds, waiting for the ringbuffer to drain.
@@ -176,12 +203,32 @@ class AsyncLoggerDisruptor extends AbstractLifeCycle {
         return RingBufferAdmin.forAsyncLogger(ring, jmxContextName);
     }
 
+    /**
+     * Creates and returns a new {@code AsyncQueueMetricsAdmin} that exposes the backpressure and latency statistics of
+     * the {@code AsyncLogger} queue.
+     *
+     * @param jmxContextName name of the {@code AsyncLoggerContext}
+     * @return a new {@code AsyncQueueMetricsAdmin}
+     * @since 2.10.1
+     */
+    public AsyncQueueMetricsAdmin createAsyncQueueMetricsAdmin(final String jmxContextName) {
+        return AsyncQueueMetricsAdmin.forAsyncLogger(metrics, jmxContextName);
+    }
+
+    AsyncQueueMetrics getMetrics() {
+        return metrics;
+    }
+
     EventRoute getEventRoute(final Level logLevel) {
         final int remainingCapacity = remainingDisruptorCapacity();
         if (remainingCapacity < 0) {
             return EventRoute.DISCARD;
         }
-        return asyncQueueFullPolicy.getRoute(backgroundThreadId, logLevel);
+        final StagingBufferDispatcher dispatcher = stagingDispatcher;
+        final long threadId = dispatcher == null ? backgroundThreadId : dispatcher.getThreadId();
+        final EventRoute result = asyncQueueFullPolicy.getRoute(threadId, logLevel);
+        metrics.recordQueueFull(result);
+        return result;
     }
 
     private int remainingDisruptorCapacity() {
@@ -203,6 +250,10 @@ class AsyncLoggerDisruptor extends AbstractLifeCycle {
     }
 
     public boolean tryPublish(final RingBufferLogEventTranslator translator) {
+        final StagingBufferDispatcher dispatcher = stagingDispatcher;
+        if (dispatcher != null) {
+            return dispatcher.tryPublish(translator);
+        }
         try {
             return disruptor.getRingBuffer().tryPublishEvent(translator);
         } catch (final NullPointerException npe) {
@@ -215,11 +266,25 @@ class AsyncLoggerDisruptor extends AbstractLifeCycle {
     }
 
     void enqueueLogMessageInfo(final RingBufferLogEventTranslator translator) {
+        final StagingBufferDispatcher dispatcher = stagingDispatcher;
+        if (dispatcher != null) {
+            // keep the events of this thread in order: wait for space in its staging buffer
+            final long start = System.nanoTime();
+            final boolean published = dispatcher.publish(translator);
+            metrics.recordBlockedPublish(System.nanoTime() - start);
+            if (!published) {
+                LOGGER.warn("[{}] Ignoring log event that could not be staged: {} [{}] {}", contextName,
+                        translator.level, translator.loggerName, translator.message.getFormattedMessage());
+            }
+            return;
+        }
         try {
             // Note: we deliberately access the volatile disruptor field afresh here.
             // Avoiding this and using an older reference could result in adding a log event to the disruptor after it
             // was shut down, which could cause the publishEvent method to hang and never return.
+            final long start = System.nanoTime();
             disruptor.publishEvent(translator);
+            metrics.recordBlockedPublish(System.nanoTime() - start);
         } catch (final NullPointerException npe) {
             // LOG4J2-639: catch NPE if disruptor field was set to null in stop()
             LOGGER.warn("[{}] Ignoring log event after log4j was shut down: {} [{}] {}", contextName,
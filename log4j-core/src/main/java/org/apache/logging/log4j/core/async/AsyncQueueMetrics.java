@@ -0,0 +1,349 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.async;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.util.PropertiesUtil;
+
+/**
+ * Backpressure and latency statistics of the queue between application threads and the background thread of async
+ * loggers. Instances are exposed via JMX by {@link org.apache.logging.log4j.core.jmx.AsyncQueueMetricsAdmin}.
+ * <p>
+ * Counters on the producer side (queue full, blocked publish) are only updated when the queue is full, so they do not
+ * add contention in the common case. Event counts, batch sizes and histograms are kept per background thread in a
+ * {@link Consumer}, which is updated by that thread alone without locks or allocation. The getters merge the values of
+ * all consumers. The background thread of the queue uses {@link #recordProcessed(long, long, boolean)}; other threads
+ * that process events of the same queue, like the staging buffer dispatcher, obtain their own consumer with
+ * {@link #newConsumer()}.
+ * </p>
+ * <p>
+ * Recording the time an event waits in the queue (and the time the background thread spends processing it) requires a
+ * call to {@link System#nanoTime()} on both sides of the queue, so it is disabled unless the system property
+ * {@code AsyncLogger.LatencyMetrics} (for async loggers) or {@code AsyncLoggerConfig.LatencyMetrics} (for async logger
+ * configs) is {@code true}.
+ * </p>
+ *
+ * @since 2.10.1
+ */
+public final class AsyncQueueMetrics {
+
+    private final boolean latencyEnabled;
+
+    // producer side, only updated on the slow path
+    private final AtomicLong queueFullCount = new AtomicLong();
+    private final AtomicLong enqueuedWhenFullCount = new AtomicLong();
+    private final AtomicLong synchronousCount = new AtomicLong();
+    private final AtomicLong discardedCount = new AtomicLong();
+    private final AtomicLong blockedPublishNanos = new AtomicLong();
+    private final AtomicLong maxBlockedPublishNanos = new AtomicLong();
+
+    // consumer side, one single-writer instance per background thread
+    private final Consumer queueConsumer;
+    private volatile Consumer[] consumers;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param latencyEnabled whether queue latency and service time histograms are recorded
+     */
+    AsyncQueueMetrics(final boolean latencyEnabled) {
+        this.latencyEnabled = latencyEnabled;
+        this.queueConsumer = new Consumer(latencyEnabled);
+        this.consumers = new Consumer[] {queueConsumer};
+    }
+
+    /**
+     * Creates the statistics of another background thread that processes events of this queue. The values it records
+     * are included in the values returned by this instance.
+     *
+     * @return a new consumer that must only be updated by a single thread
+     */
+    synchronized Consumer newConsumer() {
+        final Consumer result = new Consumer(latencyEnabled);
+        final Consumer[] copy = Arrays.copyOf(consumers, consumers.length + 1);
+        copy[consumers.length] = result;
+        consumers = copy;
+        return result;
+    }
+
+    /**
+     * Returns whether the specified boolean system property enables latency recording.
+     *
+     * @param propertyName {@code AsyncLogger.LatencyMetrics} or {@code AsyncLoggerConfig.LatencyMetrics}
+     * @return the value of the property, {@code false} if it is not set
+     */
+    static boolean isLatencyEnabled(final String propertyName) {
+        return PropertiesUtil.getProperties().getBooleanProperty(propertyName, false);
+    }
+
+    /**
+     * Returns whether this instance records the queue latency and service time of events.
+     *
+     * @return whether latency histograms are recorded
+     */
+    public boolean isLatencyEnabled() {
+        return latencyEnabled;
+    }
+
+    /**
+     * Records that a producer found the queue full and the {@code AsyncQueueFullPolicy} returned the specified route.
+     *
+     * @param route the route for the event
+     */
+    void recordQueueFull(final EventRoute route) {
+        queueFullCount.incrementAndGet();
+        switch (route) {
+            case ENQUEUE:
+                enqueuedWhenFullCount.incrementAndGet();
+                break;
+            case SYNCHRONOUS:
+                synchronousCount.incrementAndGet();
+                break;
+            case DISCARD:
+                discardedCount.incrementAndGet();
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Records the time a producer spent waiting for a free slot in a full queue.
+     *
+     * @param nanos the duration in nanoseconds
+     */
+    void recordBlockedPublish(final long nanos) {
+        blockedPublishNanos.addAndGet(nanos);
+        long max;
+        do {
+            max = maxBlockedPublishNanos.get();
+        } while (nanos > max && !maxBlockedPublishNanos.compareAndSet(max, nanos));
+    }
+
+    /**
+     * Records that the background thread of the queue processed an event. Must only be called by that thread.
+     *
+     * @param enqueueNanoTime the {@link System#nanoTime()} when the event was published, only used if latency
+     *          recording is enabled
+     * @param startNanoTime the {@link System#nanoTime()} when the background thread started processing the event, only
+     *          used if latency recording is enabled
+     * @param endOfBatch whether the event is the last one of a batch
+     */
+    void recordProcessed(final long enqueueNanoTime, final long startNanoTime, final boolean endOfBatch) {
+        queueConsumer.recordProcessed(enqueueNanoTime, startNanoTime, endOfBatch);
+    }
+
+    /**
+     * Returns the {@link System#nanoTime()} if latency recording is enabled, zero otherwise.
+     *
+     * @return the current nano time or zero
+     */
+    long nanoTimeIfEnabled() {
+        return latencyEnabled ? System.nanoTime() : 0;
+    }
+
+    public long getQueueFullCount() {
+        return queueFullCount.get();
+    }
+
+    public long getEnqueuedWhenFullCount() {
+        return enqueuedWhenFullCount.get();
+    }
+
+    public long getSynchronousCount() {
+        return synchronousCount.get();
+    }
+
+    public long getDiscardedCount() {
+        return discardedCount.get();
+    }
+
+    public long getBlockedPublishNanos() {
+        return blockedPublishNanos.get();
+    }
+
+    public long getMaxBlockedPublishNanos() {
+        return maxBlockedPublishNanos.get();
+    }
+
+    public long getEventCount() {
+        long result = 0;
+        for (final Consumer consumer : consumers) {
+            result += consumer.eventCount;
+        }
+        return result;
+    }
+
+    public long getBatchCount() {
+        long result = 0;
+        for (final Consumer consumer : consumers) {
+            result += consumer.batchCount;
+        }
+        return result;
+    }
+
+    public long getMaxBatchSize() {
+        long result = 0;
+        for (final Consumer consumer : consumers) {
+            result = Math.max(result, consumer.maxBatchSize);
+        }
+        return result;
+    }
+
+    public double getAverageBatchSize() {
+        final long batches = getBatchCount();
+        return batches == 0 ? 0 : (double) getEventCount() / batches;
+    }
+
+    /**
+     * Returns the time in nanoseconds below which the specified percentage of events waited in the queue.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the queue latency at the percentile, or zero if latency recording is disabled
+     */
+    public long getQueueLatencyNanos(final double percentile) {
+        return LatencyHistogram.getValueAtPercentile(queueLatencies(), percentile);
+    }
+
+    public long getMaxQueueLatencyNanos() {
+        return LatencyHistogram.getMax(queueLatencies());
+    }
+
+    public double getMeanQueueLatencyNanos() {
+        return LatencyHistogram.getMean(queueLatencies());
+    }
+
+    /**
+     * Returns the time in nanoseconds below which the background thread processed the specified percentage of events.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the service time at the percentile, or zero if latency recording is disabled
+     */
+    public long getServiceTimeNanos(final double percentile) {
+        return LatencyHistogram.getValueAtPercentile(serviceTimes(), percentile);
+    }
+
+    public long getMaxServiceTimeNanos() {
+        return LatencyHistogram.getMax(serviceTimes());
+    }
+
+    public double getMeanServiceTimeNanos() {
+        return LatencyHistogram.getMean(serviceTimes());
+    }
+
+    private LatencyHistogram[] queueLatencies() {
+        final Consumer[] all = consumers;
+        final LatencyHistogram[] result = new LatencyHistogram[all.length];
+        for (int i = 0; i < all.length; i++) {
+            result[i] = all[i].queueLatency;
+        }
+        return result;
+    }
+
+    private LatencyHistogram[] serviceTimes() {
+        final Consumer[] all = consumers;
+        final LatencyHistogram[] result = new LatencyHistogram[all.length];
+        for (int i = 0; i < all.length; i++) {
+            result[i] = all[i].serviceTime;
+        }
+        return result;
+    }
+
+    /**
+     * Resets all counters and histograms. Values recorded concurrently with a reset may be lost.
+     */
+    public void reset() {
+        queueFullCount.set(0);
+        enqueuedWhenFullCount.set(0);
+        synchronousCount.set(0);
+        discardedCount.set(0);
+        blockedPublishNanos.set(0);
+        maxBlockedPublishNanos.set(0);
+        for (final Consumer consumer : consumers) {
+            consumer.reset();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "AsyncQueueMetrics[events=" + getEventCount() + ", batches=" + getBatchCount() + ", queueFull="
+                + queueFullCount.get() + ", blockedPublishNanos=" + blockedPublishNanos.get() + ']';
+    }
+
+    /**
+     * Statistics of a single background thread that processes events of the queue.
+     */
+    static final class Consumer {
+
+        private final boolean latencyEnabled;
+        private volatile long eventCount;
+        private volatile long batchCount;
+        private volatile long maxBatchSize;
+        private int currentBatchSize;
+        private final LatencyHistogram queueLatency = new LatencyHistogram();
+        private final LatencyHistogram serviceTime = new LatencyHistogram();
+
+        private Consumer(final boolean latencyEnabled) {
+            this.latencyEnabled = latencyEnabled;
+        }
+
+        /**
+         * Records that the background thread processed an event. Must only be called by the thread that owns this
+         * consumer.
+         *
+         * @param enqueueNanoTime the {@link System#nanoTime()} when the event was published, only used if latency
+         *          recording is enabled
+         * @param startNanoTime the {@link System#nanoTime()} when the background thread started processing the event,
+         *          only used if latency recording is enabled
+         * @param endOfBatch whether the event is the last one of a batch
+         */
+        void recordProcessed(final long enqueueNanoTime, final long startNanoTime, final boolean endOfBatch) {
+            if (latencyEnabled) {
+                queueLatency.record(startNanoTime - enqueueNanoTime);
+                serviceTime.record(System.nanoTime() - startNanoTime);
+            }
+            eventCount++;
+            currentBatchSize++;
+            if (endOfBatch) {
+                batchCount++;
+                if (currentBatchSize > maxBatchSize) {
+                    maxBatchSize = currentBatchSize;
+                }
+                currentBatchSize = 0;
+            }
+        }
+
+        /**
+         * Returns the {@link System#nanoTime()} if latency recording is enabled, zero otherwise.
+         *
+         * @return the current nano time or zero
+         */
+        long nanoTimeIfEnabled() {
+            return latencyEnabled ? System.nanoTime() : 0;
+        }
+
+        private void reset() {
+            eventCount = 0;
+            batchCount = 0;
+            maxBatchSize = 0;
+            queueLatency.reset();
+            serviceTime.reset();
+        }
+    }
+}
@@ -39,6 +39,7 @@ final class DisruptorUtil {
     private static final int RINGBUFFER_MIN_SIZE = 128;
     private static final int RINGBUFFER_DEFAULT_SIZE = 256 * 1024;
     private static final int RINGBUFFER_NO_GC_DEFAULT_SIZE = 4 * 1024;
+    private static final int STAGING_BUFFER_MIN_SIZE = 16;
 
     private DisruptorUtil() {
     }
@@ -93,6 +94,36 @@ final class DisruptorUtil {
         return Integers.ceilingNextPowerOfTwo(ringBufferSize);
     }
 
+    /**
+     * Returns the size of the per-thread staging buffers used by async loggers, or zero if staging buffers are
+     * disabled (the default). Staging buffers require ThreadLocals, so they are always disabled when ThreadLocals are
+     * not enabled.
+     *
+     * @param propertyName name of the property that specifies the staging buffer size
+     * @return the staging buffer size rounded up to a power of two, or zero
+     */
+    static int calculateStagingBufferSize(final String propertyName) {
+        final String userPreferredSize = PropertiesUtil.getProperties().getStringProperty(propertyName);
+        if (userPreferredSize == null) {
+            return 0;
+        }
+        if (!Constants.ENABLE_THREADLOCALS) {
+            LOGGER.warn("Ignoring {}={}: staging buffers require ThreadLocals to be enabled.", propertyName,
+                    userPreferredSize);
+            return 0;
+        }
+        try {
+            final int size = Integer.parseInt(userPreferredSize.trim());
+            if (size <= 0) {
+                return 0;
+            }
+            return Integers.ceilingNextPowerOfTwo(Math.max(size, STAGING_BUFFER_MIN_SIZE));
+        } catch (final NumberFormatException ex) {
+            LOGGER.warn("Invalid StagingBufferSize {}, staging buffers disabled.", userPreferredSize);
+            return 0;
+        }
+    }
+
     static ExceptionHandler<RingBufferLogEvent> getAsyncLoggerExceptionHandler() {
         final String cls = PropertiesUtil.getProperties().getStringProperty("AsyncLogger.ExceptionHandler");
         if (cls == null) {
@@ -43,6 +43,20 @@ public class InternalAsyncUtil {
         return msg;
     }
 
+    /**
+     * Returns whether the specified message parameter is of an immutable type.
+     *
+     * @param parameter a message parameter, may be null
+     * @return {@code true} if the parameter is null, a String, a boxed primitive or a Character
+     * @since 2.10.1
+     */
+    public static boolean isImmutableParameter(final Object parameter) {
+        return parameter == null || parameter instanceof String || parameter instanceof Integer
+                || parameter instanceof Long || parameter instanceof Double || parameter instanceof Boolean
+                || parameter instanceof Short || parameter instanceof Byte || parameter instanceof Float
+                || parameter instanceof Character;
+    }
+
     private static boolean canFormatMessageInBackground(final Message message) {
         return Constants.FORMAT_MESSAGES_IN_BACKGROUND // LOG4J2-898: user wants to format all msgs in background
                 || message.getClass().isAnnotationPresent(AsynchronouslyFormattable.class); // LOG4J2-1718
@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.async;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size, allocation-free histogram of non-negative {@code long} values with a relative precision of 25%.
+ * <p>
+ * Values are grouped into four linear sub-buckets per power of two, so recording a value is a few bit operations and
+ * one array increment. The histogram must be written by a single thread (a background thread of an async logger) and
+ * may be read by any thread; readers may see a slightly stale snapshot. The static methods merge the histograms of
+ * several writers.
+ * </p>
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = SUB_BUCKETS + (Long.SIZE - 1 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private volatile long count;
+    private volatile long sum;
+    private volatile long max;
+
+    /**
+     * Records the specified value. Negative values are recorded as zero. Must only be called by a single thread.
+     *
+     * @param value the value to record
+     */
+    void record(final long value) {
+        final long v = value < 0 ? 0 : value;
+        final int index = indexOf(v);
+        counts.lazySet(index, counts.get(index) + 1);
+        count++;
+        sum += v;
+        if (v > max) {
+            max = v;
+        }
+    }
+
+    static int indexOf(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        final int shift = exponent - SUB_BUCKET_BITS;
+        final int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Returns the largest value that is recorded in the bucket with the specified index.
+     */
+    static long highestValueIn(final int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        final int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        final long subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        final long lowest = (SUB_BUCKETS + subBucket) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    long getMax() {
+        return max;
+    }
+
+    double getMean() {
+        return getMean(new LatencyHistogram[] {this});
+    }
+
+    /**
+     * Returns an upper bound of the value below which the specified percentage of the recorded values fall.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the value at the specified percentile, or zero if no values were recorded
+     */
+    long getValueAtPercentile(final double percentile) {
+        return getValueAtPercentile(new LatencyHistogram[] {this}, percentile);
+    }
+
+    /**
+     * Returns the largest value recorded in any of the specified histograms.
+     */
+    static long getMax(final LatencyHistogram[] histograms) {
+        long result = 0;
+        for (final LatencyHistogram histogram : histograms) {
+            result = Math.max(result, histogram.max);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the mean of the values recorded in all of the specified histograms.
+     */
+    static double getMean(final LatencyHistogram[] histograms) {
+        long n = 0;
+        long total = 0;
+        for (final LatencyHistogram histogram : histograms) {
+            n += histogram.count;
+            total += histogram.sum;
+        }
+        return n == 0 ? 0 : (double) total / n;
+    }
+
+    /**
+     * Returns an upper bound of the value below which the specified percentage of the values recorded in all of the
+     * specified histograms fall.
+     *
+     * @param histograms the histograms to merge
+     * @param percentile the percentile, between 0 and 100
+     * @return the value at the specified percentile, or zero if no values were recorded
+     */
+    static long getValueAtPercentile(final LatencyHistogram[] histograms, final double percentile) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += countAt(histograms, i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        final long max = getMax(histograms);
+        final double bounded = Math.min(Math.max(percentile, 0), 100);
+        final long target = Math.max(1, (long) Math.ceil(bounded / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += countAt(histograms, i);
+            if (seen >= target) {
+                return Math.min(highestValueIn(i), max);
+            }
+        }
+        return max;
+    }
+
+    private static long countAt(final LatencyHistogram[] histograms, final int index) {
+        long result = 0;
+        for (final LatencyHistogram histogram : histograms) {
+            result += histogram.counts.get(index);
+        }
+        return result;
+    }
+
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count = 0;
+        sum = 0;
+        max = 0;
+    }
+}
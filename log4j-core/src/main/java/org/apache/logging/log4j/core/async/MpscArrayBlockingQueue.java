@@ -0,0 +1,327 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.async;
+
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded lock-free multiple producer single consumer {@link BlockingQueue} backed by an array.
+ * <p>
+ * Producers claim a slot with a single CAS on the producer index and never take a lock. The consumer spins briefly
+ * when the queue is empty and then parks until a producer hands it a new element, so an idle background thread does
+ * not burn a CPU core. Producers that find the queue full back off progressively: they spin, then yield, then park
+ * for a short period.
+ * </p>
+ * <p>
+ * Only a single thread may call the consuming methods ({@link #poll()}, {@link #take()}, {@link #drainTo(Collection)}
+ * etc.) at a time. The queue does not support iteration.
+ * </p>
+ *
+ * @param <E> the type of elements held in this queue
+ * @see MpscArrayBlockingQueueFactory
+ * @since 2.10.1
+ */
+final class MpscArrayBlockingQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+
+    /** Number of times the consumer polls an empty queue before parking. */
+    private static final int CONSUMER_SPINS = 100;
+
+    /** Number of times a producer retries a full queue before it starts yielding. */
+    private static final int PRODUCER_SPINS = 100;
+
+    /** Number of times a producer retries a full queue before it starts parking. */
+    private static final int PRODUCER_YIELDS = 200;
+
+    /** Maximum time a producer parks before checking a full queue again. */
+    private static final long MAX_PRODUCER_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final int MAX_PRODUCER_PARK_SHIFT = 17;
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<MpscArrayBlockingQueue, Thread> CONSUMER_WAITER_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(MpscArrayBlockingQueue.class, Thread.class, "consumerWaiter");
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> buffer;
+
+    /** Next slot to be claimed by a producer. */
+    private final PaddedIndex producerIndex = new PaddedIndex();
+
+    /** Next slot to be consumed; only written by the consumer thread. */
+    private final PaddedIndex consumerIndex = new PaddedIndex();
+
+    /**
+     * Upper bound on the producer index below which producers may claim slots without reading the consumer index.
+     * Keeps producers from contending on the consumer's cache line while the queue is not nearly full.
+     */
+    private final PaddedIndex producerLimit = new PaddedIndex();
+
+    /** The consumer thread if it is (about to be) parked waiting for an element, {@code null} otherwise. */
+    private volatile Thread consumerWaiter;
+
+    /**
+     * Constructs a queue that holds at least the specified number of elements. The actual capacity is rounded up to
+     * the next power of two.
+     *
+     * @param capacity the minimum capacity of the queue
+     */
+    MpscArrayBlockingQueue(final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1 but was " + capacity);
+        }
+        this.capacity = ceilingNextPowerOfTwo(capacity);
+        this.mask = this.capacity - 1;
+        this.buffer = new AtomicReferenceArray<>(this.capacity);
+        this.producerLimit.lazySet(this.capacity);
+    }
+
+    private static int ceilingNextPowerOfTwo(final int x) {
+        return x <= 1 ? 1 : 1 << (Integer.SIZE - Integer.numberOfLeadingZeros(x - 1));
+    }
+
+    /**
+     * Returns the maximum number of elements this queue can hold.
+     *
+     * @return the capacity of this queue, a power of two
+     */
+    int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public boolean offer(final E e) {
+        Objects.requireNonNull(e, "element");
+        long limit = producerLimit.get();
+        long index;
+        do {
+            index = producerIndex.get();
+            if (index >= limit) {
+                // refresh the cached limit only when it has been reached
+                limit = consumerIndex.get() + capacity;
+                if (index >= limit) {
+                    return false;
+                }
+                producerLimit.lazySet(limit);
+            }
+        } while (!producerIndex.compareAndSet(index, index + 1));
+        buffer.lazySet((int) index & mask, e);
+        signalConsumer();
+        return true;
+    }
+
+    @Override
+    public void put(final E e) throws InterruptedException {
+        int idleCounter = 0;
+        while (!offer(e)) {
+            idleCounter = producerIdle(idleCounter);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    @Override
+    public boolean offer(final E e, final long timeout, final TimeUnit unit) throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int idleCounter = 0;
+        while (!offer(e)) {
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            idleCounter = producerIdle(idleCounter);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+        return true;
+    }
+
+    private static int producerIdle(final int idleCounter) {
+        if (idleCounter > PRODUCER_YIELDS) {
+            // exponential back-off, capped at MAX_PRODUCER_PARK_NANOS
+            final int shift = Math.min(idleCounter - PRODUCER_YIELDS, MAX_PRODUCER_PARK_SHIFT);
+            LockSupport.parkNanos(Math.min(MAX_PRODUCER_PARK_NANOS, 1L << shift));
+            return idleCounter < PRODUCER_YIELDS + MAX_PRODUCER_PARK_SHIFT ? idleCounter + 1 : idleCounter;
+        } else if (idleCounter > PRODUCER_SPINS) {
+            Thread.yield();
+        }
+        return idleCounter + 1;
+    }
+
+    private void signalConsumer() {
+        // Reading the waiter after the CAS on the producer index pairs with the consumer publishing itself before
+        // re-checking the producer index: at least one of the two threads sees the other's write.
+        final Thread waiter = consumerWaiter;
+        if (waiter != null) {
+            LockSupport.unpark(waiter);
+        }
+    }
+
+    @Override
+    public E poll() {
+        final long index = consumerIndex.get();
+        final int offset = (int) index & mask;
+        E e = buffer.get(offset);
+        if (e == null) {
+            if (index == producerIndex.get()) {
+                return null;
+            }
+            // a producer claimed the slot but has not yet stored the element
+            do {
+                e = buffer.get(offset);
+            } while (e == null);
+        }
+        buffer.lazySet(offset, null);
+        consumerIndex.lazySet(index + 1);
+        return e;
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        for (int i = 0; i < CONSUMER_SPINS; i++) {
+            final E e = poll();
+            if (e != null) {
+                return e;
+            }
+        }
+        final Thread current = Thread.currentThread();
+        try {
+            while (true) {
+                consumerWaiter = current;
+                final E e = poll();
+                if (e != null) {
+                    return e;
+                }
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                LockSupport.park(this);
+            }
+        } finally {
+            CONSUMER_WAITER_UPDATER.lazySet(this, null);
+        }
+    }
+
+    @Override
+    public E poll(final long timeout, final TimeUnit unit) throws InterruptedException {
+        E e = poll();
+        if (e != null) {
+            return e;
+        }
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        final Thread current = Thread.currentThread();
+        try {
+            while (true) {
+                consumerWaiter = current;
+                e = poll();
+                if (e != null) {
+                    return e;
+                }
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                final long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return null;
+                }
+                LockSupport.parkNanos(this, remaining);
+            }
+        } finally {
+            CONSUMER_WAITER_UPDATER.lazySet(this, null);
+        }
+    }
+
+    @Override
+    public E peek() {
+        final long index = consumerIndex.get();
+        final int offset = (int) index & mask;
+        E e = buffer.get(offset);
+        if (e == null && index != producerIndex.get()) {
+            do {
+                e = buffer.get(offset);
+            } while (e == null);
+        }
+        return e;
+    }
+
+    @Override
+    public int drainTo(final Collection<? super E> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(final Collection<? super E> c, final int maxElements) {
+        Objects.requireNonNull(c, "collection");
+        if (c == this) {
+            throw new IllegalArgumentException("Cannot drain a queue into itself");
+        }
+        int count = 0;
+        E e;
+        while (count < maxElements && (e = poll()) != null) {
+            c.add(e);
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public int size() {
+        // Read the consumer index before and after the producer index to get a consistent snapshot.
+        long after = consumerIndex.get();
+        while (true) {
+            final long before = after;
+            final long producer = producerIndex.get();
+            after = consumerIndex.get();
+            if (before == after) {
+                return (int) Math.min(producer - after, capacity);
+            }
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return consumerIndex.get() == producerIndex.get();
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return capacity - size();
+    }
+
+    /**
+     * Not supported: this queue cannot be iterated.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public Iterator<E> iterator() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String toString() {
+        return "MpscArrayBlockingQueue[capacity=" + capacity + ", size=" + size() + ']';
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.async;
+
+import java.util.concurrent.BlockingQueue;
+
+import org.apache.logging.log4j.core.config.Node;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginFactory;
+
+/**
+ * Factory for creating instances of a built-in lock-free multiple producer single consumer bounded
+ * {@link BlockingQueue}. Unlike {@link ArrayBlockingQueueFactory}, producers never contend on a lock, and unlike
+ * {@link JCToolsBlockingQueueFactory} no external library is required and the consumer thread parks instead of
+ * spinning when the queue is empty.
+ * <p>
+ * The capacity of the created queues is rounded up to the next power of two.
+ * </p>
+ *
+ * @since 2.10.1
+ */
+@Plugin(name = "MpscArrayBlockingQueue", category = Node.CATEGORY, elementType = BlockingQueueFactory.ELEMENT_TYPE)
+public class MpscArrayBlockingQueueFactory<E> implements BlockingQueueFactory<E> {
+    @Override
+    public BlockingQueue<E> create(final int capacity) {
+        return new MpscArrayBlockingQueue<>(capacity);
+    }
+
+    @PluginFactory
+    public static <E> MpscArrayBlockingQueueFactory<E> createFactory() {
+        return new MpscArrayBlockingQueueFactory<>();
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.async;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Index counter padded on both sides so that it does not share a cache line with other frequently written data.
+ * Java 7 has no {@code @Contended}, so the padding is achieved with the class hierarchy below, following the layout of
+ * the LMAX Disruptor {@code Sequence}: the JVM lays out the fields of a superclass before those of its subclasses.
+ */
+final class PaddedIndex extends IndexRhsPadding {
+
+    private static final AtomicLongFieldUpdater<IndexValue> VALUE_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(IndexValue.class, "value");
+
+    long get() {
+        return value;
+    }
+
+    void set(final long newValue) {
+        value = newValue;
+    }
+
+    void lazySet(final long newValue) {
+        VALUE_UPDATER.lazySet(this, newValue);
+    }
+
+    boolean compareAndSet(final long expected, final long newValue) {
+        return VALUE_UPDATER.compareAndSet(this, expected, newValue);
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(get());
+    }
+}
+
+@SuppressWarnings("unused")
+class IndexLhsPadding {
+    protected long p1, p2, p3, p4, p5, p6, p7;
+}
+
+class IndexValue extends IndexLhsPadding {
+    protected volatile long value;
+}
+
+@SuppressWarnings("unused")
+class IndexRhsPadding extends IndexValue {
+    protected long p9, p10, p11, p12, p13, p14, p15;
+}
@@ -29,6 +29,8 @@ import org.apache.logging.log4j.core.impl.Log4jLogEvent;
 import org.apache.logging.log4j.core.impl.ThrowableProxy;
 import org.apache.logging.log4j.core.util.Constants;
 import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.message.ParameterConsumer;
+import org.apache.logging.log4j.message.ParameterVisitable;
 import org.apache.logging.log4j.message.ParameterizedMessage;
 import org.apache.logging.log4j.message.ReusableMessage;
 import org.apache.logging.log4j.message.SimpleMessage;
@@ -44,11 +46,14 @@ import com.lmax.disruptor.EventFactory;
  * When the Disruptor is started, the RingBuffer is populated with event objects. These objects are then re-used during
  * the life of the RingBuffer.
  */
-public class RingBufferLogEvent implements LogEvent, ReusableMessage, CharSequence {
+public class RingBufferLogEvent implements LogEvent, ReusableMessage, ParameterVisitable, CharSequence {
 
     /** The {@code EventFactory} for {@code RingBufferLogEvent}s. */
     public static final Factory FACTORY = new Factory();
 
+    /** Whether the time an event is published is recorded, see {@link AsyncQueueMetrics}. */
+    static final boolean RECORD_ENQUEUE_TIME = AsyncQueueMetrics.isLatencyEnabled("AsyncLogger.LatencyMetrics");
+
     private static final long serialVersionUID = 8462119088943934758L;
     private static final Message EMPTY = new SimpleMessage(Strings.EMPTY);
 
@@ -72,6 +77,7 @@ public class RingBufferLogEvent implements LogEvent, ReusableMessage, CharSequen
     private long threadId;
     private long currentTimeMillis;
     private long nanoTime;
+    private transient long enqueueNanoTime;
     private short parameterCount;
     private boolean includeLocation;
     private boolean endOfBatch = false;
@@ -80,6 +86,7 @@ public class RingBufferLogEvent implements LogEvent, ReusableMessage, CharSequen
     private String loggerName;
     private Message message;
     private StringBuilder messageText;
+    private String messageFormat;
     private Object[] parameters;
     private transient Throwable thrown;
     private ThrowableProxy thrownProxy;
@@ -112,6 +119,17 @@ public class RingBufferLogEvent implements LogEvent, ReusableMessage, CharSequen
         this.contextData = mutableContextData;
         this.contextStack = aContextStack;
         this.asyncLogger = anAsyncLogger;
+        // constant check should be optimized out when latency metrics are disabled
+        this.enqueueNanoTime = RECORD_ENQUEUE_TIME ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Returns the {@link System#nanoTime()} when this event was published, or zero if latency metrics are disabled.
+     *
+     * @return the nano time when this event was published
+     */
+    long getEnqueueNanoTime() {
+        return enqueueNanoTime;
     }
 
     @Override
@@ -123,7 +141,12 @@ public class RingBufferLogEvent implements LogEvent, ReusableMessage, CharSequen
         if (msg instanceof ReusableMessage) {
             final ReusableMessage reusable = (ReusableMessage) msg;
             reusable.formatTo(getMessageTextForWriting());
+            messageFormat = null;
             if (parameters != null) {
+                if (msg instanceof ParameterVisitable) {
+                    // keep the format string so layouts can write it with the parameters instead of the text
+                    messageFormat = msg.getFormat();
+                }
                 parameters = reusable.swapParameters(parameters);
                 parameterCount = reusable.getParameterCount();
             }
@@ -223,7 +246,7 @@ public class RingBufferLogEvent implements LogEvent, ReusableMessage, CharSequen
      */
     @Override
     public String getFormat() {
-        return null;
+        return messageFormat;
     }
 
     /**
@@ -234,6 +257,20 @@ public class RingBufferLogEvent implements LogEvent, ReusableMessage, CharSequen
         return parameters == null ? null : Arrays.copyOf(parameters, parameterCount);
     }
 
+    /**
+     * Performs the specified action for each parameter that was swapped into this event.
+     *
+     * @see ParameterVisitable#forEachParameter(ParameterConsumer, Object)
+     */
+    @Override
+    public <S> void forEachParameter(final ParameterConsumer<S> action, final S state) {
+        if (parameters != null) {
+            for (int i = 0; i < parameterCount; i++) {
+                action.accept(parameters[i], i, state);
+            }
+        }
+    }
+
     /**
      * @see ReusableMessage#getThrowable()
      */
@@ -385,6 +422,7 @@ public class RingBufferLogEvent implements LogEvent, ReusableMessage, CharSequen
         this.fqcn = null;
         this.level = null;
         this.message = null;
+        this.messageFormat = null;
         this.thrown = null;
         this.thrownProxy = null;
         this.contextStack = null;
@@ -30,10 +30,19 @@ public class RingBufferLogEventHandler implements
         SequenceReportingEventHandler<RingBufferLogEvent>, LifecycleAware {
 
     private static final int NOTIFY_PROGRESS_THRESHOLD = 50;
+    private final AsyncQueueMetrics metrics;
     private Sequence sequenceCallback;
     private int counter;
     private long threadId = -1;
 
+    public RingBufferLogEventHandler() {
+        this(new AsyncQueueMetrics(RingBufferLogEvent.RECORD_ENQUEUE_TIME));
+    }
+
+    RingBufferLogEventHandler(final AsyncQueueMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     @Override
     public void setSequenceCallback(final Sequence sequenceCallback) {
         this.sequenceCallback = sequenceCallback;
@@ -42,7 +51,9 @@ public class RingBufferLogEventHandler implements
     @Override
     public void onEvent(final RingBufferLogEvent event, final long sequence,
             final boolean endOfBatch) throws Exception {
+        final long start = metrics.nanoTimeIfEnabled();
         event.execute(endOfBatch);
+        metrics.recordProcessed(event.getEnqueueNanoTime(), start, endOfBatch);
         event.clear();
 
         // notify the BatchEventProcessor that the sequence has progressed.
@@ -0,0 +1,515 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.async;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.logging.log4j.core.util.Log4jThreadFactory;
+import org.apache.logging.log4j.status.StatusLogger;
+
+import com.lmax.disruptor.EventFactory;
+import com.lmax.disruptor.ExceptionHandler;
+
+/**
+ * Alternative hand-off mechanism for async loggers where each application thread publishes into its own small
+ * single-producer single-consumer staging buffer instead of claiming slots in the shared Disruptor ring buffer.
+ * <p>
+ * Publishing an event only touches memory owned by the publishing thread (plus a read of the shared consumer state),
+ * so producers do not contend on a shared cursor. A single background thread merges the staging buffers, always
+ * processing the pending event with the lowest timestamp first, and passes the events to their
+ * {@link AsyncLogger#actualAsyncLog(RingBufferLogEvent) AsyncLogger}.
+ * </p>
+ * <p>
+ * Events of a single thread are always processed in the order they were logged. Events of different threads are
+ * ordered by their {@linkplain RingBufferLogEvent#getTimeMillis() timestamp} and
+ * {@linkplain RingBufferLogEvent#getNanoTime() nano time} among the events that are visible to the background thread
+ * when it merges; strict global ordering is traded for the absence of cross-core contention.
+ * </p>
+ * <p>
+ * Staging buffers are only used when AsyncLoggers are allowed to use ThreadLocals. The buffer of a thread that has
+ * terminated is discarded by the background thread once it has been drained.
+ * </p>
+ * <p>
+ * A producer marks its buffer while it publishes. After the dispatcher was stopped, the background thread waits until
+ * no buffer is marked before its final drain, so an event is either rejected or processed, never lost.
+ * </p>
+ */
+class StagingBufferDispatcher implements Runnable {
+
+    private static final StatusLogger LOGGER = StatusLogger.getLogger();
+
+    /** Number of times the background thread finds all buffers empty before it starts yielding. */
+    private static final int SPINS = 100;
+
+    /** Number of times the background thread finds all buffers empty before it parks. */
+    private static final int YIELDS = 200;
+
+    /** Upper bound for a park of the background thread, so that buffers of terminated threads are eventually freed. */
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /** Interval at which the background thread looks for buffers of terminated threads. */
+    private static final long CLEANUP_INTERVAL_NANOS = MAX_PARK_NANOS;
+
+    /** Upper bound for a park of a producer waiting for space in its staging buffer. */
+    private static final long MAX_PRODUCER_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private static final StagingBuffer[] EMPTY = new StagingBuffer[0];
+
+    private final String contextName;
+    private final int bufferSize;
+    private final ExceptionHandler<RingBufferLogEvent> exceptionHandler;
+    private final AsyncQueueMetrics.Consumer metrics;
+    private final ThreadLocal<StagingBuffer> threadLocalBuffer = new ThreadLocal<>();
+    private final Object registryLock = new Object();
+
+    /** Copy-on-write registry of all staging buffers; modified while holding {@link #registryLock}. */
+    private volatile StagingBuffer[] buffers = EMPTY;
+
+    /** The background thread if it is (about to be) parked waiting for events, {@code null} otherwise. */
+    private volatile Thread waiter;
+    private volatile boolean running;
+    private volatile Thread thread;
+    private volatile long threadId = -1;
+
+    // consumer-local merge state, only accessed by the background thread
+    private long[] limits = new long[0];
+    private long[] headMillis = new long[0];
+    private long[] headNanos = new long[0];
+    /** Binary min-heap of the indexes of the buffers that have events to merge, ordered by their next event. */
+    private int[] heap = new int[0];
+    private long sequence;
+    private long lastCleanupNanos;
+
+    /**
+     * Constructs a dispatcher whose staging buffers hold the specified number of events per thread.
+     *
+     * @param contextName name of the owning logger context, used in the background thread name
+     * @param bufferSize number of events in each per-thread staging buffer, a power of two
+     * @param exceptionHandler receives exceptions thrown while processing events
+     * @param metrics records statistics about the processed events, only updated by the dispatcher thread
+     */
+    StagingBufferDispatcher(final String contextName, final int bufferSize,
+            final ExceptionHandler<RingBufferLogEvent> exceptionHandler, final AsyncQueueMetrics.Consumer metrics) {
+        this.contextName = contextName;
+        this.bufferSize = bufferSize;
+        this.exceptionHandler = exceptionHandler;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Starts the background thread that merges the staging buffers.
+     */
+    void start() {
+        running = true;
+        final Thread result = new Log4jThreadFactory("AsyncLoggerStaging[" + contextName + "]", true,
+                Thread.NORM_PRIORITY).newThread(this);
+        threadId = result.getId();
+        thread = result;
+        result.start();
+    }
+
+    /**
+     * Stops accepting new events and waits until the background thread has drained all staging buffers, or until the
+     * timeout elapsed.
+     *
+     * @param timeout the maximum time to wait
+     * @param timeUnit the unit of the timeout
+     * @return {@code true} if the background thread terminated within the timeout
+     */
+    boolean stop(final long timeout, final TimeUnit timeUnit) {
+        running = false;
+        final Thread temp = thread;
+        if (temp == null) {
+            return true;
+        }
+        LockSupport.unpark(temp);
+        try {
+            temp.join(timeUnit.toMillis(timeout));
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+        return !temp.isAlive();
+    }
+
+    /**
+     * Returns the thread ID of the background thread, or {@code -1} if it has not been started.
+     *
+     * @return the thread ID of the background thread
+     */
+    long getThreadId() {
+        return threadId;
+    }
+
+    /**
+     * Returns the number of events that have been published but not yet processed, summed over all staging buffers.
+     *
+     * @return the number of pending events
+     */
+    long getBacklog() {
+        long result = 0;
+        for (final StagingBuffer buffer : buffers) {
+            result += buffer.size();
+        }
+        return result;
+    }
+
+    /**
+     * Copies the event data held by the translator into the calling thread's staging buffer.
+     *
+     * @param translator holds the event data
+     * @return {@code true} if the event was published, {@code false} if the staging buffer is full, the dispatcher
+     *          is stopped or the caller is the background thread itself
+     */
+    boolean tryPublish(final RingBufferLogEventTranslator translator) {
+        final StagingBuffer buffer = getStagingBuffer();
+        if (buffer == null) {
+            return false;
+        }
+        // Dekker-style handshake with stop(): either this thread sees running == false, or the background thread
+        // sees the buffer marked as publishing and waits for the event before its final drain.
+        buffer.publishing = true;
+        try {
+            if (!running || !buffer.tryPublish(translator)) {
+                return false;
+            }
+        } finally {
+            buffer.publishing = false;
+        }
+        signalConsumer();
+        return true;
+    }
+
+    /**
+     * Copies the event data held by the translator into the calling thread's staging buffer, waiting for free space
+     * if necessary.
+     *
+     * @param translator holds the event data
+     * @return {@code true} if the event was published, {@code false} if the dispatcher was stopped or the calling
+     *          thread was interrupted while waiting
+     */
+    boolean publish(final RingBufferLogEventTranslator translator) {
+        int idleCounter = 0;
+        while (!tryPublish(translator)) {
+            if (!running || Thread.currentThread().getId() == threadId || Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+            if (idleCounter > YIELDS) {
+                LockSupport.parkNanos(MAX_PRODUCER_PARK_NANOS);
+            } else if (idleCounter > SPINS) {
+                Thread.yield();
+            }
+            idleCounter++;
+        }
+        return true;
+    }
+
+    private StagingBuffer getStagingBuffer() {
+        if (!running) {
+            return null;
+        }
+        final StagingBuffer result = threadLocalBuffer.get();
+        if (result != null) {
+            return result;
+        }
+        return Thread.currentThread().getId() == threadId ? null : register();
+    }
+
+    private StagingBuffer register() {
+        final StagingBuffer result = new StagingBuffer(bufferSize, Thread.currentThread());
+        synchronized (registryLock) {
+            final StagingBuffer[] current = buffers;
+            final StagingBuffer[] copy = Arrays.copyOf(current, current.length + 1);
+            copy[current.length] = result;
+            buffers = copy;
+        }
+        threadLocalBuffer.set(result);
+        LOGGER.trace("[{}] Registered AsyncLogger staging buffer for thread {}", contextName,
+                Thread.currentThread().getName());
+        return result;
+    }
+
+    private void signalConsumer() {
+        // The volatile write of the staging buffer tail followed by this volatile read pairs with the background
+        // thread publishing itself as waiter before re-checking the buffers: at least one side sees the other's write.
+        final Thread temp = waiter;
+        if (temp != null) {
+            LockSupport.unpark(temp);
+        }
+    }
+
+    @Override
+    public void run() {
+        LOGGER.trace("[{}] AsyncLogger staging thread started.", contextName);
+        int idleCounter = 0;
+        lastCleanupNanos = System.nanoTime();
+        while (running) {
+            if (drain() > 0) {
+                idleCounter = 0;
+            } else {
+                if (idleCounter > YIELDS) {
+                    park();
+                } else if (idleCounter > SPINS) {
+                    Thread.yield();
+                }
+                idleCounter++;
+            }
+            final long now = System.nanoTime();
+            if (now - lastCleanupNanos >= CLEANUP_INTERVAL_NANOS) {
+                lastCleanupNanos = now;
+                removeTerminatedThreadBuffers();
+            }
+        }
+        // process events that were published before the dispatcher was stopped
+        awaitPublishers();
+        int count = 0;
+        int processed;
+        do {
+            processed = drain();
+            count += processed;
+        } while (processed > 0);
+        LOGGER.trace("[{}] AsyncLogger staging thread stopped after processing {} remaining events.", contextName,
+                count);
+    }
+
+    /**
+     * Waits until no producer is in the middle of publishing. Producers that start publishing later see that the
+     * dispatcher was stopped and reject their event.
+     */
+    private void awaitPublishers() {
+        for (final StagingBuffer buffer : buffers) {
+            while (buffer.publishing) {
+                Thread.yield();
+            }
+        }
+    }
+
+    private void park() {
+        waiter = Thread.currentThread();
+        try {
+            if (running && getBacklog() == 0) {
+                LockSupport.parkNanos(this, MAX_PARK_NANOS);
+            }
+        } finally {
+            waiter = null;
+        }
+    }
+
+    /**
+     * Processes the events that are currently visible in all staging buffers, merging them by timestamp.
+     *
+     * @return the number of processed events
+     */
+    private int drain() {
+        final StagingBuffer[] snapshot = buffers;
+        if (limits.length < snapshot.length) {
+            limits = new long[snapshot.length * 2];
+            headMillis = new long[limits.length];
+            headNanos = new long[limits.length];
+            heap = new int[limits.length];
+        }
+        int total = 0;
+        int nonEmpty = 0;
+        int lastNonEmpty = -1;
+        for (int i = 0; i < snapshot.length; i++) {
+            final long limit = snapshot[i].tail.get();
+            limits[i] = limit;
+            final int available = (int) (limit - snapshot[i].head);
+            if (available > 0) {
+                total += available;
+                nonEmpty++;
+                lastNonEmpty = i;
+            }
+        }
+        if (nonEmpty == 1) {
+            // no merging needed
+            final StagingBuffer buffer = snapshot[lastNonEmpty];
+            for (int remaining = total; remaining > 0; remaining--) {
+                process(buffer, remaining == 1);
+            }
+            return total;
+        }
+        // k-way merge: selecting the earliest event costs O(log k) for k non-empty buffers
+        int heapSize = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            if (snapshot[i].head < limits[i]) {
+                updateHeadKey(snapshot[i], i);
+                heap[heapSize++] = i;
+            }
+        }
+        for (int k = heapSize / 2 - 1; k >= 0; k--) {
+            siftDown(k, heapSize);
+        }
+        for (int remaining = total; remaining > 0; remaining--) {
+            final int index = heap[0];
+            final StagingBuffer buffer = snapshot[index];
+            process(buffer, remaining == 1);
+            if (buffer.head < limits[index]) {
+                updateHeadKey(buffer, index);
+            } else {
+                heap[0] = heap[--heapSize];
+            }
+            siftDown(0, heapSize);
+        }
+        return total;
+    }
+
+    private void updateHeadKey(final StagingBuffer buffer, final int index) {
+        final RingBufferLogEvent event = buffer.peek();
+        headMillis[index] = event.getTimeMillis();
+        headNanos[index] = event.getNanoTime();
+    }
+
+    private void siftDown(final int position, final int heapSize) {
+        final int index = heap[position];
+        int k = position;
+        int child;
+        while ((child = 2 * k + 1) < heapSize) {
+            if (child + 1 < heapSize && isEarlier(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!isEarlier(heap[child], index)) {
+                break;
+            }
+            heap[k] = heap[child];
+            k = child;
+        }
+        heap[k] = index;
+    }
+
+    /**
+     * Returns whether the next event of the buffer with the first index precedes the next event of the other buffer.
+     * Events with the same timestamp and nano time are taken from the buffer that registered first.
+     */
+    private boolean isEarlier(final int index, final int other) {
+        final long millis = headMillis[index];
+        final long otherMillis = headMillis[other];
+        if (millis != otherMillis) {
+            return millis < otherMillis;
+        }
+        final long nanos = headNanos[index];
+        final long otherNanos = headNanos[other];
+        return nanos != otherNanos ? nanos < otherNanos : index < other;
+    }
+
+    private void process(final StagingBuffer buffer, final boolean endOfBatch) {
+        final RingBufferLogEvent event = buffer.peek();
+        final long start = metrics.nanoTimeIfEnabled();
+        try {
+            event.execute(endOfBatch);
+        } catch (final Throwable t) {
+            exceptionHandler.handleEventException(t, sequence, event);
+        }
+        metrics.recordProcessed(event.getEnqueueNanoTime(), start, endOfBatch);
+        sequence++;
+        event.clear();
+        buffer.advance();
+    }
+
+    private void removeTerminatedThreadBuffers() {
+        final StagingBuffer[] snapshot = buffers;
+        for (final StagingBuffer buffer : snapshot) {
+            if (buffer.isAbandoned()) {
+                synchronized (registryLock) {
+                    final StagingBuffer[] current = buffers;
+                    final StagingBuffer[] copy = new StagingBuffer[current.length - 1];
+                    int j = 0;
+                    for (final StagingBuffer candidate : current) {
+                        if (candidate != buffer) {
+                            copy[j++] = candidate;
+                        }
+                    }
+                    buffers = copy;
+                }
+                LOGGER.trace("[{}] Removed AsyncLogger staging buffer of terminated thread.", contextName);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "StagingBufferDispatcher[" + contextName + ", bufferSize=" + bufferSize + ", buffers="
+                + buffers.length + ']';
+    }
+
+    /**
+     * Single-producer single-consumer ring of pre-allocated events owned by one application thread.
+     */
+    static final class StagingBuffer {
+        private final RingBufferLogEvent[] events;
+        private final int mask;
+        private final WeakReference<Thread> owner;
+
+        /** Next slot the producer writes; written by the producer only. */
+        final PaddedIndex tail = new PaddedIndex();
+
+        /** Published view of the consumer position; written by the consumer only. */
+        private final PaddedIndex published = new PaddedIndex();
+
+        /** Set by the producer while it publishes; see {@link StagingBufferDispatcher#tryPublish}. */
+        volatile boolean publishing;
+
+        /** Consumer-local position of the next event to process. */
+        long head;
+
+        /** Producer-local cache of {@link #published}, refreshed only when the buffer looks full. */
+        private long cachedHead;
+
+        StagingBuffer(final int size, final Thread owner) {
+            final EventFactory<RingBufferLogEvent> factory = RingBufferLogEvent.FACTORY;
+            this.events = new RingBufferLogEvent[size];
+            for (int i = 0; i < size; i++) {
+                events[i] = factory.newInstance();
+            }
+            this.mask = size - 1;
+            this.owner = new WeakReference<>(owner);
+        }
+
+        boolean tryPublish(final RingBufferLogEventTranslator translator) {
+            final long index = tail.get();
+            if (index - cachedHead >= events.length) {
+                cachedHead = published.get();
+                if (index - cachedHead >= events.length) {
+                    return false;
+                }
+            }
+            translator.translateTo(events[(int) index & mask], index);
+            tail.set(index + 1); // volatile write: see signalConsumer()
+            return true;
+        }
+
+        RingBufferLogEvent peek() {
+            return events[(int) head & mask];
+        }
+
+        void advance() {
+            published.lazySet(++head);
+        }
+
+        int size() {
+            return (int) (tail.get() - published.get());
+        }
+
+        boolean isAbandoned() {
+            final Thread thread = owner.get();
+            return (thread == null || !thread.isAlive()) && size() == 0;
+        }
+    }
+}
@@ -23,6 +23,9 @@ import java.util.Objects;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.logging.log4j.core.Appender;
+import org.apache.logging.log4j.core.Layout;
+import org.apache.logging.log4j.core.layout.SharedEncodingLayout;
+import org.apache.logging.log4j.core.util.Constants;
 import org.apache.logging.log4j.util.PerformanceSensitive;
 
 /**
@@ -33,6 +36,8 @@ import org.apache.logging.log4j.util.PerformanceSensitive;
 @PerformanceSensitive
 public class AppenderControlArraySet {
     private final AtomicReference<AppenderControl[]> appenderArray = new AtomicReference<>(new AppenderControl[0]);
+    private volatile boolean shareLayoutEncoding = Constants.SHARE_LAYOUT_ENCODING;
+    private volatile boolean layoutEncodingShared;
 
     /**
      * Adds an AppenderControl to this set. If this set already contains the element, the call leaves the set unchanged
@@ -54,6 +59,7 @@ public class AppenderControlArraySet {
             copy[copy.length - 1] = control;
             success = appenderArray.compareAndSet(original, copy);
         } while (!success); // could not swap: array was modified by another thread
+        updateLayoutEncodingShared();
         return true; // successfully added
     }
 
@@ -73,6 +79,7 @@ public class AppenderControlArraySet {
                 if (Objects.equals(name, appenderControl.getAppenderName())) {
                     final AppenderControl[] copy = removeElementAt(i, original);
                     if (appenderArray.compareAndSet(original, copy)) {
+                        updateLayoutEncodingShared();
                         return appenderControl; // successfully removed
                     }
                     success = false; // could not swap: array was modified by another thread
@@ -108,7 +115,9 @@ public class AppenderControlArraySet {
      * @return the contents before this collection was cleared.
      */
     public AppenderControl[] clear() {
-        return appenderArray.getAndSet(new AppenderControl[0]);
+        final AppenderControl[] result = appenderArray.getAndSet(new AppenderControl[0]);
+        updateLayoutEncodingShared();
+        return result;
     }
 
     public boolean isEmpty() {
@@ -124,6 +133,64 @@ public class AppenderControlArraySet {
         return appenderArray.get();
     }
 
+    /**
+     * Returns whether appenders with equivalent layouts may share the encoded bytes of an event.
+     *
+     * @return whether sharing layout encoding is enabled
+     * @since 2.10.1
+     */
+    public boolean isShareLayoutEncoding() {
+        return shareLayoutEncoding;
+    }
+
+    /**
+     * Enables or disables sharing the encoded bytes of an event between appenders in this set whose layouts are
+     * equivalent {@link SharedEncodingLayout}s. Disabled by default, unless system property
+     * {@code log4j2.shareLayoutEncoding} is {@code true}.
+     *
+     * @param shareLayoutEncoding whether to share layout encoding
+     * @since 2.10.1
+     */
+    public void setShareLayoutEncoding(final boolean shareLayoutEncoding) {
+        this.shareLayoutEncoding = shareLayoutEncoding;
+        updateLayoutEncodingShared();
+    }
+
+    /**
+     * Returns whether sharing layout encoding is enabled and at least two appenders in this set have equivalent
+     * layouts, in which case events should be dispatched within an
+     * {@link org.apache.logging.log4j.core.layout.EncodedEventCache EncodedEventCache}.
+     *
+     * @return whether events dispatched to this set benefit from caching encoded bytes
+     * @since 2.10.1
+     */
+    public boolean isLayoutEncodingShared() {
+        return layoutEncodingShared;
+    }
+
+    private void updateLayoutEncodingShared() {
+        boolean shared = false;
+        if (shareLayoutEncoding) {
+            final AppenderControl[] controls = appenderArray.get();
+            for (int i = 0; i < controls.length; i++) {
+                final Object key = getEncodingKey(controls[i]);
+                for (int j = 0; key != null && j < i; j++) {
+                    if (key.equals(getEncodingKey(controls[j]))) {
+                        ((SharedEncodingLayout) controls[i].getAppender().getLayout()).enableSharedEncoding();
+                        ((SharedEncodingLayout) controls[j].getAppender().getLayout()).enableSharedEncoding();
+                        shared = true;
+                    }
+                }
+            }
+        }
+        layoutEncodingShared = shared;
+    }
+
+    private static Object getEncodingKey(final AppenderControl control) {
+        final Layout<?> layout = control.getAppender().getLayout();
+        return layout instanceof SharedEncodingLayout ? ((SharedEncodingLayout) layout).getEncodingKey() : null;
+    }
+
     @Override
     public String toString() {
         return "AppenderControlArraySet [appenderArray=" + appenderArray + "]";
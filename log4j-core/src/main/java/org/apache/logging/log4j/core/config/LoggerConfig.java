@@ -42,6 +42,7 @@ import org.apache.logging.log4j.core.impl.DefaultLogEventFactory;
 import org.apache.logging.log4j.core.impl.Log4jLogEvent;
 import org.apache.logging.log4j.core.impl.LogEventFactory;
 import org.apache.logging.log4j.core.impl.ReusableLogEventFactory;
+import org.apache.logging.log4j.core.layout.EncodedEventCache;
 import org.apache.logging.log4j.core.lookup.StrSubstitutor;
 import org.apache.logging.log4j.core.util.Booleans;
 import org.apache.logging.log4j.core.util.Constants;
@@ -304,6 +305,29 @@ public class LoggerConfig extends AbstractFilterable {
         this.additive = additive;
     }
 
+    /**
+     * Returns whether appenders of this LoggerConfig with equivalent layouts share the encoded bytes of an event.
+     *
+     * @return whether sharing layout encoding is enabled
+     * @since 2.10.1
+     */
+    public boolean isShareLayoutEncoding() {
+        return appenders.isShareLayoutEncoding();
+    }
+
+    /**
+     * Enables or disables sharing layout encoding. When enabled, an event that is dispatched to several appenders
+     * whose layouts are equivalent (for example, the same {@code PatternLayout} pattern and charset) is formatted and
+     * encoded once, and the other appenders copy the encoded bytes.
+     *
+     * @param shareLayoutEncoding whether to share layout encoding
+     * @see AppenderControlArraySet#setShareLayoutEncoding(boolean)
+     * @since 2.10.1
+     */
+    public void setShareLayoutEncoding(final boolean shareLayoutEncoding) {
+        appenders.setShareLayoutEncoding(shareLayoutEncoding);
+    }
+
     /**
      * Returns the value of logger configuration attribute {@code includeLocation}, or, if no such attribute was
      * configured, {@code true} if logging is synchronous or {@code false} if logging is asynchronous.
@@ -443,12 +467,31 @@ public class LoggerConfig extends AbstractFilterable {
     @PerformanceSensitive("allocation")
     protected void callAppenders(final LogEvent event) {
         final AppenderControl[] controls = appenders.get();
+        if (appenders.isLayoutEncodingShared()) {
+            callAppendersSharingLayoutEncoding(event, controls);
+            return;
+        }
         //noinspection ForLoopReplaceableByForEach
         for (int i = 0; i < controls.length; i++) {
             controls[i].callAppender(event);
         }
     }
 
+    private void callAppendersSharingLayoutEncoding(final LogEvent event, final AppenderControl[] controls) {
+        final EncodedEventCache cache = EncodedEventCache.current();
+        final boolean caching = cache.begin(event);
+        try {
+            //noinspection ForLoopReplaceableByForEach
+            for (int i = 0; i < controls.length; i++) {
+                controls[i].callAppender(event);
+            }
+        } finally {
+            if (caching) {
+                cache.end();
+            }
+        }
+    }
+
     @Override
     public String toString() {
         return Strings.isEmpty(name) ? ROOT : name;
@@ -505,6 +548,30 @@ public class LoggerConfig extends AbstractFilterable {
      * @param filter A Filter.
      * @return A new LoggerConfig.
      * @since 2.6
+     * @deprecated Deprecated in 2.10.1; use
+     *             {@link #createLogger(boolean, Level, String, String, String, AppenderRef[], Property[], Configuration, Filter)}
+     */
+    @Deprecated
+    public static LoggerConfig createLogger(final boolean additivity, final Level level, final String loggerName,
+            final String includeLocation, final AppenderRef[] refs, final Property[] properties,
+            final Configuration config, final Filter filter) {
+        return createLogger(additivity, level, loggerName, includeLocation, null, refs, properties, config, filter);
+    }
+
+    /**
+     * Factory method to create a LoggerConfig.
+     *
+     * @param additivity true if additive, false otherwise.
+     * @param level The Level to be associated with the Logger.
+     * @param loggerName The name of the Logger.
+     * @param includeLocation whether location should be passed downstream
+     * @param shareLayoutEncoding whether appenders with equivalent layouts share the encoded bytes of an event
+     * @param refs An array of Appender names.
+     * @param properties Properties to pass to the Logger.
+     * @param config The Configuration.
+     * @param filter A Filter.
+     * @return A new LoggerConfig.
+     * @since 2.10.1
      */
     @PluginFactory
     public static LoggerConfig createLogger(
@@ -513,6 +580,7 @@ public class LoggerConfig extends AbstractFilterable {
         @PluginAttribute("level") final Level level,
         @Required(message = "Loggers cannot be configured without a name") @PluginAttribute("name") final String loggerName,
         @PluginAttribute("includeLocation") final String includeLocation,
+        @PluginAttribute("shareLayoutEncoding") final String shareLayoutEncoding,
         @PluginElement("AppenderRef") final AppenderRef[] refs,
         @PluginElement("Properties") final Property[] properties,
         @PluginConfiguration final Configuration config,
@@ -520,8 +588,10 @@ public class LoggerConfig extends AbstractFilterable {
         // @formatter:on
     ) {
         final String name = loggerName.equals(ROOT) ? Strings.EMPTY : loggerName;
-        return new LoggerConfig(name, Arrays.asList(refs), filter, level, additivity, properties, config,
-            includeLocation(includeLocation));
+        final LoggerConfig loggerConfig = new LoggerConfig(name, Arrays.asList(refs), filter, level, additivity,
+                properties, config, includeLocation(includeLocation));
+        loggerConfig.setShareLayoutEncoding(shareLayoutEncoding(shareLayoutEncoding));
+        return loggerConfig;
     }
 
     // Note: for asynchronous loggers, includeLocation default is FALSE,
@@ -534,18 +604,41 @@ public class LoggerConfig extends AbstractFilterable {
         return Boolean.parseBoolean(includeLocationConfigValue);
     }
 
+    // Note: the default is the system property log4j2.shareLayoutEncoding.
+    protected static boolean shareLayoutEncoding(final String shareLayoutEncodingConfigValue) {
+        if (shareLayoutEncodingConfigValue == null) {
+            return Constants.SHARE_LAYOUT_ENCODING;
+        }
+        return Boolean.parseBoolean(shareLayoutEncodingConfigValue);
+    }
+
     /**
      * The root Logger.
      */
     @Plugin(name = ROOT, category = Core.CATEGORY_NAME, printObject = true)
     public static class RootLogger extends LoggerConfig {
 
+        /**
+         * @deprecated Deprecated in 2.10.1; use
+         *             {@link #createLogger(String, Level, String, String, AppenderRef[], Property[], Configuration, Filter)}
+         */
+        @Deprecated
+        public static LoggerConfig createLogger(final String additivity, final Level level,
+                final String includeLocation, final AppenderRef[] refs, final Property[] properties,
+                final Configuration config, final Filter filter) {
+            return createLogger(additivity, level, includeLocation, null, refs, properties, config, filter);
+        }
+
+        /**
+         * @since 2.10.1
+         */
         @PluginFactory
         public static LoggerConfig createLogger(
                 // @formatter:off
                 @PluginAttribute("additivity") final String additivity,
                 @PluginAttribute("level") final Level level,
                 @PluginAttribute("includeLocation") final String includeLocation,
+                @PluginAttribute("shareLayoutEncoding") final String shareLayoutEncoding,
                 @PluginElement("AppenderRef") final AppenderRef[] refs,
                 @PluginElement("Properties") final Property[] properties,
                 @PluginConfiguration final Configuration config,
@@ -555,8 +648,10 @@ public class LoggerConfig extends AbstractFilterable {
             final Level actualLevel = level == null ? Level.ERROR : level;
             final boolean additive = Booleans.parseBoolean(additivity, true);
 
-            return new LoggerConfig(LogManager.ROOT_LOGGER_NAME, appenderRefs, filter, actualLevel, additive,
-                    properties, config, includeLocation(includeLocation));
+            final LoggerConfig loggerConfig = new LoggerConfig(LogManager.ROOT_LOGGER_NAME, appenderRefs, filter,
+                    actualLevel, additive, properties, config, includeLocation(includeLocation));
+            loggerConfig.setShareLayoutEncoding(shareLayoutEncoding(shareLayoutEncoding));
+            return loggerConfig;
         }
     }
 
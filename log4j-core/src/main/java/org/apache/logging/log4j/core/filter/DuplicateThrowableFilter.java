@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.filter;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Marker;
+import org.apache.logging.log4j.core.Filter;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.Logger;
+import org.apache.logging.log4j.core.config.Node;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginBuilderAttribute;
+import org.apache.logging.log4j.core.config.plugins.PluginBuilderFactory;
+import org.apache.logging.log4j.core.impl.ThrowableFingerprintTable;
+import org.apache.logging.log4j.message.Message;
+
+/**
+ * The <code>DuplicateThrowableFilter</code> suppresses log events whose throwable has the same stack trace as a
+ * throwable that was logged shortly before.
+ *
+ * <p>
+ * Throwables are compared by the class names and stack frames of the throwable, its causes and suppressed throwables;
+ * messages are ignored. The first occurrence of a stack trace returns the <code>onMatch</code> result, and
+ * occurrences within <code>windowMillis</code> milliseconds after it return the <code>onMismatch</code> result. Events
+ * without a throwable always return <code>onMatch</code>. For example, the following configuration logs each distinct
+ * stack trace at most once per minute:
+ * </p>
+ * <code>
+ * &lt;Console name="console"&gt;<br>
+ * &nbsp;&lt;PatternLayout pattern="%-5p %d{dd-MMM-yyyy HH:mm:ss} %t %m%n%xEx"/&gt;<br>
+ * &nbsp;&lt;filters&gt;<br>
+ * &nbsp;&nbsp;&lt;DuplicateThrowableFilter windowMillis="60000"/&gt;<br>
+ * &nbsp;&lt;/filters&gt;<br>
+ * &lt;/Console&gt;<br>
+ * </code><br>
+ * <p>
+ * To keep the events but abbreviate repeated stack traces, use the <code>dedup</code> option of the throwable
+ * pattern converters instead.
+ * </p>
+ *
+ * @since 2.10.1
+ */
+@Plugin(name = "DuplicateThrowableFilter", category = Node.CATEGORY, elementType = Filter.ELEMENT_TYPE,
+        printObject = true)
+public final class DuplicateThrowableFilter extends AbstractFilter {
+
+    private static final long DEFAULT_WINDOW_MILLIS = 60000;
+
+    private final ThrowableFingerprintTable fingerprints;
+
+    private DuplicateThrowableFilter(final long windowMillis, final int maxSize, final Result onMatch,
+            final Result onMismatch) {
+        super(onMatch, onMismatch);
+        this.fingerprints = new ThrowableFingerprintTable(windowMillis, maxSize);
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final Object msg,
+                         final Throwable t) {
+        return filter(t, System.currentTimeMillis());
+    }
+
+    @Override
+    public Result filter(final Logger logger, final Level level, final Marker marker, final Message msg,
+                         final Throwable t) {
+        return filter(t, System.currentTimeMillis());
+    }
+
+    @Override
+    public Result filter(final LogEvent event) {
+        return filter(event.getThrown(), event.getTimeMillis());
+    }
+
+    private Result filter(final Throwable throwable, final long timeMillis) {
+        if (throwable == null) {
+            return onMatch;
+        }
+        return fingerprints.record(ThrowableFingerprintTable.fingerprint(throwable), timeMillis) == 1 ? onMatch
+                : onMismatch;
+    }
+
+    /**
+     * Forgets all stack traces. Used for unit testing.
+     */
+    public void clear() {
+        fingerprints.clear();
+    }
+
+    @Override
+    public String toString() {
+        return "windowMillis=" + fingerprints.getWindowMillis() + ", maxSize=" + fingerprints.getMaxSize();
+    }
+
+    @PluginBuilderFactory
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static class Builder implements org.apache.logging.log4j.core.util.Builder<DuplicateThrowableFilter> {
+
+        @PluginBuilderAttribute
+        private long windowMillis = DEFAULT_WINDOW_MILLIS;
+
+        @PluginBuilderAttribute
+        private int maxSize = ThrowableFingerprintTable.DEFAULT_MAX_SIZE;
+
+        @PluginBuilderAttribute
+        private Result onMatch = Result.NEUTRAL;
+
+        @PluginBuilderAttribute
+        private Result onMismatch = Result.DENY;
+
+        /**
+         * Sets how long, in milliseconds, repeats of a stack trace are filtered after its first occurrence.
+         */
+        public Builder setWindowMillis(final long windowMillis) {
+            this.windowMillis = windowMillis;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of distinct stack traces to track. The default is 1024.
+         */
+        public Builder setMaxSize(final int maxSize) {
+            this.maxSize = maxSize;
+            return this;
+        }
+
+        /**
+         * Sets the Result to return for first occurrences. Defaults to Result.NEUTRAL.
+         */
+        public Builder setOnMatch(final Result onMatch) {
+            this.onMatch = onMatch;
+            return this;
+        }
+
+        /**
+         * Sets the Result to return for repeats. The default is Result.DENY.
+         */
+        public Builder setOnMismatch(final Result onMismatch) {
+            this.onMismatch = onMismatch;
+            return this;
+        }
+
+        @Override
+        public DuplicateThrowableFilter build() {
+            if (this.windowMillis <= 0) {
+                this.windowMillis = DEFAULT_WINDOW_MILLIS;
+            }
+            if (this.maxSize <= 0) {
+                this.maxSize = ThrowableFingerprintTable.DEFAULT_MAX_SIZE;
+            }
+            return new DuplicateThrowableFilter(this.windowMillis, this.maxSize, this.onMatch, this.onMismatch);
+        }
+    }
+}
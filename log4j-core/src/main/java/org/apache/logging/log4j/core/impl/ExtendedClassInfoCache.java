@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.logging.log4j.core.util.Constants;
+import org.apache.logging.log4j.util.PropertiesUtil;
+
+/**
+ * Bounded LRU cache of the packaging information ({@link ExtendedClassInfo}) of classes that appear in stack traces,
+ * shared by all {@link ThrowableProxy} instances. Resolving the code source and package version of a class is
+ * expensive, and the same classes show up in the stack traces of every exception thrown from the same code path.
+ * <p>
+ * The cache holds strong references to at most {@link #MAX_SIZE} classes. It is disabled in web applications, where
+ * it could keep the class loader of an undeployed application alive, and can be sized with system property
+ * {@code log4j2.extendedClassInfoCacheSize} (0 disables it).
+ * </p>
+ */
+final class ExtendedClassInfoCache {
+
+    static final int MAX_SIZE = PropertiesUtil.getProperties().getIntegerProperty(
+            "log4j2.extendedClassInfoCacheSize", Constants.IS_WEB_APP ? 0 : 1024);
+
+    static final ExtendedClassInfoCache INSTANCE = new ExtendedClassInfoCache(MAX_SIZE);
+
+    private final int maxSize;
+    private final Map<Class<?>, ThrowableProxy.CacheEntry[]> map;
+
+    ExtendedClassInfoCache(final int maxSize) {
+        this.maxSize = maxSize;
+        this.map = new LinkedHashMap<Class<?>, ThrowableProxy.CacheEntry[]>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Class<?>, ThrowableProxy.CacheEntry[]> eldest) {
+                return size() > ExtendedClassInfoCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached entries of the specified class, indexed by {@code exact ? 1 : 0}.
+     *
+     * @param clazz the class of a stack trace element
+     * @return the entries, or {@code null} if the class is not cached
+     */
+    ThrowableProxy.CacheEntry[] get(final Class<?> clazz) {
+        if (maxSize <= 0) {
+            return null;
+        }
+        synchronized (map) {
+            return map.get(clazz);
+        }
+    }
+
+    void put(final Class<?> clazz, final ThrowableProxy.CacheEntry[] entries) {
+        if (maxSize <= 0) {
+            return;
+        }
+        synchronized (map) {
+            map.put(clazz, entries);
+        }
+    }
+
+    int size() {
+        synchronized (map) {
+            return map.size();
+        }
+    }
+}
@@ -28,6 +28,8 @@ import org.apache.logging.log4j.core.LogEvent;
 import org.apache.logging.log4j.core.async.InternalAsyncUtil;
 import org.apache.logging.log4j.core.util.Constants;
 import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.message.ParameterConsumer;
+import org.apache.logging.log4j.message.ParameterVisitable;
 import org.apache.logging.log4j.message.ParameterizedMessage;
 import org.apache.logging.log4j.message.ReusableMessage;
 import org.apache.logging.log4j.message.SimpleMessage;
@@ -41,7 +43,7 @@ import org.apache.logging.log4j.util.Strings;
  * Mutable implementation of the {@code LogEvent} interface.
  * @since 2.6
  */
-public class MutableLogEvent implements LogEvent, ReusableMessage {
+public class MutableLogEvent implements LogEvent, ReusableMessage, ParameterVisitable {
     private static final Message EMPTY = new SimpleMessage(Strings.EMPTY);
 
     private int threadPriority;
@@ -56,6 +58,7 @@ public class MutableLogEvent implements LogEvent, ReusableMessage {
     private String loggerName;
     private Message message;
     private StringBuilder messageText;
+    private String messageFormat;
     private Object[] parameters;
     private Throwable thrown;
     private ThrowableProxy thrownProxy;
@@ -124,6 +127,7 @@ public class MutableLogEvent implements LogEvent, ReusableMessage {
         level = null;
         loggerName = null;
         message = null;
+        messageFormat = null;
         thrown = null;
         thrownProxy = null;
         source = null;
@@ -209,7 +213,12 @@ public class MutableLogEvent implements LogEvent, ReusableMessage {
         if (msg instanceof ReusableMessage) {
             final ReusableMessage reusable = (ReusableMessage) msg;
             reusable.formatTo(getMessageTextForWriting());
+            messageFormat = null;
             if (parameters != null) {
+                if (msg instanceof ParameterVisitable) {
+                    // keep the format string so layouts can write it with the parameters instead of the text
+                    messageFormat = msg.getFormat();
+                }
                 parameters = reusable.swapParameters(parameters);
                 parameterCount = reusable.getParameterCount();
             }
@@ -241,7 +250,7 @@ public class MutableLogEvent implements LogEvent, ReusableMessage {
      */
     @Override
     public String getFormat() {
-        return null;
+        return messageFormat;
     }
 
     /**
@@ -252,6 +261,20 @@ public class MutableLogEvent implements LogEvent, ReusableMessage {
         return parameters == null ? null : Arrays.copyOf(parameters, parameterCount);
     }
 
+    /**
+     * Performs the specified action for each parameter that was swapped into this event.
+     *
+     * @see ParameterVisitable#forEachParameter(ParameterConsumer, Object)
+     */
+    @Override
+    public <S> void forEachParameter(final ParameterConsumer<S> action, final S state) {
+        if (parameters != null) {
+            for (int i = 0; i < parameterCount; i++) {
+                action.accept(parameters[i], i, state);
+            }
+        }
+    }
+
     /**
      * @see ReusableMessage#getThrowable()
      */
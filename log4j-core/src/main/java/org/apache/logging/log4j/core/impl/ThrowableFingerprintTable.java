@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.impl;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Counts how often throwables with the same stack trace occur within a time window.
+ * <p>
+ * Throwables are identified by a {@linkplain #fingerprint(Throwable) fingerprint} computed from the class names and
+ * stack frames of the throwable, its causes and suppressed throwables; messages are ignored. The table is safe for
+ * concurrent use and holds at most {@code maxSize} fingerprints. When it is full, a clock hand that goes round the
+ * tracked fingerprints checks a few of them for each new fingerprint and replaces the first one whose window has
+ * expired. If none of those has expired, the new fingerprint is not tracked (it is reported as a first occurrence),
+ * and the next new fingerprint continues where the hand stopped.
+ * </p>
+ *
+ * @since 2.10.1
+ */
+public final class ThrowableFingerprintTable {
+
+    /** Default number of fingerprints to track. */
+    public static final int DEFAULT_MAX_SIZE = 1024;
+
+    private static final int MAX_DEPTH = 16;
+
+    /** Number of tracked fingerprints the clock hand checks for each new fingerprint when the table is full. */
+    private static final int EVICTION_STEPS = 8;
+
+    private final ConcurrentMap<Long, Occurrences> table = new ConcurrentHashMap<>();
+    private final long windowMillis;
+    private final int maxSize;
+
+    // guarded by this: the fingerprint in each slot, the number of slots in use and the position of the clock hand
+    private final long[] slots;
+    private int used;
+    private int hand;
+
+    /**
+     * Constructs a new table.
+     *
+     * @param windowMillis how long after its first occurrence a throwable is considered a repeat, in milliseconds
+     * @param maxSize the maximum number of fingerprints to track
+     */
+    public ThrowableFingerprintTable(final long windowMillis, final int maxSize) {
+        this.windowMillis = windowMillis;
+        this.maxSize = maxSize;
+        this.slots = new long[Math.max(0, maxSize)];
+    }
+
+    /**
+     * Computes the fingerprint of the stack trace of the specified throwable.
+     *
+     * @param throwable the throwable
+     * @return a hash of the class names and stack frames of the throwable, its causes and suppressed throwables
+     */
+    public static long fingerprint(final Throwable throwable) {
+        return mix(hash(throwable, 1L, 0));
+    }
+
+    private static long hash(final Throwable throwable, long hash, final int depth) {
+        if (throwable == null || depth > MAX_DEPTH) {
+            return hash;
+        }
+        hash = 31 * hash + throwable.getClass().getName().hashCode();
+        for (final StackTraceElement element : throwable.getStackTrace()) {
+            hash = 31 * hash + element.hashCode();
+        }
+        for (final Throwable suppressed : throwable.getSuppressed()) {
+            hash = hash(suppressed, 31 * hash + 'S', depth + 1);
+        }
+        final Throwable cause = throwable.getCause();
+        return cause == throwable ? hash : hash(cause, 31 * hash + 'C', depth + 1);
+    }
+
+    /**
+     * Spreads the bits of the hash, so that the low bits can be shown as a short reference.
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Appends the short hexadecimal reference of the specified fingerprint to the specified buffer.
+     *
+     * @param fingerprint the fingerprint
+     * @param buffer the buffer to append to
+     */
+    public static void formatReference(final long fingerprint, final StringBuilder buffer) {
+        for (int shift = 20; shift >= 0; shift -= 4) {
+            buffer.append(Character.forDigit((int) (fingerprint >>> shift) & 0xF, 16));
+        }
+    }
+
+    /**
+     * Records an occurrence of the specified fingerprint.
+     *
+     * @param fingerprint the fingerprint of a throwable
+     * @param timeMillis the time of the occurrence
+     * @return the number of occurrences of the fingerprint in the current window, including this one; 1 means this
+     *          is the first occurrence
+     */
+    public int record(final long fingerprint, final long timeMillis) {
+        final Long key = fingerprint;
+        final Occurrences occurrences = table.get(key);
+        if (occurrences != null) {
+            return occurrences.record(timeMillis, windowMillis);
+        }
+        synchronized (this) {
+            final Occurrences existing = table.get(key);
+            if (existing != null) {
+                return existing.record(timeMillis, windowMillis);
+            }
+            final int slot = claimSlot(timeMillis);
+            if (slot >= 0) {
+                slots[slot] = fingerprint;
+                table.put(key, new Occurrences(timeMillis));
+            }
+            return 1;
+        }
+    }
+
+    /**
+     * Returns a free slot, or the slot of an expired fingerprint after removing it from the table, or -1 if the clock
+     * hand found no expired fingerprint within {@link #EVICTION_STEPS} slots.
+     */
+    private int claimSlot(final long timeMillis) {
+        if (used < slots.length) {
+            return used++;
+        }
+        for (int i = 0; i < EVICTION_STEPS && i < slots.length; i++) {
+            final int slot = hand;
+            hand = slot + 1 == slots.length ? 0 : slot + 1;
+            final Long key = slots[slot];
+            final Occurrences occurrences = table.get(key);
+            if (occurrences == null || occurrences.isExpired(timeMillis, windowMillis)) {
+                table.remove(key);
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the number of fingerprints that are tracked.
+     *
+     * @return the number of fingerprints in this table
+     */
+    public int size() {
+        return table.size();
+    }
+
+    /**
+     * Removes all fingerprints.
+     */
+    public synchronized void clear() {
+        table.clear();
+        used = 0;
+        hand = 0;
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * The occurrences of one fingerprint in the current window.
+     */
+    private static final class Occurrences {
+        private long windowStart;
+        private int count;
+
+        Occurrences(final long windowStart) {
+            this.windowStart = windowStart;
+            this.count = 1;
+        }
+
+        synchronized int record(final long timeMillis, final long windowMillis) {
+            if (timeMillis - windowStart >= windowMillis) {
+                windowStart = timeMillis;
+                count = 1;
+            } else if (count < Integer.MAX_VALUE) {
+                count++;
+            }
+            return count;
+        }
+
+        synchronized boolean isExpired(final long timeMillis, final long windowMillis) {
+            return timeMillis - windowStart >= windowMillis;
+        }
+    }
+}
@@ -55,6 +55,13 @@ public final class ThrowableFormatOptions {
      */
     private static final String SHORT = "short";
 
+    /**
+     * Abbreviate repeated stack traces.
+     */
+    private static final String DEDUP = "dedup";
+
+    private static final long DEFAULT_DEDUP_WINDOW_MILLIS = 60000;
+
     /**
      * ANSI renderer
      */
@@ -72,6 +79,11 @@ public final class ThrowableFormatOptions {
 
     private final String suffix;
 
+    /**
+     * How long repeats of a stack trace are abbreviated after its first occurrence, or 0 to always format it.
+     */
+    private final long dedupWindowMillis;
+
     /**
      * The list of packages to filter.
      */
@@ -99,11 +111,34 @@ public final class ThrowableFormatOptions {
      */
     protected ThrowableFormatOptions(final int lines, final String separator, final List<String> ignorePackages,
             final TextRenderer textRenderer, final String suffix) {
+        this(lines, separator, ignorePackages, textRenderer, suffix, 0);
+    }
+
+    /**
+     * Constructs the options for printing stack trace.
+     *
+     * @param lines
+     *            The number of lines.
+     * @param separator
+     *            The stack trace separator.
+     * @param ignorePackages
+     *            The packages to filter.
+     * @param textRenderer
+     *            The ANSI renderer
+     * @param suffix
+     *            The suffix pattern.
+     * @param dedupWindowMillis
+     *            How long repeats of a stack trace are abbreviated after its first occurrence, 0 to disable.
+     * @since 2.10.1
+     */
+    protected ThrowableFormatOptions(final int lines, final String separator, final List<String> ignorePackages,
+            final TextRenderer textRenderer, final String suffix, final long dedupWindowMillis) {
         this.lines = lines;
         this.separator = separator == null ? Strings.LINE_SEPARATOR : separator;
         this.ignorePackages = ignorePackages;
         this.textRenderer = textRenderer == null ? PlainTextRenderer.getInstance() : textRenderer;
         this.suffix = suffix;
+        this.dedupWindowMillis = dedupWindowMillis;
     }
 
     /**
@@ -159,6 +194,16 @@ public final class ThrowableFormatOptions {
         return this.ignorePackages;
     }
 
+    /**
+     * Returns how long, in milliseconds, repeats of a stack trace are replaced by a reference to its first occurrence.
+     *
+     * @return The deduplication window, or 0 if every stack trace is formatted in full.
+     * @since 2.10.1
+     */
+    public long getDedupWindowMillis() {
+        return this.dedupWindowMillis;
+    }
+
     /**
      * Determines if all lines should be printed.
      *
@@ -215,6 +260,9 @@ public final class ThrowableFormatOptions {
             s.deleteCharAt(s.length() - 1);
             s.append(")}");
         }
+        if (this.dedupWindowMillis > 0) {
+            s.append("{dedup(").append(this.dedupWindowMillis).append(")}");
+        }
         return s.toString();
     }
 
@@ -251,6 +299,7 @@ public final class ThrowableFormatOptions {
         List<String> packages = DEFAULT.ignorePackages;
         TextRenderer ansiRenderer = DEFAULT.textRenderer;
         String suffix = DEFAULT.getSuffix();
+        long dedupWindowMillis = DEFAULT.dedupWindowMillis;
         for (final String rawOption : options) {
             if (rawOption != null) {
                 final String option = rawOption.trim();
@@ -293,12 +342,16 @@ public final class ThrowableFormatOptions {
                     suffix = option.substring("S(".length(), option.length() - 1);
                 } else if (option.startsWith("suffix(") && option.endsWith(")")){
                     suffix = option.substring("suffix(".length(), option.length() - 1);
+                } else if (option.equals(DEDUP)) {
+                    dedupWindowMillis = DEFAULT_DEDUP_WINDOW_MILLIS;
+                } else if (option.startsWith("dedup(") && option.endsWith(")")) {
+                    dedupWindowMillis = Long.parseLong(option.substring("dedup(".length(), option.length() - 1).trim());
                 } else if (!option.equalsIgnoreCase(FULL)) {
                     lines = Integer.parseInt(option);
                 }
             }
         }
-        return new ThrowableFormatOptions(lines, separator, packages, ansiRenderer, suffix);
+        return new ThrowableFormatOptions(lines, separator, packages, ansiRenderer, suffix, dedupWindowMillis);
     }
 
     public String getSuffix() {
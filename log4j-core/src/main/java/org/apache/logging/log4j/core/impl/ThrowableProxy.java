@@ -75,6 +75,10 @@ public class ThrowableProxy implements Serializable {
         }
     }
 
+    private static final CacheEntry UNKNOWN_EXACT = new CacheEntry(new ExtendedClassInfo(true, "?", "?"), null);
+
+    private static final CacheEntry UNKNOWN_INEXACT = new CacheEntry(new ExtendedClassInfo(false, "?", "?"), null);
+
     private static final ThrowableProxy[] EMPTY_THROWABLE_PROXY_ARRAY = new ThrowableProxy[0];
 
     private static final char EOL = '\n';
@@ -206,15 +210,52 @@ public class ThrowableProxy implements Serializable {
         return true;
     }
 
+    /**
+     * Determines whether the specified proxy renders the same extended stack trace as this proxy. Unlike
+     * {@link #equals(Object)}, this also compares the messages of the throwables, their causes and suppressed
+     * throwables.
+     *
+     * @param other the proxy to compare to, may be null
+     * @return true if both proxies produce the same output when formatted with the same options
+     * @since 2.10.1
+     */
+    public boolean isRenderedLike(final ThrowableProxy other) {
+        return this == other || (equals(other) && messagesEqual(this, other));
+    }
+
+    /**
+     * Compares the messages of two proxies that are {@linkplain #equals(Object) equal}.
+     */
+    private static boolean messagesEqual(final ThrowableProxy a, final ThrowableProxy b) {
+        if (a == null || a == b) {
+            return true;
+        }
+        if (a.message == null ? b.message != null : !a.message.equals(b.message)) {
+            return false;
+        }
+        if (!messagesEqual(a.causeProxy, b.causeProxy)) {
+            return false;
+        }
+        if (a.suppressedProxies != null) {
+            for (int i = 0; i < a.suppressedProxies.length; i++) {
+                if (!messagesEqual(a.suppressedProxies[i], b.suppressedProxies[i])) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
     private void formatCause(final StringBuilder sb, final String prefix, final ThrowableProxy cause,
-                             final List<String> ignorePackages, final TextRenderer textRenderer, final String suffix) {
-        formatThrowableProxy(sb, prefix, CAUSED_BY_LABEL, cause, ignorePackages, textRenderer, suffix);
+                             final List<String> ignorePackages, final TextRenderer textRenderer, final String suffix,
+                             final int limit) {
+        formatThrowableProxy(sb, prefix, CAUSED_BY_LABEL, cause, ignorePackages, textRenderer, suffix, limit);
     }
 
     private void formatThrowableProxy(final StringBuilder sb, final String prefix, final String causeLabel,
                                       final ThrowableProxy throwableProxy, final List<String> ignorePackages,
-                                      final TextRenderer textRenderer, final String suffix) {
-        if (throwableProxy == null) {
+                                      final TextRenderer textRenderer, final String suffix, final int limit) {
+        if (throwableProxy == null || sb.length() > limit) {
             return;
         }
         textRenderer.render(prefix, sb, "Prefix");
@@ -223,9 +264,11 @@ public class ThrowableProxy implements Serializable {
         renderSuffix(suffix, sb, textRenderer);
         textRenderer.render(EOL_STR, sb, "Text");
         this.formatElements(sb, prefix, throwableProxy.commonElementCount,
-            throwableProxy.getStackTrace(), throwableProxy.extendedStackTrace, ignorePackages, textRenderer, suffix);
-        this.formatSuppressed(sb, prefix + TAB, throwableProxy.suppressedProxies, ignorePackages, textRenderer, suffix);
-        this.formatCause(sb, prefix, throwableProxy.causeProxy, ignorePackages, textRenderer, suffix);
+            throwableProxy.getStackTrace(), throwableProxy.extendedStackTrace, ignorePackages, textRenderer, suffix,
+            limit);
+        this.formatSuppressed(sb, prefix + TAB, throwableProxy.suppressedProxies, ignorePackages, textRenderer, suffix,
+            limit);
+        this.formatCause(sb, prefix, throwableProxy.causeProxy, ignorePackages, textRenderer, suffix, limit);
     }
 
     void renderOn(final StringBuilder output, final TextRenderer textRenderer) {
@@ -238,25 +281,34 @@ public class ThrowableProxy implements Serializable {
     }
 
     private void formatSuppressed(final StringBuilder sb, final String prefix, final ThrowableProxy[] suppressedProxies,
-                                  final List<String> ignorePackages, final TextRenderer textRenderer, final String suffix) {
+                                  final List<String> ignorePackages, final TextRenderer textRenderer, final String suffix,
+                                  final int limit) {
         if (suppressedProxies == null) {
             return;
         }
         for (final ThrowableProxy suppressedProxy : suppressedProxies) {
-            formatThrowableProxy(sb, prefix, SUPPRESSED_LABEL, suppressedProxy, ignorePackages, textRenderer, suffix);
+            formatThrowableProxy(sb, prefix, SUPPRESSED_LABEL, suppressedProxy, ignorePackages, textRenderer, suffix,
+                limit);
         }
     }
 
     private void formatElements(final StringBuilder sb, final String prefix, final int commonCount,
                                 final StackTraceElement[] causedTrace, final ExtendedStackTraceElement[] extStackTrace,
-                                final List<String> ignorePackages, final TextRenderer textRenderer, final String suffix) {
+                                final List<String> ignorePackages, final TextRenderer textRenderer, final String suffix,
+                                final int limit) {
         if (ignorePackages == null || ignorePackages.isEmpty()) {
             for (final ExtendedStackTraceElement element : extStackTrace) {
+                if (sb.length() > limit) {
+                    return;
+                }
                 this.formatEntry(element, sb, prefix, textRenderer, suffix);
             }
         } else {
             int count = 0;
             for (int i = 0; i < extStackTrace.length; ++i) {
+                if (sb.length() > limit) {
+                    return;
+                }
                 if (!this.ignoreElement(causedTrace[i], ignorePackages)) {
                     if (count > 0) {
                         appendSuppressedCount(sb, prefix, count, textRenderer, suffix);
@@ -354,7 +406,8 @@ public class ThrowableProxy implements Serializable {
         renderSuffix(suffix, sb, textRenderer);
         textRenderer.render(EOL_STR, sb, "Text");
         this.formatElements(sb, Strings.EMPTY, cause.commonElementCount,
-            cause.getThrowable().getStackTrace(), cause.extendedStackTrace, ignorePackages, textRenderer, suffix);
+            cause.getThrowable().getStackTrace(), cause.extendedStackTrace, ignorePackages, textRenderer, suffix,
+            Integer.MAX_VALUE);
     }
 
     public ThrowableProxy getCauseProxy() {
@@ -401,7 +454,7 @@ public class ThrowableProxy implements Serializable {
         renderSuffix(suffix, sb, textRenderer);
         textRenderer.render(EOL_STR, sb, "Text");
         this.formatElements(sb, Strings.EMPTY, 0, this.throwable.getStackTrace(), this.extendedStackTrace,
-            ignorePackages, textRenderer, suffix);
+            ignorePackages, textRenderer, suffix, Integer.MAX_VALUE);
         return sb.toString();
     }
 
@@ -465,16 +518,50 @@ public class ThrowableProxy implements Serializable {
      */
     public String getExtendedStackTraceAsString(final List<String> ignorePackages, final TextRenderer textRenderer, final String suffix) {
         final StringBuilder sb = new StringBuilder(1024);
+        formatExtendedStackTraceTo(sb, ignorePackages, textRenderer, suffix);
+        return sb.toString();
+    }
+
+    /**
+     * Formats the stack trace including packaging information into the specified buffer.
+     *
+     * @param sb             Destination.
+     * @param ignorePackages List of packages to be ignored in the trace.
+     * @param textRenderer   The message renderer.
+     * @param suffix         Append this to the end of each stack frame.
+     * @since 2.10.1
+     */
+    public void formatExtendedStackTraceTo(final StringBuilder sb, final List<String> ignorePackages,
+            final TextRenderer textRenderer, final String suffix) {
+        formatExtendedStackTraceTo(sb, ignorePackages, textRenderer, suffix, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Formats the stack trace including packaging information into the specified buffer, stopping at the first stack
+     * frame after more than {@code maxLength} characters have been appended. The first {@code maxLength} characters
+     * are the same as the ones appended by {@link #formatExtendedStackTraceTo(StringBuilder, List, TextRenderer,
+     * String)}; the caller truncates the rest.
+     *
+     * @param sb             Destination.
+     * @param ignorePackages List of packages to be ignored in the trace.
+     * @param textRenderer   The message renderer.
+     * @param suffix         Append this to the end of each stack frame.
+     * @param maxLength      The number of characters after which formatting can stop.
+     * @since 2.10.1
+     */
+    public void formatExtendedStackTraceTo(final StringBuilder sb, final List<String> ignorePackages,
+            final TextRenderer textRenderer, final String suffix, final int maxLength) {
+        final int limit = maxLength > Integer.MAX_VALUE - sb.length() ? Integer.MAX_VALUE : sb.length() + maxLength;
         textRenderer.render(name, sb, "Name");
         textRenderer.render(": ", sb, "NameMessageSeparator");
         textRenderer.render(this.message, sb, "Message");
         renderSuffix(suffix, sb, textRenderer);
         textRenderer.render(EOL_STR, sb, "Text");
         final StackTraceElement[] causedTrace = this.throwable != null ? this.throwable.getStackTrace() : null;
-        this.formatElements(sb, Strings.EMPTY, 0, causedTrace, this.extendedStackTrace, ignorePackages, textRenderer, suffix);
-        this.formatSuppressed(sb, TAB, this.suppressedProxies, ignorePackages, textRenderer, suffix);
-        this.formatCause(sb, Strings.EMPTY, this.causeProxy, ignorePackages, textRenderer, suffix);
-        return sb.toString();
+        this.formatElements(sb, Strings.EMPTY, 0, causedTrace, this.extendedStackTrace, ignorePackages, textRenderer, suffix,
+            limit);
+        this.formatSuppressed(sb, TAB, this.suppressedProxies, ignorePackages, textRenderer, suffix, limit);
+        this.formatCause(sb, Strings.EMPTY, this.causeProxy, ignorePackages, textRenderer, suffix, limit);
     }
 
     public String getLocalizedMessage() {
@@ -606,42 +693,60 @@ public class ThrowableProxy implements Serializable {
      */
     private CacheEntry toCacheEntry(final StackTraceElement stackTraceElement, final Class<?> callerClass,
                                     final boolean exact) {
+        if (callerClass == null) {
+            return exact ? UNKNOWN_EXACT : UNKNOWN_INEXACT;
+        }
+        CacheEntry[] entries = ExtendedClassInfoCache.INSTANCE.get(callerClass);
+        if (entries == null) {
+            entries = resolveCacheEntries(callerClass);
+            ExtendedClassInfoCache.INSTANCE.put(callerClass, entries);
+        }
+        return entries[exact ? 1 : 0];
+    }
+
+    /**
+     * Resolves the location, version and class loader of the specified class.
+     *
+     * @param callerClass The Class.
+     * @return The inexact and exact CacheEntry of the class, in that order.
+     */
+    private static CacheEntry[] resolveCacheEntries(final Class<?> callerClass) {
         String location = "?";
         String version = "?";
-        ClassLoader lastLoader = null;
-        if (callerClass != null) {
-            try {
-                final CodeSource source = callerClass.getProtectionDomain().getCodeSource();
-                if (source != null) {
-                    final URL locationURL = source.getLocation();
-                    if (locationURL != null) {
-                        final String str = locationURL.toString().replace('\\', '/');
-                        int index = str.lastIndexOf("/");
-                        if (index >= 0 && index == str.length() - 1) {
-                            index = str.lastIndexOf("/", index - 1);
-                            location = str.substring(index + 1);
-                        } else {
-                            location = str.substring(index + 1);
-                        }
+        ClassLoader lastLoader;
+        try {
+            final CodeSource source = callerClass.getProtectionDomain().getCodeSource();
+            if (source != null) {
+                final URL locationURL = source.getLocation();
+                if (locationURL != null) {
+                    final String str = locationURL.toString().replace('\\', '/');
+                    int index = str.lastIndexOf("/");
+                    if (index >= 0 && index == str.length() - 1) {
+                        index = str.lastIndexOf("/", index - 1);
+                        location = str.substring(index + 1);
+                    } else {
+                        location = str.substring(index + 1);
                     }
                 }
-            } catch (final Exception ex) {
-                // Ignore the exception.
             }
-            final Package pkg = callerClass.getPackage();
-            if (pkg != null) {
-                final String ver = pkg.getImplementationVersion();
-                if (ver != null) {
-                    version = ver;
-                }
-            }
-            try {
-                lastLoader = callerClass.getClassLoader();
-            } catch (final SecurityException e) {
-                lastLoader = null;
+        } catch (final Exception ex) {
+            // Ignore the exception.
+        }
+        final Package pkg = callerClass.getPackage();
+        if (pkg != null) {
+            final String ver = pkg.getImplementationVersion();
+            if (ver != null) {
+                version = ver;
             }
         }
-        return new CacheEntry(new ExtendedClassInfo(exact, location, version), lastLoader);
+        try {
+            lastLoader = callerClass.getClassLoader();
+        } catch (final SecurityException e) {
+            lastLoader = null;
+        }
+        return new CacheEntry[] {
+                new CacheEntry(new ExtendedClassInfo(false, location, version), lastLoader),
+                new CacheEntry(new ExtendedClassInfo(true, location, version), lastLoader)};
     }
 
     /**
@@ -698,7 +803,7 @@ public class ThrowableProxy implements Serializable {
                     final CacheEntry entry = this.toCacheEntry(stackTraceElement,
                         this.loadClass(lastLoader, className), false);
                     extClassInfo = entry.element;
-                    map.put(stackTraceElement.toString(), entry);
+                    map.put(className, entry);
                     if (entry.loader != null) {
                         lastLoader = entry.loader;
                     }
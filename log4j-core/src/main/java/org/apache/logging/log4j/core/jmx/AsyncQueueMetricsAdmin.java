@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.jmx;
+
+import java.util.Objects;
+
+import javax.management.ObjectName;
+
+import org.apache.logging.log4j.core.async.AsyncQueueMetrics;
+
+/**
+ * Instruments the backpressure and latency statistics of an {@code AsyncLogger} or {@code AsyncLoggerConfig} ring
+ * buffer.
+ *
+ * @since 2.10.1
+ */
+public class AsyncQueueMetricsAdmin implements AsyncQueueMetricsAdminMBean {
+
+    private final AsyncQueueMetrics metrics;
+    private final ObjectName objectName;
+
+    public static AsyncQueueMetricsAdmin forAsyncLogger(final AsyncQueueMetrics metrics, final String contextName) {
+        final String ctxName = Server.escape(contextName);
+        final String name = String.format(PATTERN_ASYNC_LOGGER, ctxName);
+        return new AsyncQueueMetricsAdmin(metrics, name);
+    }
+
+    public static AsyncQueueMetricsAdmin forAsyncLoggerConfig(final AsyncQueueMetrics metrics,
+            final String contextName, final String configName) {
+        final String ctxName = Server.escape(contextName);
+        final String cfgName = Server.escape(configName);
+        final String name = String.format(PATTERN_ASYNC_LOGGER_CONFIG, ctxName, cfgName);
+        return new AsyncQueueMetricsAdmin(metrics, name);
+    }
+
+    protected AsyncQueueMetricsAdmin(final AsyncQueueMetrics metrics, final String mbeanName) {
+        this.metrics = Objects.requireNonNull(metrics, "metrics");
+        try {
+            objectName = new ObjectName(mbeanName);
+        } catch (final Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public long getQueueFullCount() {
+        return metrics.getQueueFullCount();
+    }
+
+    @Override
+    public long getEnqueuedWhenFullCount() {
+        return metrics.getEnqueuedWhenFullCount();
+    }
+
+    @Override
+    public long getSynchronousCount() {
+        return metrics.getSynchronousCount();
+    }
+
+    @Override
+    public long getDiscardedCount() {
+        return metrics.getDiscardedCount();
+    }
+
+    @Override
+    public long getBlockedPublishNanos() {
+        return metrics.getBlockedPublishNanos();
+    }
+
+    @Override
+    public long getMaxBlockedPublishNanos() {
+        return metrics.getMaxBlockedPublishNanos();
+    }
+
+    @Override
+    public long getEventCount() {
+        return metrics.getEventCount();
+    }
+
+    @Override
+    public long getBatchCount() {
+        return metrics.getBatchCount();
+    }
+
+    @Override
+    public long getMaxBatchSize() {
+        return metrics.getMaxBatchSize();
+    }
+
+    @Override
+    public double getAverageBatchSize() {
+        return metrics.getAverageBatchSize();
+    }
+
+    @Override
+    public long getQueueLatencyNanos50() {
+        return metrics.getQueueLatencyNanos(50);
+    }
+
+    @Override
+    public long getQueueLatencyNanos99() {
+        return metrics.getQueueLatencyNanos(99);
+    }
+
+    @Override
+    public long getQueueLatencyNanos999() {
+        return metrics.getQueueLatencyNanos(99.9);
+    }
+
+    @Override
+    public long getMaxQueueLatencyNanos() {
+        return metrics.getMaxQueueLatencyNanos();
+    }
+
+    @Override
+    public double getMeanQueueLatencyNanos() {
+        return metrics.getMeanQueueLatencyNanos();
+    }
+
+    @Override
+    public long getServiceTimeNanos50() {
+        return metrics.getServiceTimeNanos(50);
+    }
+
+    @Override
+    public long getServiceTimeNanos99() {
+        return metrics.getServiceTimeNanos(99);
+    }
+
+    @Override
+    public long getServiceTimeNanos999() {
+        return metrics.getServiceTimeNanos(99.9);
+    }
+
+    @Override
+    public long getMaxServiceTimeNanos() {
+        return metrics.getMaxServiceTimeNanos();
+    }
+
+    @Override
+    public double getMeanServiceTimeNanos() {
+        return metrics.getMeanServiceTimeNanos();
+    }
+
+    @Override
+    public void reset() {
+        metrics.reset();
+    }
+
+    /**
+     * Returns the {@code ObjectName} of this mbean.
+     *
+     * @return the {@code ObjectName}
+     * @see AsyncQueueMetricsAdminMBean#PATTERN_ASYNC_LOGGER
+     * @see AsyncQueueMetricsAdminMBean#PATTERN_ASYNC_LOGGER_CONFIG
+     */
+    public ObjectName getObjectName() {
+        return objectName;
+    }
+
+}
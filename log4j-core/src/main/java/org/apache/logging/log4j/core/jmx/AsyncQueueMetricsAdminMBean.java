@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.jmx;
+
+/**
+ * The MBean interface for monitoring backpressure and latency of the ring buffer of an {@code AsyncLogger} or
+ * {@code AsyncLoggerConfig}.
+ * <p>
+ * Latency attributes are zero unless latency recording was enabled with the {@code log4j2.asyncLoggerLatencyMetrics}
+ * or {@code log4j2.asyncLoggerConfigLatencyMetrics} system property.
+ * </p>
+ *
+ * @since 2.10.1
+ */
+public interface AsyncQueueMetricsAdminMBean {
+    /**
+     * ObjectName pattern ({@value}) for the AsyncQueueMetricsAdmin MBean that instruments
+     * the global {@code AsyncLogger} ring buffer.
+     * This pattern contains one variable: the name of the context.
+     */
+    String PATTERN_ASYNC_LOGGER = Server.DOMAIN + ":type=%s,component=AsyncLoggerRingBuffer,subtype=Metrics";
+
+    /**
+     * ObjectName pattern ({@value}) for AsyncQueueMetricsAdmin MBeans that instrument
+     * {@code AsyncLoggerConfig} ring buffers.
+     * This pattern contains two variables: the name of the context and the name of the instrumented logger config.
+     */
+    String PATTERN_ASYNC_LOGGER_CONFIG = Server.DOMAIN
+            + ":type=%s,component=Loggers,name=%s,subtype=RingBufferMetrics";
+
+    /**
+     * Returns the number of times a producer found the ring buffer full.
+     *
+     * @return the number of times the ring buffer was full
+     */
+    long getQueueFullCount();
+
+    /**
+     * Returns the number of events that were enqueued (blocking the producer) while the ring buffer was full.
+     *
+     * @return the number of events enqueued when the ring buffer was full
+     */
+    long getEnqueuedWhenFullCount();
+
+    /**
+     * Returns the number of events that were logged synchronously in the producer thread because the ring buffer was
+     * full.
+     *
+     * @return the number of events logged synchronously
+     */
+    long getSynchronousCount();
+
+    /**
+     * Returns the number of events that were discarded because the ring buffer was full.
+     *
+     * @return the number of discarded events
+     */
+    long getDiscardedCount();
+
+    /**
+     * Returns the total time in nanoseconds producers spent waiting for a free slot in the ring buffer.
+     *
+     * @return the total blocked time in nanoseconds
+     */
+    long getBlockedPublishNanos();
+
+    /**
+     * Returns the longest time in nanoseconds a single producer waited for a free slot in the ring buffer.
+     *
+     * @return the maximum blocked time in nanoseconds
+     */
+    long getMaxBlockedPublishNanos();
+
+    /**
+     * Returns the number of events processed by the background thread.
+     *
+     * @return the number of processed events
+     */
+    long getEventCount();
+
+    /**
+     * Returns the number of batches processed by the background thread.
+     *
+     * @return the number of processed batches
+     */
+    long getBatchCount();
+
+    /**
+     * Returns the largest number of events processed in a single batch.
+     *
+     * @return the maximum batch size
+     */
+    long getMaxBatchSize();
+
+    /**
+     * Returns the average number of events processed in a batch.
+     *
+     * @return the average batch size
+     */
+    double getAverageBatchSize();
+
+    /**
+     * Returns the median time in nanoseconds events waited in the ring buffer.
+     *
+     * @return the 50th percentile of the queue latency
+     */
+    long getQueueLatencyNanos50();
+
+    /**
+     * Returns the 99th percentile of the time in nanoseconds events waited in the ring buffer.
+     *
+     * @return the 99th percentile of the queue latency
+     */
+    long getQueueLatencyNanos99();
+
+    /**
+     * Returns the 99.9th percentile of the time in nanoseconds events waited in the ring buffer.
+     *
+     * @return the 99.9th percentile of the queue latency
+     */
+    long getQueueLatencyNanos999();
+
+    /**
+     * Returns the longest time in nanoseconds an event waited in the ring buffer.
+     *
+     * @return the maximum queue latency
+     */
+    long getMaxQueueLatencyNanos();
+
+    /**
+     * Returns the average time in nanoseconds events waited in the ring buffer.
+     *
+     * @return the mean queue latency
+     */
+    double getMeanQueueLatencyNanos();
+
+    /**
+     * Returns the median time in nanoseconds the background thread spent passing an event to the appenders.
+     *
+     * @return the 50th percentile of the service time
+     */
+    long getServiceTimeNanos50();
+
+    /**
+     * Returns the 99th percentile of the time in nanoseconds the background thread spent passing an event to the
+     * appenders.
+     *
+     * @return the 99th percentile of the service time
+     */
+    long getServiceTimeNanos99();
+
+    /**
+     * Returns the 99.9th percentile of the time in nanoseconds the background thread spent passing an event to the
+     * appenders.
+     *
+     * @return the 99.9th percentile of the service time
+     */
+    long getServiceTimeNanos999();
+
+    /**
+     * Returns the longest time in nanoseconds the background thread spent passing an event to the appenders.
+     *
+     * @return the maximum service time
+     */
+    long getMaxServiceTimeNanos();
+
+    /**
+     * Returns the average time in nanoseconds the background thread spent passing an event to the appenders.
+     *
+     * @return the mean service time
+     */
+    double getMeanServiceTimeNanos();
+
+    /**
+     * Resets all counters and histograms.
+     */
+    void reset();
+}
@@ -171,6 +171,9 @@ public final class Server {
                     if (rbmbean.getBufferSize() > 0) {
                     	// don't register if Disruptor not started (DefaultConfiguration: config not found)
                     	register(mbs, rbmbean, rbmbean.getObjectName());
+                        final AsyncQueueMetricsAdmin metricsMbean =
+                                ((AsyncLoggerContext) ctx).createAsyncQueueMetricsAdmin();
+                        register(mbs, metricsMbean, metricsMbean.getObjectName());
                     }
                 }
 
@@ -214,6 +217,7 @@ public final class Server {
         unregisterLoggerConfigs("*", mbs);
         unregisterAsyncLoggerRingBufferAdmins("*", mbs);
         unregisterAsyncLoggerConfigRingBufferAdmins("*", mbs);
+        unregisterAsyncQueueMetricsAdmins("*", mbs);
         unregisterAppenders("*", mbs);
         unregisterAsyncAppenders("*", mbs);
     }
@@ -266,6 +270,7 @@ public final class Server {
         unregisterAsyncAppenders(contextName, mbs);
         unregisterAsyncLoggerRingBufferAdmins(contextName, mbs);
         unregisterAsyncLoggerConfigRingBufferAdmins(contextName, mbs);
+        unregisterAsyncQueueMetricsAdmins(contextName, mbs);
     }
 
     private static void registerStatusLogger(final String contextName, final MBeanServer mbs, final Executor executor)
@@ -329,6 +334,14 @@ public final class Server {
         unregisterAllMatching(search2, mbs);
     }
 
+    private static void unregisterAsyncQueueMetricsAdmins(final String contextName, final MBeanServer mbs) {
+        final String search1 = String.format(AsyncQueueMetricsAdminMBean.PATTERN_ASYNC_LOGGER, escape(contextName));
+        unregisterAllMatching(search1, mbs);
+        final String search2 = String.format(AsyncQueueMetricsAdminMBean.PATTERN_ASYNC_LOGGER_CONFIG,
+                escape(contextName), "*");
+        unregisterAllMatching(search2, mbs);
+    }
+
     private static void unregisterAllMatching(final String search, final MBeanServer mbs) {
         try {
             final ObjectName pattern = new ObjectName(search);
@@ -361,6 +374,10 @@ public final class Server {
                 final AsyncLoggerConfig async = (AsyncLoggerConfig) cfg;
                 final RingBufferAdmin rbmbean = async.createRingBufferAdmin(ctx.getName());
                 register(mbs, rbmbean, rbmbean.getObjectName());
+                final AsyncQueueMetricsAdmin metricsMbean = async.createAsyncQueueMetricsAdmin(ctx.getName());
+                if (metricsMbean != null) {
+                    register(mbs, metricsMbean, metricsMbean.getObjectName());
+                }
             }
         }
     }
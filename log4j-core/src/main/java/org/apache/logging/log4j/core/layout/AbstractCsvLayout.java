@@ -64,6 +64,7 @@ public abstract class AbstractCsvLayout extends AbstractStringLayout {
     }
 
     private final CSVFormat format;
+    private final CsvFieldWriter fieldWriter;
 
     protected AbstractCsvLayout(final Configuration config, final Charset charset, final CSVFormat csvFormat,
             final String header, final String footer) {
@@ -71,6 +72,7 @@ public abstract class AbstractCsvLayout extends AbstractStringLayout {
                 PatternLayout.newSerializerBuilder().setConfiguration(config).setPattern(header).build(),
                 PatternLayout.newSerializerBuilder().setConfiguration(config).setPattern(footer).build());
         this.format = csvFormat;
+        this.fieldWriter = new CsvFieldWriter(csvFormat);
     }
 
     @Override
@@ -81,4 +83,8 @@ public abstract class AbstractCsvLayout extends AbstractStringLayout {
     public CSVFormat getFormat() {
         return format;
     }
+
+    CsvFieldWriter getFieldWriter() {
+        return fieldWriter;
+    }
 }
@@ -0,0 +1,755 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.layout;
+
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Marker;
+import org.apache.logging.log4j.ThreadContext;
+import org.apache.logging.log4j.core.Layout;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.async.InternalAsyncUtil;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.Node;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginBuilderAttribute;
+import org.apache.logging.log4j.core.config.plugins.PluginBuilderFactory;
+import org.apache.logging.log4j.core.util.Constants;
+import org.apache.logging.log4j.core.util.StringBuilderWriter;
+import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.message.ParameterConsumer;
+import org.apache.logging.log4j.message.ParameterVisitable;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.apache.logging.log4j.util.ReadOnlyStringMap;
+import org.apache.logging.log4j.util.StringBuilderFormattable;
+import org.apache.logging.log4j.util.StringBuilders;
+import org.apache.logging.log4j.util.TriConsumer;
+
+/**
+ * Writes log events in a compact binary format intended for high-volume local spooling. The files can be read with
+ * {@link org.apache.logging.log4j.core.tools.CompactBinaryLogReader}, which also renders them as text.
+ * <p>
+ * The output is a sequence of records. Each record starts with its length (an unsigned varint) followed by a record
+ * type byte:
+ * </p>
+ * <ul>
+ * <li>{@link #RECORD_HEADER}: the {@link #MAGIC} bytes and the format version; written as the layout header when an
+ * appender starts a new file.</li>
+ * <li>{@link #RECORD_SEGMENT}: the base time in milliseconds that event timestamps are relative to. Starts a new string
+ * dictionary.</li>
+ * <li>{@link #RECORD_STRING}: adds a UTF-8 string to the dictionary of the current segment. Dictionary IDs start at 1
+ * in the order the strings are defined, ID 0 stands for {@code null}.</li>
+ * <li>{@link #RECORD_EVENT}: a log event.</li>
+ * </ul>
+ * <p>
+ * Logger names, thread names, level names, markers, context data keys, location information and message format
+ * strings are written once to the dictionary and referenced by ID afterwards. The parameters of messages that
+ * implement {@link ParameterVisitable} and have a format string ({@link ParameterizedMessage},
+ * {@link org.apache.logging.log4j.message.ReusableParameterizedMessage}, and the reusable events of garbage-free and
+ * asynchronous loggers that log them) are written separately with their type, so the message is only formatted when
+ * the file is read, provided all parameters are immutable or {@code log4j.format.msg.async} is {@code true}; a
+ * mutable parameter may have changed by the time an asynchronous logger or appender encodes the event, so such
+ * messages are written formatted, like all other messages. Numbers are written as varints, timestamps as the zig-zag
+ * encoded difference to the segment base time.
+ * </p>
+ * <p>
+ * The dictionary makes this layout stateful: a layout instance must only be used by a single appender and requires
+ * that events are written in the order they are encoded, which is the case for file appenders with the default
+ * direct encoders. A new segment is started with every header and when the dictionary reaches
+ * {@code maxDictionarySize} entries.
+ * </p>
+ *
+ * @since 2.10.1
+ */
+@Plugin(name = "CompactBinaryLayout", category = Node.CATEGORY, elementType = Layout.ELEMENT_TYPE, printObject = true)
+public final class CompactBinaryLayout extends AbstractLayout<byte[]> {
+
+    /** The bytes that identify the format, at the start of the header record. */
+    public static final byte[] MAGIC = {'L', '4', 'J', 'B'};
+
+    /** The version of the format written by this layout. */
+    public static final int VERSION = 1;
+
+    public static final byte RECORD_HEADER = 1;
+    public static final byte RECORD_SEGMENT = 2;
+    public static final byte RECORD_STRING = 3;
+    public static final byte RECORD_EVENT = 4;
+
+    public static final int FLAG_MARKER = 1;
+    public static final int FLAG_TEMPLATE = 1 << 1;
+    public static final int FLAG_THROWN = 1 << 2;
+    public static final int FLAG_CONTEXT_DATA = 1 << 3;
+    public static final int FLAG_CONTEXT_STACK = 1 << 4;
+    public static final int FLAG_SOURCE = 1 << 5;
+    public static final int FLAG_THROWN_MESSAGE = 1 << 6;
+
+    public static final byte ARG_NULL = 0;
+    public static final byte ARG_STRING = 1;
+    public static final byte ARG_LONG = 2;
+    public static final byte ARG_DOUBLE = 3;
+    public static final byte ARG_TRUE = 4;
+    public static final byte ARG_FALSE = 5;
+
+    public static final int DEFAULT_MAX_DICTIONARY_SIZE = 16 * 1024;
+
+    private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+
+    private static final byte[] HEADER = createHeader();
+
+    private static final TriConsumer<String, Object, CompactBinaryLayout> WRITE_CONTEXT_ENTRY =
+            new TriConsumer<String, Object, CompactBinaryLayout>() {
+                @Override
+                public void accept(final String key, final Object value, final CompactBinaryLayout layout) {
+                    layout.writeStringId(key);
+                    layout.writeValueString(value);
+                }
+            };
+
+    private static final ParameterConsumer<CompactBinaryLayout> COUNT_PARAMETER =
+            new ParameterConsumer<CompactBinaryLayout>() {
+                @Override
+                public void accept(final Object parameter, final int parameterIndex, final CompactBinaryLayout layout) {
+                    layout.parameterCount++;
+                }
+            };
+
+    private static final ParameterConsumer<CompactBinaryLayout> CHECK_PARAMETER =
+            new ParameterConsumer<CompactBinaryLayout>() {
+                @Override
+                public void accept(final Object parameter, final int parameterIndex, final CompactBinaryLayout layout) {
+                    if (!InternalAsyncUtil.isImmutableParameter(parameter)) {
+                        layout.mutableParameter = true;
+                    }
+                }
+            };
+
+    private static final ParameterConsumer<CompactBinaryLayout> WRITE_PARAMETER =
+            new ParameterConsumer<CompactBinaryLayout>() {
+                @Override
+                public void accept(final Object parameter, final int parameterIndex, final CompactBinaryLayout layout) {
+                    layout.writeParameter(parameter);
+                }
+            };
+
+    public static class Builder<B extends Builder<B>> extends AbstractLayout.Builder<B>
+        implements org.apache.logging.log4j.core.util.Builder<CompactBinaryLayout> {
+
+        @PluginBuilderAttribute
+        private boolean locationInfo;
+
+        @PluginBuilderAttribute
+        private int maxDictionarySize = DEFAULT_MAX_DICTIONARY_SIZE;
+
+        @Override
+        public CompactBinaryLayout build() {
+            return new CompactBinaryLayout(getConfiguration(), locationInfo, maxDictionarySize);
+        }
+
+        public boolean isLocationInfo() {
+            return locationInfo;
+        }
+
+        public int getMaxDictionarySize() {
+            return maxDictionarySize;
+        }
+
+        /**
+         * Whether to include the location information of the caller (optional, defaults to false).
+         *
+         * @return this builder
+         */
+        public B setLocationInfo(final boolean locationInfo) {
+            this.locationInfo = locationInfo;
+            return asBuilder();
+        }
+
+        /**
+         * The number of dictionary entries after which a new segment is started (optional, defaults to
+         * {@value CompactBinaryLayout#DEFAULT_MAX_DICTIONARY_SIZE}).
+         *
+         * @return this builder
+         */
+        public B setMaxDictionarySize(final int maxDictionarySize) {
+            this.maxDictionarySize = maxDictionarySize;
+            return asBuilder();
+        }
+    }
+
+    private final boolean locationInfo;
+    private final int maxDictionarySize;
+
+    // guarded by this
+    private final StringDictionary dictionary;
+    private boolean segmentStarted;
+    private long segmentBaseMillis;
+    private final Buffer output = new Buffer();
+    private final Buffer record = new Buffer();
+    private int parameterCount;
+    private boolean mutableParameter;
+    private final StringBuilder text = new StringBuilder(AbstractStringLayout.DEFAULT_STRING_BUILDER_SIZE);
+
+    private CompactBinaryLayout(final Configuration config, final boolean locationInfo, final int maxDictionarySize) {
+        super(config, null, null);
+        if (maxDictionarySize < 1) {
+            throw new IllegalArgumentException("maxDictionarySize must be positive but was " + maxDictionarySize);
+        }
+        this.locationInfo = locationInfo;
+        this.maxDictionarySize = maxDictionarySize;
+        this.dictionary = new StringDictionary(maxDictionarySize);
+    }
+
+    @PluginBuilderFactory
+    public static <B extends Builder<B>> B newBuilder() {
+        return new Builder<B>().asBuilder();
+    }
+
+    /**
+     * Creates a CompactBinaryLayout with the default settings.
+     *
+     * @return a new CompactBinaryLayout
+     */
+    public static CompactBinaryLayout createDefaultLayout() {
+        return new CompactBinaryLayout(null, false, DEFAULT_MAX_DICTIONARY_SIZE);
+    }
+
+    private static byte[] createHeader() {
+        final Buffer buffer = new Buffer();
+        buffer.writeVarLong(1 + MAGIC.length + 1);
+        buffer.writeByte(RECORD_HEADER);
+        buffer.write(MAGIC, 0, MAGIC.length);
+        buffer.writeVarLong(VERSION);
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Returns the header record. Since the appender writes the header at the start of each new file, this also
+     * starts a new segment, so every file can be read on its own.
+     *
+     * @return the header record
+     */
+    @Override
+    public byte[] getHeader() {
+        synchronized (this) {
+            segmentStarted = false;
+        }
+        return HEADER.clone();
+    }
+
+    @Override
+    public Map<String, String> getContentFormat() {
+        return Collections.singletonMap("version", String.valueOf(VERSION));
+    }
+
+    @Override
+    public String getContentType() {
+        return "application/octet-stream";
+    }
+
+    public boolean isLocationInfo() {
+        return locationInfo;
+    }
+
+    public int getMaxDictionarySize() {
+        return maxDictionarySize;
+    }
+
+    @Override
+    public byte[] toSerializable(final LogEvent event) {
+        return toByteArray(event);
+    }
+
+    /**
+     * Returns the records for the specified event: the event itself, preceded by the dictionary strings (and segment)
+     * it introduces. The returned bytes can only be read after the bytes returned for the preceding events.
+     *
+     * @param event the event to write
+     * @return the encoded records
+     */
+    @Override
+    public byte[] toByteArray(final LogEvent event) {
+        synchronized (this) {
+            writeRecords(event);
+            final byte[] result = output.toByteArray();
+            trimBuffers();
+            return result;
+        }
+    }
+
+    @Override
+    public void encode(final LogEvent event, final ByteBufferDestination destination) {
+        synchronized (destination) {
+            synchronized (this) {
+                writeRecords(event);
+                ByteBufferDestinationHelper.writeToUnsynchronized(output.bytes, 0, output.length, destination);
+                trimBuffers();
+            }
+        }
+        markEvent();
+    }
+
+    private void trimBuffers() {
+        output.trim();
+        record.trim();
+        AbstractStringLayout.trimToMaxSize(text);
+    }
+
+    private void writeRecords(final LogEvent event) {
+        try {
+            writeRecordsUnchecked(event);
+        } catch (final RuntimeException | Error ex) {
+            // the strings added to the dictionary for this event were never written, start over with an empty one
+            segmentStarted = false;
+            throw ex;
+        }
+    }
+
+    private void writeRecordsUnchecked(final LogEvent event) {
+        output.reset();
+        record.reset();
+        final long timeMillis = event.getTimeMillis();
+        if (!segmentStarted || dictionary.size() >= maxDictionarySize) {
+            startSegment(timeMillis);
+        }
+        final Marker marker = event.getMarker();
+        final Message message = event.getMessage();
+        final String format = getTemplateFormat(message);
+        final Throwable thrown = event.getThrown();
+        final String thrownMessage = thrown == null ? null : thrown.getMessage();
+        final ReadOnlyStringMap contextData = event.getContextData();
+        final ThreadContext.ContextStack contextStack = event.getContextStack();
+        final StackTraceElement source = locationInfo ? event.getSource() : null;
+        int flags = 0;
+        if (marker != null) {
+            flags |= FLAG_MARKER;
+        }
+        if (format != null) {
+            flags |= FLAG_TEMPLATE;
+        }
+        if (thrown != null) {
+            flags |= FLAG_THROWN;
+            if (thrownMessage != null) {
+                flags |= FLAG_THROWN_MESSAGE;
+            }
+        }
+        if (contextData != null && !contextData.isEmpty()) {
+            flags |= FLAG_CONTEXT_DATA;
+        }
+        if (contextStack != null && contextStack.getDepth() > 0) {
+            flags |= FLAG_CONTEXT_STACK;
+        }
+        if (source != null) {
+            flags |= FLAG_SOURCE;
+        }
+
+        record.writeByte(RECORD_EVENT);
+        record.writeVarLong(flags);
+        record.writeZigZag(timeMillis - segmentBaseMillis);
+        final Level level = event.getLevel();
+        record.writeVarLong(level.intLevel());
+        writeStringId(level.name());
+        writeStringId(event.getLoggerName());
+        writeStringId(event.getThreadName());
+        record.writeVarLong(event.getThreadId());
+        record.writeVarLong(event.getThreadPriority());
+        if (marker != null) {
+            writeStringId(marker.getName());
+        }
+        if (format != null) {
+            writeTemplate(format, (ParameterVisitable) message);
+        } else {
+            writeMessageText(message);
+        }
+        if (thrown != null) {
+            writeThrown(thrown, thrownMessage);
+        }
+        if ((flags & FLAG_CONTEXT_DATA) != 0) {
+            record.writeVarLong(contextData.size());
+            contextData.forEach(WRITE_CONTEXT_ENTRY, this);
+        }
+        if ((flags & FLAG_CONTEXT_STACK) != 0) {
+            record.writeVarLong(contextStack.getDepth());
+            for (final String element : contextStack) {
+                writeValueString(element);
+            }
+        }
+        if (source != null) {
+            writeStringId(source.getClassName());
+            writeStringId(source.getMethodName());
+            writeStringId(source.getFileName());
+            record.writeZigZag(source.getLineNumber());
+        }
+        output.writeVarLong(record.length);
+        output.write(record.bytes, 0, record.length);
+    }
+
+    private void startSegment(final long baseMillis) {
+        dictionary.clear();
+        segmentStarted = true;
+        segmentBaseMillis = baseMillis;
+        output.writeVarLong(1 + Buffer.zigZagSize(baseMillis));
+        output.writeByte(RECORD_SEGMENT);
+        output.writeZigZag(baseMillis);
+    }
+
+    /**
+     * Writes the dictionary ID of the specified string to the event record, defining the string first if it is not
+     * yet in the dictionary.
+     */
+    private void writeStringId(final String value) {
+        if (value == null) {
+            record.writeVarLong(0);
+            return;
+        }
+        int id = dictionary.get(value);
+        if (id == 0) {
+            id = dictionary.add(value);
+            final int utf8Length = Buffer.utf8Length(value);
+            output.writeVarLong(1 + Buffer.varLongSize(utf8Length) + utf8Length);
+            output.writeByte(RECORD_STRING);
+            output.writeVarLong(utf8Length);
+            output.writeUtf8(value);
+        }
+        record.writeVarLong(id);
+    }
+
+    /**
+     * Returns the format string if the parameters of the specified message can be written separately.
+     * <p>
+     * The message may have been formatted on another thread, for example by an asynchronous logger, so a mutable
+     * parameter may have changed since. Unless {@code log4j.format.msg.async} is true, the text is written instead if
+     * any parameter is mutable. This also applies to the reusable events, whose {@code getFormat()} returns the format
+     * string whatever the parameters.
+     * </p>
+     */
+    private String getTemplateFormat(final Message message) {
+        if (!(message instanceof ParameterVisitable)) {
+            return null;
+        }
+        final String format = message.getFormat();
+        if (format == null || Constants.FORMAT_MESSAGES_IN_BACKGROUND) {
+            return format;
+        }
+        mutableParameter = false;
+        ((ParameterVisitable) message).forEachParameter(CHECK_PARAMETER, this);
+        return mutableParameter ? null : format;
+    }
+
+    private void writeTemplate(final String format, final ParameterVisitable message) {
+        writeStringId(format);
+        parameterCount = 0;
+        message.forEachParameter(COUNT_PARAMETER, this);
+        record.writeVarLong(parameterCount);
+        message.forEachParameter(WRITE_PARAMETER, this);
+    }
+
+    private void writeParameter(final Object parameter) {
+        if (parameter == null) {
+            record.writeByte(ARG_NULL);
+        } else if (parameter instanceof Integer || parameter instanceof Long || parameter instanceof Short
+                || parameter instanceof Byte) {
+            record.writeByte(ARG_LONG);
+            record.writeZigZag(((Number) parameter).longValue());
+        } else if (parameter instanceof Double) {
+            record.writeByte(ARG_DOUBLE);
+            record.writeLong(Double.doubleToRawLongBits((Double) parameter));
+        } else if (parameter instanceof Boolean) {
+            record.writeByte((Boolean) parameter ? ARG_TRUE : ARG_FALSE);
+        } else {
+            record.writeByte(ARG_STRING);
+            text.setLength(0);
+            if (!StringBuilders.appendSpecificTypes(text, parameter)) {
+                // arrays, collections and dates are rendered the way ParameterizedMessage renders them
+                text.append(ParameterizedMessage.deepToString(parameter));
+            }
+            record.writeString(text);
+        }
+    }
+
+    private void writeMessageText(final Message message) {
+        text.setLength(0);
+        if (message instanceof StringBuilderFormattable) {
+            ((StringBuilderFormattable) message).formatTo(text);
+        } else if (message != null) {
+            text.append(message.getFormattedMessage());
+        }
+        record.writeString(text);
+    }
+
+    private void writeThrown(final Throwable thrown, final String thrownMessage) {
+        writeStringId(thrown.getClass().getName());
+        if (thrownMessage != null) {
+            record.writeString(thrownMessage);
+        }
+        text.setLength(0);
+        final PrintWriter pw = new PrintWriter(new StringBuilderWriter(text));
+        thrown.printStackTrace(pw);
+        pw.flush();
+        record.writeString(text);
+    }
+
+    private void writeValueString(final Object value) {
+        text.setLength(0);
+        StringBuilders.appendValue(text, value);
+        record.writeString(text);
+    }
+
+    @Override
+    public String toString() {
+        return "CompactBinaryLayout[locationInfo=" + locationInfo + ", maxDictionarySize=" + maxDictionarySize + ']';
+    }
+
+    /**
+     * Open-addressing map from strings to dictionary IDs. The table starts small and grows with the dictionary up to the
+     * size needed for the maximum dictionary size. It is kept for later segments, so once it has reached its working
+     * size adding a string does not allocate.
+     * <p>
+     * A single event can add more strings than the maximum, for example with many context data keys. When the table
+     * is full, such strings still get an ID and are defined in the output, but are not looked up again: a later event
+     * that uses them defines them again.
+     * </p>
+     */
+    private static final class StringDictionary {
+
+        private static final int INITIAL_CAPACITY = 64;
+
+        private final int maxCapacity;
+        private String[] keys;
+        private int[] ids;
+        private int mask;
+        private int size;
+        private int lastId;
+
+        StringDictionary(final int maxSize) {
+            // room for the strings of the event that reaches the maximum, at a load factor of at most 0.5
+            int capacity = Integer.highestOneBit(Math.max(maxSize, INITIAL_CAPACITY)) << 2;
+            if (capacity <= 0) {
+                capacity = 1 << 30;
+            }
+            maxCapacity = capacity;
+            keys = new String[INITIAL_CAPACITY];
+            ids = new int[INITIAL_CAPACITY];
+            mask = INITIAL_CAPACITY - 1;
+        }
+
+        /**
+         * Returns the number of strings defined in the current segment.
+         */
+        int size() {
+            return lastId;
+        }
+
+        /**
+         * Returns the ID of the specified string, or zero if it is not in the dictionary.
+         */
+        int get(final String value) {
+            int index = mix(value.hashCode()) & mask;
+            String key;
+            while ((key = keys[index]) != null) {
+                if (key == value || key.equals(value)) {
+                    return ids[index];
+                }
+                index = (index + 1) & mask;
+            }
+            return 0;
+        }
+
+        /**
+         * Adds a string that is not yet in the dictionary and returns its new ID.
+         */
+        int add(final String value) {
+            final int id = ++lastId;
+            if (size >= keys.length >> 1) {
+                if (keys.length >= maxCapacity) {
+                    return id;
+                }
+                resize(keys.length << 1);
+            }
+            insert(value, id);
+            size++;
+            return id;
+        }
+
+        void clear() {
+            if (size > 0) {
+                Arrays.fill(keys, null);
+                size = 0;
+            }
+            lastId = 0;
+        }
+
+        private void insert(final String value, final int id) {
+            int index = mix(value.hashCode()) & mask;
+            while (keys[index] != null) {
+                index = (index + 1) & mask;
+            }
+            keys[index] = value;
+            ids[index] = id;
+        }
+
+        private void resize(final int capacity) {
+            final String[] oldKeys = keys;
+            final int[] oldIds = ids;
+            keys = new String[capacity];
+            ids = new int[capacity];
+            mask = capacity - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != null) {
+                    insert(oldKeys[i], oldIds[i]);
+                }
+            }
+        }
+
+        private static int mix(final int hash) {
+            final int h = hash * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+
+    /**
+     * Growable byte array with the primitive encodings of the format.
+     */
+    private static final class Buffer {
+
+        private static final int INITIAL_SIZE = 512;
+
+        private byte[] bytes = new byte[INITIAL_SIZE];
+        private int length;
+
+        static int varLongSize(final long value) {
+            int size = 1;
+            long v = value;
+            while ((v & ~0x7FL) != 0) {
+                v >>>= 7;
+                size++;
+            }
+            return size;
+        }
+
+        static int zigZagSize(final long value) {
+            return varLongSize((value << 1) ^ (value >> 63));
+        }
+
+        static int utf8Length(final CharSequence text) {
+            final int len = text.length();
+            int result = len;
+            for (int i = 0; i < len; i++) {
+                final char c = text.charAt(i);
+                if (c >= 0x80) {
+                    if (c < 0x800) {
+                        result++;
+                    } else if (Character.isHighSurrogate(c) && i + 1 < len
+                            && Character.isLowSurrogate(text.charAt(i + 1))) {
+                        result += 2; // four bytes for two chars
+                        i++;
+                    } else if (!Character.isSurrogate(c)) {
+                        result += 2;
+                    }
+                }
+            }
+            return result;
+        }
+
+        void reset() {
+            length = 0;
+        }
+
+        void trim() {
+            if (bytes.length > MAX_RETAINED_BUFFER_SIZE) {
+                bytes = new byte[INITIAL_SIZE];
+            }
+        }
+
+        private void ensureCapacity(final int additional) {
+            if (length + additional > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + additional));
+            }
+        }
+
+        void writeByte(final int value) {
+            ensureCapacity(1);
+            bytes[length++] = (byte) value;
+        }
+
+        void write(final byte[] source, final int offset, final int count) {
+            ensureCapacity(count);
+            System.arraycopy(source, offset, bytes, length, count);
+            length += count;
+        }
+
+        void writeVarLong(final long value) {
+            ensureCapacity(10);
+            long v = value;
+            while ((v & ~0x7FL) != 0) {
+                bytes[length++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            bytes[length++] = (byte) v;
+        }
+
+        void writeZigZag(final long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        void writeLong(final long value) {
+            ensureCapacity(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[length++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeString(final CharSequence value) {
+            final int utf8Length = utf8Length(value);
+            writeVarLong(utf8Length);
+            writeUtf8(value);
+        }
+
+        void writeUtf8(final CharSequence text) {
+            final int len = text.length();
+            ensureCapacity(len * 3);
+            for (int i = 0; i < len; i++) {
+                final char c = text.charAt(i);
+                if (c < 0x80) {
+                    bytes[length++] = (byte) c;
+                } else if (c < 0x800) {
+                    bytes[length++] = (byte) (0xC0 | (c >> 6));
+                    bytes[length++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < len
+                        && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    final int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                    bytes[length++] = (byte) (0xF0 | (codePoint >> 18));
+                    bytes[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    bytes[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    bytes[length++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    bytes[length++] = '?'; // unpaired surrogate, like the JDK encoder
+                } else {
+                    bytes[length++] = (byte) (0xE0 | (c >> 12));
+                    bytes[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    bytes[length++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, length);
+        }
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.layout;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.QuoteMode;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.util.SortedArrayStringMap;
+import org.apache.logging.log4j.util.StringBuilderFormattable;
+import org.apache.logging.log4j.util.StringBuilders;
+import org.apache.logging.log4j.util.TriConsumer;
+
+/**
+ * Writes CSV fields to a StringBuilder with the same quoting and escaping rules as
+ * {@link CSVFormat#print(Object, Appendable, boolean)}, without boxing numbers or creating a String for values that
+ * can format themselves into a StringBuilder.
+ */
+final class CsvFieldWriter {
+
+    private static final char COMMENT = '#';
+    private static final char CR = '\r';
+    private static final char LF = '\n';
+    private static final char SP = ' ';
+
+    private static final TriConsumer<String, Object, StringBuilder> WRITE_KEY_VALUE =
+            new TriConsumer<String, Object, StringBuilder>() {
+        @Override
+        public void accept(final String key, final Object value, final StringBuilder sb) {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(key).append('=');
+            StringBuilders.appendValue(sb, value);
+        }
+    };
+
+    private static final ThreadLocal<StringBuilder> valueStringBuilder = new ThreadLocal<>();
+
+    private final char delimiter;
+    private final boolean quoteCharacterSet;
+    private final char quoteCharacter;
+    private final boolean escapeCharacterSet;
+    private final char escapeCharacter;
+    private final QuoteMode quoteMode;
+    private final String nullString;
+    private final String recordSeparator;
+    private final boolean trim;
+    private final boolean trailingDelimiter;
+
+    CsvFieldWriter(final CSVFormat format) {
+        this.delimiter = format.getDelimiter();
+        this.quoteCharacterSet = format.isQuoteCharacterSet();
+        this.quoteCharacter = quoteCharacterSet ? format.getQuoteCharacter().charValue() : 0;
+        this.escapeCharacterSet = format.isEscapeCharacterSet();
+        this.escapeCharacter = escapeCharacterSet ? format.getEscapeCharacter().charValue() : 0;
+        this.quoteMode = format.getQuoteMode() == null ? QuoteMode.MINIMAL : format.getQuoteMode();
+        this.nullString = format.getNullString();
+        this.recordSeparator = format.getRecordSeparator();
+        this.trim = format.getTrim();
+        this.trailingDelimiter = format.getTrailingDelimiter();
+    }
+
+    private static StringBuilder getValueStringBuilder() {
+        StringBuilder result = valueStringBuilder.get();
+        if (result == null) {
+            result = new StringBuilder(AbstractStringLayout.DEFAULT_STRING_BUILDER_SIZE);
+            valueStringBuilder.set(result);
+        }
+        AbstractStringLayout.trimToMaxSize(result);
+        result.setLength(0);
+        return result;
+    }
+
+    /**
+     * Writes a numeric field; numbers are never quoted in {@link QuoteMode#NON_NUMERIC} mode.
+     */
+    void print(final long value, final StringBuilder out, final boolean newRecord) {
+        final StringBuilder text = getValueStringBuilder();
+        text.append(value);
+        printField(text, true, out, newRecord);
+    }
+
+    /**
+     * Writes the formatted text of the specified message as a field.
+     */
+    void printMessage(final Message message, final StringBuilder out, final boolean newRecord) {
+        if (message instanceof StringBuilderFormattable) {
+            final StringBuilder text = getValueStringBuilder();
+            ((StringBuilderFormattable) message).formatTo(text);
+            printField(text, false, out, newRecord);
+        } else {
+            print(message.getFormattedMessage(), out, newRecord);
+        }
+    }
+
+    /**
+     * Writes the specified value as a field, rendering it like {@code String.valueOf(value)} would.
+     */
+    void print(final Object value, final StringBuilder out, final boolean newRecord) {
+        if (value == null) {
+            printNull(out, newRecord);
+        } else if (value instanceof CharSequence) {
+            printField((CharSequence) value, false, out, newRecord);
+        } else if (value instanceof Level) {
+            printField(((Level) value).name(), false, out, newRecord);
+        } else {
+            final StringBuilder text = getValueStringBuilder();
+            if (value instanceof SortedArrayStringMap) {
+                text.append('{');
+                ((SortedArrayStringMap) value).forEach(WRITE_KEY_VALUE, text);
+                text.append('}');
+            } else if (value instanceof Message || !StringBuilders.appendSpecificTypes(text, value)) {
+                // a message parameter prints as the toString() of the message, not its formatted text
+                text.append(value.toString());
+            }
+            printField(text, value instanceof Number, out, newRecord);
+        }
+    }
+
+    /**
+     * Ends the current record.
+     */
+    void println(final StringBuilder out) {
+        if (trailingDelimiter) {
+            out.append(delimiter);
+        }
+        if (recordSeparator != null) {
+            out.append(recordSeparator);
+        }
+    }
+
+    private void printNull(final StringBuilder out, final boolean newRecord) {
+        if (nullString == null) {
+            printNullText("", out, newRecord);
+        } else if (quoteMode == QuoteMode.ALL && quoteCharacterSet) {
+            if (!newRecord) {
+                out.append(delimiter);
+            }
+            out.append(quoteCharacter).append(nullString).append(quoteCharacter);
+        } else {
+            printNullText(nullString, out, newRecord);
+        }
+    }
+
+    private void printNullText(final CharSequence value, final StringBuilder out, final boolean newRecord) {
+        final int end = end(value);
+        if (!newRecord) {
+            out.append(delimiter);
+        }
+        out.append(value, start(value, end), end);
+    }
+
+    private void printField(final CharSequence value, final boolean number, final StringBuilder out,
+            final boolean newRecord) {
+        final int end = end(value);
+        final int start = start(value, end);
+        if (!newRecord) {
+            out.append(delimiter);
+        }
+        if (quoteCharacterSet) {
+            printAndQuote(value, start, end, number, out, newRecord);
+        } else if (escapeCharacterSet) {
+            printAndEscape(value, start, end, out);
+        } else {
+            out.append(value, start, end);
+        }
+    }
+
+    private int end(final CharSequence value) {
+        int end = value.length();
+        if (trim) {
+            while (end > 0 && value.charAt(end - 1) <= SP) {
+                end--;
+            }
+        }
+        return end;
+    }
+
+    private int start(final CharSequence value, final int end) {
+        int start = 0;
+        if (trim) {
+            while (start < end && value.charAt(start) <= SP) {
+                start++;
+            }
+        }
+        return start;
+    }
+
+    private void printAndEscape(final CharSequence value, final int start, final int end, final StringBuilder out) {
+        int segmentStart = start;
+        for (int pos = start; pos < end; pos++) {
+            final char c = value.charAt(pos);
+            if (c == CR || c == LF || c == delimiter || c == escapeCharacter) {
+                out.append(value, segmentStart, pos);
+                out.append(escapeCharacter);
+                out.append(c == LF ? 'n' : c == CR ? 'r' : c);
+                segmentStart = pos + 1;
+            }
+        }
+        out.append(value, segmentStart, end);
+    }
+
+    private void printAndQuote(final CharSequence value, final int start, final int end, final boolean number,
+            final StringBuilder out, final boolean newRecord) {
+        final boolean quote;
+        switch (quoteMode) {
+        case ALL:
+        case ALL_NON_NULL:
+            quote = true;
+            break;
+        case NON_NUMERIC:
+            quote = !number;
+            break;
+        case NONE:
+            printAndEscape(value, start, end, out);
+            return;
+        default:
+            quote = requiresMinimalQuoting(value, start, end, newRecord);
+            break;
+        }
+        if (!quote) {
+            out.append(value, start, end);
+            return;
+        }
+        out.append(quoteCharacter);
+        int segmentStart = start;
+        for (int pos = start; pos < end; pos++) {
+            if (value.charAt(pos) == quoteCharacter) {
+                // write the quote twice
+                out.append(value, segmentStart, pos + 1);
+                segmentStart = pos;
+            }
+        }
+        out.append(value, segmentStart, end);
+        out.append(quoteCharacter);
+    }
+
+    private boolean requiresMinimalQuoting(final CharSequence value, final int start, final int end,
+            final boolean newRecord) {
+        if (start >= end) {
+            // an empty first field is quoted so that the line is not empty
+            return newRecord;
+        }
+        final char first = value.charAt(start);
+        // RFC4180 TEXTDATA = %x20-21 / %x23-2B / %x2D-7E
+        if (newRecord && (first < 0x20 || first > 0x21 && first < 0x23 || first > 0x2B && first < 0x2D
+                || first > 0x7E)) {
+            return true;
+        }
+        if (first <= COMMENT) {
+            return true;
+        }
+        for (int pos = start; pos < end; pos++) {
+            final char c = value.charAt(pos);
+            if (c == LF || c == CR || c == quoteCharacter || c == delimiter) {
+                return true;
+            }
+        }
+        return value.charAt(end - 1) <= SP;
+    }
+}
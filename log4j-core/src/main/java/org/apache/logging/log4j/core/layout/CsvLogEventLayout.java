@@ -16,7 +16,6 @@
  */
 package org.apache.logging.log4j.core.layout;
 
-import java.io.IOException;
 import java.nio.charset.Charset;
 
 import org.apache.commons.csv.CSVFormat;
@@ -29,12 +28,12 @@ import org.apache.logging.log4j.core.config.plugins.Plugin;
 import org.apache.logging.log4j.core.config.plugins.PluginAttribute;
 import org.apache.logging.log4j.core.config.plugins.PluginConfiguration;
 import org.apache.logging.log4j.core.config.plugins.PluginFactory;
-import org.apache.logging.log4j.status.StatusLogger;
 
 /**
  * A Comma-Separated Value (CSV) layout to log events.
  *
- * Depends on Apache Commons CSV 1.2.
+ * Depends on Apache Commons CSV 1.2. Fields are quoted and escaped following the options of the {@link CSVFormat}
+ * without creating a Commons CSV printer, so the layout is garbage-free when encoding to a byte buffer.
  *
  * @since 2.4
  */
@@ -76,29 +75,34 @@ public class CsvLogEventLayout extends AbstractCsvLayout {
 
     @Override
     public String toSerializable(final LogEvent event) {
-        final StringBuilder buffer = getStringBuilder();
-        final CSVFormat format = getFormat();
-        try {
-            format.print(event.getNanoTime(), buffer, true);
-            format.print(event.getTimeMillis(), buffer, false);
-            format.print(event.getLevel(), buffer, false);
-            format.print(event.getThreadId(), buffer, false);
-            format.print(event.getThreadName(), buffer, false);
-            format.print(event.getThreadPriority(), buffer, false);
-            format.print(event.getMessage().getFormattedMessage(), buffer, false);
-            format.print(event.getLoggerFqcn(), buffer, false);
-            format.print(event.getLoggerName(), buffer, false);
-            format.print(event.getMarker(), buffer, false);
-            format.print(event.getThrownProxy(), buffer, false);
-            format.print(event.getSource(), buffer, false);
-            format.print(event.getContextData(), buffer, false);
-            format.print(event.getContextStack(), buffer, false);
-            format.println(buffer);
-            return buffer.toString();
-        } catch (final IOException e) {
-            StatusLogger.getLogger().error(event.toString(), e);
-            return format.getCommentMarker() + " " + e;
-        }
+        return toText(event, getStringBuilder()).toString();
+    }
+
+    @Override
+    public void encode(final LogEvent event, final ByteBufferDestination destination) {
+        final StringBuilder text = toText(event, getStringBuilder());
+        getStringBuilderEncoder().encode(text, destination);
+        trimToMaxSize(text);
+    }
+
+    private StringBuilder toText(final LogEvent event, final StringBuilder buffer) {
+        final CsvFieldWriter writer = getFieldWriter();
+        writer.print(event.getNanoTime(), buffer, true);
+        writer.print(event.getTimeMillis(), buffer, false);
+        writer.print(event.getLevel(), buffer, false);
+        writer.print(event.getThreadId(), buffer, false);
+        writer.print(event.getThreadName(), buffer, false);
+        writer.print(event.getThreadPriority(), buffer, false);
+        writer.printMessage(event.getMessage(), buffer, false);
+        writer.print(event.getLoggerFqcn(), buffer, false);
+        writer.print(event.getLoggerName(), buffer, false);
+        writer.print(event.getMarker(), buffer, false);
+        writer.print(event.getThrownProxy(), buffer, false);
+        writer.print(event.getSource(), buffer, false);
+        writer.print(event.getContextData(), buffer, false);
+        writer.print(event.getContextStack(), buffer, false);
+        writer.println(buffer);
+        return buffer;
     }
 
 }
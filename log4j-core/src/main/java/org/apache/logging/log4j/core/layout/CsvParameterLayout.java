@@ -16,7 +16,6 @@
  */
 package org.apache.logging.log4j.core.layout;
 
-import java.io.IOException;
 import java.nio.charset.Charset;
 
 import org.apache.commons.csv.CSVFormat;
@@ -30,7 +29,8 @@ import org.apache.logging.log4j.core.config.plugins.PluginAttribute;
 import org.apache.logging.log4j.core.config.plugins.PluginConfiguration;
 import org.apache.logging.log4j.core.config.plugins.PluginFactory;
 import org.apache.logging.log4j.message.Message;
-import org.apache.logging.log4j.status.StatusLogger;
+import org.apache.logging.log4j.message.ParameterConsumer;
+import org.apache.logging.log4j.message.ParameterVisitable;
 
 /**
  * A Comma-Separated Value (CSV) layout to log event parameters.
@@ -43,13 +43,21 @@ import org.apache.logging.log4j.status.StatusLogger;
  * {@code logger.debug(new ObjectArrayMessage(1, 2, "Bob"));}
  * </p>
  * 
- * Depends on Apache Commons CSV 1.4.
+ * Depends on Apache Commons CSV 1.4. Parameters are written without copying them out of reusable messages or
+ * converting them to Strings, so the layout is garbage-free when encoding to a byte buffer.
  * 
  * @since 2.4
  */
 @Plugin(name = "CsvParameterLayout", category = Node.CATEGORY, elementType = Layout.ELEMENT_TYPE, printObject = true)
 public class CsvParameterLayout extends AbstractCsvLayout {
 
+    private final ParameterConsumer<StringBuilder> printParameter = new ParameterConsumer<StringBuilder>() {
+        @Override
+        public void accept(final Object parameter, final int parameterIndex, final StringBuilder buffer) {
+            getFieldWriter().print(parameter, buffer, parameterIndex == 0);
+        }
+    };
+
     public static AbstractCsvLayout createDefaultLayout() {
         return new CsvParameterLayout(null, Charset.forName(DEFAULT_CHARSET), CSVFormat.valueOf(DEFAULT_FORMAT), null, null);
     }
@@ -85,16 +93,31 @@ public class CsvParameterLayout extends AbstractCsvLayout {
 
     @Override
     public String toSerializable(final LogEvent event) {
+        return toText(event, getStringBuilder()).toString();
+    }
+
+    @Override
+    public void encode(final LogEvent event, final ByteBufferDestination destination) {
+        final StringBuilder text = toText(event, getStringBuilder());
+        getStringBuilderEncoder().encode(text, destination);
+        trimToMaxSize(text);
+    }
+
+    private StringBuilder toText(final LogEvent event, final StringBuilder buffer) {
         final Message message = event.getMessage();
-        final Object[] parameters = message.getParameters();
-        final StringBuilder buffer = getStringBuilder();
-        try {
-            getFormat().printRecord(buffer, parameters);
-            return buffer.toString();
-        } catch (final IOException e) {
-            StatusLogger.getLogger().error(message, e);
-            return getFormat().getCommentMarker() + " " + e;
+        if (message instanceof ParameterVisitable) {
+            // reusable messages would copy their parameters into a new array
+            ((ParameterVisitable) message).forEachParameter(printParameter, buffer);
+        } else {
+            final Object[] parameters = message.getParameters();
+            if (parameters != null) {
+                for (int i = 0; i < parameters.length; i++) {
+                    getFieldWriter().print(parameters[i], buffer, i == 0);
+                }
+            }
         }
+        getFieldWriter().println(buffer);
+        return buffer;
     }
 
 }
@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.layout;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.util.Constants;
+import org.apache.logging.log4j.util.PerformanceSensitive;
+
+/**
+ * Per-thread cache of the bytes that {@link SharedEncodingLayout}s produced for the event that is currently being
+ * dispatched to the appenders of a {@code LoggerConfig}. Appenders whose layouts have equal
+ * {@linkplain SharedEncodingLayout#getEncodingKey() encoding keys} copy the cached bytes instead of formatting and
+ * encoding the event again.
+ * <p>
+ * The cache is only consulted between {@link #begin(LogEvent)} and {@link #end()}, and only for the event that was
+ * passed to {@code begin}. Nested dispatches on the same thread (an appender that logs) are not cached.
+ * </p>
+ *
+ * @since 2.10.1
+ */
+@PerformanceSensitive("allocation")
+public final class EncodedEventCache {
+
+    private static final int INITIAL_ENTRIES = 4;
+
+    private static final ThreadLocal<EncodedEventCache> CACHE = new ThreadLocal<EncodedEventCache>() {
+        @Override
+        protected EncodedEventCache initialValue() {
+            return new EncodedEventCache();
+        }
+    };
+
+    private LogEvent event;
+    private int size;
+    private Object[] keys = new Object[INITIAL_ENTRIES];
+    private Recorder[] recorders = new Recorder[INITIAL_ENTRIES];
+
+    private EncodedEventCache() {
+    }
+
+    /**
+     * Returns the cache of the current thread.
+     *
+     * @return the cache of the current thread
+     */
+    public static EncodedEventCache current() {
+        return CACHE.get();
+    }
+
+    /**
+     * Starts caching encoded bytes for the specified event.
+     *
+     * @param logEvent the event that is about to be dispatched to several appenders
+     * @return {@code true} if caching started, {@code false} if another dispatch is in progress on this thread, in
+     *          which case {@link #end()} must not be called
+     */
+    public boolean begin(final LogEvent logEvent) {
+        if (event != null) {
+            return false;
+        }
+        event = logEvent;
+        return true;
+    }
+
+    /**
+     * Stops caching and discards the cached bytes.
+     */
+    public void end() {
+        event = null;
+        for (int i = 0; i < size; i++) {
+            keys[i] = null;
+            recorders[i].reset();
+        }
+        size = 0;
+    }
+
+    /**
+     * Returns whether the encoded bytes of the specified event are being cached.
+     *
+     * @param logEvent the event to encode
+     * @return {@code true} if the specified event is currently being dispatched with caching enabled
+     */
+    public boolean isCaching(final LogEvent logEvent) {
+        return event != null && event == logEvent;
+    }
+
+    /**
+     * Returns whether bytes were cached for the specified key.
+     *
+     * @param key the encoding key of a layout
+     * @return {@code true} if bytes were cached for the specified key
+     */
+    public boolean contains(final Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * Returns a destination that records the bytes encoded for the specified key.
+     *
+     * @param key the encoding key of a layout
+     * @return a destination to encode the current event into
+     */
+    public ByteBufferDestination record(final Object key) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            recorders = Arrays.copyOf(recorders, size * 2);
+        }
+        if (recorders[size] == null) {
+            recorders[size] = new Recorder();
+        }
+        keys[size] = key;
+        return recorders[size++];
+    }
+
+    /**
+     * Writes the bytes that were cached for the specified key to the specified destination.
+     *
+     * @param key the encoding key of a layout
+     * @param destination the destination to write the cached bytes to
+     */
+    public void writeTo(final Object key, final ByteBufferDestination destination) {
+        final ByteBuffer buffer = recorders[indexOf(key)].buffer;
+        destination.writeBytes(buffer.array(), buffer.arrayOffset(), buffer.position());
+    }
+
+    private int indexOf(final Object key) {
+        for (int i = 0; i < size; i++) {
+            if (key.equals(keys[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Growable destination that keeps the bytes of one encoded event.
+     */
+    private static final class Recorder implements ByteBufferDestination {
+
+        private ByteBuffer buffer = ByteBuffer.allocate(Constants.ENCODER_BYTE_BUFFER_SIZE);
+
+        @Override
+        public ByteBuffer getByteBuffer() {
+            return buffer;
+        }
+
+        @Override
+        public ByteBuffer drain(final ByteBuffer buf) {
+            final ByteBuffer larger = ByteBuffer.allocate(buf.capacity() * 2);
+            buf.flip();
+            larger.put(buf);
+            buffer = larger;
+            return larger;
+        }
+
+        @Override
+        public void writeBytes(final ByteBuffer data) {
+            ByteBufferDestinationHelper.writeToUnsynchronized(data, this);
+        }
+
+        @Override
+        public void writeBytes(final byte[] data, final int offset, final int length) {
+            ByteBufferDestinationHelper.writeToUnsynchronized(data, offset, length, this);
+        }
+
+        void reset() {
+            if (buffer.capacity() > Constants.ENCODER_BYTE_BUFFER_SIZE) {
+                buffer = ByteBuffer.allocate(Constants.ENCODER_BYTE_BUFFER_SIZE);
+            } else {
+                buffer.clear();
+            }
+        }
+    }
+}
@@ -16,14 +16,17 @@
  */
 package org.apache.logging.log4j.core.layout;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
 import java.util.zip.DeflaterOutputStream;
 import java.util.zip.GZIPOutputStream;
 
@@ -38,12 +41,13 @@ import org.apache.logging.log4j.core.config.plugins.PluginBuilderAttribute;
 import org.apache.logging.log4j.core.config.plugins.PluginBuilderFactory;
 import org.apache.logging.log4j.core.config.plugins.PluginElement;
 import org.apache.logging.log4j.core.lookup.StrSubstitutor;
+import org.apache.logging.log4j.core.net.GelfDatagramOutputStream;
 import org.apache.logging.log4j.core.net.Severity;
+import org.apache.logging.log4j.core.util.Constants;
 import org.apache.logging.log4j.core.util.JsonUtils;
 import org.apache.logging.log4j.core.util.KeyValuePair;
 import org.apache.logging.log4j.core.util.NetUtils;
 import org.apache.logging.log4j.message.Message;
-import org.apache.logging.log4j.status.StatusLogger;
 import org.apache.logging.log4j.util.StringBuilderFormattable;
 import org.apache.logging.log4j.util.Strings;
 import org.apache.logging.log4j.util.TriConsumer;
@@ -53,7 +57,12 @@ import org.apache.logging.log4j.util.TriConsumer;
  * <p>
  * This layout compresses JSON to GZIP or ZLIB (the {@code compressionType}) if
  * log event data is larger than 1024 bytes (the {@code compressionThreshold}).
- * This layout does not implement chunking.
+ * Compression reuses a {@link Deflater} and byte buffers per thread, so no streams or native compression state are
+ * created for each event.
+ * </p>
+ * <p>
+ * This layout does not implement chunking itself: when used with a UDP {@code SocketAppender}, messages larger than
+ * the {@code chunkSize} are split into GELF chunks by the {@link org.apache.logging.log4j.core.net.DatagramSocketManager}.
  * </p>
  *
  * @see <a href="http://docs.graylog.org/en/latest/pages/gelf.html#gelf">GELF specification</a>
@@ -87,6 +96,12 @@ public final class GelfLayout extends AbstractStringLayout {
 
     private static final char C = ',';
     private static final int COMPRESSION_THRESHOLD = 1024;
+
+    /**
+     * The default maximum size of a GELF UDP datagram, including the chunk header.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 8192;
+
     private static final char Q = '\"';
     private static final String QC = "\",";
     private static final String QU = "\"_";
@@ -98,6 +113,7 @@ public final class GelfLayout extends AbstractStringLayout {
     private final boolean includeStacktrace;
     private final boolean includeThreadContext;
     private final boolean includeNullDelimiter;
+    private final int chunkSize;
 
     public static class Builder<B extends Builder<B>> extends AbstractStringLayout.Builder<B>
         implements org.apache.logging.log4j.core.util.Builder<GelfLayout> {
@@ -123,6 +139,9 @@ public final class GelfLayout extends AbstractStringLayout {
         @PluginBuilderAttribute
         private boolean includeNullDelimiter = false;
 
+        @PluginBuilderAttribute
+        private int chunkSize = DEFAULT_CHUNK_SIZE;
+
         public Builder() {
             super();
             setCharset(StandardCharsets.UTF_8);
@@ -131,7 +150,7 @@ public final class GelfLayout extends AbstractStringLayout {
         @Override
         public GelfLayout build() {
             return new GelfLayout(getConfiguration(), host, additionalFields, compressionType, compressionThreshold,
-                includeStacktrace, includeThreadContext, includeNullDelimiter);
+                includeStacktrace, includeThreadContext, includeNullDelimiter, chunkSize);
         }
 
         public String getHost() {
@@ -156,6 +175,10 @@ public final class GelfLayout extends AbstractStringLayout {
 
         public boolean isIncludeNullDelimiter() { return includeNullDelimiter; }
 
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
         public KeyValuePair[] getAdditionalFields() {
             return additionalFields;
         }
@@ -222,6 +245,17 @@ public final class GelfLayout extends AbstractStringLayout {
             return asBuilder();
         }
 
+        /**
+         * Maximum size in bytes of a UDP datagram, including the 12 byte GELF chunk header (optional, defaults to
+         * 8192). Larger messages sent through a UDP {@code SocketAppender} are split into GELF chunks.
+         *
+         * @return this builder
+         */
+        public B setChunkSize(final int chunkSize) {
+            this.chunkSize = chunkSize;
+            return asBuilder();
+        }
+
         /**
          * Additional fields to set on each log event.
          *
@@ -239,11 +273,13 @@ public final class GelfLayout extends AbstractStringLayout {
     @Deprecated
     public GelfLayout(final String host, final KeyValuePair[] additionalFields, final CompressionType compressionType,
                       final int compressionThreshold, final boolean includeStacktrace) {
-        this(null, host, additionalFields, compressionType, compressionThreshold, includeStacktrace, true, false);
+        this(null, host, additionalFields, compressionType, compressionThreshold, includeStacktrace, true, false,
+                DEFAULT_CHUNK_SIZE);
     }
 
     private GelfLayout(final Configuration config, final String host, final KeyValuePair[] additionalFields, final CompressionType compressionType,
-               final int compressionThreshold, final boolean includeStacktrace, final boolean includeThreadContext, final boolean includeNullDelimiter) {
+               final int compressionThreshold, final boolean includeStacktrace, final boolean includeThreadContext, final boolean includeNullDelimiter,
+               final int chunkSize) {
         super(config, StandardCharsets.UTF_8, null, null);
         this.host = host != null ? host : NetUtils.getLocalHostname();
         this.additionalFields = additionalFields != null ? additionalFields : new KeyValuePair[0];
@@ -262,6 +298,10 @@ public final class GelfLayout extends AbstractStringLayout {
         if (includeNullDelimiter && compressionType != CompressionType.OFF) {
             throw new IllegalArgumentException("null delimiter cannot be used with compression");
         }
+        if (chunkSize <= GelfDatagramOutputStream.CHUNK_HEADER_SIZE) {
+            throw new IllegalArgumentException("chunkSize must be larger than " + GelfDatagramOutputStream.CHUNK_HEADER_SIZE);
+        }
+        this.chunkSize = chunkSize;
     }
 
     /**
@@ -279,7 +319,8 @@ public final class GelfLayout extends AbstractStringLayout {
             @PluginAttribute(value = "includeStacktrace",
                 defaultBoolean = true) final boolean includeStacktrace) {
             // @formatter:on
-        return new GelfLayout(null, host, additionalFields, compressionType, compressionThreshold, includeStacktrace, true, false);
+        return new GelfLayout(null, host, additionalFields, compressionType, compressionThreshold, includeStacktrace, true, false,
+                DEFAULT_CHUNK_SIZE);
     }
 
     @PluginBuilderFactory
@@ -297,38 +338,209 @@ public final class GelfLayout extends AbstractStringLayout {
         return JsonLayout.CONTENT_TYPE + "; charset=" + this.getCharset();
     }
 
+    /**
+     * Returns the maximum size of a UDP datagram, including the GELF chunk header.
+     *
+     * @return the chunk size in bytes
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
     @Override
     public byte[] toByteArray(final LogEvent event) {
         final StringBuilder text = toText(event, getStringBuilder(), false);
-        final byte[] bytes = getBytes(text.toString());
-        return compressionType != CompressionType.OFF && bytes.length > compressionThreshold ? compress(bytes) : bytes;
+        if (compressionType == CompressionType.OFF) {
+            return getBytes(text.toString());
+        }
+        final CompressionBuffers buffers = getCompressionBuffers();
+        try {
+            final int length = buffers.encodeAndCompress(text, getStringBuilderEncoder(), compressionType,
+                    compressionThreshold);
+            return Arrays.copyOf(buffers.result(), length);
+        } finally {
+            releaseCompressionBuffers(buffers);
+        }
     }
 
     @Override
     public void encode(final LogEvent event, final ByteBufferDestination destination) {
-        if (compressionType != CompressionType.OFF) {
-            super.encode(event, destination);
-            return;
-        }
         final StringBuilder text = toText(event, getStringBuilder(), true);
         final Encoder<StringBuilder> helper = getStringBuilderEncoder();
-        helper.encode(text, destination);
+        if (compressionType == CompressionType.OFF) {
+            helper.encode(text, destination);
+            return;
+        }
+        final CompressionBuffers buffers = getCompressionBuffers();
+        try {
+            final int length = buffers.encodeAndCompress(text, helper, compressionType, compressionThreshold);
+            destination.writeBytes(buffers.result(), 0, length);
+        } finally {
+            releaseCompressionBuffers(buffers);
+        }
     }
 
-    private byte[] compress(final byte[] bytes) {
-        try {
-            final ByteArrayOutputStream baos = new ByteArrayOutputStream(compressionThreshold / 8);
-            try (final DeflaterOutputStream stream = compressionType.createDeflaterOutputStream(baos)) {
-                if (stream == null) {
-                    return bytes;
+    private static final ThreadLocal<CompressionBuffers> compressionBuffers = new ThreadLocal<>();
+
+    private static CompressionBuffers getCompressionBuffers() {
+        if (!Constants.ENABLE_THREADLOCALS) {
+            return new CompressionBuffers();
+        }
+        CompressionBuffers result = compressionBuffers.get();
+        if (result == null) {
+            result = new CompressionBuffers();
+            compressionBuffers.set(result);
+        }
+        return result;
+    }
+
+    private static void releaseCompressionBuffers(final CompressionBuffers buffers) {
+        if (Constants.ENABLE_THREADLOCALS) {
+            buffers.trimToMaxSize();
+        } else {
+            // without thread locals the native deflater memory is released right away instead of at finalization
+            buffers.end();
+        }
+    }
+
+    /**
+     * Per-thread state for compressing events: a growable buffer that receives the encoded JSON text, the
+     * {@link Deflater}s (created on first use and {@linkplain Deflater#reset() reset} for each event) and the buffer
+     * that receives the compressed bytes.
+     * <p>
+     * GZIP is written as a raw deflate stream between the GZIP header and trailer, which is what
+     * {@link GZIPOutputStream} does without the stream and buffer allocations.
+     * </p>
+     */
+    private static final class CompressionBuffers implements ByteBufferDestination {
+
+        private static final int INITIAL_SIZE = 2048;
+        private static final int MAX_RETAINED_SIZE = 64 * 1024;
+        private static final byte[] GZIP_HEADER = {
+                (byte) 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0 };
+        private static final int GZIP_TRAILER_SIZE = 8;
+
+        private ByteBuffer text = ByteBuffer.allocate(INITIAL_SIZE);
+        private byte[] result = new byte[INITIAL_SIZE];
+        private Deflater gzipDeflater;
+        private Deflater zlibDeflater;
+        private final CRC32 crc = new CRC32();
+
+        /**
+         * Encodes the text and compresses it if it is larger than the threshold.
+         *
+         * @return the number of bytes in {@link #result()}
+         */
+        int encodeAndCompress(final StringBuilder source, final Encoder<StringBuilder> encoder,
+                final CompressionType compressionType, final int compressionThreshold) {
+            text.clear();
+            encoder.encode(source, this);
+            final int length = text.position();
+            if (length <= compressionThreshold) {
+                ensureResultCapacity(length);
+                System.arraycopy(text.array(), text.arrayOffset(), result, 0, length);
+                return length;
+            }
+            if (compressionType == CompressionType.GZIP) {
+                if (gzipDeflater == null) {
+                    gzipDeflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+                }
+                System.arraycopy(GZIP_HEADER, 0, result, 0, GZIP_HEADER.length);
+                int position = deflate(gzipDeflater, length, GZIP_HEADER.length);
+                crc.reset();
+                crc.update(text.array(), text.arrayOffset(), length);
+                ensureResultCapacity(position + GZIP_TRAILER_SIZE);
+                position = writeIntLittleEndian((int) crc.getValue(), position);
+                return writeIntLittleEndian(length, position);
+            }
+            if (zlibDeflater == null) {
+                zlibDeflater = new Deflater();
+            }
+            return deflate(zlibDeflater, length, 0);
+        }
+
+        private int deflate(final Deflater deflater, final int length, final int offset) {
+            deflater.reset();
+            deflater.setInput(text.array(), text.arrayOffset(), length);
+            deflater.finish();
+            int position = offset;
+            while (!deflater.finished()) {
+                if (position == result.length) {
+                    result = Arrays.copyOf(result, result.length * 2);
                 }
-                stream.write(bytes);
-                stream.finish();
+                position += deflater.deflate(result, position, result.length - position);
+            }
+            return position;
+        }
+
+        private int writeIntLittleEndian(final int value, final int position) {
+            result[position] = (byte) value;
+            result[position + 1] = (byte) (value >>> 8);
+            result[position + 2] = (byte) (value >>> 16);
+            result[position + 3] = (byte) (value >>> 24);
+            return position + 4;
+        }
+
+        private void ensureResultCapacity(final int capacity) {
+            if (result.length < capacity) {
+                result = Arrays.copyOf(result, Math.max(capacity, result.length * 2));
+            }
+        }
+
+        byte[] result() {
+            return result;
+        }
+
+        void trimToMaxSize() {
+            if (text.capacity() > MAX_RETAINED_SIZE) {
+                text = ByteBuffer.allocate(INITIAL_SIZE);
+            }
+            if (result.length > MAX_RETAINED_SIZE) {
+                result = new byte[INITIAL_SIZE];
+            }
+        }
+
+        void end() {
+            if (gzipDeflater != null) {
+                gzipDeflater.end();
+            }
+            if (zlibDeflater != null) {
+                zlibDeflater.end();
+            }
+        }
+
+        @Override
+        public ByteBuffer getByteBuffer() {
+            return text;
+        }
+
+        @Override
+        public ByteBuffer drain(final ByteBuffer buf) {
+            return grow(buf.capacity());
+        }
+
+        @Override
+        public void writeBytes(final ByteBuffer data) {
+            if (text.remaining() < data.remaining()) {
+                grow(data.remaining());
             }
-            return baos.toByteArray();
-        } catch (final IOException e) {
-            StatusLogger.getLogger().error(e);
-            return bytes;
+            text.put(data);
+        }
+
+        @Override
+        public void writeBytes(final byte[] data, final int offset, final int length) {
+            if (text.remaining() < length) {
+                grow(length);
+            }
+            text.put(data, offset, length);
+        }
+
+        private ByteBuffer grow(final int minIncrement) {
+            final ByteBuffer larger = ByteBuffer.allocate(text.capacity() + Math.max(minIncrement, text.capacity()));
+            text.flip();
+            larger.put(text);
+            text = larger;
+            return text;
         }
     }
 
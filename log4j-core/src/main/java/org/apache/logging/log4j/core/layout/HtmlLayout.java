@@ -38,7 +38,11 @@ import org.apache.logging.log4j.core.config.plugins.PluginBuilderAttribute;
 import org.apache.logging.log4j.core.config.plugins.PluginBuilderFactory;
 import org.apache.logging.log4j.core.config.plugins.PluginFactory;
 import org.apache.logging.log4j.core.util.Transform;
+import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.util.StringBuilderFormattable;
+import org.apache.logging.log4j.util.StringBuilders;
 import org.apache.logging.log4j.util.Strings;
+import org.apache.logging.log4j.util.TriConsumer;
 
 /**
  * Outputs events as rows in an HTML table on an HTML page.
@@ -56,7 +60,16 @@ public final class HtmlLayout extends AbstractStringLayout {
     public static final String DEFAULT_FONT_FAMILY = "arial,sans-serif";
 
     private static final String TRACE_PREFIX = "<br />&nbsp;&nbsp;&nbsp;&nbsp;";
-    private static final String REGEXP = Strings.LINE_SEPARATOR.equals("\n") ? "\n" : Strings.LINE_SEPARATOR + "|\n";
+    private static final String LINE_BREAK = "<br />";
+    private static final TriConsumer<String, Object, StringBuilder> APPEND_KEY_VALUE =
+            new TriConsumer<String, Object, StringBuilder>() {
+        @Override
+        public void accept(final String key, final Object value, final StringBuilder sbuf) {
+            sbuf.append(key).append('=');
+            StringBuilders.appendValue(sbuf, value);
+            sbuf.append(", ");
+        }
+    };
     private static final String DEFAULT_TITLE = "Log4j Log Messages";
     private static final String DEFAULT_CONTENT_TYPE = "text/html";
 
@@ -139,52 +152,78 @@ public final class HtmlLayout extends AbstractStringLayout {
      */
     @Override
     public String toSerializable(final LogEvent event) {
-        final StringBuilder sbuf = getStringBuilder();
+        return toText(event, getStringBuilder()).toString();
+    }
 
+    /**
+     * Writes the table rows of the specified event straight into the destination's byte buffer.
+     *
+     * @param event The Logging Event.
+     * @param destination The destination of the encoded rows.
+     */
+    @Override
+    public void encode(final LogEvent event, final ByteBufferDestination destination) {
+        final StringBuilder text = toText(event, getStringBuilder());
+        getStringBuilderEncoder().encode(text, destination);
+        trimToMaxSize(text);
+    }
+
+    private StringBuilder toText(final LogEvent event, final StringBuilder sbuf) {
         sbuf.append(Strings.LINE_SEPARATOR).append("<tr>").append(Strings.LINE_SEPARATOR);
 
         sbuf.append("<td>");
         sbuf.append(event.getTimeMillis() - jvmStartTime);
         sbuf.append("</td>").append(Strings.LINE_SEPARATOR);
 
-        final String escapedThread = Transform.escapeHtmlTags(event.getThreadName());
-        sbuf.append("<td title=\"").append(escapedThread).append(" thread\">");
-        sbuf.append(escapedThread);
+        sbuf.append("<td title=\"");
+        final int threadStart = sbuf.length();
+        appendEscaped(sbuf, event.getThreadName());
+        final int threadEnd = sbuf.length();
+        sbuf.append(" thread\">");
+        sbuf.append(sbuf, threadStart, threadEnd);
         sbuf.append("</td>").append(Strings.LINE_SEPARATOR);
 
         sbuf.append("<td title=\"Level\">");
         if (event.getLevel().equals(Level.DEBUG)) {
             sbuf.append("<font color=\"#339933\">");
-            sbuf.append(Transform.escapeHtmlTags(String.valueOf(event.getLevel())));
+            appendEscaped(sbuf, event.getLevel().name());
             sbuf.append("</font>");
         } else if (event.getLevel().isMoreSpecificThan(Level.WARN)) {
             sbuf.append("<font color=\"#993300\"><strong>");
-            sbuf.append(Transform.escapeHtmlTags(String.valueOf(event.getLevel())));
+            appendEscaped(sbuf, event.getLevel().name());
             sbuf.append("</strong></font>");
         } else {
-            sbuf.append(Transform.escapeHtmlTags(String.valueOf(event.getLevel())));
+            appendEscaped(sbuf, event.getLevel().name());
         }
         sbuf.append("</td>").append(Strings.LINE_SEPARATOR);
 
-        String escapedLogger = Transform.escapeHtmlTags(event.getLoggerName());
-        if (Strings.isEmpty(escapedLogger)) {
-            escapedLogger = LoggerConfig.ROOT;
-        }
-        sbuf.append("<td title=\"").append(escapedLogger).append(" logger\">");
-        sbuf.append(escapedLogger);
+        sbuf.append("<td title=\"");
+        final int loggerStart = sbuf.length();
+        appendEscaped(sbuf, Strings.isEmpty(event.getLoggerName()) ? LoggerConfig.ROOT : event.getLoggerName());
+        final int loggerEnd = sbuf.length();
+        sbuf.append(" logger\">");
+        sbuf.append(sbuf, loggerStart, loggerEnd);
         sbuf.append("</td>").append(Strings.LINE_SEPARATOR);
 
         if (locationInfo) {
             final StackTraceElement element = event.getSource();
             sbuf.append("<td>");
-            sbuf.append(Transform.escapeHtmlTags(element.getFileName()));
+            appendEscaped(sbuf, element.getFileName());
             sbuf.append(':');
             sbuf.append(element.getLineNumber());
             sbuf.append("</td>").append(Strings.LINE_SEPARATOR);
         }
 
         sbuf.append("<td title=\"Message\">");
-        sbuf.append(Transform.escapeHtmlTags(event.getMessage().getFormattedMessage()).replaceAll(REGEXP, "<br />"));
+        final int messageStart = sbuf.length();
+        final Message message = event.getMessage();
+        if (message instanceof StringBuilderFormattable) {
+            ((StringBuilderFormattable) message).formatTo(sbuf);
+        } else {
+            sbuf.append(message.getFormattedMessage());
+        }
+        Transform.escapeHtmlTags(sbuf, messageStart);
+        replaceLineBreaks(sbuf, messageStart);
         sbuf.append("</td>").append(Strings.LINE_SEPARATOR);
         sbuf.append("</tr>").append(Strings.LINE_SEPARATOR);
 
@@ -192,7 +231,10 @@ public final class HtmlLayout extends AbstractStringLayout {
             sbuf.append("<tr><td bgcolor=\"#EEEEEE\" style=\"font-size : ").append(fontSize);
             sbuf.append(";\" colspan=\"6\" ");
             sbuf.append("title=\"Nested Diagnostic Context\">");
-            sbuf.append("NDC: ").append(Transform.escapeHtmlTags(event.getContextStack().toString()));
+            sbuf.append("NDC: ");
+            final int stackStart = sbuf.length();
+            StringBuilders.appendValue(sbuf, event.getContextStack());
+            Transform.escapeHtmlTags(sbuf, stackStart);
             sbuf.append("</td></tr>").append(Strings.LINE_SEPARATOR);
         }
 
@@ -200,7 +242,12 @@ public final class HtmlLayout extends AbstractStringLayout {
             sbuf.append("<tr><td bgcolor=\"#EEEEEE\" style=\"font-size : ").append(fontSize);
             sbuf.append(";\" colspan=\"6\" ");
             sbuf.append("title=\"Mapped Diagnostic Context\">");
-            sbuf.append("MDC: ").append(Transform.escapeHtmlTags(event.getContextData().toMap().toString()));
+            sbuf.append("MDC: {");
+            final int mapStart = sbuf.length();
+            event.getContextData().forEach(APPEND_KEY_VALUE, sbuf);
+            sbuf.setLength(sbuf.length() - 2); // the last ", "
+            Transform.escapeHtmlTags(sbuf, mapStart);
+            sbuf.append('}');
             sbuf.append("</td></tr>").append(Strings.LINE_SEPARATOR);
         }
 
@@ -212,7 +259,59 @@ public final class HtmlLayout extends AbstractStringLayout {
             sbuf.append("</td></tr>").append(Strings.LINE_SEPARATOR);
         }
 
-        return sbuf.toString();
+        return sbuf;
+    }
+
+    private static void appendEscaped(final StringBuilder sbuf, final String text) {
+        final int start = sbuf.length();
+        sbuf.append(text);
+        Transform.escapeHtmlTags(sbuf, start);
+    }
+
+    /**
+     * Replaces line separators, and single line feeds, in the text after the specified start index with HTML line
+     * breaks.
+     */
+    private static void replaceLineBreaks(final StringBuilder sbuf, final int start) {
+        final int length = sbuf.length();
+        int replacedLength = length;
+        for (int i = length - 1; i >= start; i--) { // backwards, like the replacement below
+            final int breakLength = lineBreakEndingAt(sbuf, start, i);
+            if (breakLength > 0) {
+                replacedLength += LINE_BREAK.length() - breakLength;
+                i -= breakLength - 1;
+            }
+        }
+        if (replacedLength == length) {
+            return;
+        }
+        sbuf.setLength(replacedLength);
+        int to = replacedLength;
+        for (int i = length - 1; to > i + 1; i--) { // writes stay behind the characters still to be read
+            final int breakLength = lineBreakEndingAt(sbuf, start, i);
+            if (breakLength > 0) {
+                to -= LINE_BREAK.length();
+                sbuf.replace(to, to + LINE_BREAK.length(), LINE_BREAK);
+                i -= breakLength - 1;
+            } else {
+                sbuf.setCharAt(--to, sbuf.charAt(i));
+            }
+        }
+    }
+
+    /**
+     * Returns the length of the line separator, or single line feed, that ends at the specified index, zero if there is
+     * none.
+     */
+    private static int lineBreakEndingAt(final StringBuilder sbuf, final int start, final int end) {
+        final int separatorLength = Strings.LINE_SEPARATOR.length();
+        final int separatorStart = end - separatorLength + 1;
+        if (separatorStart >= start
+                && StringBuilders.equals(sbuf, separatorStart, separatorLength, Strings.LINE_SEPARATOR, 0,
+                        separatorLength)) {
+            return separatorLength;
+        }
+        return sbuf.charAt(end) == '\n' ? 1 : 0;
     }
 
     @Override
@@ -0,0 +1,234 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.layout;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+
+import org.apache.logging.log4j.core.Layout;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.ConfigurationException;
+import org.apache.logging.log4j.core.config.ConfigurationSource;
+import org.apache.logging.log4j.core.config.Node;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginBuilderAttribute;
+import org.apache.logging.log4j.core.config.plugins.PluginBuilderFactory;
+import org.apache.logging.log4j.core.util.IOUtils;
+import org.apache.logging.log4j.core.util.JsonReader;
+import org.apache.logging.log4j.core.util.NetUtils;
+import org.apache.logging.log4j.util.Strings;
+
+/**
+ * Lays out events in JSON, with the fields described by an event template.
+ * <p>
+ * Unlike {@link JsonLayout}, this layout does not use Jackson: the event template is compiled once into a tree of
+ * resolvers that write JSON directly into a reusable {@code StringBuilder}, which is then encoded into the
+ * {@link ByteBufferDestination}. With the default template (and any template that does not include the source
+ * location or a {@code Throwable}), formatting an event does not allocate any objects.
+ * </p>
+ * <p>
+ * The event template is a JSON document. Strings of the form {@code "$name"} are replaced with the value of the
+ * named event field, for example {@code "$timestamp"}, {@code "$level"} or {@code "$message"}; fields without a
+ * value in an event are omitted. All other values are copied as-is. A string that starts with {@code "$$"} is
+ * written as a literal string starting with a single {@code "$"}.
+ * </p>
+ * <p>
+ * Fields that take parameters are written as an object with a {@code "$resolver"} member:
+ * </p>
+ * <ul>
+ * <li><code>{"$resolver": "timestamp", "pattern": "yyyy-MM-dd'T'HH:mm:ss.SSS", "timeZone": "UTC"}</code> formats the
+ * event time like the {@code %d} pattern converter, garbage-free for the patterns supported by
+ * {@link org.apache.logging.log4j.core.util.datetime.FixedDateFormat}.</li>
+ * <li><code>{"$resolver": "mdc", "key": "userId"}</code> writes a single context data value.</li>
+ * <li><code>{"$resolver": "exception", "field": "stackTrace", "maxLength": 4096}</code> writes the
+ * {@code className}, {@code message} or {@code stackTrace} of the logged exception, truncated to
+ * {@code maxLength} characters.</li>
+ * <li><code>{"$resolver": "message", "structured": true}</code> writes a
+ * {@link org.apache.logging.log4j.message.MapMessage} as a JSON object instead of a string.</li>
+ * </ul>
+ *
+ * @since 2.10.1
+ */
+@Plugin(name = "JsonTemplateLayout", category = Node.CATEGORY, elementType = Layout.ELEMENT_TYPE, printObject = true)
+public final class JsonTemplateLayout extends AbstractStringLayout {
+
+    /**
+     * The event template used when neither {@code eventTemplate} nor {@code eventTemplateUri} are specified. It
+     * contains the same fields as the default {@link JsonLayout}.
+     */
+    public static final String DEFAULT_EVENT_TEMPLATE = "{"
+            + "\"timeMillis\":\"$timestamp\","
+            + "\"thread\":\"$threadName\","
+            + "\"level\":\"$level\","
+            + "\"loggerName\":\"$loggerName\","
+            + "\"marker\":\"$marker\","
+            + "\"message\":\"$message\","
+            + "\"thrown\":\"$thrown\","
+            + "\"contextMap\":\"$contextMap\","
+            + "\"endOfBatch\":\"$endOfBatch\","
+            + "\"loggerFqcn\":\"$loggerFqcn\","
+            + "\"threadId\":\"$threadId\","
+            + "\"threadPriority\":\"$threadPriority\""
+            + "}";
+
+    private final String eventTemplate;
+    private final JsonTemplateResolvers.Resolver resolver;
+    private final boolean eventEol;
+
+    public static class Builder<B extends Builder<B>> extends AbstractStringLayout.Builder<B>
+        implements org.apache.logging.log4j.core.util.Builder<JsonTemplateLayout> {
+
+        @PluginBuilderAttribute
+        private String eventTemplate;
+
+        @PluginBuilderAttribute
+        private String eventTemplateUri;
+
+        @PluginBuilderAttribute
+        private boolean eventEol = true;
+
+        public Builder() {
+            super();
+            setCharset(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public JsonTemplateLayout build() {
+            String template = eventTemplate;
+            if (Strings.isEmpty(template) && Strings.isNotEmpty(eventTemplateUri)) {
+                template = readEventTemplate(eventTemplateUri);
+            }
+            if (Strings.isEmpty(template)) {
+                template = DEFAULT_EVENT_TEMPLATE;
+            }
+            return new JsonTemplateLayout(getConfiguration(), getCharset(), template, eventEol);
+        }
+
+        public String getEventTemplate() {
+            return eventTemplate;
+        }
+
+        public String getEventTemplateUri() {
+            return eventTemplateUri;
+        }
+
+        public boolean isEventEol() {
+            return eventEol;
+        }
+
+        /**
+         * The JSON event template (optional, defaults to {@link JsonTemplateLayout#DEFAULT_EVENT_TEMPLATE}).
+         *
+         * @return this builder
+         */
+        public B setEventTemplate(final String eventTemplate) {
+            this.eventTemplate = eventTemplate;
+            return asBuilder();
+        }
+
+        /**
+         * The location of the JSON event template, for example {@code classpath:EventTemplate.json} (optional, only
+         * used if no {@code eventTemplate} is specified).
+         *
+         * @return this builder
+         */
+        public B setEventTemplateUri(final String eventTemplateUri) {
+            this.eventTemplateUri = eventTemplateUri;
+            return asBuilder();
+        }
+
+        /**
+         * Whether to append a line separator after each event (optional, defaults to true).
+         *
+         * @return this builder
+         */
+        public B setEventEol(final boolean eventEol) {
+            this.eventEol = eventEol;
+            return asBuilder();
+        }
+    }
+
+    private JsonTemplateLayout(final Configuration config, final Charset charset, final String eventTemplate,
+            final boolean eventEol) {
+        super(config, charset == null ? StandardCharsets.UTF_8 : charset, null, null);
+        this.eventTemplate = eventTemplate;
+        this.resolver = JsonTemplateResolvers.compile(JsonReader.read(eventTemplate));
+        this.eventEol = eventEol;
+    }
+
+    private static String readEventTemplate(final String uri) {
+        final ConfigurationSource source = ConfigurationSource.fromUri(NetUtils.toURI(uri));
+        if (source == null) {
+            throw new ConfigurationException("Unable to locate the event template " + uri);
+        }
+        try (final InputStream in = source.getInputStream()) {
+            return IOUtils.toString(new InputStreamReader(in, StandardCharsets.UTF_8));
+        } catch (final IOException e) {
+            throw new ConfigurationException("Unable to read the event template " + uri, e);
+        }
+    }
+
+    @PluginBuilderFactory
+    public static <B extends Builder<B>> B newBuilder() {
+        return new Builder<B>().asBuilder();
+    }
+
+    /**
+     * Returns the event template of this layout.
+     *
+     * @return the JSON event template
+     */
+    public String getEventTemplate() {
+        return eventTemplate;
+    }
+
+    @Override
+    public Map<String, String> getContentFormat() {
+        return Collections.emptyMap();
+    }
+
+    @Override
+    public String getContentType() {
+        return JsonLayout.CONTENT_TYPE + "; charset=" + this.getCharset();
+    }
+
+    @Override
+    public String toSerializable(final LogEvent event) {
+        return toText(event, getStringBuilder()).toString();
+    }
+
+    @Override
+    public void encode(final LogEvent event, final ByteBufferDestination destination) {
+        final StringBuilder text = toText(event, getStringBuilder());
+        final Encoder<StringBuilder> helper = getStringBuilderEncoder();
+        helper.encode(text, destination);
+    }
+
+    private StringBuilder toText(final LogEvent event, final StringBuilder builder) {
+        resolver.resolve(event, builder);
+        if (eventEol) {
+            builder.append('\n');
+        }
+        return builder;
+    }
+}
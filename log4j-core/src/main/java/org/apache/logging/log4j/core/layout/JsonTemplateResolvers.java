@@ -0,0 +1,771 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.layout;
+
+import java.io.PrintWriter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.ThreadContext;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.pattern.DatePatternConverter;
+import org.apache.logging.log4j.core.util.JsonUtils;
+import org.apache.logging.log4j.core.util.StringBuilderWriter;
+import org.apache.logging.log4j.message.MapMessage;
+import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.util.StringBuilderFormattable;
+import org.apache.logging.log4j.util.StringBuilders;
+import org.apache.logging.log4j.util.TriConsumer;
+
+/**
+ * Compiles the event template of a {@link JsonTemplateLayout} into a tree of {@link Resolver}s.
+ * <p>
+ * Each node of the parsed template becomes one resolver: objects and arrays become resolvers that delegate to their
+ * children, literals are rendered to JSON once, and strings of the form {@code "$name"} are replaced with the
+ * resolver for the named event field. Rendering an event is then a walk over the resolver tree that appends to a
+ * {@code StringBuilder}, without reflection, map lookups or intermediate strings.
+ * </p>
+ * <p>
+ * A field that needs parameters is written as an object with a {@value #RESOLVER_KEY} member naming the resolver,
+ * for example <code>{"$resolver": "timestamp", "pattern": "ISO8601", "timeZone": "UTC"}</code>. The parameters are
+ * validated and turned into resolver state when the template is compiled; {@code "$name"} is shorthand for
+ * <code>{"$resolver": "name"}</code>.
+ * </p>
+ */
+final class JsonTemplateResolvers {
+
+    /**
+     * Writes one value of the JSON document for a log event.
+     */
+    interface Resolver {
+
+        /**
+         * Returns whether this resolver writes a value for the specified event. Object fields whose value is not
+         * resolvable are omitted.
+         *
+         * @param event the event to render
+         * @return {@code true} if {@link #resolve(LogEvent, StringBuilder)} writes a value
+         */
+        boolean isResolvable(LogEvent event);
+
+        /**
+         * Appends the JSON value for the specified event.
+         *
+         * @param event the event to render
+         * @param jsonBuilder the destination
+         */
+        void resolve(LogEvent event, StringBuilder jsonBuilder);
+    }
+
+    /** Member of a template object that turns the object into a resolver with parameters. */
+    static final String RESOLVER_KEY = "$resolver";
+
+    private static final ThreadLocal<StringBuilder> messageStringBuilder = new ThreadLocal<>();
+
+    private JsonTemplateResolvers() {
+    }
+
+    /**
+     * Compiles a parsed template node.
+     *
+     * @param node the output of {@link org.apache.logging.log4j.core.util.JsonReader#read(String)}
+     * @return the resolver for the node
+     * @throws IllegalArgumentException if the template refers to an unknown event field or has invalid resolver
+     *             parameters
+     */
+    static Resolver compile(final Object node) {
+        if (node instanceof Map) {
+            @SuppressWarnings("unchecked")
+            final Map<String, Object> map = (Map<String, Object>) node;
+            if (map.containsKey(RESOLVER_KEY)) {
+                return parameterizedResolver(map);
+            }
+            final String[] prefixes = new String[map.size()];
+            final Resolver[] values = new Resolver[map.size()];
+            int i = 0;
+            for (final Map.Entry<String, Object> entry : map.entrySet()) {
+                final StringBuilder prefix = new StringBuilder();
+                writeString(entry.getKey(), prefix);
+                prefixes[i] = prefix.append(':').toString();
+                values[i] = compile(entry.getValue());
+                i++;
+            }
+            return new ObjectResolver(prefixes, values);
+        }
+        if (node instanceof List) {
+            final List<?> list = (List<?>) node;
+            final Resolver[] elements = new Resolver[list.size()];
+            for (int i = 0; i < elements.length; i++) {
+                elements[i] = compile(list.get(i));
+            }
+            return new ArrayResolver(elements);
+        }
+        if (node instanceof String) {
+            final String text = (String) node;
+            if (text.startsWith("$$")) {
+                return new LiteralResolver(text.substring(1));
+            }
+            if (text.startsWith("$")) {
+                return eventResolver(text.substring(1));
+            }
+        }
+        return new LiteralResolver(node);
+    }
+
+    private static Resolver eventResolver(final String name) {
+        switch (name) {
+        case "timestamp":
+            return TIMESTAMP;
+        case "level":
+            return LEVEL;
+        case "loggerName":
+            return LOGGER_NAME;
+        case "loggerFqcn":
+            return LOGGER_FQCN;
+        case "threadName":
+            return THREAD_NAME;
+        case "threadId":
+            return THREAD_ID;
+        case "threadPriority":
+            return THREAD_PRIORITY;
+        case "message":
+            return MESSAGE;
+        case "thrown":
+            return THROWN;
+        case "contextMap":
+            return CONTEXT_MAP;
+        case "contextStack":
+            return CONTEXT_STACK;
+        case "marker":
+            return MARKER;
+        case "source":
+            return SOURCE;
+        case "endOfBatch":
+            return END_OF_BATCH;
+        default:
+            throw new IllegalArgumentException("Unknown event template field \"$" + name + '"');
+        }
+    }
+
+    private static Resolver parameterizedResolver(final Map<String, Object> node) {
+        final Object name = node.get(RESOLVER_KEY);
+        if (!(name instanceof String)) {
+            throw new IllegalArgumentException("The value of \"" + RESOLVER_KEY + "\" must be a string: " + name);
+        }
+        final ResolverParameters parameters = new ResolverParameters((String) name, node);
+        final Resolver result;
+        switch ((String) name) {
+        case "timestamp":
+            result = timestampResolver(parameters.getString("pattern"), parameters.getString("timeZone"));
+            break;
+        case "mdc":
+        case "contextMap":
+            final String key = parameters.getString("key");
+            result = key == null ? CONTEXT_MAP : new ContextDataValueResolver(key);
+            break;
+        case "exception":
+        case "thrown":
+            result = new ExceptionResolver(parameters.getString("field", "stackTrace"),
+                    parameters.getInt("maxLength", Integer.MAX_VALUE));
+            break;
+        case "message":
+            result = parameters.getBoolean("structured", false) ? STRUCTURED_MESSAGE : MESSAGE;
+            break;
+        default:
+            result = eventResolver((String) name);
+            break;
+        }
+        parameters.checkAllUsed();
+        return result;
+    }
+
+    private static Resolver timestampResolver(final String pattern, final String timeZone) {
+        if (pattern == null) {
+            if (timeZone != null) {
+                throw new IllegalArgumentException("Resolver \"timestamp\" needs a pattern to use a time zone");
+            }
+            return TIMESTAMP;
+        }
+        final DatePatternConverter converter = DatePatternConverter.newInstance(new String[] {pattern, timeZone});
+        final boolean numeric = "UNIX".equals(pattern) || "UNIX_MILLIS".equals(pattern);
+        return new TimestampResolver(converter, numeric);
+    }
+
+    /**
+     * The parameters of a <code>{"$resolver": ...}</code> template object. Keeps track of the parameters that are
+     * read so that misspelled parameters are reported instead of silently ignored.
+     */
+    private static final class ResolverParameters {
+
+        private final String resolverName;
+        private final Map<String, Object> unused;
+
+        ResolverParameters(final String resolverName, final Map<String, Object> node) {
+            this.resolverName = resolverName;
+            this.unused = new HashMap<>(node);
+            this.unused.remove(RESOLVER_KEY);
+        }
+
+        String getString(final String name) {
+            return getString(name, null);
+        }
+
+        String getString(final String name, final String defaultValue) {
+            final Object value = unused.remove(name);
+            if (value == null) {
+                return defaultValue;
+            }
+            if (!(value instanceof String)) {
+                throw invalid(name, value);
+            }
+            return (String) value;
+        }
+
+        int getInt(final String name, final int defaultValue) {
+            final Object value = unused.remove(name);
+            if (value == null) {
+                return defaultValue;
+            }
+            if (!(value instanceof Long) || (Long) value < 0 || (Long) value > Integer.MAX_VALUE) {
+                throw invalid(name, value);
+            }
+            return ((Long) value).intValue();
+        }
+
+        boolean getBoolean(final String name, final boolean defaultValue) {
+            final Object value = unused.remove(name);
+            if (value == null) {
+                return defaultValue;
+            }
+            if (!(value instanceof Boolean)) {
+                throw invalid(name, value);
+            }
+            return (Boolean) value;
+        }
+
+        void checkAllUsed() {
+            if (!unused.isEmpty()) {
+                throw new IllegalArgumentException("Unknown parameters " + unused.keySet() + " for resolver \""
+                        + resolverName + '"');
+            }
+        }
+
+        private IllegalArgumentException invalid(final String name, final Object value) {
+            return new IllegalArgumentException("Invalid value of parameter \"" + name + "\" for resolver \""
+                    + resolverName + "\": " + value);
+        }
+    }
+
+    /**
+     * Appends the specified text as a quoted JSON string.
+     */
+    static void writeString(final CharSequence text, final StringBuilder jsonBuilder) {
+        jsonBuilder.append('"');
+        JsonUtils.quoteAsString(text, jsonBuilder);
+        jsonBuilder.append('"');
+    }
+
+    static StringBuilder getMessageStringBuilder() {
+        StringBuilder result = messageStringBuilder.get();
+        if (result == null) {
+            result = new StringBuilder(AbstractStringLayout.DEFAULT_STRING_BUILDER_SIZE);
+            messageStringBuilder.set(result);
+        }
+        result.setLength(0);
+        return result;
+    }
+
+    static void writeMessage(final Message message, final StringBuilder jsonBuilder) {
+        if (message instanceof CharSequence) {
+            writeString((CharSequence) message, jsonBuilder);
+        } else if (message instanceof StringBuilderFormattable) {
+            final StringBuilder messageBuffer = getMessageStringBuilder();
+            try {
+                ((StringBuilderFormattable) message).formatTo(messageBuffer);
+                writeString(messageBuffer, jsonBuilder);
+            } finally {
+                AbstractStringLayout.trimToMaxSize(messageBuffer);
+            }
+        } else {
+            final String formatted = message.getFormattedMessage();
+            if (formatted == null) {
+                jsonBuilder.append("null");
+            } else {
+                writeString(formatted, jsonBuilder);
+            }
+        }
+    }
+
+    /**
+     * Writes the stack trace of the specified throwable as a JSON string of at most {@code maxLength} characters.
+     */
+    static void writeStackTrace(final Throwable throwable, final int maxLength, final StringBuilder jsonBuilder) {
+        final StringBuilder stackTrace = getMessageStringBuilder();
+        try {
+            final PrintWriter pw = new PrintWriter(new StringBuilderWriter(stackTrace));
+            throwable.printStackTrace(pw);
+            pw.flush();
+            if (stackTrace.length() > maxLength) {
+                stackTrace.setLength(maxLength);
+            }
+            writeString(stackTrace, jsonBuilder);
+        } finally {
+            AbstractStringLayout.trimToMaxSize(stackTrace);
+        }
+    }
+
+    /**
+     * Writes a JSON object with the fields whose values are resolvable.
+     */
+    static final class ObjectResolver implements Resolver {
+
+        private final String[] prefixes;
+        private final Resolver[] values;
+
+        ObjectResolver(final String[] prefixes, final Resolver[] values) {
+            this.prefixes = prefixes;
+            this.values = values;
+        }
+
+        @Override
+        public boolean isResolvable(final LogEvent event) {
+            return true;
+        }
+
+        @Override
+        public void resolve(final LogEvent event, final StringBuilder jsonBuilder) {
+            jsonBuilder.append('{');
+            boolean first = true;
+            for (int i = 0; i < values.length; i++) {
+                if (values[i].isResolvable(event)) {
+                    if (!first) {
+                        jsonBuilder.append(',');
+                    }
+                    first = false;
+                    jsonBuilder.append(prefixes[i]);
+                    values[i].resolve(event, jsonBuilder);
+                }
+            }
+            jsonBuilder.append('}');
+        }
+    }
+
+    /**
+     * Writes a JSON array with the elements whose values are resolvable.
+     */
+    static final class ArrayResolver implements Resolver {
+
+        private final Resolver[] elements;
+
+        ArrayResolver(final Resolver[] elements) {
+            this.elements = elements;
+        }
+
+        @Override
+        public boolean isResolvable(final LogEvent event) {
+            return true;
+        }
+
+        @Override
+        public void resolve(final LogEvent event, final StringBuilder jsonBuilder) {
+            jsonBuilder.append('[');
+            boolean first = true;
+            for (final Resolver element : elements) {
+                if (element.isResolvable(event)) {
+                    if (!first) {
+                        jsonBuilder.append(',');
+                    }
+                    first = false;
+                    element.resolve(event, jsonBuilder);
+                }
+            }
+            jsonBuilder.append(']');
+        }
+    }
+
+    /**
+     * Writes a constant value that was rendered to JSON when the template was compiled.
+     */
+    static final class LiteralResolver implements Resolver {
+
+        private final String json;
+
+        LiteralResolver(final Object value) {
+            if (value instanceof String) {
+                final StringBuilder sb = new StringBuilder();
+                writeString((String) value, sb);
+                this.json = sb.toString();
+            } else {
+                this.json = String.valueOf(value);
+            }
+        }
+
+        @Override
+        public boolean isResolvable(final LogEvent event) {
+            return true;
+        }
+
+        @Override
+        public void resolve(final LogEvent event, final StringBuilder jsonBuilder) {
+            jsonBuilder.append(json);
+        }
+    }
+
+    /**
+     * Base class of resolvers that are always resolvable.
+     */
+    abstract static class AlwaysResolvable implements Resolver {
+        @Override
+        public boolean isResolvable(final LogEvent event) {
+            return true;
+        }
+    }
+
+    private static final Resolver TIMESTAMP = new AlwaysResolvable() {
+        @Override
+        public void resolve(final LogEvent event, final StringBuilder jsonBuilder) {
+            jsonBuilder.append(event.getTimeMillis());
+        }
+    };
+
+    private static final Resolver LEVEL = new AlwaysResolvable() {
+        @Override
+        public void resolve(final LogEvent event, final StringBuilder jsonBuilder) {
+            writeString(event.getLevel().name(), jsonBuilder);
+        }
+    };
+
+    private static final Resolver LOGGER_NAME = new Resolver() {
+        @Override
+        public boolean isResolvable(final LogEvent event) {
+            return event.getLoggerName() != null;
+        }
+
+        @Override
+        public void resolve(final LogEvent event, final StringBuilder jsonBuilder) {
+            writeString(event.getLoggerName(), jsonBuilder);
+        }
+    };
+
+    private static final Resolver LOGGER_FQCN = new Resolver() {
+        @Override
+        public boolean isResolvable(final LogEvent event) {
+            return event.getLoggerFqcn() != null;
+        }
+
+        @Override
+        public void resolve(final LogEvent event, final StringBuilder jsonBuilder) {
+            writeString(event.getLoggerFqcn(), jsonBuilder);
+        }
+    };
+
+    private static final Resolver THREAD_NAME = new Resolver() {
+        @Override
+        public boolean isResolvable(final LogEvent event) {
+            return event.getThreadName() != null;
+        }
+
+        @Override
+        public void resolve(final LogEvent event, final StringBuilder jsonBuilder) {
+            writeString(event.getThreadName(), jsonBuilder);
+        }
+    };
+
+    private static final Resolver THREAD_ID = new AlwaysResolvable() {
+        @Override
+        public void resolve(final LogEvent event, final StringBuilder jsonBuilder) {
+            jsonBuilder.append(event.getThreadId());
+        }
+    };
+
+    private static final Resolver THREAD_PRIORITY = new AlwaysResolvable() {
+        @Override
+        public void resolve(final LogEvent event, final StringBuilder jsonBuilder) {
+            jsonBuilder.append(event.getThreadPriority());
+        }
+    };
+
+    private static final Resolver MESSAGE = new Resolver() {
+        @Override
+        public boolean isResolvable(final LogEvent event) {
+            return event.getMessage() != null;
+        }
+
+        @Override
+        public void resolve(final LogEvent event, final StringBuilder jsonBuilder) {
+            writeMessage(event.getMessage(), jsonBuilder);
+        }
+    };
+
+    /**
+     * Writes a {@link MapMessage} as a JSON object and any other message as a string.
+     */
+    private static final Resolver STRUCTURED_MESSAGE = new Resolver() {
+        @Override
+        public boolean isResolvable(final LogEvent event) {
+            return event.getMessage() != null;
+        }
+
+        @Override
+        public void resolve(final LogEvent event, final StringBuilder jsonBuilder) {
+            final Message message = event.getMessage();
+            if (message instanceof MapMessage) {
+                jsonBuilder.append('{');
+                ((MapMessage<?, ?>) message).forEach(WRITE_MAP_ENTRY, jsonBuilder);
+                jsonBuilder.append('}');
+            } else {
+                writeMessage(message, jsonBuilder);
+            }
+        }
+    };
+
+    private static final Resolver THROWN = new ExceptionResolver("stackTrace", Integer.MAX_VALUE);
+
+    /**
+     * Writes the class name, message or (truncated) stack trace of the logged exception.
+     */
+    static final class ExceptionResolver implements Resolver {
+
+        private static final int CLASS_NAME = 0;
+        private static final int MESSAGE = 1;
+        private static final int STACK_TRACE = 2;
+
+        private final int field;
+        private final int maxLength;
+
+        ExceptionResolver(final String field, final int maxLength) {
+            switch (field) {
+            case "className":
+                this.field = CLASS_NAME;
+                break;
+            case "message":
+                this.field = MESSAGE;
+                break;
+            case "stackTrace":
+                this.field = STACK_TRACE;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown exception field \"" + field
+                        + "\", expected className, message or stackTrace");
+            }
+            this.maxLength = maxLength;
+        }
+
+        @Override
+        public boolean isResolvable(final LogEvent event) {
+            final Throwable thrown = event.getThrown();
+            return thrown != null && (field != MESSAGE || thrown.getMessage() != null);
+        }
+
+        @Override
+        public void resolve(final LogEvent event, final StringBuilder jsonBuilder) {
+            final Throwable thrown = event.getThrown();
+            switch (field) {
+            case CLASS_NAME:
+                writeString(thrown.getClass().getName(), jsonBuilder);
+                break;
+            case MESSAGE:
+                final String message = thrown.getMessage();
+                writeString(message.length() > maxLength ? message.substring(0, maxLength) : message, jsonBuilder);
+                break;
+            default:
+                writeStackTrace(thrown, maxLength, jsonBuilder);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Writes the event time with a {@link DatePatternConverter}, which uses a garbage-free
+     * {@link org.apache.logging.log4j.core.util.datetime.FixedDateFormat} for the patterns it supports.
+     */
+    static final class TimestampResolver extends AlwaysResolvable {
+
+        private final DatePatternConverter converter;
+        private final boolean numeric;
+
+        TimestampResolver(final DatePatternConverter converter, final boolean numeric) {
+            this.converter = converter;
+            this.numeric = numeric;
+        }
+
+        @Override
+        public void resolve(final LogEvent event, final StringBuilder jsonBuilder) {
+            if (numeric) {
+                converter.format(event.getTimeMillis(), jsonBuilder);
+            } else {
+                jsonBuilder.append('"');
+                final int start = jsonBuilder.length();
+                converter.format(event.getTimeMillis(), jsonBuilder);
+                StringBuilders.escapeJson(jsonBuilder, start);
+                jsonBuilder.append('"');
+            }
+        }
+    }
+
+    /**
+     * Writes the value of a single context data key, omitted if the key is absent.
+     */
+    static final class ContextDataValueResolver implements Resolver {
+
+        private final String key;
+
+        ContextDataValueResolver(final String key) {
+            this.key = key;
+        }
+
+        @Override
+        public boolean isResolvable(final LogEvent event) {
+            return event.getContextData() != null && event.getContextData().containsKey(key);
+        }
+
+        @Override
+        public void resolve(final LogEvent event, final StringBuilder jsonBuilder) {
+            writeValue(event.getContextData().getValue(key), jsonBuilder);
+        }
+    }
+
+    /**
+     * Writes numbers and booleans as JSON literals and everything else as a string.
+     */
+    static void writeValue(final Object value, final StringBuilder jsonBuilder) {
+        if (value == null) {
+            jsonBuilder.append("null");
+        } else if (value instanceof CharSequence) {
+            writeString((CharSequence) value, jsonBuilder);
+        } else if (value instanceof Boolean || value instanceof Integer || value instanceof Long
+                || value instanceof Short || value instanceof Byte) {
+            jsonBuilder.append(value);
+        } else if (value instanceof StringBuilderFormattable) {
+            final int start = jsonBuilder.append('"').length();
+            ((StringBuilderFormattable) value).formatTo(jsonBuilder);
+            StringBuilders.escapeJson(jsonBuilder, start);
+            jsonBuilder.append('"');
+        } else {
+            writeString(String.valueOf(value), jsonBuilder);
+        }
+    }
+
+    private static final TriConsumer<String, Object, StringBuilder> WRITE_MAP_ENTRY =
+            new TriConsumer<String, Object, StringBuilder>() {
+        @Override
+        public void accept(final String key, final Object value, final StringBuilder jsonBuilder) {
+            if (jsonBuilder.charAt(jsonBuilder.length() - 1) != '{') {
+                jsonBuilder.append(',');
+            }
+            writeString(key, jsonBuilder);
+            jsonBuilder.append(':');
+            writeValue(value, jsonBuilder);
+        }
+    };
+
+    private static final TriConsumer<String, Object, StringBuilder> WRITE_CONTEXT_ENTRY =
+            new TriConsumer<String, Object, StringBuilder>() {
+        @Override
+        public void accept(final String key, final Object value, final StringBuilder jsonBuilder) {
+            if (jsonBuilder.charAt(jsonBuilder.length() - 1) != '{') {
+                jsonBuilder.append(',');
+            }
+            writeString(key, jsonBuilder);
+            jsonBuilder.append(':');
+            if (value == null) {
+                jsonBuilder.append("null");
+            } else if (value instanceof CharSequence) {
+                writeString((CharSequence) value, jsonBuilder);
+            } else {
+                writeString(String.valueOf(value), jsonBuilder);
+            }
+        }
+    };
+
+    private static final Resolver CONTEXT_MAP = new Resolver() {
+        @Override
+        public boolean isResolvable(final LogEvent event) {
+            return event.getContextData() != null && !event.getContextData().isEmpty();
+        }
+
+        @Override
+        public void resolve(final LogEvent event, final StringBuilder jsonBuilder) {
+            jsonBuilder.append('{');
+            event.getContextData().forEach(WRITE_CONTEXT_ENTRY, jsonBuilder);
+            jsonBuilder.append('}');
+        }
+    };
+
+    private static final Resolver CONTEXT_STACK = new Resolver() {
+        @Override
+        public boolean isResolvable(final LogEvent event) {
+            final ThreadContext.ContextStack stack = event.getContextStack();
+            return stack != null && stack.getDepth() > 0;
+        }
+
+        @Override
+        public void resolve(final LogEvent event, final StringBuilder jsonBuilder) {
+            jsonBuilder.append('[');
+            boolean first = true;
+            for (final String element : event.getContextStack()) {
+                if (!first) {
+                    jsonBuilder.append(',');
+                }
+                first = false;
+                writeString(element, jsonBuilder);
+            }
+            jsonBuilder.append(']');
+        }
+    };
+
+    private static final Resolver MARKER = new Resolver() {
+        @Override
+        public boolean isResolvable(final LogEvent event) {
+            return event.getMarker() != null;
+        }
+
+        @Override
+        public void resolve(final LogEvent event, final StringBuilder jsonBuilder) {
+            writeString(event.getMarker().getName(), jsonBuilder);
+        }
+    };
+
+    private static final Resolver SOURCE = new Resolver() {
+        @Override
+        public boolean isResolvable(final LogEvent event) {
+            return event.getSource() != null;
+        }
+
+        @Override
+        public void resolve(final LogEvent event, final StringBuilder jsonBuilder) {
+            final StackTraceElement source = event.getSource();
+            jsonBuilder.append("{\"class\":");
+            writeString(source.getClassName(), jsonBuilder);
+            jsonBuilder.append(",\"method\":");
+            writeString(source.getMethodName(), jsonBuilder);
+            if (source.getFileName() != null) {
+                jsonBuilder.append(",\"file\":");
+                writeString(source.getFileName(), jsonBuilder);
+            }
+            jsonBuilder.append(",\"line\":").append(source.getLineNumber()).append('}');
+        }
+    };
+
+    private static final Resolver END_OF_BATCH = new AlwaysResolvable() {
+        @Override
+        public void resolve(final LogEvent event, final StringBuilder jsonBuilder) {
+            jsonBuilder.append(event.isEndOfBatch());
+        }
+    };
+}
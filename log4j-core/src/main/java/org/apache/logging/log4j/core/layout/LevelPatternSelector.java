@@ -0,0 +1,234 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.layout;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.Node;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginBuilderAttribute;
+import org.apache.logging.log4j.core.config.plugins.PluginBuilderFactory;
+import org.apache.logging.log4j.core.config.plugins.PluginConfiguration;
+import org.apache.logging.log4j.core.config.plugins.PluginElement;
+import org.apache.logging.log4j.core.pattern.PatternFormatter;
+import org.apache.logging.log4j.core.pattern.PatternParser;
+import org.apache.logging.log4j.status.StatusLogger;
+import org.apache.logging.log4j.util.PerformanceSensitive;
+
+/**
+ * Selects the pattern to use based on the Level of the LogEvent. The key of each PatternMatch is the name of a Level,
+ * and its pattern is used for events of exactly that Level.
+ * <p>
+ * The formatters are compiled into an array indexed by {@code intLevel / 100}, so selecting them for a standard Level
+ * is a single array access. Custom Levels are looked up in a map.
+ * </p>
+ *
+ * @since 2.10.1
+ */
+@Plugin(name = "LevelPatternSelector", category = Node.CATEGORY, elementType = PatternSelector.ELEMENT_TYPE, printObject = true)
+@PerformanceSensitive("allocation")
+public class LevelPatternSelector implements PatternSelector {
+
+    /**
+     * Custom LevelPatternSelector builder. Use the {@link LevelPatternSelector#newBuilder() builder factory method} to
+     * create this.
+     */
+    public static class Builder implements org.apache.logging.log4j.core.util.Builder<LevelPatternSelector> {
+
+        @PluginElement("PatternMatch")
+        private PatternMatch[] properties;
+
+        @PluginBuilderAttribute("defaultPattern")
+        private String defaultPattern;
+
+        @PluginBuilderAttribute(value = "alwaysWriteExceptions")
+        private boolean alwaysWriteExceptions = true;
+
+        @PluginBuilderAttribute(value = "disableAnsi")
+        private boolean disableAnsi;
+
+        @PluginBuilderAttribute(value = "noConsoleNoAnsi")
+        private boolean noConsoleNoAnsi;
+
+        @PluginConfiguration
+        private Configuration configuration;
+
+        @Override
+        public LevelPatternSelector build() {
+            if (defaultPattern == null) {
+                defaultPattern = PatternLayout.DEFAULT_CONVERSION_PATTERN;
+            }
+            if (properties == null || properties.length == 0) {
+                LOGGER.warn("No level patterns were provided with PatternMatch");
+                return null;
+            }
+            return new LevelPatternSelector(properties, defaultPattern, alwaysWriteExceptions, disableAnsi,
+                    noConsoleNoAnsi, configuration);
+        }
+
+        public Builder setProperties(final PatternMatch[] properties) {
+            this.properties = properties;
+            return this;
+        }
+
+        public Builder setDefaultPattern(final String defaultPattern) {
+            this.defaultPattern = defaultPattern;
+            return this;
+        }
+
+        public Builder setAlwaysWriteExceptions(final boolean alwaysWriteExceptions) {
+            this.alwaysWriteExceptions = alwaysWriteExceptions;
+            return this;
+        }
+
+        public Builder setDisableAnsi(final boolean disableAnsi) {
+            this.disableAnsi = disableAnsi;
+            return this;
+        }
+
+        public Builder setNoConsoleNoAnsi(final boolean noConsoleNoAnsi) {
+            this.noConsoleNoAnsi = noConsoleNoAnsi;
+            return this;
+        }
+
+        public Builder setConfiguration(final Configuration configuration) {
+            this.configuration = configuration;
+            return this;
+        }
+
+    }
+
+    private static final Logger LOGGER = StatusLogger.getLogger();
+
+    private static final int STANDARD_LEVEL_STEP = 100;
+
+    private static final int FORMATTER_ARRAY_LENGTH = Level.TRACE.intLevel() / STANDARD_LEVEL_STEP + 1;
+
+    /**
+     * The formatters of levels whose {@code intLevel} is a multiple of 100, indexed by {@code intLevel / 100}.
+     */
+    private final PatternFormatter[][] formatterArray = new PatternFormatter[FORMATTER_ARRAY_LENGTH][];
+
+    /**
+     * The level whose formatters are in each slot of {@link #formatterArray}, or {@code null} if the slot is free.
+     * Other levels with the same {@code intLevel} are looked up in the map.
+     */
+    private final Level[] formatterArrayLevels = new Level[FORMATTER_ARRAY_LENGTH];
+
+    /**
+     * The formatters of the other levels.
+     */
+    private final Map<Level, PatternFormatter[]> formatterMap = new HashMap<>();
+
+    private final Map<String, String> patternMap = new LinkedHashMap<>();
+
+    private final PatternFormatter[] defaultFormatters;
+
+    private final String defaultPattern;
+
+    private LevelPatternSelector(final PatternMatch[] properties, final String defaultPattern,
+                                 final boolean alwaysWriteExceptions, final boolean disableAnsi,
+                                 final boolean noConsoleNoAnsi, final Configuration config) {
+        final PatternParser parser = PatternLayout.createPatternParser(config);
+        try {
+            final List<PatternFormatter> list = parser.parse(defaultPattern, alwaysWriteExceptions, disableAnsi,
+                    noConsoleNoAnsi);
+            defaultFormatters = list.toArray(new PatternFormatter[list.size()]);
+            this.defaultPattern = defaultPattern;
+        } catch (final RuntimeException ex) {
+            throw new IllegalArgumentException("Cannot parse pattern '" + defaultPattern + "'", ex);
+        }
+        for (final PatternMatch property : properties) {
+            final Level level = Level.toLevel(property.getKey(), null);
+            if (level == null) {
+                LOGGER.warn("Ignoring PatternMatch for unknown level {}", property.getKey());
+                continue;
+            }
+            final PatternFormatter[] formatters;
+            try {
+                final List<PatternFormatter> list = parser.parse(property.getPattern(), alwaysWriteExceptions,
+                        disableAnsi, noConsoleNoAnsi);
+                formatters = list.toArray(new PatternFormatter[list.size()]);
+            } catch (final RuntimeException ex) {
+                throw new IllegalArgumentException("Cannot parse pattern '" + property.getPattern() + "'", ex);
+            }
+            final int index = indexOf(level);
+            if (index >= 0 && (formatterArrayLevels[index] == null || formatterArrayLevels[index] == level)) {
+                formatterArray[index] = formatters;
+                formatterArrayLevels[index] = level;
+            } else {
+                formatterMap.put(level, formatters);
+            }
+            patternMap.put(level.name(), property.getPattern());
+        }
+    }
+
+    private static int indexOf(final Level level) {
+        final int intLevel = level.intLevel();
+        final int index = intLevel / STANDARD_LEVEL_STEP;
+        return intLevel >= 0 && intLevel % STANDARD_LEVEL_STEP == 0 && index < FORMATTER_ARRAY_LENGTH ? index : -1;
+    }
+
+    @Override
+    public PatternFormatter[] getFormatters(final LogEvent event) {
+        final Level level = event.getLevel();
+        if (level == null) {
+            return defaultFormatters;
+        }
+        final int index = indexOf(level);
+        if (index >= 0 && formatterArrayLevels[index] == level) {
+            return formatterArray[index];
+        }
+        final PatternFormatter[] formatters = formatterMap.get(level);
+        return formatters == null ? defaultFormatters : formatters;
+    }
+
+    /**
+     * Creates a builder for a custom LevelPatternSelector.
+     *
+     * @return a LevelPatternSelector builder.
+     */
+    @PluginBuilderFactory
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        boolean first = true;
+        for (final Map.Entry<String, String> entry : patternMap.entrySet()) {
+            if (!first) {
+                sb.append(", ");
+            }
+            sb.append("key=\"").append(entry.getKey()).append("\", pattern=\"").append(entry.getValue()).append("\"");
+            first = false;
+        }
+        if (!first) {
+            sb.append(", ");
+        }
+        sb.append("default=\"").append(defaultPattern).append("\"");
+        return sb.toString();
+    }
+}
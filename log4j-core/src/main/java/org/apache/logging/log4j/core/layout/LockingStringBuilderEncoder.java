@@ -23,6 +23,7 @@ import java.nio.CharBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetEncoder;
 import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 import java.util.Objects;
 
 /**
@@ -33,6 +34,7 @@ public class LockingStringBuilderEncoder implements Encoder<StringBuilder> {
     private final Charset charset;
     private final CharsetEncoder charsetEncoder;
     private final CharBuffer cachedCharBuffer;
+    private final boolean utf8;
 
     public LockingStringBuilderEncoder(final Charset charset) {
         this(charset, Constants.ENCODER_CHAR_BUFFER_SIZE);
@@ -43,6 +45,7 @@ public class LockingStringBuilderEncoder implements Encoder<StringBuilder> {
         this.charsetEncoder = charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
                 .onUnmappableCharacter(CodingErrorAction.REPLACE);
         this.cachedCharBuffer = CharBuffer.wrap(new char[charBufferSize]);
+        this.utf8 = StandardCharsets.UTF_8.equals(charset);
     }
 
     private CharBuffer getCharBuffer() {
@@ -54,6 +57,10 @@ public class LockingStringBuilderEncoder implements Encoder<StringBuilder> {
         try {
             // This synchronized is needed to be able to call destination.getByteBuffer()
             synchronized (destination) {
+                if (utf8) {
+                    TextEncoderHelper.encodeUtf8(destination.getByteBuffer(), source, destination);
+                    return;
+                }
                 TextEncoderHelper.encodeText(charsetEncoder, cachedCharBuffer, destination.getByteBuffer(), source,
                     destination);
             }
@@ -19,9 +19,12 @@ package org.apache.logging.log4j.core.layout;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.Marker;
+import org.apache.logging.log4j.MarkerManager;
 import org.apache.logging.log4j.core.LogEvent;
 import org.apache.logging.log4j.core.config.Configuration;
 import org.apache.logging.log4j.core.config.Node;
@@ -36,6 +39,12 @@ import org.apache.logging.log4j.status.StatusLogger;
 
 /**
  * Selects the pattern to use based on the Marker in the LogEvent.
+ * <p>
+ * The formatters selected for a Marker created by the {@link MarkerManager} are remembered per Marker instance, so
+ * the Marker hierarchy is not walked for every event. After the parents of any Marker change, a remembered selection
+ * is checked again the next time its Marker is logged. Other Marker implementations are not remembered, since
+ * changes to their parents cannot be detected.
+ * </p>
  */
 @Plugin(name = "MarkerPatternSelector", category = Node.CATEGORY, elementType = PatternSelector.ELEMENT_TYPE, printObject = true)
 public class MarkerPatternSelector implements PatternSelector {
@@ -118,6 +127,13 @@ public class MarkerPatternSelector implements PatternSelector {
 
     private static Logger LOGGER = StatusLogger.getLogger();
 
+    /**
+     * The maximum number of Markers whose selected formatters are remembered.
+     */
+    private static final int MAX_CACHED_MARKERS = 1024;
+
+    private final ConcurrentMap<Marker, Selection> selections = new ConcurrentHashMap<>();
+
 
     /**
      * @deprecated Use {@link #newBuilder()} instead. This will be private in a future version.
@@ -159,6 +175,27 @@ public class MarkerPatternSelector implements PatternSelector {
         if (marker == null) {
             return defaultFormatters;
         }
+        if (!(marker instanceof MarkerManager.Log4jMarker)) {
+            return selectFormatters(marker);
+        }
+        // Read the version before selecting, so a selection made while the hierarchy changes is checked again
+        final int version = MarkerManager.getVersion();
+        final Selection cached = selections.get(marker);
+        final boolean known = cached != null && cached.marker == marker;
+        if (known && cached.version == version) {
+            return cached.formatters;
+        }
+        final PatternFormatter[] formatters = selectFormatters(marker);
+        if (known && cached.formatters == formatters) {
+            // the hierarchy changed elsewhere
+            cached.version = version;
+        } else if (cached != null || selections.size() < MAX_CACHED_MARKERS) {
+            selections.put(marker, new Selection(marker, version, formatters));
+        }
+        return formatters;
+    }
+
+    private PatternFormatter[] selectFormatters(final Marker marker) {
         for (final String key : formatterMap.keySet()) {
             if (marker.isInstanceOf(key)) {
                 return formatterMap.get(key);
@@ -220,4 +257,21 @@ public class MarkerPatternSelector implements PatternSelector {
         sb.append("default=\"").append(defaultPattern).append("\"");
         return sb.toString();
     }
+
+    /**
+     * The formatters selected for a Marker instance while the Marker hierarchy had a given version. Markers with the
+     * same name are equal, so the instance is kept to tell apart Markers created before and after the Markers were
+     * cleared.
+     */
+    private static final class Selection {
+        private final Marker marker;
+        private volatile int version;
+        private final PatternFormatter[] formatters;
+
+        Selection(final Marker marker, final int version, final PatternFormatter[] formatters) {
+            this.marker = marker;
+            this.version = version;
+            this.formatters = formatters;
+        }
+    }
 }
@@ -56,7 +56,7 @@ import org.apache.logging.log4j.util.Strings;
  * </p>
  */
 @Plugin(name = "PatternLayout", category = Node.CATEGORY, elementType = Layout.ELEMENT_TYPE, printObject = true)
-public final class PatternLayout extends AbstractStringLayout {
+public final class PatternLayout extends AbstractStringLayout implements SharedEncodingLayout {
 
     /**
      * Default pattern string for log output. Currently set to the string <b>"%m%n"</b> which just prints the
@@ -83,6 +83,8 @@ public final class PatternLayout extends AbstractStringLayout {
     private final String conversionPattern;
     private final PatternSelector patternSelector;
     private final Serializer eventSerializer;
+    private final String encodingKey;
+    private boolean sharedEncoding;
 
     /**
      * Constructs a PatternLayout using the supplied conversion pattern.
@@ -136,6 +138,9 @@ public final class PatternLayout extends AbstractStringLayout {
                 .setPattern(eventPattern)
                 .setDefaultPattern(DEFAULT_CONVERSION_PATTERN)
                 .build();
+        this.encodingKey = patternSelector != null ? null : "PatternLayout[pattern=" + eventPattern + ", charset="
+                + getCharset().name() + ", alwaysWriteExceptions=" + alwaysWriteExceptions + ", disableAnsi="
+                + disableAnsi + ", noConsoleNoAnsi=" + noConsoleNoAnsi + ", replace=" + replace + "]";
     }
 
     public static SerializerBuilder newSerializerBuilder() {
@@ -209,8 +214,36 @@ public final class PatternLayout extends AbstractStringLayout {
         return eventSerializer.toSerializable(event);
     }
 
+    /**
+     * Returns a key that describes the configuration of this layout, or {@code null} if this layout uses a
+     * {@link PatternSelector}.
+     */
+    @Override
+    public Object getEncodingKey() {
+        return encodingKey;
+    }
+
+    @Override
+    public void enableSharedEncoding() {
+        sharedEncoding = encodingKey != null;
+    }
+
     @Override
     public void encode(final LogEvent event, final ByteBufferDestination destination) {
+        if (sharedEncoding) {
+            final EncodedEventCache cache = EncodedEventCache.current();
+            if (cache.isCaching(event)) {
+                if (!cache.contains(encodingKey)) {
+                    encodeUncached(event, cache.record(encodingKey));
+                }
+                cache.writeTo(encodingKey, destination);
+                return;
+            }
+        }
+        encodeUncached(event, destination);
+    }
+
+    private void encodeUncached(final LogEvent event, final ByteBufferDestination destination) {
         if (!(eventSerializer instanceof Serializer2)) {
             super.encode(event, destination);
             return;
@@ -329,15 +362,13 @@ public final class PatternLayout extends AbstractStringLayout {
 
         @Override
         public StringBuilder toSerializable(final LogEvent event, final StringBuilder buffer) {
+            final int start = buffer.length();
             final int len = formatters.length;
             for (int i = 0; i < len; i++) {
                 formatters[i].format(event, buffer);
             }
-            if (replace != null) { // creates temporary objects
-                String str = buffer.toString();
-                str = replace.format(str);
-                buffer.setLength(0);
-                buffer.append(str);
+            if (replace != null) {
+                replace.format(buffer, start);
             }
             return buffer;
         }
@@ -450,16 +481,14 @@ public final class PatternLayout extends AbstractStringLayout {
 
         @Override
         public StringBuilder toSerializable(final LogEvent event, final StringBuilder buffer) {
+            final int start = buffer.length();
             final PatternFormatter[] formatters = patternSelector.getFormatters(event);
             final int len = formatters.length;
             for (int i = 0; i < len; i++) {
                 formatters[i].format(event, buffer);
             }
-            if (replace != null) { // creates temporary objects
-                String str = buffer.toString();
-                str = replace.format(str);
-                buffer.setLength(0);
-                buffer.append(str);
+            if (replace != null) {
+                replace.format(buffer, start);
             }
             return buffer;
         }
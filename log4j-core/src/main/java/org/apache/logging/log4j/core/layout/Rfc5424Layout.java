@@ -19,14 +19,12 @@ package org.apache.logging.log4j.core.layout;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.GregorianCalendar;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
+import java.util.TimeZone;
 import java.util.TreeMap;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.logging.log4j.Level;
@@ -48,19 +46,31 @@ import org.apache.logging.log4j.core.pattern.PatternConverter;
 import org.apache.logging.log4j.core.pattern.PatternFormatter;
 import org.apache.logging.log4j.core.pattern.PatternParser;
 import org.apache.logging.log4j.core.pattern.ThrowablePatternConverter;
+import org.apache.logging.log4j.core.util.Constants;
 import org.apache.logging.log4j.core.util.NetUtils;
 import org.apache.logging.log4j.core.util.Patterns;
+import org.apache.logging.log4j.core.util.datetime.FixedDateFormat;
 import org.apache.logging.log4j.message.Message;
 import org.apache.logging.log4j.message.MessageCollectionMessage;
 import org.apache.logging.log4j.message.StructuredDataCollectionMessage;
 import org.apache.logging.log4j.message.StructuredDataId;
 import org.apache.logging.log4j.message.StructuredDataMessage;
+import org.apache.logging.log4j.util.IndexedReadOnlyStringMap;
 import org.apache.logging.log4j.util.ProcessIdUtil;
-import org.apache.logging.log4j.util.StringBuilders;
+import org.apache.logging.log4j.util.ReadOnlyStringMap;
+import org.apache.logging.log4j.util.StringBuilderFormattable;
 import org.apache.logging.log4j.util.Strings;
 
 /**
  * Formats a log event in accordance with RFC 5424.
+ * <p>
+ * The constant header fields (host name, application name and process ID) are rendered once when the layout is
+ * created, timestamps are formatted with a {@link FixedDateFormat}, and messages, exceptions and thread context data
+ * are written and escaped in place in the layout's reusable {@code StringBuilder}. Unless structured data messages or
+ * {@link LoggerFields} are used, or RFC 5425 framing is enabled, the
+ * {@link #encode(LogEvent, ByteBufferDestination)} path does not allocate objects for messages that implement
+ * {@link StringBuilderFormattable}.
+ * </p>
  *
  * @see <a href="https://tools.ietf.org/html/rfc5424">RFC 5424</a>
  */
@@ -91,7 +101,6 @@ public final class Rfc5424Layout extends AbstractStringLayout {
 
     private static final String LF = "\n";
     private static final int TWO_DIGITS = 10;
-    private static final int THREE_DIGITS = 100;
     private static final int MILLIS_PER_MINUTE = 60000;
     private static final int MINUTES_PER_HOUR = 60;
     private static final String COMPONENT_KEY = "RFC5424-Converter";
@@ -116,9 +125,16 @@ public final class Rfc5424Layout extends AbstractStringLayout {
     private final boolean includeNewLine;
     private final String escapeNewLine;
     private final boolean useTlsMessageFormat;
+    private final String mdcSdIdString;
 
-    private long lastTimestamp = -1;
-    private String timestamppStr;
+    /**
+     * The host name, application name and process ID, with their surrounding spaces.
+     */
+    private final String headerFields;
+    private final TimeZone timeZone = TimeZone.getDefault();
+    private final FixedDateFormat timestampFormat = FixedDateFormat.create(FixedDateFormat.FixedFormat.ISO8601_PERIOD,
+            timeZone);
+    private static final ThreadLocal<char[]> timestampBuffer = new ThreadLocal<>();
 
     private final List<PatternFormatter> exceptionFormatters;
     private final Map<String, FieldFormatter> fieldFormatters;
@@ -137,9 +153,10 @@ public final class Rfc5424Layout extends AbstractStringLayout {
         this.enterpriseNumber = ein;
         this.includeMdc = includeMDC;
         this.includeNewLine = includeNL;
-        this.escapeNewLine = escapeNL == null ? null : Matcher.quoteReplacement(escapeNL);
+        this.escapeNewLine = escapeNL;
         this.mdcId = id == null ? DEFAULT_MDCID : id;
         this.mdcSdId = new StructuredDataId(mdcId, enterpriseNumber, null, null);
+        this.mdcSdIdString = mdcSdId.toString();
         this.mdcPrefix = mdcPrefix;
         this.eventPrefix = eventPrefix;
         this.appName = appName;
@@ -194,6 +211,8 @@ public final class Rfc5424Layout extends AbstractStringLayout {
         configName = Strings.isNotEmpty(name) ? name : null;
         this.fieldFormatters = createFieldFormatters(loggerFields, config);
         this.procId = ProcessIdUtil.getProcessId();
+        this.headerFields = ' ' + localHostName + ' ' + (appName != null ? appName : configName != null ? configName : "-")
+                + ' ' + procId + ' ';
     }
 
     private Map<String, FieldFormatter> createFieldFormatters(final LoggerFields[] loggerFields,
@@ -266,24 +285,33 @@ public final class Rfc5424Layout extends AbstractStringLayout {
      */
     @Override
     public String toSerializable(final LogEvent event) {
-        final StringBuilder buf = getStringBuilder();
+        final StringBuilder buf = toText(event, getStringBuilder());
+        if (useTlsMessageFormat) {
+            return new TlsSyslogFrame(buf.toString()).toString();
+        }
+        return buf.toString();
+    }
+
+    @Override
+    public void encode(final LogEvent event, final ByteBufferDestination destination) {
+        if (useTlsMessageFormat) {
+            // the frame starts with the length of the encoded message
+            super.encode(event, destination);
+            return;
+        }
+        final StringBuilder text = toText(event, getStringBuilder());
+        getStringBuilderEncoder().encode(text, destination);
+    }
+
+    private StringBuilder toText(final LogEvent event, final StringBuilder buf) {
         appendPriority(buf, event.getLevel());
         appendTimestamp(buf, event.getTimeMillis());
-        appendSpace(buf);
-        appendHostName(buf);
-        appendSpace(buf);
-        appendAppName(buf);
-        appendSpace(buf);
-        appendProcessId(buf);
-        appendSpace(buf);
+        buf.append(headerFields);
         appendMessageId(buf, event.getMessage());
         appendSpace(buf);
         appendStructuredElements(buf, event);
         appendMessage(buf, event);
-        if (useTlsMessageFormat) {
-            return new TlsSyslogFrame(buf.toString()).toString();
-        }
-        return buf.toString();
+        return buf;
     }
 
     private void appendPriority(final StringBuilder buffer, final Level logLevel) {
@@ -293,29 +321,43 @@ public final class Rfc5424Layout extends AbstractStringLayout {
     }
 
     private void appendTimestamp(final StringBuilder buffer, final long milliseconds) {
-        buffer.append(computeTimeStampString(milliseconds));
-    }
-
-    private void appendSpace(final StringBuilder buffer) {
-        buffer.append(' ');
-    }
+        final char[] chars = getTimestampBuffer();
+        final int length = timestampFormat.format(milliseconds, chars, 0);
+        buffer.append(chars, 0, length);
 
-    private void appendHostName(final StringBuilder buffer) {
-        buffer.append(localHostName);
+        int tzmin = timeZone.getOffset(milliseconds) / MILLIS_PER_MINUTE;
+        if (tzmin == 0) {
+            buffer.append('Z');
+        } else {
+            if (tzmin < 0) {
+                tzmin = -tzmin;
+                buffer.append('-');
+            } else {
+                buffer.append('+');
+            }
+            final int tzhour = tzmin / MINUTES_PER_HOUR;
+            tzmin -= tzhour * MINUTES_PER_HOUR;
+            pad(tzhour, TWO_DIGITS, buffer);
+            buffer.append(':');
+            pad(tzmin, TWO_DIGITS, buffer);
+        }
     }
 
-    private void appendAppName(final StringBuilder buffer) {
-        if (appName != null) {
-            buffer.append(appName);
-        } else if (configName != null) {
-            buffer.append(configName);
-        } else {
-            buffer.append('-');
+    private static char[] getTimestampBuffer() {
+        if (!Constants.ENABLE_THREADLOCALS) {
+            return new char[64];
+        }
+        char[] result = timestampBuffer.get();
+        if (result == null) {
+            // twice the pattern length for locales with lengthy date symbols, as in FixedDateFormat.format(long)
+            result = new char[64];
+            timestampBuffer.set(result);
         }
+        return result;
     }
 
-    private void appendProcessId(final StringBuilder buffer) {
-        buffer.append(getProcId());
+    private void appendSpace(final StringBuilder buffer) {
+        buffer.append(' ');
     }
 
     private void appendMessageId(final StringBuilder buffer, final Message message) {
@@ -333,42 +375,67 @@ public final class Rfc5424Layout extends AbstractStringLayout {
     private void appendMessage(final StringBuilder buffer, final LogEvent event) {
         final Message message = event.getMessage();
         // This layout formats StructuredDataMessages instead of delegating to the Message itself.
-        final String text = (message instanceof StructuredDataMessage || message instanceof MessageCollectionMessage)
-                ? message.getFormat() : message.getFormattedMessage();
-
-        if (text != null && text.length() > 0) {
-            buffer.append(' ').append(escapeNewlines(text, escapeNewLine));
+        if (message instanceof StructuredDataMessage || message instanceof MessageCollectionMessage) {
+            appendMessageText(buffer, message.getFormat());
+        } else if (message instanceof StringBuilderFormattable) {
+            final int start = buffer.length();
+            buffer.append(' ');
+            ((StringBuilderFormattable) message).formatTo(buffer);
+            if (buffer.length() == start + 1) {
+                buffer.setLength(start);
+            } else {
+                SyslogEscaping.escapeNewLines(buffer, start + 1, escapeNewLine);
+            }
+        } else {
+            appendMessageText(buffer, message.getFormattedMessage());
         }
 
         if (exceptionFormatters != null && event.getThrown() != null) {
-            final StringBuilder exception = new StringBuilder(LF);
+            final int start = buffer.length();
+            buffer.append(LF);
             for (final PatternFormatter formatter : exceptionFormatters) {
-                formatter.format(event, exception);
+                formatter.format(event, buffer);
             }
-            buffer.append(escapeNewlines(exception.toString(), escapeNewLine));
+            SyslogEscaping.escapeNewLines(buffer, start, escapeNewLine);
         }
         if (includeNewLine) {
             buffer.append(LF);
         }
     }
 
+    private void appendMessageText(final StringBuilder buffer, final String text) {
+        if (text != null && text.length() > 0) {
+            final int start = buffer.append(' ').length();
+            buffer.append(text);
+            SyslogEscaping.escapeNewLines(buffer, start, escapeNewLine);
+        }
+    }
+
     private void appendStructuredElements(final StringBuilder buffer, final LogEvent event) {
         final Message message = event.getMessage();
         final boolean isStructured = message instanceof StructuredDataMessage ||
                 message instanceof StructuredDataCollectionMessage;
+        final ReadOnlyStringMap contextData = event.getContextData();
 
-        if (!isStructured && (fieldFormatters != null && fieldFormatters.isEmpty()) && !includeMdc) {
-            buffer.append('-');
-            return;
+        if (mdcRequired != null) {
+            checkRequired(contextData);
         }
 
-        final Map<String, StructuredDataElement> sdElements = new HashMap<>();
-        final Map<String, String> contextMap = event.getContextData().toMap();
-
-        if (mdcRequired != null) {
-            checkRequired(contextMap);
+        if (!isStructured && fieldFormatters == null) {
+            // only the thread context can contribute an element: write it without copying and sorting
+            if (!includeMdc || contextData.isEmpty()) {
+                buffer.append('-');
+                return;
+            }
+            if (contextData instanceof IndexedReadOnlyStringMap) {
+                appendContextDataElement((IndexedReadOnlyStringMap) contextData, buffer);
+                return;
+            }
         }
 
+        final Map<String, StructuredDataElement> sdElements = new HashMap<>();
+        final Map<String, String> contextMap = contextData.toMap();
+
         if (fieldFormatters != null) {
             for (final Map.Entry<String, FieldFormatter> sdElement : fieldFormatters.entrySet()) {
                 final String sdId = sdElement.getKey();
@@ -378,7 +445,7 @@ public final class Rfc5424Layout extends AbstractStringLayout {
         }
 
         if (includeMdc && contextMap.size() > 0) {
-            final String mdcSdIdStr = mdcSdId.toString();
+            final String mdcSdIdStr = mdcSdIdString;
             final StructuredDataElement union = sdElements.get(mdcSdIdStr);
             if (union != null) {
                 union.union(contextMap);
@@ -424,11 +491,36 @@ public final class Rfc5424Layout extends AbstractStringLayout {
         }
     }
 
-    private String escapeNewlines(final String text, final String replacement) {
-        if (null == replacement) {
-            return text;
+    /**
+     * Writes the thread context element from a context map that is already sorted by key. Produces the same output
+     * as formatting a {@link StructuredDataElement} of the context map.
+     */
+    private void appendContextDataElement(final IndexedReadOnlyStringMap contextData, final StringBuilder sb) {
+        sb.append('[');
+        sb.append(mdcSdIdString);
+        for (int i = 0; i < contextData.size(); i++) {
+            final String key = contextData.getKeyAt(i);
+            final Object value = contextData.getValueAt(i);
+            if (listChecker.check(key) && value != null) {
+                appendParam(mdcPrefix, key, value, sb);
+            }
+        }
+        sb.append(']');
+    }
+
+    private void appendParam(final String prefix, final String key, final Object value, final StringBuilder sb) {
+        sb.append(' ');
+        if (prefix != null) {
+            sb.append(prefix);
+        }
+        SyslogEscaping.appendParam(sb, key, escapeNewLine);
+        sb.append('=').append('"');
+        if (value instanceof CharSequence) {
+            SyslogEscaping.appendParam(sb, (CharSequence) value, escapeNewLine);
+        } else {
+            SyslogEscaping.appendParam(sb, String.valueOf(value), escapeNewLine);
         }
-        return NEWLINE_PATTERN.matcher(text).replaceAll(replacement);
+        sb.append('"');
     }
 
     protected String getProcId() {
@@ -443,57 +535,6 @@ public final class Rfc5424Layout extends AbstractStringLayout {
         return mdcIncludes;
     }
 
-    private String computeTimeStampString(final long now) {
-        long last;
-        synchronized (this) {
-            last = lastTimestamp;
-            if (now == lastTimestamp) {
-                return timestamppStr;
-            }
-        }
-
-        final StringBuilder buffer = new StringBuilder();
-        final Calendar cal = new GregorianCalendar();
-        cal.setTimeInMillis(now);
-        buffer.append(Integer.toString(cal.get(Calendar.YEAR)));
-        buffer.append('-');
-        pad(cal.get(Calendar.MONTH) + 1, TWO_DIGITS, buffer);
-        buffer.append('-');
-        pad(cal.get(Calendar.DAY_OF_MONTH), TWO_DIGITS, buffer);
-        buffer.append('T');
-        pad(cal.get(Calendar.HOUR_OF_DAY), TWO_DIGITS, buffer);
-        buffer.append(':');
-        pad(cal.get(Calendar.MINUTE), TWO_DIGITS, buffer);
-        buffer.append(':');
-        pad(cal.get(Calendar.SECOND), TWO_DIGITS, buffer);
-        buffer.append('.');
-        pad(cal.get(Calendar.MILLISECOND), THREE_DIGITS, buffer);
-
-        int tzmin = (cal.get(Calendar.ZONE_OFFSET) + cal.get(Calendar.DST_OFFSET)) / MILLIS_PER_MINUTE;
-        if (tzmin == 0) {
-            buffer.append('Z');
-        } else {
-            if (tzmin < 0) {
-                tzmin = -tzmin;
-                buffer.append('-');
-            } else {
-                buffer.append('+');
-            }
-            final int tzhour = tzmin / MINUTES_PER_HOUR;
-            tzmin -= tzhour * MINUTES_PER_HOUR;
-            pad(tzhour, TWO_DIGITS, buffer);
-            buffer.append(':');
-            pad(tzmin, TWO_DIGITS, buffer);
-        }
-        synchronized (this) {
-            if (last == lastTimestamp) {
-                lastTimestamp = now;
-                timestamppStr = buffer.toString();
-            }
-        }
-        return buffer.toString();
-    }
-
     private void pad(final int val, int max, final StringBuilder buf) {
         while (max > 1) {
             if (val < max) {
@@ -501,7 +542,7 @@ public final class Rfc5424Layout extends AbstractStringLayout {
             }
             max = max / TWO_DIGITS;
         }
-        buf.append(Integer.toString(val));
+        buf.append(val);
     }
 
     private void formatStructuredElement(final String id, final StructuredDataElement data,
@@ -512,7 +553,7 @@ public final class Rfc5424Layout extends AbstractStringLayout {
 
         sb.append('[');
         sb.append(id);
-        if (!mdcSdId.toString().equals(id)) {
+        if (!mdcSdIdString.equals(id)) {
             appendMap(data.getPrefix(), data.getFields(), sb, noopChecker);
         } else {
             appendMap(data.getPrefix(), data.getFields(), sb, checker);
@@ -537,9 +578,9 @@ public final class Rfc5424Layout extends AbstractStringLayout {
         return sb.toString();
     }
 
-    private void checkRequired(final Map<String, String> map) {
+    private void checkRequired(final ReadOnlyStringMap contextData) {
         for (final String key : mdcRequired) {
-            final String value = map.get(key);
+            final Object value = contextData.getValue(key);
             if (value == null) {
                 throw new LoggingException("Required key " + key + " is missing from the " + mdcId);
             }
@@ -551,21 +592,11 @@ public final class Rfc5424Layout extends AbstractStringLayout {
         final SortedMap<String, String> sorted = new TreeMap<>(map);
         for (final Map.Entry<String, String> entry : sorted.entrySet()) {
             if (checker.check(entry.getKey()) && entry.getValue() != null) {
-                sb.append(' ');
-                if (prefix != null) {
-                    sb.append(prefix);
-                }
-                final String safeKey = escapeNewlines(escapeSDParams(entry.getKey()), escapeNewLine);
-                final String safeValue = escapeNewlines(escapeSDParams(entry.getValue()), escapeNewLine);
-                StringBuilders.appendKeyDqValue(sb, safeKey, safeValue);
+                appendParam(prefix, entry.getKey(), entry.getValue(), sb);
             }
         }
     }
 
-    private String escapeSDParams(final String value) {
-        return PARAM_VALUE_ESCAPE_PATTERN.matcher(value).replaceAll("\\\\$0");
-    }
-
     /**
      * Interface used to check keys in a Map.
      */
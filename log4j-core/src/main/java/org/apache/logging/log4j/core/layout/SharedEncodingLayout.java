@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.layout;
+
+/**
+ * Implemented by layouts that can share the encoded bytes of an event with equivalent layouts of other appenders
+ * attached to the same {@code LoggerConfig}.
+ *
+ * @see EncodedEventCache
+ * @since 2.10.1
+ */
+public interface SharedEncodingLayout {
+
+    /**
+     * Returns a key that is equal to the key of another layout if and only if both layouts encode any event into the
+     * same bytes.
+     *
+     * @return the encoding key, or {@code null} if the encoded bytes of this layout cannot be shared
+     */
+    Object getEncodingKey();
+
+    /**
+     * Tells this layout to look up the {@link EncodedEventCache} when encoding events. Called by the configuration
+     * when it has found another appender with an equivalent layout.
+     */
+    void enableSharedEncoding();
+}
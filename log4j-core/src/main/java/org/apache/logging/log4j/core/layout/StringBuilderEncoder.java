@@ -21,6 +21,7 @@ import java.nio.CharBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetEncoder;
 import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 import java.util.Objects;
 
 import org.apache.logging.log4j.core.util.Constants;
@@ -47,6 +48,7 @@ public class StringBuilderEncoder implements Encoder<StringBuilder> {
     private final Charset charset;
     private final int charBufferSize;
     private final int byteBufferSize;
+    private final boolean utf8;
 
     public StringBuilderEncoder(final Charset charset) {
         this(charset, Constants.ENCODER_CHAR_BUFFER_SIZE, DEFAULT_BYTE_BUFFER_SIZE);
@@ -56,12 +58,17 @@ public class StringBuilderEncoder implements Encoder<StringBuilder> {
         this.charBufferSize = charBufferSize;
         this.byteBufferSize = byteBufferSize;
         this.charset = Objects.requireNonNull(charset, "charset");
+        this.utf8 = StandardCharsets.UTF_8.equals(charset);
     }
 
     @Override
     public void encode(final StringBuilder source, final ByteBufferDestination destination) {
         try {
             final Object[] threadLocalState = getThreadLocalState();
+            if (utf8) {
+                TextEncoderHelper.encodeUtf8((ByteBuffer) threadLocalState[2], source, destination);
+                return;
+            }
             final CharsetEncoder charsetEncoder = (CharsetEncoder) threadLocalState[0];
             final CharBuffer charBuffer = (CharBuffer) threadLocalState[1];
             final ByteBuffer byteBuffer = (ByteBuffer) threadLocalState[2];
@@ -75,13 +82,16 @@ public class StringBuilderEncoder implements Encoder<StringBuilder> {
     private Object[] getThreadLocalState() {
         Object[] threadLocalState = threadLocal.get();
         if (threadLocalState == null) {
+            // UTF-8 is encoded directly from the StringBuilder and needs no CharsetEncoder or CharBuffer
             threadLocalState = new Object[] {
-                    charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+                    utf8 ? null : charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
                             .onUnmappableCharacter(CodingErrorAction.REPLACE),
-                    CharBuffer.allocate(charBufferSize),
+                    utf8 ? null : CharBuffer.allocate(charBufferSize),
                     ByteBuffer.allocate(byteBufferSize)
             };
             threadLocal.set(threadLocalState);
+        } else if (utf8) {
+            ((ByteBuffer) threadLocalState[2]).clear();
         } else {
             ((CharsetEncoder) threadLocalState[0]).reset();
             ((CharBuffer) threadLocalState[1]).clear();
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.layout;
+
+/**
+ * Character-level escaping used by {@link SyslogLayout} and {@link Rfc5424Layout}. Equivalent to replacing
+ * {@link Rfc5424Layout#NEWLINE_PATTERN} and {@link Rfc5424Layout#PARAM_VALUE_ESCAPE_PATTERN}, without creating
+ * matchers or intermediate strings.
+ */
+final class SyslogEscaping {
+
+    private SyslogEscaping() {
+    }
+
+    /**
+     * Replaces each {@code "\n"} or {@code "\r\n"} in the specified builder, starting at the specified index, with
+     * the replacement text.
+     *
+     * @param buffer the builder to modify
+     * @param start the index of the first character to examine
+     * @param replacement the text that replaces line breaks, or {@code null} to leave line breaks as they are
+     */
+    static void escapeNewLines(final StringBuilder buffer, final int start, final String replacement) {
+        if (replacement == null) {
+            return;
+        }
+        int i = start;
+        while (i < buffer.length()) {
+            final char c = buffer.charAt(i);
+            if (c == '\n') {
+                buffer.replace(i, i + 1, replacement);
+                i += replacement.length();
+            } else if (c == '\r' && i + 1 < buffer.length() && buffer.charAt(i + 1) == '\n') {
+                buffer.replace(i, i + 2, replacement);
+                i += replacement.length();
+            } else {
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Appends a structured data parameter name or value: {@code '"'}, {@code '\'} and {@code ']'} are escaped with
+     * a backslash as required by RFC 5424, then line breaks are replaced.
+     *
+     * @param buffer the destination
+     * @param text the text to append
+     * @param newLineReplacement the text that replaces line breaks, or {@code null} to leave line breaks as they are
+     */
+    static void appendParam(final StringBuilder buffer, final CharSequence text, final String newLineReplacement) {
+        final int start = buffer.length();
+        final int length = text.length();
+        for (int i = 0; i < length; i++) {
+            final char c = text.charAt(i);
+            if (c == '"' || c == '\\' || c == ']') {
+                buffer.append('\\');
+            }
+            buffer.append(c);
+        }
+        escapeNewLines(buffer, start, newLineReplacement);
+    }
+}
@@ -18,12 +18,9 @@ package org.apache.logging.log4j.core.layout;
 
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
-import java.text.SimpleDateFormat;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.logging.log4j.core.Layout;
@@ -35,10 +32,18 @@ import org.apache.logging.log4j.core.config.plugins.PluginBuilderFactory;
 import org.apache.logging.log4j.core.net.Facility;
 import org.apache.logging.log4j.core.net.Priority;
 import org.apache.logging.log4j.core.util.NetUtils;
+import org.apache.logging.log4j.core.util.datetime.FastDateFormat;
+import org.apache.logging.log4j.message.Message;
 import org.apache.logging.log4j.util.Chars;
+import org.apache.logging.log4j.util.StringBuilderFormattable;
 
 /**
  * Formats a log event as a BSD Log record.
+ * <p>
+ * The host name is rendered once when the layout is created and the timestamp once per second, so with messages that
+ * implement {@link StringBuilderFormattable} the {@link #encode(LogEvent, ByteBufferDestination)} path does not
+ * allocate objects.
+ * </p>
  */
 @Plugin(name = "SyslogLayout", category = Node.CATEGORY, elementType = Layout.ELEMENT_TYPE, printObject = true)
 public final class SyslogLayout extends AbstractStringLayout {
@@ -122,18 +127,23 @@ public final class SyslogLayout extends AbstractStringLayout {
     /**
      * Date format used if header = true.
      */
-    private final SimpleDateFormat dateFormat = new SimpleDateFormat("MMM dd HH:mm:ss", Locale.ENGLISH);
-    
+    private final FastDateFormat dateFormat = FastDateFormat.getInstance("MMM dd HH:mm:ss", Locale.ENGLISH);
+
     /**
-     * Host name used to identify messages from this appender.
+     * The most recently formatted second, replaced at most once per second.
      */
-    private final String localHostname = NetUtils.getLocalHostname();
+    private volatile CachedDate cachedDate = new CachedDate(Long.MIN_VALUE, null);
+
+    /**
+     * Host name used to identify messages from this appender, surrounded by spaces.
+     */
+    private final String localHostname = Chars.SPACE + NetUtils.getLocalHostname() + Chars.SPACE;
 
     protected SyslogLayout(final Facility facility, final boolean includeNL, final String escapeNL, final Charset charset) {
         super(charset);
         this.facility = facility;
         this.includeNewLine = includeNL;
-        this.escapeNewLine = escapeNL == null ? null : Matcher.quoteReplacement(escapeNL);
+        this.escapeNewLine = escapeNL;
     }
 
     /**
@@ -144,34 +154,59 @@ public final class SyslogLayout extends AbstractStringLayout {
      */
     @Override
     public String toSerializable(final LogEvent event) {
-        final StringBuilder buf = getStringBuilder();
+        return toText(event, getStringBuilder()).toString();
+    }
 
+    @Override
+    public void encode(final LogEvent event, final ByteBufferDestination destination) {
+        final StringBuilder text = toText(event, getStringBuilder());
+        getStringBuilderEncoder().encode(text, destination);
+    }
+
+    private StringBuilder toText(final LogEvent event, final StringBuilder buf) {
         buf.append('<');
         buf.append(Priority.getPriority(facility, event.getLevel()));
         buf.append('>');
         addDate(event.getTimeMillis(), buf);
-        buf.append(Chars.SPACE);
         buf.append(localHostname);
-        buf.append(Chars.SPACE);
 
-        String message = event.getMessage().getFormattedMessage();
-        if (null != escapeNewLine) {
-            message = NEWLINE_PATTERN.matcher(message).replaceAll(escapeNewLine);
+        final int messageStart = buf.length();
+        final Message message = event.getMessage();
+        if (message instanceof StringBuilderFormattable) {
+            ((StringBuilderFormattable) message).formatTo(buf);
+        } else {
+            buf.append(message.getFormattedMessage());
         }
-        buf.append(message);
+        SyslogEscaping.escapeNewLines(buf, messageStart, escapeNewLine);
 
         if (includeNewLine) {
             buf.append('\n');
         }
-        return buf.toString();
+        return buf;
+    }
+
+    private void addDate(final long timestamp, final StringBuilder buf) {
+        final long second = timestamp / 1000;
+        CachedDate cached = cachedDate;
+        if (cached.second != second) {
+            final StringBuilder formatted = dateFormat.format(timestamp, new StringBuilder(15));
+            //  RFC 3164 says leading space, not leading zero on days 1-9
+            if (formatted.charAt(4) == '0') {
+                formatted.setCharAt(4, Chars.SPACE);
+            }
+            cached = new CachedDate(second, formatted.toString());
+            cachedDate = cached;
+        }
+        buf.append(cached.formatted);
     }
 
-    private synchronized void addDate(final long timestamp, final StringBuilder buf) {
-        final int index = buf.length() + 4;
-        buf.append(dateFormat.format(new Date(timestamp)));
-        //  RFC 3164 says leading space, not leading zero on days 1-9
-        if (buf.charAt(index) == '0') {
-            buf.setCharAt(index, Chars.SPACE);
+    private static final class CachedDate {
+        final long second;
+        final String formatted;
+
+        CachedDate(final long second, final String formatted) {
+            this.second = second;
+            this.formatted = formatted;
         }
     }
 
@@ -192,7 +227,7 @@ public final class SyslogLayout extends AbstractStringLayout {
         final Map<String, String> result = new HashMap<>();
         result.put("structured", "false");
         result.put("formatType", "logfilepatternreceiver");
-        result.put("dateFormat", dateFormat.toPattern());
+        result.put("dateFormat", dateFormat.getPattern());
         result.put("format", "<LEVEL>TIMESTAMP PROP(HOSTNAME) MESSAGE");
         return result;
     }
@@ -65,6 +65,159 @@ public class TextEncoderHelper {
         writeEncodedText(charsetEncoder, charBuf, byteBuf, destination, result);
     }
 
+    /**
+     * Converts the specified text to UTF-8 bytes and writes the resulting bytes to the specified destination without
+     * going through a {@code CharsetEncoder} and {@code CharBuffer}. Characters are read directly from the
+     * StringBuilder. Like the JDK encoder configured with {@code CodingErrorAction.REPLACE}, unpaired surrogates are
+     * written as {@code '?'}.
+     * <p>
+     * As in {@link #encodeText(CharsetEncoder, CharBuffer, ByteBuffer, StringBuilder, ByteBufferDestination)},
+     * synchronizing on the destination is postponed until the specified ByteBuffer is full.
+     * </p>
+     *
+     * @param byteBuf thread-local buffer to temporarily hold converted bytes before copying them to the destination,
+     *          or the ByteBuffer of the destination if the caller synchronizes on the destination
+     * @param text the text to convert and write to the destination
+     * @param destination the destination to write the bytes to
+     * @since 2.10.1
+     */
+    static void encodeUtf8(final ByteBuffer byteBuf, final StringBuilder text,
+            final ByteBufferDestination destination) {
+        final int length = text.length();
+        int start = encodeUtf8(text, 0, length, byteBuf);
+        if (start >= length) {
+            // see the thread-safety note in writeEncodedText
+            if (byteBuf != destination.getByteBuffer()) {
+                byteBuf.flip();
+                destination.writeBytes(byteBuf);
+                byteBuf.clear();
+            }
+            return;
+        }
+        synchronized (destination) {
+            ByteBuffer temp = byteBuf;
+            while (start < length) {
+                temp = drain(destination, temp);
+                start = encodeUtf8(text, start, length, temp);
+            }
+            if (temp.position() > 0 && temp != destination.getByteBuffer()) {
+                temp.flip();
+                ByteBufferDestinationHelper.writeToUnsynchronized(temp, destination);
+                temp.clear();
+            }
+        }
+    }
+
+    /**
+     * Encodes as many characters of the text as fit into the ByteBuffer. A character is only written if all of its
+     * bytes fit, so the encoding can be resumed at the returned index after the ByteBuffer has been drained.
+     *
+     * @return the index of the first character that was not encoded
+     */
+    static int encodeUtf8(final StringBuilder text, final int start, final int end, final ByteBuffer buffer) {
+        if (!buffer.hasArray()) {
+            return encodeUtf8Direct(text, start, end, buffer);
+        }
+        final byte[] array = buffer.array();
+        final int offset = buffer.arrayOffset();
+        final int limit = offset + buffer.limit();
+        int pos = offset + buffer.position();
+        int index = start;
+
+        // ASCII fast path
+        final int asciiEnd = Math.min(end, index + limit - pos);
+        char c;
+        while (index < asciiEnd && (c = text.charAt(index)) < 0x80) {
+            array[pos++] = (byte) c;
+            index++;
+        }
+        for (; index < end; index++) {
+            c = text.charAt(index);
+            if (c < 0x80) {
+                if (pos >= limit) {
+                    break;
+                }
+                array[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                if (limit - pos < 2) {
+                    break;
+                }
+                array[pos++] = (byte) (0xC0 | (c >> 6));
+                array[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (!Character.isSurrogate(c)) {
+                if (limit - pos < 3) {
+                    break;
+                }
+                array[pos++] = (byte) (0xE0 | (c >> 12));
+                array[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                array[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (isSurrogatePair(text, index, end, c)) {
+                if (limit - pos < 4) {
+                    break;
+                }
+                final int codePoint = Character.toCodePoint(c, text.charAt(++index));
+                array[pos++] = (byte) (0xF0 | (codePoint >> 18));
+                array[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                array[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                array[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else {
+                if (pos >= limit) {
+                    break;
+                }
+                array[pos++] = (byte) '?';
+            }
+        }
+        buffer.position(pos - offset);
+        return index;
+    }
+
+    private static int encodeUtf8Direct(final StringBuilder text, final int start, final int end,
+            final ByteBuffer buffer) {
+        int index = start;
+        for (; index < end; index++) {
+            final char c = text.charAt(index);
+            final int remaining = buffer.remaining();
+            if (c < 0x80) {
+                if (remaining < 1) {
+                    break;
+                }
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                if (remaining < 2) {
+                    break;
+                }
+                buffer.put((byte) (0xC0 | (c >> 6)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            } else if (!Character.isSurrogate(c)) {
+                if (remaining < 3) {
+                    break;
+                }
+                buffer.put((byte) (0xE0 | (c >> 12)));
+                buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            } else if (isSurrogatePair(text, index, end, c)) {
+                if (remaining < 4) {
+                    break;
+                }
+                final int codePoint = Character.toCodePoint(c, text.charAt(++index));
+                buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+            } else {
+                if (remaining < 1) {
+                    break;
+                }
+                buffer.put((byte) '?');
+            }
+        }
+        return index;
+    }
+
+    private static boolean isSurrogatePair(final StringBuilder text, final int index, final int end, final char c) {
+        return Character.isHighSurrogate(c) && index + 1 < end && Character.isLowSurrogate(text.charAt(index + 1));
+    }
+
     /**
      * This method is called when the CharEncoder has encoded (but not yet flushed) content from the CharBuffer
      * into the ByteBuffer. A CoderResult of UNDERFLOW means that the contents fit into the ByteBuffer and we can move
@@ -247,24 +400,36 @@ public class TextEncoderHelper {
     private static ByteBuffer drainIfByteBufferFull(final ByteBufferDestination destination, final ByteBuffer temp,
             final CoderResult result) {
         if (result.isOverflow()) { // byte buffer full
-            // all callers already synchronize on destination but for safety ensure we are synchronized because
-            // below calls to drain() may cause destination to swap in a new ByteBuffer object
-            synchronized (destination) {
-                final ByteBuffer destinationBuffer = destination.getByteBuffer();
-                if (destinationBuffer != temp) {
-                    temp.flip();
-                    ByteBufferDestinationHelper.writeToUnsynchronized(temp, destination);
-                    temp.clear();
-                    return destination.getByteBuffer();
-                } else {
-                    return destination.drain(destinationBuffer);
-                }
-            }
+            return drain(destination, temp);
         } else {
             return temp;
         }
     }
 
+    /**
+     * Writes the content of the full ByteBuffer to the destination. If the specified ByteBuffer is owned by the
+     * destination, we have reached the end of a MappedBuffer and we call drain() on the destination to remap().
+     *
+     * @param destination the destination to write bytes to
+     * @param temp the full ByteBuffer. May be a temporary buffer or may be the ByteBuffer of the ByteBufferDestination
+     * @return the ByteBuffer to encode into for the remainder of the text
+     */
+    private static ByteBuffer drain(final ByteBufferDestination destination, final ByteBuffer temp) {
+        // all callers already synchronize on destination but for safety ensure we are synchronized because
+        // below calls to drain() may cause destination to swap in a new ByteBuffer object
+        synchronized (destination) {
+            final ByteBuffer destinationBuffer = destination.getByteBuffer();
+            if (destinationBuffer != temp) {
+                temp.flip();
+                ByteBufferDestinationHelper.writeToUnsynchronized(temp, destination);
+                temp.clear();
+                return destination.getByteBuffer();
+            } else {
+                return destination.drain(destinationBuffer);
+            }
+        }
+    }
+
     private static void flushRemainingBytes(final CharsetEncoder charsetEncoder,
             final ByteBufferDestination destination, ByteBuffer temp) {
         CoderResult result;
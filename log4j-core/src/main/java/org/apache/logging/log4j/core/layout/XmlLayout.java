@@ -16,18 +16,30 @@
  */
 package org.apache.logging.log4j.core.layout;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import org.apache.logging.log4j.Marker;
+import org.apache.logging.log4j.ThreadContext.ContextStack;
 import org.apache.logging.log4j.core.Layout;
+import org.apache.logging.log4j.core.LogEvent;
 import org.apache.logging.log4j.core.config.Configuration;
 import org.apache.logging.log4j.core.config.Node;
 import org.apache.logging.log4j.core.config.plugins.Plugin;
 import org.apache.logging.log4j.core.config.plugins.PluginBuilderFactory;
 import org.apache.logging.log4j.core.jackson.XmlConstants;
 import org.apache.logging.log4j.core.util.KeyValuePair;
+import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.util.ReadOnlyStringMap;
+import org.apache.logging.log4j.util.StringBuilderFormattable;
+import org.apache.logging.log4j.util.StringBuilders;
+import org.apache.logging.log4j.util.Strings;
+import org.apache.logging.log4j.util.TriConsumer;
 
 /**
  * Appends a series of {@code event} elements as defined in the <a href="log4j.dtd">log4j.dtd</a>.
@@ -58,11 +70,33 @@ import org.apache.logging.log4j.core.util.KeyValuePair;
  * {@code <XmlLayout><KeyValuePair key="foo" value="bar"/></XmlLayout>} inserts {@code <foo>bar</foo>} directly
  * into XML output. Supports Lookup expressions.
  * </p>
+ * <h3>Streaming output</h3>
+ * <p>
+ * Events without a Throwable are written element by element into a reusable StringBuilder that is escaped in place,
+ * and the encode path writes it straight into the destination's byte buffer. Events with a Throwable are serialized
+ * with Jackson so that their extended stack trace keeps the same structure.
+ * </p>
  */
 @Plugin(name = "XmlLayout", category = Node.CATEGORY, elementType = Layout.ELEMENT_TYPE, printObject = true)
 public final class XmlLayout extends AbstractJacksonLayout {
 
     private static final String ROOT_TAG = "Events";
+    private static final int EVENT_DEPTH = 1;
+    private static final String REPLACEMENT = "\uFFFD";
+
+    private final boolean locationInfo;
+    private final boolean properties;
+    private final TriConsumer<String, Object, StringBuilder> writeContextItem =
+            new TriConsumer<String, Object, StringBuilder>() {
+        @Override
+        public void accept(final String key, final Object value, final StringBuilder buf) {
+            appendNewLine(buf, EVENT_DEPTH + 2);
+            buf.append("<item");
+            appendAttribute(buf, "key", key);
+            appendAttribute(buf, "value", value == null ? "null" : value);
+            buf.append("/>");
+        }
+    };
 
     public static class Builder<B extends Builder<B>> extends AbstractJacksonLayout.Builder<B>
         implements org.apache.logging.log4j.core.util.Builder<XmlLayout> {
@@ -98,6 +132,279 @@ public final class XmlLayout extends AbstractJacksonLayout {
             locationInfo, properties, compact),
             charset, compact, complete, false, null, null, includeNullDelimiter,
             additionalFields);
+        this.locationInfo = locationInfo;
+        this.properties = properties;
+    }
+
+    /**
+     * Formats a {@link LogEvent} as an {@code Event} element.
+     *
+     * @param event The LogEvent.
+     * @return The XML representation of the LogEvent.
+     */
+    @Override
+    public String toSerializable(final LogEvent event) {
+        if (!isStreamable(event)) {
+            return super.toSerializable(event);
+        }
+        final StringBuilder text = toText(event, getStringBuilder());
+        final String result = text.toString();
+        trimToMaxSize(text);
+        return result;
+    }
+
+    @Override
+    public void toSerializable(final LogEvent event, final Writer writer) throws IOException {
+        if (!isStreamable(event)) {
+            super.toSerializable(event, writer);
+            return;
+        }
+        final StringBuilder text = toText(event, getStringBuilder());
+        writer.append(text);
+        trimToMaxSize(text);
+    }
+
+    @Override
+    public void encode(final LogEvent event, final ByteBufferDestination destination) {
+        if (!isStreamable(event)) {
+            super.encode(event, destination);
+            return;
+        }
+        final StringBuilder text = toText(event, getStringBuilder());
+        getStringBuilderEncoder().encode(text, destination);
+        trimToMaxSize(text);
+    }
+
+    private static boolean isStreamable(final LogEvent event) {
+        return event.getThrown() == null;
+    }
+
+    private StringBuilder toText(final LogEvent event, final StringBuilder buf) {
+        appendNewLine(buf, EVENT_DEPTH);
+        buf.append('<').append(XmlConstants.ELT_EVENT).append(" xmlns=\"").append(XmlConstants.XML_NAMESPACE)
+                .append('"');
+        appendAttribute(buf, "timeMillis", event.getTimeMillis());
+        appendAttribute(buf, "thread", event.getThreadName());
+        appendAttribute(buf, "level", event.getLevel().name());
+        appendAttribute(buf, "loggerName", event.getLoggerName());
+        appendAttribute(buf, "endOfBatch", event.isEndOfBatch());
+        appendAttribute(buf, "loggerFqcn", event.getLoggerFqcn());
+        appendAttribute(buf, "threadId", event.getThreadId());
+        appendAttribute(buf, "threadPriority", event.getThreadPriority());
+        buf.append('>');
+
+        if (event.getMarker() != null) {
+            appendMarker(buf, event.getMarker(), EVENT_DEPTH + 1);
+        }
+        appendMessage(buf, event.getMessage());
+        if (properties) {
+            appendContextMap(buf, event.getContextData());
+        }
+        appendContextStack(buf, event.getContextStack());
+        if (locationInfo && event.getSource() != null) {
+            appendSource(buf, event.getSource());
+        }
+        appendAdditionalFields(buf, event);
+
+        appendNewLine(buf, EVENT_DEPTH);
+        buf.append("</").append(XmlConstants.ELT_EVENT).append('>');
+        buf.append(eol);
+        if (includeNullDelimiter) {
+            buf.append('\0');
+        }
+        markEvent();
+        return buf;
+    }
+
+    private void appendMarker(final StringBuilder buf, final Marker marker, final int depth) {
+        appendNewLine(buf, depth);
+        buf.append('<').append(XmlConstants.ELT_MARKER);
+        appendAttribute(buf, "name", marker.getName());
+        if (!marker.hasParents()) {
+            buf.append("/>");
+            return;
+        }
+        buf.append('>');
+        appendNewLine(buf, depth + 1);
+        buf.append('<').append(XmlConstants.ELT_PARENTS).append('>');
+        for (final Marker parent : marker.getParents()) {
+            appendMarker(buf, parent, depth + 2);
+        }
+        appendNewLine(buf, depth + 1);
+        buf.append("</").append(XmlConstants.ELT_PARENTS).append('>');
+        appendNewLine(buf, depth);
+        buf.append("</").append(XmlConstants.ELT_MARKER).append('>');
+    }
+
+    private void appendMessage(final StringBuilder buf, final Message message) {
+        if (message == null) {
+            return;
+        }
+        appendNewLine(buf, EVENT_DEPTH + 1);
+        buf.append('<').append(XmlConstants.ELT_MESSAGE).append('>');
+        final int start = buf.length();
+        if (message instanceof StringBuilderFormattable) {
+            ((StringBuilderFormattable) message).formatTo(buf);
+        } else {
+            buf.append(message.getFormattedMessage());
+        }
+        escapeXml(buf, start, false);
+        buf.append("</").append(XmlConstants.ELT_MESSAGE).append('>');
+    }
+
+    private void appendContextMap(final StringBuilder buf, final ReadOnlyStringMap contextData) {
+        if (contextData == null) {
+            return;
+        }
+        appendNewLine(buf, EVENT_DEPTH + 1);
+        buf.append('<').append(XmlConstants.ELT_CONTEXT_MAP);
+        if (contextData.isEmpty()) {
+            buf.append("/>");
+            return;
+        }
+        buf.append('>');
+        contextData.forEach(writeContextItem, buf);
+        appendNewLine(buf, EVENT_DEPTH + 1);
+        buf.append("</").append(XmlConstants.ELT_CONTEXT_MAP).append('>');
+    }
+
+    private void appendContextStack(final StringBuilder buf, final ContextStack contextStack) {
+        if (contextStack == null || contextStack.isEmpty()) {
+            return;
+        }
+        appendNewLine(buf, EVENT_DEPTH + 1);
+        buf.append('<').append(XmlConstants.ELT_CONTEXT_STACK).append('>');
+        final List<String> items = contextStack.asList();
+        for (int i = 0; i < items.size(); i++) {
+            appendNewLine(buf, EVENT_DEPTH + 2);
+            appendElement(buf, XmlConstants.ELT_CONTEXT_STACK_ITEM, items.get(i));
+        }
+        appendNewLine(buf, EVENT_DEPTH + 1);
+        buf.append("</").append(XmlConstants.ELT_CONTEXT_STACK).append('>');
+    }
+
+    private void appendSource(final StringBuilder buf, final StackTraceElement source) {
+        appendNewLine(buf, EVENT_DEPTH + 1);
+        buf.append('<').append(XmlConstants.ELT_SOURCE);
+        appendAttribute(buf, "class", source.getClassName());
+        appendAttribute(buf, "method", source.getMethodName());
+        appendAttribute(buf, "file", source.getFileName());
+        appendAttribute(buf, "line", source.getLineNumber());
+        buf.append("/>");
+    }
+
+    private void appendAdditionalFields(final StringBuilder buf, final LogEvent event) {
+        for (final ResolvableKeyValuePair pair : additionalFields) {
+            appendNewLine(buf, EVENT_DEPTH + 1);
+            appendElement(buf, pair.key, pair.valueNeedsLookup
+                    ? configuration.getStrSubstitutor().replace(event, pair.value)
+                    : pair.value);
+        }
+    }
+
+    private void appendNewLine(final StringBuilder buf, final int depth) {
+        if (compact) {
+            return;
+        }
+        buf.append(Strings.LINE_SEPARATOR);
+        for (int i = 0; i < depth; i++) {
+            buf.append("  ");
+        }
+    }
+
+    private static void appendElement(final StringBuilder buf, final String name, final String text) {
+        buf.append('<').append(name).append('>');
+        final int start = buf.length();
+        buf.append(text);
+        escapeXml(buf, start, false);
+        buf.append("</").append(name).append('>');
+    }
+
+    private static void appendAttribute(final StringBuilder buf, final String name, final Object value) {
+        if (value == null) {
+            return;
+        }
+        final int start = buf.length();
+        if (value instanceof CharSequence) {
+            if (((CharSequence) value).length() == 0) {
+                // empty values are left out like null values
+                return;
+            }
+            buf.append(' ').append(name).append("=\"");
+            buf.append((CharSequence) value);
+        } else {
+            buf.append(' ').append(name).append("=\"");
+            StringBuilders.appendValue(buf, value);
+        }
+        escapeXml(buf, start + name.length() + 3, true);
+        buf.append('"');
+    }
+
+    private static void appendAttribute(final StringBuilder buf, final String name, final long value) {
+        buf.append(' ').append(name).append("=\"").append(value).append('"');
+    }
+
+    private static void appendAttribute(final StringBuilder buf, final String name, final boolean value) {
+        buf.append(' ').append(name).append("=\"").append(value).append('"');
+    }
+
+    /**
+     * Escapes the markup characters of the text appended after {@code start}. Characters that are not allowed in XML
+     * 1.0 are replaced because a parser would reject the whole document otherwise. Carriage returns, and any whitespace
+     * in attribute values, are written as character references so that a parser does not normalize them.
+     */
+    private static void escapeXml(final StringBuilder buf, final int start, final boolean attribute) {
+        final int length = buf.length();
+        int escapedLength = length;
+        boolean escape = false;
+        for (int i = start; i < length; i++) {
+            final String escaped = escapeXml(buf.charAt(i), attribute);
+            if (escaped != null) {
+                escapedLength += escaped.length() - 1;
+                escape = true;
+            }
+        }
+        if (!escape) {
+            return;
+        }
+        buf.setLength(escapedLength);
+        int to = escapedLength;
+        for (int i = length - 1; i >= start; i--) { // backwards: writes stay behind the characters still to be read
+            final char c = buf.charAt(i);
+            final String escaped = escapeXml(c, attribute);
+            if (escaped == null) {
+                buf.setCharAt(--to, c);
+            } else {
+                to -= escaped.length();
+                for (int j = 0; j < escaped.length(); j++) {
+                    buf.setCharAt(to + j, escaped.charAt(j));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the text that replaces the specified character, or {@code null} if the character is kept.
+     */
+    private static String escapeXml(final char c, final boolean attribute) {
+        switch (c) {
+        case '&':
+            return "&amp;";
+        case '<':
+            return "&lt;";
+        case '>':
+            return attribute ? null : "&gt;";
+        case '"':
+            return attribute ? "&quot;" : null;
+        case '\t':
+            return attribute ? "&#9;" : null;
+        case '\n':
+            return attribute ? "&#10;" : null;
+        case '\r':
+            return "&#13;";
+        default:
+            return c < ' ' || c == '\uFFFE' || c == '\uFFFF' ? REPLACEMENT : null;
+        }
     }
 
     /**
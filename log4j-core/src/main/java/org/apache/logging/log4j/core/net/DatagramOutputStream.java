@@ -99,8 +99,7 @@ public class DatagramOutputStream extends OutputStream {
                 if (footer != null) {
                     copy(footer, 0, footer.length);
                 }
-                final DatagramPacket packet = new DatagramPacket(data, data.length, inetAddress, port);
-                datagramSocket.send(packet);
+                send(datagramSocket, inetAddress, port, data);
             }
         } finally {
             data = null;
@@ -110,6 +109,22 @@ public class DatagramOutputStream extends OutputStream {
         }
     }
 
+    /**
+     * Sends the data written since the last flush. Subclasses may override this method to split the data into
+     * several datagrams.
+     *
+     * @param socket the socket to send with
+     * @param address the destination address
+     * @param port the destination port
+     * @param bytes the data written since the last flush, including the header and footer
+     * @throws IOException if the data cannot be sent
+     * @since 2.10.1
+     */
+    protected void send(final DatagramSocket socket, final InetAddress address, final int port, final byte[] bytes)
+            throws IOException {
+        socket.send(new DatagramPacket(bytes, bytes.length, address, port));
+    }
+
     @Override
     public synchronized void close() throws IOException {
         if (datagramSocket != null) {
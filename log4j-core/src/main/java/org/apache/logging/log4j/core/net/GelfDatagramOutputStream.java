@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.net;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.security.SecureRandom;
+
+/**
+ * OutputStream for GELF over UDP. Messages larger than the chunk size are split into
+ * <a href="http://docs.graylog.org/en/latest/pages/gelf.html#chunking">GELF chunks</a>.
+ * <p>
+ * Each chunk starts with a 12 byte header: the magic bytes {@code 0x1e 0x0f}, an 8 byte message ID shared by all
+ * chunks of a message, the sequence number of the chunk and the total number of chunks. GELF allows at most
+ * {@value #MAX_CHUNKS} chunks; larger messages are dropped with an error.
+ * </p>
+ *
+ * @see org.apache.logging.log4j.core.layout.GelfLayout
+ * @since 2.10.1
+ */
+public class GelfDatagramOutputStream extends DatagramOutputStream {
+
+    /**
+     * The size in bytes of the header of each GELF chunk.
+     */
+    public static final int CHUNK_HEADER_SIZE = 12;
+
+    /**
+     * The maximum number of chunks of a GELF message.
+     */
+    public static final int MAX_CHUNKS = 128;
+
+    private static final byte MAGIC_0 = 0x1e;
+    private static final byte MAGIC_1 = 0x0f;
+
+    private final int chunkSize;
+    private final byte[] chunk;
+    private final DatagramPacket packet;
+    private final long messageIdBase;
+    private long messageCount;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param host The host to connect to.
+     * @param port The port on the host.
+     * @param header The layout header, or {@code null}.
+     * @param footer The layout footer, or {@code null}.
+     * @param chunkSize The maximum size of a datagram, including the chunk header.
+     */
+    public GelfDatagramOutputStream(final String host, final int port, final byte[] header, final byte[] footer,
+            final int chunkSize) {
+        super(host, port, header, footer);
+        if (chunkSize <= CHUNK_HEADER_SIZE) {
+            throw new IllegalArgumentException("chunkSize must be larger than " + CHUNK_HEADER_SIZE + ": " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+        this.chunk = new byte[chunkSize];
+        this.chunk[0] = MAGIC_0;
+        this.chunk[1] = MAGIC_1;
+        this.packet = new DatagramPacket(chunk, chunkSize);
+        this.messageIdBase = new SecureRandom().nextLong();
+    }
+
+    /**
+     * Returns the maximum size of a datagram, including the chunk header.
+     *
+     * @return the chunk size in bytes
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    @Override
+    protected void send(final DatagramSocket socket, final InetAddress address, final int port, final byte[] bytes)
+            throws IOException {
+        if (bytes.length <= chunkSize) {
+            super.send(socket, address, port, bytes);
+            return;
+        }
+        final int payloadSize = chunkSize - CHUNK_HEADER_SIZE;
+        final int count = (bytes.length + payloadSize - 1) / payloadSize;
+        if (count > MAX_CHUNKS) {
+            LOGGER.error("Dropping GELF message of {} bytes: it needs {} chunks of {} bytes but at most {} are allowed",
+                    bytes.length, count, chunkSize, MAX_CHUNKS);
+            return;
+        }
+        writeMessageId(messageIdBase + messageCount++);
+        chunk[11] = (byte) count;
+        packet.setAddress(address);
+        packet.setPort(port);
+        for (int i = 0; i < count; i++) {
+            final int offset = i * payloadSize;
+            final int length = Math.min(payloadSize, bytes.length - offset);
+            chunk[10] = (byte) i;
+            System.arraycopy(bytes, offset, chunk, CHUNK_HEADER_SIZE, length);
+            packet.setData(chunk, 0, CHUNK_HEADER_SIZE + length);
+            socket.send(packet);
+        }
+    }
+
+    private void writeMessageId(final long messageId) {
+        for (int i = 0; i < 8; i++) {
+            chunk[2 + i] = (byte) (messageId >>> (56 - 8 * i));
+        }
+    }
+}
@@ -28,6 +28,7 @@ import org.apache.logging.log4j.core.util.Constants;
 import org.apache.logging.log4j.core.util.datetime.FastDateFormat;
 import org.apache.logging.log4j.core.util.datetime.FixedDateFormat;
 import org.apache.logging.log4j.core.util.datetime.FixedDateFormat.FixedFormat;
+import org.apache.logging.log4j.core.util.datetime.SharedTimestampCache;
 import org.apache.logging.log4j.util.PerformanceSensitive;
 
 /**
@@ -48,6 +49,10 @@ public final class DatePatternConverter extends LogEventPatternConverter impleme
         public String toPattern() {
             return null;
         }
+
+        SharedTimestampCache createSharedCache() {
+            return null;
+        }
     }
 
     private static final class PatternFormatter extends Formatter {
@@ -70,6 +75,7 @@ public final class DatePatternConverter extends LogEventPatternConverter impleme
             if (previousTime != timeMillis) {
                 cachedBuffer.setLength(0);
                 fastDateFormat.format(timeMillis, cachedBuffer);
+                previousTime = timeMillis;
             }
             destination.append(cachedBuffer);
         }
@@ -78,6 +84,11 @@ public final class DatePatternConverter extends LogEventPatternConverter impleme
         public String toPattern() {
             return fastDateFormat.getPattern();
         }
+
+        @Override
+        SharedTimestampCache createSharedCache() {
+            return SharedTimestampCache.create(fastDateFormat);
+        }
     }
 
     private static final class FixedFormatter extends Formatter {
@@ -100,6 +111,7 @@ public final class DatePatternConverter extends LogEventPatternConverter impleme
         void formatToBuffer(final long timeMillis, final StringBuilder destination) {
             if (previousTime != timeMillis) {
                 length = fixedDateFormat.format(timeMillis, cachedBuffer, 0);
+                previousTime = timeMillis;
             }
             destination.append(cachedBuffer, 0, length);
         }
@@ -108,6 +120,11 @@ public final class DatePatternConverter extends LogEventPatternConverter impleme
         public String toPattern() {
             return fixedDateFormat.getFormat();
         }
+
+        @Override
+        SharedTimestampCache createSharedCache() {
+            return SharedTimestampCache.create(fixedDateFormat);
+        }
     }
 
     private static final class UnixFormatter extends Formatter {
@@ -160,6 +177,7 @@ public final class DatePatternConverter extends LogEventPatternConverter impleme
     private final ThreadLocal<Formatter> threadLocalFormatter = new ThreadLocal<>();
     private final AtomicReference<CachedTime> cachedTime;
     private final Formatter formatter;
+    private final SharedTimestampCache sharedCache; // may be null
 
     /**
      * Private constructor.
@@ -170,6 +188,7 @@ public final class DatePatternConverter extends LogEventPatternConverter impleme
         super("Date", "date");
         this.options = options == null ? null : Arrays.copyOf(options, options.length);
         this.formatter = createFormatter(options);
+        this.sharedCache = Constants.ENABLE_SHARED_DATE_CACHE ? formatter.createSharedCache() : null;
         cachedTime = new AtomicReference<>(new CachedTime(System.currentTimeMillis()));
     }
 
@@ -249,6 +268,9 @@ public final class DatePatternConverter extends LogEventPatternConverter impleme
     }
 
     public void format(final long timestampMillis, final StringBuilder output) {
+        if (sharedCache != null && sharedCache.formatTo(timestampMillis, output)) {
+            return;
+        }
         if (Constants.ENABLE_THREADLOCALS) {
             formatWithoutAllocation(timestampMillis, output);
         } else {
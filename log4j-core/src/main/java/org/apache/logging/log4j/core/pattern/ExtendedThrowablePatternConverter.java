@@ -34,6 +34,8 @@ import org.apache.logging.log4j.util.Strings;
 @ConverterKeys({ "xEx", "xThrowable", "xException" })
 public final class ExtendedThrowablePatternConverter extends ThrowablePatternConverter {
 
+    private volatile RenderedStackTrace lastRendered;
+
     /**
      * Private constructor.
      * 
@@ -61,34 +63,68 @@ public final class ExtendedThrowablePatternConverter extends ThrowablePatternCon
      */
     @Override
     public void format(final LogEvent event, final StringBuilder toAppendTo) {
-        final ThrowableProxy proxy = event.getThrownProxy();
+        format(event, toAppendTo, Integer.MAX_VALUE);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Unless lines are limited or joined with another separator, this stops at the first stack frame after the limit.
+     * </p>
+     */
+    @Override
+    public void format(final LogEvent event, final StringBuilder toAppendTo, final int maxLength) {
+        final int initialLength = toAppendTo.length();
         final Throwable throwable = event.getThrown();
+        // Check for repeats before the proxy is created
+        if (throwable != null && options.anyLines() && formatRepeat(event, throwable, toAppendTo)) {
+            return;
+        }
+        final ThrowableProxy proxy = event.getThrownProxy();
         if ((throwable != null || proxy != null) && options.anyLines()) {
             if (proxy == null) {
-                super.format(event, toAppendTo);
+                formatThrowable(event, throwable, toAppendTo);
                 return;
             }
-            final String suffix = getSuffix(event);
-            final String extStackTrace = proxy.getExtendedStackTraceAsString(options.getIgnorePackages(), options.getTextRenderer(), suffix);
             final int len = toAppendTo.length();
             if (len > 0 && !Character.isWhitespace(toAppendTo.charAt(len - 1))) {
                 toAppendTo.append(' ');
             }
-            if (!options.allLines() || !Strings.LINE_SEPARATOR.equals(options.getSeparator())) {
-                final StringBuilder sb = new StringBuilder();
-                final String[] array = extStackTrace.split(Strings.LINE_SEPARATOR);
-                final int limit = options.minLines(array.length) - 1;
-                for (int i = 0; i <= limit; ++i) {
-                    sb.append(array[i]);
-                    if (i < limit) {
-                        sb.append(options.getSeparator());
-                    }
+            // Without a suffix the output only depends on the proxy, so repeated stack traces can be reused
+            final boolean reusable = formatters.isEmpty();
+            if (reusable) {
+                final RenderedStackTrace last = lastRendered;
+                if (last != null && proxy.isRenderedLike(last.proxy)) {
+                    toAppendTo.append(last.text);
+                    return;
                 }
-                toAppendTo.append(sb.toString());
-            } else {
-                toAppendTo.append(extStackTrace);
+            }
+            final int start = toAppendTo.length();
+            final boolean formatLines = !options.allLines() || !Strings.LINE_SEPARATOR.equals(options.getSeparator());
+            final int remaining = formatLines ? Integer.MAX_VALUE
+                    : Math.max(0, maxLength - (start - initialLength));
+            proxy.formatExtendedStackTraceTo(toAppendTo, options.getIgnorePackages(), options.getTextRenderer(),
+                    getSuffix(event), remaining);
+            if (formatLines) {
+                formatLines(toAppendTo, start, null);
+            }
+            // A stack trace that reached the limit may be incomplete
+            if (reusable && toAppendTo.length() - start <= remaining) {
+                lastRendered = new RenderedStackTrace(proxy, toAppendTo.substring(start));
             }
         }
     }
 
+    /**
+     * The last stack trace this converter rendered.
+     */
+    private static final class RenderedStackTrace {
+        private final ThrowableProxy proxy;
+        private final String text;
+
+        RenderedStackTrace(final ThrowableProxy proxy, final String text) {
+            this.proxy = proxy;
+            this.text = text;
+        }
+    }
 }
@@ -118,6 +118,16 @@ public final class FormattingInfo {
         return maxLength;
     }
 
+    /**
+     * Returns the number of characters a converter must append for this field to be formatted the same as with its
+     * full output. Text beyond this length is truncated from the right, so it need not be formatted.
+     *
+     * @return the maximum length, or {@code Integer.MAX_VALUE} if the field is truncated from the left.
+     */
+    int getRequiredLength() {
+        return leftTruncate ? Integer.MAX_VALUE : maxLength;
+    }
+
     /**
      * Adjust the content of the buffer based on the specified lengths and alignment.
      *
@@ -193,14 +193,27 @@ public final class HighlightConverter extends LogEventPatternConverter implement
         }
         final PatternParser parser = PatternLayout.createPatternParser(config);
         final List<PatternFormatter> formatters = parser.parse(options[0]);
-        final boolean disableAnsi = Arrays.toString(options).contains(PatternParser.DISABLE_ANSI + "=true");
-        final boolean noConsoleNoAnsi = Arrays.toString(options).contains(PatternParser.NO_CONSOLE_NO_ANSI + "=true");
-        final boolean hideAnsi = disableAnsi || (noConsoleNoAnsi && System.console() == null);
-        return new HighlightConverter(formatters, createLevelStyleMap(options), hideAnsi);
+        return new HighlightConverter(formatters, createLevelStyleMap(options), PatternParser.isAnsiDisabled(options));
     }
 
+    private static final int STANDARD_LEVEL_STEP = 100;
+
+    private static final int LEVEL_STYLE_ARRAY_LENGTH = Level.TRACE.intLevel() / STANDARD_LEVEL_STEP + 1;
+
     private final Map<Level, String> levelStyles;
 
+    /**
+     * The styles of the standard levels and of levels whose {@code intLevel} is a multiple of 100, indexed by
+     * {@code intLevel / 100}.
+     */
+    private final String[] levelStyleArray;
+
+    /**
+     * The level whose style is in each slot of {@link #levelStyleArray}. Other levels with the same {@code intLevel}
+     * are looked up in the map.
+     */
+    private final Level[] levelStyleArrayLevels;
+
     private final List<PatternFormatter> patternFormatters;
 
     private final boolean noAnsi;
@@ -219,10 +232,30 @@ public final class HighlightConverter extends LogEventPatternConverter implement
         super("style", "style");
         this.patternFormatters = patternFormatters;
         this.levelStyles = levelStyles;
+        this.levelStyleArrayLevels = new Level[LEVEL_STYLE_ARRAY_LENGTH];
+        this.levelStyleArray = createLevelStyleArray(levelStyles, levelStyleArrayLevels);
         this.defaultStyle = AnsiEscape.getDefaultStyle();
         this.noAnsi = noAnsi;
     }
 
+    private static String[] createLevelStyleArray(final Map<Level, String> levelStyles, final Level[] levels) {
+        final String[] result = new String[LEVEL_STYLE_ARRAY_LENGTH];
+        for (final Map.Entry<Level, String> entry : levelStyles.entrySet()) {
+            final int index = indexOf(entry.getKey());
+            if (index >= 0 && (result[index] == null || DEFAULT_STYLES.containsKey(entry.getKey()))) {
+                result[index] = entry.getValue();
+                levels[index] = entry.getKey();
+            }
+        }
+        return result;
+    }
+
+    private static int indexOf(final Level level) {
+        final int intLevel = level.intLevel();
+        final int index = intLevel / STANDARD_LEVEL_STEP;
+        return intLevel >= 0 && intLevel % STANDARD_LEVEL_STEP == 0 && index < LEVEL_STYLE_ARRAY_LENGTH ? index : -1;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -232,7 +265,7 @@ public final class HighlightConverter extends LogEventPatternConverter implement
         int end = 0;
         if (!noAnsi) { // use ANSI: set prefix
             start = toAppendTo.length();
-            toAppendTo.append(levelStyles.get(event.getLevel()));
+            toAppendTo.append(getLevelStyle(event.getLevel()));
             end = toAppendTo.length();
         }
 
@@ -252,8 +285,13 @@ public final class HighlightConverter extends LogEventPatternConverter implement
         }
     }
 
-    String getLevelStyle(Level level) {
-        return levelStyles.get(level);
+    String getLevelStyle(final Level level) {
+        final int index = indexOf(level);
+        if (index >= 0 && levelStyleArrayLevels[index] == level) {
+            return levelStyleArray[index];
+        }
+        final String style = levelStyles.get(level);
+        return style == null ? Strings.EMPTY : style;
     }
 
     @Override
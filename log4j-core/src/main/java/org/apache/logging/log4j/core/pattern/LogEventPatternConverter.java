@@ -42,6 +42,25 @@ public abstract class LogEventPatternConverter extends AbstractPatternConverter
      */
     public abstract void format(final LogEvent event, final StringBuilder toAppendTo);
 
+    /**
+     * Formats an event into a string buffer, stopping once more than {@code maxLength} characters have been appended.
+     * The first {@code maxLength} characters are the same as the ones appended by
+     * {@link #format(LogEvent, StringBuilder)}. More characters may be appended and the caller truncates them, but if
+     * the full text is longer than {@code maxLength}, at least {@code maxLength + 1} characters are appended.
+     * <p>
+     * Converters whose output can be very long override this method. The default implementation formats the full text.
+     * </p>
+     *
+     * @param event      event to format, may not be null.
+     * @param toAppendTo string buffer to which the formatted event will be appended.  May not be null.
+     * @param maxLength  the number of characters after which formatting can stop, {@code Integer.MAX_VALUE} for
+     *                   no limit.
+     * @since 2.10.1
+     */
+    public void format(final LogEvent event, final StringBuilder toAppendTo, final int maxLength) {
+        format(event, toAppendTo);
+    }
+
     /**
      * {@inheritDoc}
      */
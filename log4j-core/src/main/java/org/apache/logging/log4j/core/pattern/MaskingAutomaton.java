@@ -0,0 +1,459 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.pattern;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.logging.log4j.core.util.Constants;
+import org.apache.logging.log4j.util.PerformanceSensitive;
+import org.apache.logging.log4j.util.Strings;
+
+/**
+ * Masks the matches of many regular expressions in a {@link StringBuilder} in a single pass.
+ * <p>
+ * The literal text each regular expression starts with (for example {@code password=} in {@code password=(\S+)}) is
+ * compiled into an Aho-Corasick automaton. The text is scanned once with the automaton, and a regular expression is
+ * only matched at the positions where its prefix occurs. Matches are replaced in place.
+ * </p>
+ * <p>
+ * As with {@link Matcher#appendReplacement(StringBuffer, String)}, {@code $n} and {@code ${name}} in a replacement
+ * refer to the groups of the match and a backslash escapes the next character. A replacement that refers to groups
+ * replaces the whole match. A replacement without group references is inserted as is: if the regular expression
+ * has a capturing group, only the text of the first group is replaced, otherwise the whole match is replaced.
+ * </p>
+ * <p>
+ * Regular expressions that do not start with literal text, or that have flags, are matched by searching the whole
+ * text after the automaton pass, which is as expensive as a {@code %replace}.
+ * </p>
+ *
+ * @since 2.10.1
+ */
+@PerformanceSensitive("allocation")
+public final class MaskingAutomaton {
+
+    private static final String METACHARACTERS = "\\[](){}.*+?^$|";
+    private static final String OPTIONAL_QUANTIFIERS = "?*{";
+    private static final int ASCII = 128;
+    private static final int[] NO_RULES = new int[0];
+
+    private final Pattern[] patterns;
+    private final String[] replacements;
+    private final Substitution[] substitutions;
+
+    /** The length of the literal prefix of each rule, 0 if the rule is matched by searching. */
+    private final int[] prefixLengths;
+
+    /** The rules without a literal prefix. */
+    private final int[] searchedRules;
+
+    /** The sorted characters of all prefixes; the character at index i has class i + 1, other characters class 0. */
+    private final char[] alphabet;
+    private final int[] asciiClasses;
+    private final int alphabetSize;
+
+    /** The next state for each state and character class. */
+    private final int[] transitions;
+
+    /** The rules whose prefix ends in each state, in configuration order. */
+    private final int[][] outputs;
+
+    private final ThreadLocal<Matcher[]> matchers = new ThreadLocal<>();
+
+    /**
+     * Compiles an automaton.
+     *
+     * @param patterns the regular expressions to mask
+     * @param replacements the text to replace the matches of each regular expression with
+     * @throws IllegalArgumentException if a replacement refers to a group that does not exist or ends with an
+     *             unfinished escape or group reference
+     */
+    public MaskingAutomaton(final Pattern[] patterns, final String[] replacements) {
+        this.patterns = patterns.clone();
+        this.replacements = replacements.clone();
+        this.substitutions = new Substitution[patterns.length];
+        for (int i = 0; i < patterns.length; i++) {
+            substitutions[i] = new Substitution(patterns[i], replacements[i]);
+        }
+        this.prefixLengths = new int[patterns.length];
+        final String[] prefixes = new String[patterns.length];
+        final List<Integer> searched = new ArrayList<>();
+        final TreeSet<Character> chars = new TreeSet<>();
+        int totalLength = 0;
+        for (int i = 0; i < patterns.length; i++) {
+            prefixes[i] = patterns[i].flags() == 0 ? literalPrefix(patterns[i].pattern()) : Strings.EMPTY;
+            prefixLengths[i] = prefixes[i].length();
+            if (prefixes[i].isEmpty()) {
+                searched.add(i);
+            }
+            for (int j = 0; j < prefixes[i].length(); j++) {
+                chars.add(prefixes[i].charAt(j));
+            }
+            totalLength += prefixes[i].length();
+        }
+        this.searchedRules = toArray(searched);
+        this.alphabet = new char[chars.size()];
+        this.asciiClasses = new int[ASCII];
+        int index = 0;
+        for (final Character c : chars) {
+            alphabet[index++] = c;
+            if (c < ASCII) {
+                asciiClasses[c] = index;
+            }
+        }
+        this.alphabetSize = alphabet.length + 1;
+
+        // Build the trie
+        final int maxStates = totalLength + 1;
+        final int[] next = new int[maxStates * alphabetSize];
+        Arrays.fill(next, -1);
+        final List<List<Integer>> stateRules = new ArrayList<>();
+        stateRules.add(new ArrayList<Integer>());
+        for (int rule = 0; rule < prefixes.length; rule++) {
+            int state = 0;
+            for (int j = 0; j < prefixes[rule].length(); j++) {
+                final int slot = state * alphabetSize + classOf(prefixes[rule].charAt(j));
+                if (next[slot] < 0) {
+                    next[slot] = stateRules.size();
+                    stateRules.add(new ArrayList<Integer>());
+                }
+                state = next[slot];
+            }
+            if (state != 0) {
+                stateRules.get(state).add(rule);
+            }
+        }
+
+        // Turn the trie into a deterministic automaton following the failure links breadth-first
+        final int stateCount = stateRules.size();
+        final int[] failure = new int[stateCount];
+        final int[] queue = new int[stateCount];
+        int head = 0;
+        int tail = 0;
+        for (int c = 0; c < alphabetSize; c++) {
+            if (next[c] < 0) {
+                next[c] = 0;
+            } else {
+                failure[next[c]] = 0;
+                queue[tail++] = next[c];
+            }
+        }
+        while (head < tail) {
+            final int state = queue[head++];
+            for (int c = 0; c < alphabetSize; c++) {
+                final int slot = state * alphabetSize + c;
+                final int fallback = next[failure[state] * alphabetSize + c];
+                if (next[slot] < 0) {
+                    next[slot] = fallback;
+                } else {
+                    failure[next[slot]] = fallback;
+                    stateRules.get(next[slot]).addAll(stateRules.get(fallback));
+                    queue[tail++] = next[slot];
+                }
+            }
+        }
+        this.transitions = Arrays.copyOf(next, stateCount * alphabetSize);
+        this.outputs = new int[stateCount][];
+        for (int state = 0; state < stateCount; state++) {
+            final int[] rules = toArray(new ArrayList<>(new TreeSet<>(stateRules.get(state))));
+            outputs[state] = rules.length == 0 ? NO_RULES : rules;
+        }
+    }
+
+    private static int[] toArray(final List<Integer> list) {
+        final int[] result = new int[list.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = list.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the literal text every match of the specified regular expression starts with.
+     *
+     * @param regex a regular expression without flags
+     * @return the literal prefix, empty if there is none
+     */
+    static String literalPrefix(final String regex) {
+        if (hasTopLevelAlternation(regex)) {
+            return Strings.EMPTY;
+        }
+        final StringBuilder prefix = new StringBuilder();
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                if (i + 1 == regex.length() || !isEscapedPunctuation(regex.charAt(i + 1))) {
+                    break;
+                }
+                c = regex.charAt(++i);
+            } else if (METACHARACTERS.indexOf(c) >= 0) {
+                break;
+            }
+            // a quantifier that allows zero occurrences makes the character optional
+            if (i + 1 < regex.length() && OPTIONAL_QUANTIFIERS.indexOf(regex.charAt(i + 1)) >= 0) {
+                break;
+            }
+            prefix.append(c);
+        }
+        return prefix.toString();
+    }
+
+    private static boolean hasTopLevelAlternation(final String regex) {
+        int depth = 0;
+        boolean inClass = false;
+        for (int i = 0; i < regex.length(); i++) {
+            final char c = regex.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (inClass) {
+                inClass = c != ']';
+            } else if (c == '[') {
+                inClass = true;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == '|' && depth == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isEscapedPunctuation(final char c) {
+        return c < ASCII && !Character.isLetterOrDigit(c);
+    }
+
+    private int classOf(final char c) {
+        if (c < ASCII) {
+            return asciiClasses[c];
+        }
+        final int index = Arrays.binarySearch(alphabet, c);
+        return index < 0 ? 0 : index + 1;
+    }
+
+    /**
+     * Masks the matches in the characters of the buffer from the specified index to its end.
+     *
+     * @param buffer the buffer to modify
+     * @param start the index of the first character to search
+     * @return {@code true} if any text was masked
+     */
+    public boolean mask(final StringBuilder buffer, final int start) {
+        final Matcher[] ruleMatchers = getMatchers();
+        boolean masked = false;
+        int state = 0;
+        int i = start;
+        while (i < buffer.length()) {
+            state = transitions[state * alphabetSize + classOf(buffer.charAt(i++))];
+            final int[] candidates = outputs[state];
+            for (int j = 0; j < candidates.length; j++) {
+                final int rule = candidates[j];
+                final Matcher matcher = getMatcher(ruleMatchers, rule, buffer);
+                matcher.region(i - prefixLengths[rule], buffer.length());
+                if (matcher.lookingAt()) {
+                    i = replace(buffer, matcher, substitutions[rule]);
+                    state = 0;
+                    masked = true;
+                    break;
+                }
+            }
+        }
+        for (int j = 0; j < searchedRules.length; j++) {
+            final int rule = searchedRules[j];
+            final Matcher matcher = getMatcher(ruleMatchers, rule, buffer);
+            int from = start;
+            while (from <= buffer.length() && matcher.region(from, buffer.length()).find()) {
+                if (matcher.end() == matcher.start()) {
+                    from = matcher.end() + 1;
+                } else {
+                    from = replace(buffer, matcher, substitutions[rule]);
+                    masked = true;
+                }
+            }
+        }
+        for (int j = 0; j < ruleMatchers.length; j++) {
+            if (ruleMatchers[j] != null) {
+                ruleMatchers[j].reset(Strings.EMPTY);
+            }
+        }
+        return masked;
+    }
+
+    /**
+     * Replaces the current match with the expanded substitution if it refers to groups, otherwise replaces the first
+     * group of the current match, or the whole match if there is no group.
+     *
+     * @return the index in the modified buffer after the match
+     */
+    private static int replace(final StringBuilder buffer, final Matcher matcher, final Substitution substitution) {
+        final int end = matcher.end();
+        final boolean expand = substitution.hasReferences();
+        final boolean group = !expand && matcher.groupCount() > 0 && matcher.start(1) >= 0;
+        final int from = group ? matcher.start(1) : matcher.start();
+        final int to = group ? matcher.end(1) : end;
+        final String replacement = expand ? substitution.expand(matcher, buffer) : substitution.getText();
+        buffer.replace(from, to, replacement);
+        return end + replacement.length() - (to - from);
+    }
+
+    private Matcher[] getMatchers() {
+        if (!Constants.ENABLE_THREADLOCALS) {
+            return new Matcher[patterns.length];
+        }
+        Matcher[] result = matchers.get();
+        if (result == null) {
+            result = new Matcher[patterns.length];
+            matchers.set(result);
+        }
+        return result;
+    }
+
+    private Matcher getMatcher(final Matcher[] ruleMatchers, final int rule, final StringBuilder buffer) {
+        Matcher matcher = ruleMatchers[rule];
+        if (matcher == null) {
+            matcher = patterns[rule].matcher(buffer);
+            // match as if the region were the whole text
+            matcher.useTransparentBounds(true);
+            matcher.useAnchoringBounds(false);
+            ruleMatchers[rule] = matcher;
+        } else {
+            matcher.reset(buffer);
+        }
+        return matcher;
+    }
+
+    /**
+     * A replacement parsed into the text between its group references.
+     */
+    private static final class Substitution {
+
+        /** The text before each group reference, and the text after the last one. */
+        private final String[] texts;
+
+        /** The number of each referenced group, or -1 if the group is referenced by name. */
+        private final int[] groups;
+        private final String[] names;
+
+        Substitution(final Pattern pattern, final String replacement) {
+            final int groupCount = pattern.matcher(Strings.EMPTY).groupCount();
+            final List<String> textList = new ArrayList<>();
+            final List<Integer> groupList = new ArrayList<>();
+            final List<String> nameList = new ArrayList<>();
+            final StringBuilder text = new StringBuilder();
+            for (int i = 0; i < replacement.length(); i++) {
+                final char c = replacement.charAt(i);
+                if (c == '\\') {
+                    if (++i == replacement.length()) {
+                        throw new IllegalArgumentException("character to be escaped is missing in " + replacement);
+                    }
+                    text.append(replacement.charAt(i));
+                } else if (c == '$') {
+                    if (++i == replacement.length()) {
+                        throw new IllegalArgumentException("Illegal group reference: group index is missing in "
+                                + replacement);
+                    }
+                    final char next = replacement.charAt(i);
+                    if (next == '{') {
+                        final int close = replacement.indexOf('}', i);
+                        if (close < 0) {
+                            throw new IllegalArgumentException("named capturing group is missing trailing '}' in "
+                                    + replacement);
+                        }
+                        final String name = replacement.substring(i + 1, close);
+                        if (name.isEmpty() || !pattern.pattern().contains("(?<" + name + ">")) {
+                            throw new IllegalArgumentException("No group with name {" + name + "} in " + pattern);
+                        }
+                        groupList.add(-1);
+                        nameList.add(name);
+                        i = close;
+                    } else if (isDigit(next)) {
+                        int group = next - '0';
+                        if (group > groupCount) {
+                            throw new IllegalArgumentException("No group " + group + " in " + pattern);
+                        }
+                        // like Matcher, take as many digits as form an existing group number
+                        while (i + 1 < replacement.length() && isDigit(replacement.charAt(i + 1))
+                                && group * 10 + replacement.charAt(i + 1) - '0' <= groupCount) {
+                            group = group * 10 + replacement.charAt(++i) - '0';
+                        }
+                        groupList.add(group);
+                        nameList.add(null);
+                    } else {
+                        throw new IllegalArgumentException("Illegal group reference in " + replacement);
+                    }
+                    textList.add(text.toString());
+                    text.setLength(0);
+                } else {
+                    text.append(c);
+                }
+            }
+            textList.add(text.toString());
+            this.texts = textList.toArray(new String[textList.size()]);
+            this.groups = toArray(groupList);
+            this.names = nameList.toArray(new String[nameList.size()]);
+        }
+
+        private static boolean isDigit(final char c) {
+            return c >= '0' && c <= '9';
+        }
+
+        boolean hasReferences() {
+            return groups.length > 0;
+        }
+
+        /** Returns the replacement without group references. */
+        String getText() {
+            return texts[0];
+        }
+
+        /** Returns the replacement with the group references replaced by the text of the groups in the match. */
+        String expand(final Matcher matcher, final CharSequence text) {
+            final StringBuilder result = new StringBuilder();
+            for (int i = 0; i < groups.length; i++) {
+                result.append(texts[i]);
+                if (groups[i] < 0) {
+                    final String group = matcher.group(names[i]);
+                    if (group != null) {
+                        result.append(group);
+                    }
+                } else if (matcher.start(groups[i]) >= 0) {
+                    result.append(text, matcher.start(groups[i]), matcher.end(groups[i]));
+                }
+            }
+            return result.append(texts[groups.length]).toString();
+        }
+    }
+
+    /**
+     * Returns the number of rules whose regular expression is matched by searching the whole text. Used for unit
+     * testing.
+     */
+    int getSearchedRuleCount() {
+        return searchedRules.length;
+    }
+
+    @Override
+    public String toString() {
+        return "MaskingAutomaton[patterns=" + Arrays.toString(patterns) + ", replacements="
+                + Arrays.toString(replacements) + "]";
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.pattern;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.layout.PatternLayout;
+import org.apache.logging.log4j.core.util.Constants;
+import org.apache.logging.log4j.util.PerformanceSensitive;
+import org.apache.logging.log4j.util.StringBuilders;
+
+/**
+ * Masks the matches of several regular expressions in the result of a pattern, for example
+ * {@code %mask{%m}{***}{password=(\S+)}{AKIA[0-9A-Z]{16}}}.
+ *
+ * @see MaskingAutomaton
+ * @since 2.10.1
+ */
+@Plugin(name = "mask", category = PatternConverter.CATEGORY)
+@ConverterKeys({ "mask", "redact" })
+@PerformanceSensitive("allocation")
+public final class MaskingPatternConverter extends LogEventPatternConverter {
+
+    private final PatternFormatter[] formatters;
+
+    private final MaskingAutomaton automaton;
+
+    /** Receives the text of the formatters, which must not see the text rendered before this converter. */
+    private final ThreadLocal<StringBuilder> buffers = new ThreadLocal<>();
+
+    /**
+     * Construct the converter.
+     * @param formatters The PatternFormatters to generate the text to mask.
+     * @param automaton The masking rules.
+     */
+    private MaskingPatternConverter(final List<PatternFormatter> formatters, final MaskingAutomaton automaton) {
+        super("mask", "mask");
+        this.formatters = formatters.toArray(new PatternFormatter[formatters.size()]);
+        this.automaton = automaton;
+    }
+
+    /**
+     * Gets an instance of the class.
+     *
+     * @param config The current Configuration.
+     * @param options pattern options: the pattern to mask, the replacement text and one or more regular expressions.
+     * @return instance of class.
+     */
+    public static MaskingPatternConverter newInstance(final Configuration config, final String[] options) {
+        if (options.length < 3) {
+            LOGGER.error("Incorrect number of options on mask. Expected at least 3 received " + options.length);
+            return null;
+        }
+        if (options[0] == null) {
+            LOGGER.error("No pattern supplied on mask");
+            return null;
+        }
+        if (options[1] == null) {
+            LOGGER.error("No replacement supplied on mask");
+            return null;
+        }
+        final Pattern[] patterns = new Pattern[options.length - 2];
+        for (int i = 0; i < patterns.length; i++) {
+            try {
+                patterns[i] = Pattern.compile(options[i + 2]);
+            } catch (final PatternSyntaxException ex) {
+                LOGGER.error("Invalid regular expression on mask: {}", options[i + 2], ex);
+                return null;
+            }
+        }
+        final String[] replacements = new String[patterns.length];
+        Arrays.fill(replacements, options[1]);
+        final MaskingAutomaton automaton;
+        try {
+            automaton = new MaskingAutomaton(patterns, replacements);
+        } catch (final IllegalArgumentException ex) {
+            LOGGER.error("Invalid replacement on mask: {}", options[1], ex);
+            return null;
+        }
+        final PatternParser parser = PatternLayout.createPatternParser(config);
+        final List<PatternFormatter> formatters = parser.parse(options[0]);
+        return new MaskingPatternConverter(formatters, automaton);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void format(final LogEvent event, final StringBuilder toAppendTo) {
+        final StringBuilder buffer = getBuffer();
+        for (int i = 0; i < formatters.length; i++) {
+            formatters[i].format(event, buffer);
+        }
+        automaton.mask(buffer, 0);
+        toAppendTo.append(buffer);
+        StringBuilders.trimToMaxSize(buffer, Constants.MAX_REUSABLE_MESSAGE_SIZE);
+    }
+
+    private StringBuilder getBuffer() {
+        if (!Constants.ENABLE_THREADLOCALS) {
+            return new StringBuilder();
+        }
+        StringBuilder buffer = buffers.get();
+        if (buffer == null) {
+            buffer = new StringBuilder(Constants.INITIAL_REUSABLE_MESSAGE_SIZE);
+            buffers.set(buffer);
+        }
+        buffer.setLength(0);
+        return buffer;
+    }
+}
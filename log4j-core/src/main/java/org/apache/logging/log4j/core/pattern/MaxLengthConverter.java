@@ -89,7 +89,7 @@ public final class MaxLengthConverter extends LogEventPatternConverter {
         final int initialLength = toAppendTo.length();
         for (int i = 0; i < formatters.size(); i++) {
             final PatternFormatter formatter = formatters.get(i);
-            formatter.format(event, toAppendTo);
+            formatter.format(event, toAppendTo, initialLength + maxLength - toAppendTo.length());
             if (toAppendTo.length() > initialLength + maxLength) {        // stop early
                 break;
             }
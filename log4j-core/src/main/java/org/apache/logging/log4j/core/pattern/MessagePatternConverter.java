@@ -27,6 +27,7 @@ import org.apache.logging.log4j.core.util.Loader;
 import org.apache.logging.log4j.message.Message;
 import org.apache.logging.log4j.message.MultiformatMessage;
 import org.apache.logging.log4j.status.StatusLogger;
+import org.apache.logging.log4j.util.BoundedStringBuilderFormattable;
 import org.apache.logging.log4j.util.MultiFormatStringBuilderFormattable;
 import org.apache.logging.log4j.util.PerformanceSensitive;
 import org.apache.logging.log4j.util.StringBuilderFormattable;
@@ -105,6 +106,43 @@ public final class MessagePatternConverter extends LogEventPatternConverter {
         return new MessagePatternConverter(config, options);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Messages that implement {@link BoundedStringBuilderFormattable} stop formatting at the limit. If lookups are
+     * enabled and the truncated text may contain a variable, the message is formatted in full instead.
+     * </p>
+     */
+    @Override
+    public void format(final LogEvent event, final StringBuilder toAppendTo, final int maxLength) {
+        final Message msg = event.getMessage();
+        if (maxLength == Integer.MAX_VALUE || textRenderer != null || !(msg instanceof BoundedStringBuilderFormattable)
+                || msg instanceof MultiFormatStringBuilderFormattable) {
+            format(event, toAppendTo);
+            return;
+        }
+        final int offset = toAppendTo.length();
+        ((BoundedStringBuilderFormattable) msg).formatTo(toAppendTo, maxLength);
+        if (config != null && !noLookups && mayContainVariable(toAppendTo, offset)) {
+            toAppendTo.setLength(offset);
+            format(event, toAppendTo);
+        }
+    }
+
+    /**
+     * Returns {@code true} if the text from the specified index contains a variable, or ends with a '$' that may
+     * start one.
+     */
+    private static boolean mayContainVariable(final StringBuilder buffer, final int offset) {
+        final int length = buffer.length();
+        for (int i = offset; i < length - 1; i++) {
+            if (buffer.charAt(i) == '$' && buffer.charAt(i + 1) == '{') {
+                return true;
+            }
+        }
+        return length > offset && buffer.charAt(length - 1) == '$';
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -16,11 +16,19 @@
  */
 package org.apache.logging.log4j.core.pattern;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.logging.log4j.util.PerformanceSensitive;
+import org.apache.logging.log4j.util.PropertiesUtil;
 
 /**
  * Abstract base class for other pattern converters which can return only parts of their name.
+ * <p>
+ * Abbreviated names are cached, since there are few distinct logger and class names. Each converter remembers at most
+ * 4096 names by default, which can be changed with system property {@code log4j2.abbreviatedNameCacheSize} (0 disables
+ * the cache).
+ * </p>
  */
 @PerformanceSensitive("allocation")
 public abstract class NamePatternConverter extends LogEventPatternConverter {
@@ -29,6 +37,14 @@ public abstract class NamePatternConverter extends LogEventPatternConverter {
      */
     private final NameAbbreviator abbreviator;
 
+    static final int MAX_CACHE_SIZE = PropertiesUtil.getProperties().getIntegerProperty(
+            "log4j2.abbreviatedNameCacheSize", 4096);
+
+    /**
+     * Abbreviated names, null if names are not abbreviated or the cache is disabled.
+     */
+    private final ConcurrentMap<String, char[]> abbreviations;
+
     /**
      * Constructor.
      *
@@ -44,6 +60,8 @@ public abstract class NamePatternConverter extends LogEventPatternConverter {
         } else {
             abbreviator = NameAbbreviator.getDefaultAbbreviator();
         }
+        abbreviations = abbreviator == NameAbbreviator.getDefaultAbbreviator() || MAX_CACHE_SIZE <= 0 ? null
+                : new ConcurrentHashMap<String, char[]>();
     }
 
     /**
@@ -54,6 +72,28 @@ public abstract class NamePatternConverter extends LogEventPatternConverter {
      * @return The abbreviated name.
      */
     protected final void abbreviate(final String original, final StringBuilder destination) {
+        if (abbreviations == null || original == null) {
+            abbreviator.abbreviate(original, destination);
+            return;
+        }
+        final char[] cached = abbreviations.get(original);
+        if (cached != null) {
+            destination.append(cached);
+            return;
+        }
+        final int start = destination.length();
         abbreviator.abbreviate(original, destination);
+        if (abbreviations.size() < MAX_CACHE_SIZE) {
+            final char[] abbreviated = new char[destination.length() - start];
+            destination.getChars(start, destination.length(), abbreviated, 0);
+            abbreviations.putIfAbsent(original, abbreviated);
+        }
+    }
+
+    /**
+     * Returns the number of cached abbreviated names. Used for unit testing.
+     */
+    int getCacheSize() {
+        return abbreviations == null ? 0 : abbreviations.size();
     }
 }
@@ -42,10 +42,32 @@ public class PatternFormatter {
     }
     private void formatWithInfo(final LogEvent event, final StringBuilder buf) {
         final int startField = buf.length();
-        converter.format(event, buf);
+        converter.format(event, buf, field.getRequiredLength());
         field.format(startField, buf);
     }
 
+    /**
+     * Formats the event, stopping once more than {@code maxLength} characters have been appended. The first
+     * {@code maxLength} characters are the same as the ones appended by {@link #format(LogEvent, StringBuilder)}, and
+     * at least {@code maxLength + 1} characters are appended if the full text is longer.
+     *
+     * @param event the event to format
+     * @param buf the buffer to append to
+     * @param maxLength the number of characters after which formatting can stop
+     * @since 2.10.1
+     */
+    public void format(final LogEvent event, final StringBuilder buf, final int maxLength) {
+        if (skipFormattingInfo) {
+            converter.format(event, buf, maxLength);
+        } else {
+            final int startField = buf.length();
+            // Shorter text would be padded, so the converter must write at least the minimum length
+            final int required = Math.max(maxLength, field.getMinLength());
+            converter.format(event, buf, Math.min(field.getRequiredLength(), required));
+            field.format(startField, buf);
+        }
+    }
+
     public LogEventPatternConverter getConverter() {
         return converter;
     }
@@ -19,6 +19,7 @@ package org.apache.logging.log4j.core.pattern;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -29,6 +30,7 @@ import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.core.config.Configuration;
 import org.apache.logging.log4j.core.config.plugins.util.PluginManager;
 import org.apache.logging.log4j.core.config.plugins.util.PluginType;
+import org.apache.logging.log4j.core.util.Constants;
 import org.apache.logging.log4j.core.util.SystemNanoClock;
 import org.apache.logging.log4j.status.StatusLogger;
 import org.apache.logging.log4j.util.Strings;
@@ -44,6 +46,11 @@ public final class PatternParser {
     static final String DISABLE_ANSI = "disableAnsi";
     static final String NO_CONSOLE_NO_ANSI = "noConsoleNoAnsi";
 
+    /**
+     * Whether the JVM has no console, in which case standard output is typically not a terminal.
+     */
+    private static final boolean NO_CONSOLE = System.console() == null;
+
     /**
      * Escape character for format specifier.
      */
@@ -493,6 +500,20 @@ public final class PatternParser {
         }
     }
 
+    /**
+     * Returns whether an {@link AnsiConverter} must not output ANSI escape codes.
+     *
+     * @param options the options of the converter, which include the {@code disableAnsi} and
+     *            {@code noConsoleNoAnsi} settings
+     * @return {@code true} if ANSI escape codes are disabled, or if there is no console and ANSI escape codes are
+     *         disabled without a console by the options or by system property {@code log4j2.noConsoleNoAnsi}
+     */
+    static boolean isAnsiDisabled(final String[] options) {
+        final String string = Arrays.toString(options);
+        return string.contains(DISABLE_ANSI + "=true")
+                || NO_CONSOLE && (Constants.NO_CONSOLE_NO_ANSI || string.contains(NO_CONSOLE_NO_ANSI + "=true"));
+    }
+
     /**
      * Creates a new PatternConverter.
      *
@@ -37,6 +37,8 @@ public final class RegexReplacement {
 
     private final String substitution;
 
+    private final RegexReplacer replacer;
+
     /**
      * Private constructor.
      *
@@ -46,6 +48,7 @@ public final class RegexReplacement {
     private RegexReplacement(final Pattern pattern, final String substitution) {
         this.pattern = pattern;
         this.substitution = substitution;
+        this.replacer = new RegexReplacer(pattern, substitution);
     }
 
     /**
@@ -57,6 +60,34 @@ public final class RegexReplacement {
         return pattern.matcher(msg).replaceAll(substitution);
     }
 
+    /**
+     * Performs the replacement on the characters of the buffer from the specified index, without creating Strings.
+     * @param buffer The buffer to modify.
+     * @param start The index of the first character to match against.
+     * @since 2.10.1
+     */
+    public void format(final StringBuilder buffer, final int start) {
+        replacer.replace(buffer, start);
+    }
+
+    /**
+     * Returns the regular expression to locate.
+     * @return the regular expression Pattern.
+     * @since 2.10.1
+     */
+    public Pattern getPattern() {
+        return pattern;
+    }
+
+    /**
+     * Returns the replacement value.
+     * @return the substitution String.
+     * @since 2.10.1
+     */
+    public String getSubstitution() {
+        return substitution;
+    }
+
     @Override
     public String toString() {
         return "replace(regex=" + pattern.pattern() + ", replacement=" + substitution + ')';
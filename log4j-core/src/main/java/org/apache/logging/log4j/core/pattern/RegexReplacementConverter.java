@@ -23,6 +23,8 @@ import org.apache.logging.log4j.core.LogEvent;
 import org.apache.logging.log4j.core.config.Configuration;
 import org.apache.logging.log4j.core.config.plugins.Plugin;
 import org.apache.logging.log4j.core.layout.PatternLayout;
+import org.apache.logging.log4j.core.util.Constants;
+import org.apache.logging.log4j.util.StringBuilders;
 
 /**
  * Replacement pattern converter.
@@ -31,11 +33,12 @@ import org.apache.logging.log4j.core.layout.PatternLayout;
 @ConverterKeys({ "replace" })
 public final class RegexReplacementConverter extends LogEventPatternConverter {
 
-    private final Pattern pattern;
+    private final RegexReplacer replacer;
 
-    private final String substitution;
+    private final PatternFormatter[] formatters;
 
-    private final List<PatternFormatter> formatters;
+    /** Receives the text of the formatters, which must not see the text rendered before this converter. */
+    private final ThreadLocal<StringBuilder> buffers = new ThreadLocal<>();
 
     /**
      * Construct the converter.
@@ -46,9 +49,8 @@ public final class RegexReplacementConverter extends LogEventPatternConverter {
     private RegexReplacementConverter(final List<PatternFormatter> formatters,
                                       final Pattern pattern, final String substitution) {
         super("replace", "replace");
-        this.pattern = pattern;
-        this.substitution = substitution;
-        this.formatters = formatters;
+        this.replacer = new RegexReplacer(pattern, substitution);
+        this.formatters = formatters.toArray(new PatternFormatter[formatters.size()]);
     }
 
     /**
@@ -88,10 +90,25 @@ public final class RegexReplacementConverter extends LogEventPatternConverter {
      */
     @Override
     public void format(final LogEvent event, final StringBuilder toAppendTo) {
-        final StringBuilder buf = new StringBuilder();
-        for (final PatternFormatter formatter : formatters) {
-            formatter.format(event, buf);
+        final StringBuilder buffer = getBuffer();
+        for (int i = 0; i < formatters.length; i++) {
+            formatters[i].format(event, buffer);
         }
-        toAppendTo.append(pattern.matcher(buf.toString()).replaceAll(substitution));
+        replacer.replace(buffer, 0);
+        toAppendTo.append(buffer);
+        StringBuilders.trimToMaxSize(buffer, Constants.MAX_REUSABLE_MESSAGE_SIZE);
+    }
+
+    private StringBuilder getBuffer() {
+        if (!Constants.ENABLE_THREADLOCALS) {
+            return new StringBuilder();
+        }
+        StringBuilder buffer = buffers.get();
+        if (buffer == null) {
+            buffer = new StringBuilder(Constants.INITIAL_REUSABLE_MESSAGE_SIZE);
+            buffers.set(buffer);
+        }
+        buffer.setLength(0);
+        return buffer;
     }
 }
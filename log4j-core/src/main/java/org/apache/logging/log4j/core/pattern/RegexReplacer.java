@@ -0,0 +1,421 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.pattern;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.logging.log4j.core.util.Constants;
+import org.apache.logging.log4j.util.PerformanceSensitive;
+import org.apache.logging.log4j.util.StringBuilders;
+import org.apache.logging.log4j.util.Strings;
+
+/**
+ * Replaces all matches of a regular expression in a {@link StringBuilder}, producing the same text as
+ * {@link Matcher#replaceAll(String)} without creating Strings.
+ * <p>
+ * Patterns without regular expression constructs are replaced with a plain text search, and patterns that consist of
+ * a single ASCII character class, optionally followed by {@code +} (for example {@code \d} or {@code [0-9a-f]+}),
+ * are replaced by scanning the characters; neither uses {@code java.util.regex} if the substitution does not refer
+ * to groups. Other patterns are matched directly against the buffer with a {@link Matcher} that is reused per
+ * thread.
+ * </p>
+ *
+ * @since 2.10.1
+ */
+@PerformanceSensitive("allocation")
+public final class RegexReplacer {
+
+    private static final String METACHARACTERS = "\\[](){}.*+?^$|";
+    private static final int ASCII = 128;
+
+    private static final ThreadLocal<StringBuilder> SCRATCH = new ThreadLocal<>();
+
+    private final Pattern pattern;
+    private final String substitution;
+
+    /** The text to search for, or {@code null} if the pattern is not a plain string. */
+    private final String literal;
+
+    /** The ASCII characters matched by a pattern that is a single character class, or {@code null}. */
+    private final boolean[] charClass;
+    private final boolean charClassRepeated;
+
+    /**
+     * The parsed substitution: Strings, group numbers and {@link NamedGroup}s, or {@code null} if the substitution is
+     * invalid.
+     */
+    private final Object[] template;
+
+    /** The unescaped substitution if it does not refer to groups, otherwise {@code null}. */
+    private final String literalSubstitution;
+
+    private final ThreadLocal<Matcher> matchers = new ThreadLocal<>();
+
+    /**
+     * Constructs a new replacer.
+     *
+     * @param pattern the regular expression to replace
+     * @param substitution the replacement, which may refer to groups as in {@link Matcher#replaceAll(String)}
+     */
+    public RegexReplacer(final Pattern pattern, final String substitution) {
+        this.pattern = pattern;
+        this.substitution = substitution;
+        this.template = parseSubstitution(substitution, pattern.matcher("").groupCount());
+        this.literalSubstitution = template != null && template.length <= 1
+                && (template.length == 0 || template[0] instanceof String)
+                ? (template.length == 0 ? "" : (String) template[0]) : null;
+        this.literal = parseLiteral(pattern);
+        final String regex = pattern.pattern();
+        this.charClassRepeated = regex.endsWith("+") && !regex.endsWith("\\+");
+        this.charClass = literal == null ? parseCharClass(pattern, charClassRepeated) : null;
+    }
+
+    /**
+     * Returns the text a pattern matches if it is a plain string.
+     */
+    private static String parseLiteral(final Pattern pattern) {
+        final String regex = pattern.pattern();
+        if (pattern.flags() == Pattern.LITERAL) {
+            return regex.isEmpty() ? null : regex;
+        }
+        if (pattern.flags() != 0) {
+            return null;
+        }
+        final StringBuilder result = new StringBuilder(regex.length());
+        for (int i = 0; i < regex.length(); i++) {
+            final char c = regex.charAt(i);
+            if (c == '\\') {
+                if (i + 1 == regex.length() || !isEscapedPunctuation(regex.charAt(i + 1))) {
+                    return null;
+                }
+                result.append(regex.charAt(++i));
+            } else if (METACHARACTERS.indexOf(c) >= 0) {
+                return null;
+            } else {
+                result.append(c);
+            }
+        }
+        return result.length() == 0 ? null : result.toString();
+    }
+
+    private static boolean isEscapedPunctuation(final char c) {
+        return c < ASCII && !Character.isLetterOrDigit(c);
+    }
+
+    /**
+     * Returns the characters matched by a pattern that consists of a single ASCII character class.
+     */
+    private static boolean[] parseCharClass(final Pattern pattern, final boolean repeated) {
+        if (pattern.flags() != 0) {
+            return null;
+        }
+        final String regex = pattern.pattern();
+        final int end = repeated ? regex.length() - 1 : regex.length();
+        final boolean[] chars = new boolean[ASCII];
+        if (end == 2 && regex.charAt(0) == '\\') {
+            return addEscapedClass(regex.charAt(1), chars) ? chars : null;
+        }
+        if (end < 3 || regex.charAt(0) != '[' || regex.charAt(end - 1) != ']' || regex.charAt(1) == '^') {
+            return null;
+        }
+        int i = 1;
+        while (i < end - 1) {
+            char c = regex.charAt(i);
+            if (c == '[' || c == ']' || c == '&' || c >= ASCII) {
+                return null;
+            }
+            if (c == '\\') {
+                if (i + 1 >= end - 1) {
+                    return null;
+                }
+                final char escaped = regex.charAt(i + 1);
+                i += 2;
+                if (isEscapedPunctuation(escaped)) {
+                    c = escaped;
+                } else if (addEscapedClass(escaped, chars)) {
+                    if (regex.charAt(i) == '-' && i + 1 < end - 1) {
+                        return null;
+                    }
+                    continue;
+                } else {
+                    return null;
+                }
+            } else {
+                i++;
+            }
+            // a range like a-z, unless the '-' is the last character of the class
+            if (i + 1 < end - 1 && regex.charAt(i) == '-') {
+                final char last = regex.charAt(i + 1);
+                if (last == '\\' || last == '[' || last >= ASCII || last < c) {
+                    return null;
+                }
+                for (char member = c; member <= last; member++) {
+                    chars[member] = true;
+                }
+                i += 2;
+            } else {
+                chars[c] = true;
+            }
+        }
+        return chars;
+    }
+
+    private static boolean addEscapedClass(final char name, final boolean[] chars) {
+        switch (name) {
+        case 'd':
+            addRange('0', '9', chars);
+            return true;
+        case 'w':
+            addRange('a', 'z', chars);
+            addRange('A', 'Z', chars);
+            addRange('0', '9', chars);
+            chars['_'] = true;
+            return true;
+        case 's':
+            chars[' '] = chars['\t'] = chars['\n'] = chars['\u000B'] = chars['\f'] = chars['\r'] = true;
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    private static void addRange(final char first, final char last, final boolean[] chars) {
+        for (char c = first; c <= last; c++) {
+            chars[c] = true;
+        }
+    }
+
+    /**
+     * Parses the substitution like {@link Matcher#appendReplacement(StringBuffer, String)} does.
+     *
+     * @return the parts of the substitution, or {@code null} if it is invalid
+     */
+    private static Object[] parseSubstitution(final String substitution, final int groupCount) {
+        final List<Object> parts = new ArrayList<>();
+        final StringBuilder text = new StringBuilder();
+        int i = 0;
+        while (i < substitution.length()) {
+            final char c = substitution.charAt(i++);
+            if (c == '\\') {
+                if (i == substitution.length()) {
+                    return null;
+                }
+                text.append(substitution.charAt(i++));
+            } else if (c == '$') {
+                if (i == substitution.length()) {
+                    return null;
+                }
+                final Object group;
+                if (substitution.charAt(i) == '{') {
+                    final int close = substitution.indexOf('}', i);
+                    if (close <= i + 1) {
+                        return null;
+                    }
+                    group = new NamedGroup(substitution.substring(i + 1, close));
+                    i = close + 1;
+                } else {
+                    int number = substitution.charAt(i) - '0';
+                    if (number < 0 || number > 9 || number > groupCount) {
+                        return null;
+                    }
+                    i++;
+                    while (i < substitution.length()) {
+                        final int digit = substitution.charAt(i) - '0';
+                        if (digit < 0 || digit > 9 || number * 10 + digit > groupCount) {
+                            break;
+                        }
+                        number = number * 10 + digit;
+                        i++;
+                    }
+                    group = number;
+                }
+                if (text.length() > 0) {
+                    parts.add(text.toString());
+                    text.setLength(0);
+                }
+                parts.add(group);
+            } else {
+                text.append(c);
+            }
+        }
+        if (text.length() > 0) {
+            parts.add(text.toString());
+        }
+        return parts.toArray();
+    }
+
+    /**
+     * Replaces all matches in the characters of the buffer from the specified index to its end.
+     *
+     * @param buffer the buffer to modify
+     * @param start the index of the first character to search
+     */
+    public void replace(final StringBuilder buffer, final int start) {
+        if (literalSubstitution != null) {
+            if (literal != null) {
+                replaceLiteral(buffer, start);
+                return;
+            }
+            if (charClass != null) {
+                replaceCharClass(buffer, start);
+                return;
+            }
+        }
+        if (template == null) {
+            // let java.util.regex report the invalid substitution
+            final String result = pattern.matcher(buffer.substring(start)).replaceAll(substitution);
+            buffer.setLength(start);
+            buffer.append(result);
+            return;
+        }
+        replaceMatches(buffer, start);
+    }
+
+    private void replaceLiteral(final StringBuilder buffer, final int start) {
+        int index = buffer.indexOf(literal, start);
+        while (index >= 0) {
+            buffer.replace(index, index + literal.length(), literalSubstitution);
+            index = buffer.indexOf(literal, index + literalSubstitution.length());
+        }
+    }
+
+    private void replaceCharClass(final StringBuilder buffer, final int start) {
+        final int substitutionLength = literalSubstitution.length();
+        int i = start;
+        while (i < buffer.length()) {
+            if (!matches(buffer.charAt(i))) {
+                i++;
+                continue;
+            }
+            int end = i + 1;
+            if (charClassRepeated) {
+                while (end < buffer.length() && matches(buffer.charAt(end))) {
+                    end++;
+                }
+            }
+            if (end - i == 1 && substitutionLength == 1) {
+                buffer.setCharAt(i, literalSubstitution.charAt(0));
+            } else {
+                buffer.replace(i, end, literalSubstitution);
+            }
+            i += substitutionLength;
+        }
+    }
+
+    private boolean matches(final char c) {
+        return c < ASCII && charClass[c];
+    }
+
+    private void replaceMatches(final StringBuilder buffer, final int start) {
+        final Matcher matcher = getMatcher(buffer);
+        matcher.region(start, buffer.length());
+        if (matcher.find()) {
+            final StringBuilder result = getScratch();
+            int copied = start;
+            do {
+                result.append(buffer, copied, matcher.start());
+                appendSubstitution(matcher, buffer, result);
+                copied = matcher.end();
+            } while (matcher.find());
+            result.append(buffer, copied, buffer.length());
+            buffer.setLength(start);
+            buffer.append(result);
+            StringBuilders.trimToMaxSize(result, Constants.MAX_REUSABLE_MESSAGE_SIZE);
+        }
+        matcher.reset(Strings.EMPTY);
+    }
+
+    private void appendSubstitution(final Matcher matcher, final StringBuilder buffer, final StringBuilder result) {
+        for (final Object part : template) {
+            if (part instanceof String) {
+                result.append((String) part);
+            } else if (part instanceof Integer) {
+                final int group = (Integer) part;
+                final int groupStart = matcher.start(group);
+                if (groupStart >= 0) {
+                    result.append(buffer, groupStart, matcher.end(group));
+                }
+            } else {
+                final String value = matcher.group(((NamedGroup) part).name);
+                if (value != null) {
+                    result.append(value);
+                }
+            }
+        }
+    }
+
+    private Matcher getMatcher(final StringBuilder buffer) {
+        if (!Constants.ENABLE_THREADLOCALS) {
+            return pattern.matcher(buffer);
+        }
+        Matcher matcher = matchers.get();
+        if (matcher == null) {
+            matcher = pattern.matcher(buffer);
+            matchers.set(matcher);
+        } else {
+            matcher.reset(buffer);
+        }
+        return matcher;
+    }
+
+    private static StringBuilder getScratch() {
+        if (!Constants.ENABLE_THREADLOCALS) {
+            return new StringBuilder();
+        }
+        StringBuilder result = SCRATCH.get();
+        if (result == null) {
+            result = new StringBuilder(Constants.INITIAL_REUSABLE_MESSAGE_SIZE);
+            SCRATCH.set(result);
+        }
+        result.setLength(0);
+        return result;
+    }
+
+    /**
+     * Returns whether matches are found with {@code java.util.regex}. Used for unit testing.
+     */
+    boolean usesMatcher() {
+        return literalSubstitution == null || (literal == null && charClass == null);
+    }
+
+    public Pattern getPattern() {
+        return pattern;
+    }
+
+    public String getSubstitution() {
+        return substitution;
+    }
+
+    @Override
+    public String toString() {
+        return "replace(regex=" + pattern.pattern() + ", replacement=" + substitution + ')';
+    }
+
+    /**
+     * A reference to a named group in the substitution.
+     */
+    private static final class NamedGroup {
+        private final String name;
+
+        NamedGroup(final String name) {
+            this.name = name;
+        }
+    }
+}
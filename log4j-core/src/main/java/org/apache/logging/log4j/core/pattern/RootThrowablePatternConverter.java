@@ -56,16 +56,30 @@ public final class RootThrowablePatternConverter extends ThrowablePatternConvert
         return new RootThrowablePatternConverter(config, options);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The root cause is printed first, so the full text is formatted.
+     * </p>
+     */
+    @Override
+    public void format(final LogEvent event, final StringBuilder toAppendTo, final int maxLength) {
+        format(event, toAppendTo);
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public void format(final LogEvent event, final StringBuilder toAppendTo) {
-        final ThrowableProxy proxy = event.getThrownProxy();
         final Throwable throwable = event.getThrown();
         if (throwable != null && options.anyLines()) {
+            if (formatRepeat(event, throwable, toAppendTo)) {
+                return;
+            }
+            final ThrowableProxy proxy = event.getThrownProxy();
             if (proxy == null) {
-                super.format(event, toAppendTo);
+                formatThrowable(event, throwable, toAppendTo);
                 return;
             }
             final String suffix = getSuffix(event);
@@ -17,7 +17,7 @@
 package org.apache.logging.log4j.core.pattern;
 
 import java.io.PrintWriter;
-import java.io.StringWriter;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -25,8 +25,10 @@ import java.util.List;
 import org.apache.logging.log4j.core.LogEvent;
 import org.apache.logging.log4j.core.config.Configuration;
 import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.impl.ThrowableFingerprintTable;
 import org.apache.logging.log4j.core.impl.ThrowableFormatOptions;
 import org.apache.logging.log4j.core.layout.PatternLayout;
+import org.apache.logging.log4j.core.util.StringBuilderWriter;
 import org.apache.logging.log4j.util.Strings;
 
 
@@ -47,6 +49,11 @@ public class ThrowablePatternConverter extends LogEventPatternConverter {
      */
     protected final ThrowableFormatOptions options;
 
+    /**
+     * Occurrences of stack traces, or {@code null} if repeats are formatted in full.
+     */
+    private final ThrowableFingerprintTable fingerprints;
+
     /**
      * Constructor.
      * @param name Name of converter.
@@ -84,7 +91,8 @@ public class ThrowablePatternConverter extends LogEventPatternConverter {
         } else {
             this.formatters = Collections.emptyList();
         }
-
+        this.fingerprints = this.options.getDedupWindowMillis() > 0 ? new ThrowableFingerprintTable(
+                this.options.getDedupWindowMillis(), ThrowableFingerprintTable.DEFAULT_MAX_SIZE) : null;
     }
 
     /**
@@ -105,14 +113,80 @@ public class ThrowablePatternConverter extends LogEventPatternConverter {
      */
     @Override
     public void format(final LogEvent event, final StringBuilder buffer) {
+        formatLimited(event, buffer, Integer.MAX_VALUE);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Unless lines are limited, joined with another separator or suffixed, the stack trace is no longer appended
+     * after the limit.
+     * </p>
+     */
+    @Override
+    public void format(final LogEvent event, final StringBuilder buffer, final int maxLength) {
+        formatLimited(event, buffer, maxLength);
+    }
+
+    private void formatLimited(final LogEvent event, final StringBuilder buffer, final int maxLength) {
+        final int initialLength = buffer.length();
         final Throwable t = event.getThrown();
+        if (t != null && options.anyLines() && !isSubShortOption() && formatRepeat(event, t, buffer)) {
+            return;
+        }
+        formatThrowable(event, t, buffer, Math.max(0, maxLength - (buffer.length() - initialLength)));
+    }
 
+    /**
+     * Formats the specified throwable of the event without checking whether it is a repeat.
+     */
+    final void formatThrowable(final LogEvent event, final Throwable t, final StringBuilder buffer) {
+        formatThrowable(event, t, buffer, Integer.MAX_VALUE);
+    }
+
+    private void formatThrowable(final LogEvent event, final Throwable t, final StringBuilder buffer,
+            final int maxLength) {
         if (isSubShortOption()) {
             formatSubShortOption(t, getSuffix(event), buffer);
         }
         else if (t != null && options.anyLines()) {
-            formatOption(t, getSuffix(event), buffer);
+            formatOption(t, getSuffix(event), buffer, maxLength);
+        }
+    }
+
+    /**
+     * With the {@code dedup} option, replaces a stack trace that already occurred within the configured window by a
+     * short reference to its first occurrence, and tags first occurrences with that reference.
+     *
+     * @param event the event being formatted
+     * @param throwable the throwable of the event
+     * @param buffer the buffer to append to
+     * @return {@code true} if the reference to an earlier occurrence was appended, {@code false} if the stack trace
+     *          must be formatted
+     */
+    final boolean formatRepeat(final LogEvent event, final Throwable throwable, final StringBuilder buffer) {
+        if (fingerprints == null) {
+            return false;
         }
+        final long fingerprint = ThrowableFingerprintTable.fingerprint(throwable);
+        final int count = fingerprints.record(fingerprint, event.getTimeMillis());
+        final int len = buffer.length();
+        if (len > 0 && !Character.isWhitespace(buffer.charAt(len - 1))) {
+            buffer.append(' ');
+        }
+        if (count == 1) {
+            buffer.append('#');
+            ThrowableFingerprintTable.formatReference(fingerprint, buffer);
+            buffer.append(' ');
+            return false;
+        }
+        buffer.append("same as #");
+        ThrowableFingerprintTable.formatReference(fingerprint, buffer);
+        buffer.append(", ").append(count).append(" times");
+        if (options.allLines() && Strings.LINE_SEPARATOR.equals(options.getSeparator())) {
+            buffer.append(Strings.LINE_SEPARATOR);
+        }
+        return true;
     }
 
     private boolean isSubShortOption() {
@@ -171,36 +245,70 @@ public class ThrowablePatternConverter extends LogEventPatternConverter {
         }
     }
 
-    private void formatOption(final Throwable throwable, final String suffix, final StringBuilder buffer) {
-        final StringWriter w = new StringWriter();
-
-        throwable.printStackTrace(new PrintWriter(w));
+    private void formatOption(final Throwable throwable, final String suffix, final StringBuilder buffer,
+            final int maxLength) {
         final int len = buffer.length();
         if (len > 0 && !Character.isWhitespace(buffer.charAt(len - 1))) {
             buffer.append(' ');
         }
-        if (!options.allLines() || !Strings.LINE_SEPARATOR.equals(options.getSeparator()) || Strings.isNotBlank(suffix)) {
-            final StringBuilder sb = new StringBuilder();
-            final String[] array = w.toString().split(Strings.LINE_SEPARATOR);
-            final int limit = options.minLines(array.length) - 1;
-            final boolean suffixNotBlank = Strings.isNotBlank(suffix);
-            for (int i = 0; i <= limit; ++i) {
-                sb.append(array[i]);
-                if (suffixNotBlank) {
-                    sb.append(' ');
-                    sb.append(suffix);
-                }
-                if (i < limit) {
-                    sb.append(options.getSeparator());
-                }
-            }
-            buffer.append(sb.toString());
-
+        final int start = buffer.length();
+        final boolean suffixNotBlank = Strings.isNotBlank(suffix);
+        if (!options.allLines() || !Strings.LINE_SEPARATOR.equals(options.getSeparator()) || suffixNotBlank) {
+            throwable.printStackTrace(new PrintWriter(new StringBuilderWriter(buffer)));
+            formatLines(buffer, start, suffixNotBlank ? suffix : null);
+        } else if (maxLength == Integer.MAX_VALUE) {
+            throwable.printStackTrace(new PrintWriter(new StringBuilderWriter(buffer)));
         } else {
-            buffer.append(w.toString());
+            final int remaining = Math.max(0, maxLength - (start - len));
+            throwable.printStackTrace(new PrintWriter(new TruncatingWriter(buffer, start + remaining)));
         }
     }
 
+    /**
+     * Applies the line limit and separator of this converter to the stack trace that was appended to the buffer at the
+     * specified index. Produces the same text as splitting the stack trace on the line separator and joining the kept
+     * lines with the configured separator, without creating a String per line.
+     *
+     * @param buffer the buffer holding the stack trace
+     * @param start the index of the stack trace in the buffer
+     * @param suffix text to append to each line, or {@code null}
+     */
+    final void formatLines(final StringBuilder buffer, final int start, final String suffix) {
+        final String lineSeparator = Strings.LINE_SEPARATOR;
+        final int separatorLength = lineSeparator.length();
+        final int length = buffer.length();
+        // Like String.split(), ignore trailing line separators
+        int end = length;
+        while (end - start >= separatorLength && buffer.lastIndexOf(lineSeparator, end - 1) == end - separatorLength) {
+            end -= separatorLength;
+        }
+        int lineCount = 1;
+        for (int i = indexOf(buffer, start, end); i >= 0; i = indexOf(buffer, i + separatorLength, end)) {
+            lineCount++;
+        }
+        final int limit = options.minLines(lineCount);
+        final String separator = options.getSeparator();
+        int lineStart = start;
+        for (int i = 0; i < limit; i++) {
+            final int index = indexOf(buffer, lineStart, end);
+            final int lineEnd = index < 0 ? end : index;
+            buffer.append(buffer, lineStart, lineEnd);
+            if (suffix != null) {
+                buffer.append(' ').append(suffix);
+            }
+            if (i < limit - 1) {
+                buffer.append(separator);
+            }
+            lineStart = lineEnd + separatorLength;
+        }
+        buffer.delete(start, length);
+    }
+
+    private static int indexOf(final StringBuilder buffer, final int from, final int end) {
+        final int index = buffer.indexOf(Strings.LINE_SEPARATOR, from);
+        return index < 0 || index + Strings.LINE_SEPARATOR.length() > end ? -1 : index;
+    }
+
     /**
      * This converter obviously handles throwables.
      *
@@ -212,6 +320,9 @@ public class ThrowablePatternConverter extends LogEventPatternConverter {
     }
 
     protected String getSuffix(final LogEvent event) {
+        if (formatters.isEmpty()) {
+            return Strings.EMPTY;
+        }
         //noinspection ForLoopReplaceableByForEach
         final StringBuilder toAppendTo = new StringBuilder();
         for (int i = 0, size = formatters.size(); i <  size; i++) {
@@ -219,4 +330,66 @@ public class ThrowablePatternConverter extends LogEventPatternConverter {
         }
         return toAppendTo.toString();
     }
+
+    /**
+     * Appends to a StringBuilder and drops all text after one character beyond a limit.
+     */
+    private static final class TruncatingWriter extends StringBuilderWriter {
+
+        private static final long serialVersionUID = 1L;
+        private final int limit;
+
+        TruncatingWriter(final StringBuilder builder, final int limit) {
+            super(builder);
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(final String value) {
+            if (value != null) {
+                append(value, 0, value.length());
+            }
+        }
+
+        @Override
+        public void write(final String value, final int offset, final int length) {
+            append(value, offset, offset + length);
+        }
+
+        @Override
+        public void write(final char[] value, final int offset, final int length) {
+            final int room = limit + 1 - getBuilder().length();
+            if (value != null && room > 0) {
+                getBuilder().append(value, offset, Math.min(length, room));
+            }
+        }
+
+        @Override
+        public void write(final int c) {
+            if (getBuilder().length() <= limit) {
+                getBuilder().append((char) c);
+            }
+        }
+
+        @Override
+        public Writer append(final char value) {
+            write(value);
+            return this;
+        }
+
+        @Override
+        public Writer append(final CharSequence value) {
+            final CharSequence text = value == null ? "null" : value;
+            return append(text, 0, text.length());
+        }
+
+        @Override
+        public Writer append(final CharSequence value, final int start, final int end) {
+            final int room = limit + 1 - getBuilder().length();
+            if (room > 0) {
+                getBuilder().append(value, start, Math.min(end, start + room));
+            }
+            return this;
+        }
+    }
 }
@@ -0,0 +1,420 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.tools;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.MarkerManager;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.core.layout.CompactBinaryLayout;
+import org.apache.logging.log4j.core.layout.PatternLayout;
+import org.apache.logging.log4j.core.tools.picocli.CommandLine;
+import org.apache.logging.log4j.core.tools.picocli.CommandLine.Command;
+import org.apache.logging.log4j.core.tools.picocli.CommandLine.Option;
+import org.apache.logging.log4j.core.tools.picocli.CommandLine.Parameters;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.apache.logging.log4j.spi.MutableThreadContextStack;
+import org.apache.logging.log4j.util.SortedArrayStringMap;
+
+/**
+ * Reads log events written by {@link CompactBinaryLayout}.
+ * <p>
+ * Messages that were written as a format string with parameters are returned as {@link ParameterizedMessage}s, so they
+ * are formatted on demand. Exceptions are returned as {@link RecordedThrowable}s that print the original stack trace.
+ * </p>
+ * <p>
+ * Usage to print binary log files as text:
+ * </p>
+ * <pre>
+ * java org.apache.logging.log4j.core.tools.CompactBinaryLogReader [--pattern &lt;pattern&gt;] &lt;file&gt;...
+ * </pre>
+ *
+ * @since 2.10.1
+ */
+public final class CompactBinaryLogReader implements Closeable {
+
+    /**
+     * The pattern used to print events when no pattern is specified on the command line.
+     */
+    public static final String DEFAULT_PATTERN = "%d{ISO8601} %-5level [%t] %c - %m%n%ex";
+
+    @Command(name = "CompactBinaryLogReader")
+    public static class CommandLineArguments extends BasicCommandLineArguments implements Runnable {
+
+        @Option(names = { "--pattern", "-p" }, description = "Specifies the PatternLayout pattern to print events with.")
+        private String pattern = DEFAULT_PATTERN;
+
+        @Parameters(description = "The binary log files to print.")
+        private List<File> files = new ArrayList<>();
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        public List<File> getFiles() {
+            return files;
+        }
+
+        public void setPattern(final String pattern) {
+            this.pattern = pattern;
+        }
+
+        public void setFiles(final List<File> files) {
+            this.files = files;
+        }
+
+        @Override
+        public void run() {
+            if (isHelp() || files.isEmpty()) {
+                CommandLine.usage(this, System.err);
+                return;
+            }
+            final PatternLayout layout = PatternLayout.newBuilder().withPattern(pattern).build();
+            for (final File file : files) {
+                try (final CompactBinaryLogReader reader = new CompactBinaryLogReader(
+                        new BufferedInputStream(new FileInputStream(file)))) {
+                    print(reader, layout, System.out);
+                } catch (final IOException e) {
+                    System.err.println(file + ": " + e);
+                }
+            }
+            System.out.flush();
+        }
+
+        @Override
+        public String toString() {
+            return "CommandLineArguments [pattern=" + pattern + ", files=" + files + "]";
+        }
+    }
+
+    public static void main(final String[] args) {
+        CommandLine.run(new CommandLineArguments(), System.err, args);
+    }
+
+    /**
+     * Prints all events of the specified reader with the specified layout.
+     *
+     * @param reader the source of the events
+     * @param layout the layout that formats the events
+     * @param out the stream to print to
+     * @throws IOException if the events cannot be read
+     */
+    public static void print(final CompactBinaryLogReader reader, final PatternLayout layout, final PrintStream out)
+            throws IOException {
+        LogEvent event;
+        while ((event = reader.read()) != null) {
+            out.print(layout.toSerializable(event));
+        }
+    }
+
+    private final InputStream in;
+    private final List<String> dictionary = new ArrayList<>();
+    private long segmentBaseMillis;
+    private byte[] record = new byte[512];
+    private int position;
+    private int limit;
+
+    /**
+     * Constructs a reader of the specified stream, which is closed when this reader is closed.
+     *
+     * @param in the binary log data, typically buffered
+     */
+    public CompactBinaryLogReader(final InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Reads the next event.
+     *
+     * @return the next event, or {@code null} at the end of the stream
+     * @throws EOFException if the stream ends within a record, for example because the writer was terminated
+     * @throws IOException if the stream cannot be read or contains invalid data
+     */
+    public LogEvent read() throws IOException {
+        while (readRecord()) {
+            final byte type = record[position++];
+            switch (type) {
+                case CompactBinaryLayout.RECORD_HEADER:
+                    readHeader();
+                    break;
+                case CompactBinaryLayout.RECORD_SEGMENT:
+                    dictionary.clear();
+                    segmentBaseMillis = readZigZag();
+                    break;
+                case CompactBinaryLayout.RECORD_STRING:
+                    dictionary.add(readString());
+                    break;
+                case CompactBinaryLayout.RECORD_EVENT:
+                    return readEvent();
+                default:
+                    // records of unknown types are skipped
+                    break;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private boolean readRecord() throws IOException {
+        final int first = in.read();
+        if (first < 0) {
+            return false;
+        }
+        long length = first & 0x7F;
+        int shift = 7;
+        int b = first;
+        while ((b & 0x80) != 0) {
+            b = in.read();
+            if (b < 0) {
+                throw new EOFException("Truncated record length");
+            }
+            length |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        }
+        if (length < 1 || length > Integer.MAX_VALUE) {
+            throw new IOException("Invalid record length " + length);
+        }
+        if (length > record.length) {
+            record = new byte[(int) length];
+        }
+        int read = 0;
+        while (read < length) {
+            final int count = in.read(record, read, (int) length - read);
+            if (count < 0) {
+                throw new EOFException("Truncated record: expected " + length + " bytes but found " + read);
+            }
+            read += count;
+        }
+        position = 0;
+        limit = (int) length;
+        return true;
+    }
+
+    private void readHeader() throws IOException {
+        final byte[] magic = CompactBinaryLayout.MAGIC;
+        if (limit - position < magic.length
+                || !Arrays.equals(magic, Arrays.copyOfRange(record, position, position + magic.length))) {
+            throw new IOException("Not a compact binary log");
+        }
+        position += magic.length;
+        final long version = readVarLong();
+        if (version > CompactBinaryLayout.VERSION) {
+            throw new IOException("Unsupported compact binary log version " + version);
+        }
+        dictionary.clear();
+    }
+
+    private LogEvent readEvent() throws IOException {
+        final int flags = (int) readVarLong();
+        final Log4jLogEvent.Builder builder = Log4jLogEvent.newBuilder();
+        builder.setTimeMillis(segmentBaseMillis + readZigZag());
+        final int intLevel = (int) readVarLong();
+        builder.setLevel(Level.forName(readStringId(), intLevel));
+        builder.setLoggerName(readStringId());
+        builder.setThreadName(readStringId());
+        builder.setThreadId(readVarLong());
+        builder.setThreadPriority((int) readVarLong());
+        if ((flags & CompactBinaryLayout.FLAG_MARKER) != 0) {
+            builder.setMarker(MarkerManager.getMarker(readStringId()));
+        }
+        if ((flags & CompactBinaryLayout.FLAG_TEMPLATE) != 0) {
+            final String format = readStringId();
+            final Object[] parameters = new Object[(int) readVarLong()];
+            for (int i = 0; i < parameters.length; i++) {
+                parameters[i] = readParameter();
+            }
+            builder.setMessage(new ParameterizedMessage(format, parameters));
+        } else {
+            builder.setMessage(new SimpleMessage(readString()));
+        }
+        if ((flags & CompactBinaryLayout.FLAG_THROWN) != 0) {
+            final String className = readStringId();
+            final String message = (flags & CompactBinaryLayout.FLAG_THROWN_MESSAGE) != 0 ? readString() : null;
+            final String stackTrace = readString();
+            builder.setThrown(new RecordedThrowable(className, message, stackTrace));
+        }
+        if ((flags & CompactBinaryLayout.FLAG_CONTEXT_DATA) != 0) {
+            final int size = (int) readVarLong();
+            final SortedArrayStringMap contextData = new SortedArrayStringMap(size);
+            for (int i = 0; i < size; i++) {
+                final String key = readStringId();
+                contextData.putValue(key, readString());
+            }
+            builder.setContextData(contextData);
+        }
+        if ((flags & CompactBinaryLayout.FLAG_CONTEXT_STACK) != 0) {
+            final int depth = (int) readVarLong();
+            final List<String> elements = new ArrayList<>(depth);
+            for (int i = 0; i < depth; i++) {
+                elements.add(readString());
+            }
+            builder.setContextStack(new MutableThreadContextStack(elements));
+        }
+        if ((flags & CompactBinaryLayout.FLAG_SOURCE) != 0) {
+            final String className = readStringId();
+            final String methodName = readStringId();
+            final String fileName = readStringId();
+            final int lineNumber = (int) readZigZag();
+            builder.setSource(new StackTraceElement(className, methodName, fileName, lineNumber));
+        }
+        return builder.build();
+    }
+
+    private Object readParameter() throws IOException {
+        final byte type = readByte();
+        switch (type) {
+            case CompactBinaryLayout.ARG_NULL:
+                return null;
+            case CompactBinaryLayout.ARG_STRING:
+                return readString();
+            case CompactBinaryLayout.ARG_LONG:
+                return readZigZag();
+            case CompactBinaryLayout.ARG_DOUBLE:
+                return Double.longBitsToDouble(readLong());
+            case CompactBinaryLayout.ARG_TRUE:
+                return Boolean.TRUE;
+            case CompactBinaryLayout.ARG_FALSE:
+                return Boolean.FALSE;
+            default:
+                throw new IOException("Invalid parameter type " + type);
+        }
+    }
+
+    private byte readByte() throws IOException {
+        if (position >= limit) {
+            throw new IOException("Record too short");
+        }
+        return record[position++];
+    }
+
+    private long readVarLong() throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            final byte b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Invalid varint");
+    }
+
+    private long readZigZag() throws IOException {
+        final long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private long readLong() throws IOException {
+        long result = 0;
+        for (int i = 0; i < 8; i++) {
+            result = (result << 8) | (readByte() & 0xFF);
+        }
+        return result;
+    }
+
+    private String readString() throws IOException {
+        final int length = (int) readVarLong();
+        if (length < 0 || length > limit - position) {
+            throw new IOException("Invalid string length " + length);
+        }
+        final String result = new String(record, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return result;
+    }
+
+    private String readStringId() throws IOException {
+        final long id = readVarLong();
+        if (id == 0) {
+            return null;
+        }
+        if (id > dictionary.size()) {
+            throw new IOException("Undefined string " + id);
+        }
+        return dictionary.get((int) id - 1);
+    }
+
+    /**
+     * An exception read from a binary log. Its stack trace is not available as {@code StackTraceElement}s, but
+     * {@link #printStackTrace(PrintWriter)} prints the stack trace of the original exception.
+     */
+    public static final class RecordedThrowable extends Throwable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String className;
+        private final String stackTrace;
+
+        public RecordedThrowable(final String className, final String message, final String stackTrace) {
+            super(message, null, false, false);
+            this.className = className;
+            this.stackTrace = stackTrace;
+        }
+
+        /**
+         * Returns the class name of the original exception.
+         *
+         * @return the class name
+         */
+        public String getClassName() {
+            return className;
+        }
+
+        /**
+         * Returns the stack trace of the original exception as printed by {@link Throwable#printStackTrace()}.
+         *
+         * @return the stack trace text
+         */
+        public String getStackTraceText() {
+            return stackTrace;
+        }
+
+        @Override
+        public void printStackTrace(final PrintStream s) {
+            s.print(stackTrace);
+        }
+
+        @Override
+        public void printStackTrace(final PrintWriter s) {
+            s.print(stackTrace);
+        }
+
+        @Override
+        public String toString() {
+            final String message = getLocalizedMessage();
+            return message == null ? className : className + ": " + message;
+        }
+    }
+}
@@ -135,6 +135,37 @@ public final class Constants {
      */
     public static final int ENCODER_BYTE_BUFFER_SIZE = size("log4j.encoder.byteBufferSize", 8 * 1024);
 
+    /**
+     * Whether appenders of the same {@code LoggerConfig} whose layouts are equivalent share the encoded bytes of an
+     * event instead of each formatting and encoding it. Users can enable this with system property
+     * "log4j2.shareLayoutEncoding".
+     *
+     * @see org.apache.logging.log4j.core.config.LoggerConfig#setShareLayoutEncoding(boolean)
+     * @since 2.10.1
+     */
+    public static final boolean SHARE_LAYOUT_ENCODING = PropertiesUtil.getProperties().getBooleanProperty(
+            "log4j2.shareLayoutEncoding", false);
+
+    /**
+     * Whether the date pattern converter takes formatted timestamps from a cache shared by all threads, which keeps the
+     * text of the current second and patches in the milliseconds. The cache allocates a new entry each second, so it is
+     * not garbage-free. Disabled by default, users can enable this with system property "log4j2.sharedDateCache".
+     *
+     * @see org.apache.logging.log4j.core.util.datetime.SharedTimestampCache
+     * @since 2.10.1
+     */
+    public static final boolean ENABLE_SHARED_DATE_CACHE = PropertiesUtil.getProperties().getBooleanProperty(
+            "log4j2.sharedDateCache", false);
+
+    /**
+     * Whether the {@code %highlight} and {@code %style} converters of all pattern layouts skip ANSI escape codes when
+     * the JVM has no console, as if they had the {@code noConsoleNoAnsi=true} option. Users can enable this with system
+     * property "log4j2.noConsoleNoAnsi".
+     *
+     * @since 2.10.1
+     */
+    public static final boolean NO_CONSOLE_NO_ANSI = PropertiesUtil.getProperties().getBooleanProperty(
+            "log4j2.noConsoleNoAnsi", false);
 
     private static int size(final String property, final int defaultValue) {
         return PropertiesUtil.getProperties().getIntegerProperty(property, defaultValue);
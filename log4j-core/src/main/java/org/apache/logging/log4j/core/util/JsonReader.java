@@ -0,0 +1,257 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.util;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <em>Consider this class private.</em> A minimal JSON parser for reading configuration data such as layout
+ * templates without depending on Jackson.
+ * <p>
+ * Objects are returned as insertion-ordered {@link Map}s, arrays as {@link List}s, strings as {@link String}s,
+ * integral numbers as {@link Long} (or {@link BigDecimal} if they do not fit), other numbers as {@link Double},
+ * booleans as {@link Boolean} and {@code null} as {@code null}.
+ * </p>
+ */
+public final class JsonReader {
+
+    private final String json;
+    private int position;
+
+    private JsonReader(final String json) {
+        this.json = json;
+    }
+
+    /**
+     * Parses the specified JSON text.
+     *
+     * @param json the JSON text
+     * @return the parsed value
+     * @throws IllegalArgumentException if the text is not valid JSON
+     */
+    public static Object read(final String json) {
+        final JsonReader reader = new JsonReader(json);
+        final Object result = reader.readValue();
+        reader.skipWhitespace();
+        if (reader.position < json.length()) {
+            throw reader.error("unexpected trailing content");
+        }
+        return result;
+    }
+
+    private Object readValue() {
+        skipWhitespace();
+        if (position >= json.length()) {
+            throw error("unexpected end of input");
+        }
+        final char c = json.charAt(position);
+        switch (c) {
+        case '{':
+            return readObject();
+        case '[':
+            return readArray();
+        case '"':
+            return readString();
+        case 't':
+            expect("true");
+            return Boolean.TRUE;
+        case 'f':
+            expect("false");
+            return Boolean.FALSE;
+        case 'n':
+            expect("null");
+            return null;
+        default:
+            if (c == '-' || (c >= '0' && c <= '9')) {
+                return readNumber();
+            }
+            throw error("unexpected character '" + c + "'");
+        }
+    }
+
+    private Map<String, Object> readObject() {
+        final Map<String, Object> result = new LinkedHashMap<>();
+        position++; // '{'
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+            return result;
+        }
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') {
+                throw error("expected a string key");
+            }
+            final String key = readString();
+            skipWhitespace();
+            if (peek() != ':') {
+                throw error("expected ':'");
+            }
+            position++;
+            result.put(key, readValue());
+            skipWhitespace();
+            final char c = peek();
+            position++;
+            if (c == '}') {
+                return result;
+            }
+            if (c != ',') {
+                throw error("expected ',' or '}'");
+            }
+        }
+    }
+
+    private List<Object> readArray() {
+        final List<Object> result = new ArrayList<>();
+        position++; // '['
+        skipWhitespace();
+        if (peek() == ']') {
+            position++;
+            return result;
+        }
+        while (true) {
+            result.add(readValue());
+            skipWhitespace();
+            final char c = peek();
+            position++;
+            if (c == ']') {
+                return result;
+            }
+            if (c != ',') {
+                throw error("expected ',' or ']'");
+            }
+        }
+    }
+
+    private String readString() {
+        position++; // opening quote
+        final StringBuilder sb = new StringBuilder();
+        while (true) {
+            if (position >= json.length()) {
+                throw error("unterminated string");
+            }
+            final char c = json.charAt(position++);
+            if (c == '"') {
+                return sb.toString();
+            }
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            if (position >= json.length()) {
+                throw error("unterminated escape sequence");
+            }
+            final char escaped = json.charAt(position++);
+            switch (escaped) {
+            case '"':
+            case '\\':
+            case '/':
+                sb.append(escaped);
+                break;
+            case 'b':
+                sb.append('\b');
+                break;
+            case 'f':
+                sb.append('\f');
+                break;
+            case 'n':
+                sb.append('\n');
+                break;
+            case 'r':
+                sb.append('\r');
+                break;
+            case 't':
+                sb.append('\t');
+                break;
+            case 'u':
+                if (position + 4 > json.length()) {
+                    throw error("invalid unicode escape");
+                }
+                try {
+                    sb.append((char) Integer.parseInt(json.substring(position, position + 4), 16));
+                } catch (final NumberFormatException e) {
+                    throw error("invalid unicode escape");
+                }
+                position += 4;
+                break;
+            default:
+                throw error("invalid escape character '" + escaped + "'");
+            }
+        }
+    }
+
+    private Object readNumber() {
+        final int start = position;
+        boolean integral = true;
+        if (peek() == '-') {
+            position++;
+        }
+        while (position < json.length()) {
+            final char c = json.charAt(position);
+            if (c >= '0' && c <= '9') {
+                position++;
+            } else if (c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-') {
+                integral = false;
+                position++;
+            } else {
+                break;
+            }
+        }
+        final String text = json.substring(start, position);
+        try {
+            if (integral) {
+                final BigDecimal value = new BigDecimal(text);
+                try {
+                    return value.longValueExact();
+                } catch (final ArithmeticException e) {
+                    return value;
+                }
+            }
+            return Double.valueOf(text);
+        } catch (final NumberFormatException e) {
+            throw error("invalid number '" + text + "'");
+        }
+    }
+
+    private void expect(final String literal) {
+        if (!json.startsWith(literal, position)) {
+            throw error("expected '" + literal + "'");
+        }
+        position += literal.length();
+    }
+
+    private char peek() {
+        if (position >= json.length()) {
+            throw error("unexpected end of input");
+        }
+        return json.charAt(position);
+    }
+
+    private void skipWhitespace() {
+        while (position < json.length() && Character.isWhitespace(json.charAt(position))) {
+            position++;
+        }
+    }
+
+    private IllegalArgumentException error(final String message) {
+        return new IllegalArgumentException("Invalid JSON at position " + position + ": " + message);
+    }
+}
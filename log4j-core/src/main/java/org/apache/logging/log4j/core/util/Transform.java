@@ -79,6 +79,59 @@ public final class Transform {
         return buf.toString();
     }
 
+    /**
+     * Replaces any '&lt;', '&gt;', '&amp;' or '&quot;' characters that were appended to the specified StringBuilder
+     * after the specified start index with their predefined entity references, without creating intermediate Strings.
+     *
+     * @param buf The StringBuilder holding the text to be converted.
+     * @param start The index of the first character to convert.
+     */
+    public static void escapeHtmlTags(final StringBuilder buf, final int start) {
+        final int length = buf.length();
+        int escapedLength = length;
+        for (int i = start; i < length; i++) {
+            final String escaped = escapeHtmlTag(buf.charAt(i));
+            if (escaped != null) {
+                escapedLength += escaped.length() - 1;
+            }
+        }
+        if (escapedLength == length) {
+            return;
+        }
+        buf.setLength(escapedLength);
+        int to = escapedLength;
+        for (int i = length - 1; to > i + 1; i--) { // backwards: writes stay behind the characters still to be read
+            final char ch = buf.charAt(i);
+            final String escaped = escapeHtmlTag(ch);
+            if (escaped == null) {
+                buf.setCharAt(--to, ch);
+            } else {
+                to -= escaped.length();
+                for (int j = 0; j < escaped.length(); j++) {
+                    buf.setCharAt(to + j, escaped.charAt(j));
+                }
+            }
+        }
+    }
+
+    private static String escapeHtmlTag(final char ch) {
+        if (ch > '>') {
+            return null;
+        }
+        switch (ch) {
+        case '<':
+            return "&lt;";
+        case '>':
+            return "&gt;";
+        case '&':
+            return "&amp;";
+        case '"':
+            return "&quot;";
+        default:
+            return null;
+        }
+    }
+
     /**
      * Ensures that embedded CDEnd strings (]]&gt;) are handled properly
      * within message, NDC and throwable tag text.
@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.util.datetime;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Formatted timestamp cache shared by all threads. The text of the most recent second is kept in a char array, and
+ * the milliseconds are patched into the copy appended to the destination, so threads logging in the same second
+ * do not format the timestamp again.
+ * <p>
+ * Each second is published as an immutable {@code CachedSecond} through an {@link AtomicReference}. A thread that
+ * logs in a later second formats it and replaces the cached second with a compare-and-set, which fails if another
+ * thread got there first; either way the thread appends the text it formatted itself. Readers never wait; if the
+ * cache holds a later second, {@link #formatTo(long, StringBuilder)} returns {@code false} and the caller formats the
+ * timestamp itself.
+ * </p>
+ * <p>
+ * Where the milliseconds are in the text is found by comparing the text of the first millisecond of the second with
+ * the text of the 111th millisecond. If they differ in anything other than three consecutive digits, for example for
+ * the pattern {@code ss.S}, every millisecond is cached on its own.
+ * </p>
+ * <p>
+ * Related benchmarks: /log4j-perf/src/main/java/org/apache/logging/log4j/perf/jmh/TimeFormatBenchmark.java
+ * </p>
+ *
+ * @since 2.10.1
+ */
+public final class SharedTimestampCache {
+
+    private static final int MAX_LENGTH = 64;
+    private static final long PROBE_MILLIS = 111;
+
+    /**
+     * The formatted text of one second, or of one millisecond if the milliseconds cannot be patched in. Instances are
+     * never modified after they are published.
+     */
+    private static final class CachedSecond {
+        final long key; // the second, or the millisecond if not perSecond
+        final boolean perSecond;
+        final char[] chars;
+        final int length;
+        final int millisOffset;
+
+        CachedSecond(final long key, final boolean perSecond, final char[] chars, final int length,
+                final int millisOffset) {
+            this.key = key;
+            this.perSecond = perSecond;
+            this.chars = chars;
+            this.length = length;
+            this.millisOffset = millisOffset;
+        }
+
+        long keyOf(final long timeMillis) {
+            return perSecond ? secondOf(timeMillis) : timeMillis;
+        }
+    }
+
+    /** Disables the cache if the text does not fit in {@link #MAX_LENGTH} characters. */
+    private static final CachedSecond TOO_LONG = new CachedSecond(Long.MAX_VALUE, false, null, -1, -1);
+
+    private final FixedDateFormat fixedDateFormat; // may be null
+    private final FastDateFormat fastDateFormat; // may be null
+
+    private final AtomicReference<CachedSecond> cachedSecond = new AtomicReference<>();
+
+    private SharedTimestampCache(final FixedDateFormat fixedDateFormat, final FastDateFormat fastDateFormat) {
+        this.fixedDateFormat = fixedDateFormat;
+        this.fastDateFormat = fastDateFormat;
+    }
+
+    /**
+     * Creates a cache for the specified fixed format.
+     *
+     * @param fixedDateFormat the format of the timestamps
+     * @return a new cache
+     */
+    public static SharedTimestampCache create(final FixedDateFormat fixedDateFormat) {
+        return new SharedTimestampCache(fixedDateFormat, null);
+    }
+
+    /**
+     * Creates a cache for the specified date format.
+     *
+     * @param fastDateFormat the format of the timestamps
+     * @return a new cache
+     */
+    public static SharedTimestampCache create(final FastDateFormat fastDateFormat) {
+        return new SharedTimestampCache(null, fastDateFormat);
+    }
+
+    /**
+     * Appends the formatted timestamp to the destination if it can be taken from the cache.
+     *
+     * @param timeMillis the timestamp
+     * @param destination the buffer to append to
+     * @return {@code true} if the timestamp was appended, {@code false} if the destination is unchanged and the caller
+     *          must format the timestamp itself
+     */
+    public boolean formatTo(final long timeMillis, final StringBuilder destination) {
+        final CachedSecond cached = cachedSecond.get();
+        if (cached != null) {
+            final long key = cached.keyOf(timeMillis);
+            if (key == cached.key) {
+                appendTo(cached, timeMillis, destination);
+                return true;
+            }
+            if (key < cached.key) {
+                return false;
+            }
+        }
+        final CachedSecond updated = format(timeMillis);
+        cachedSecond.compareAndSet(cached, updated);
+        if (updated == TOO_LONG) {
+            return false;
+        }
+        appendTo(updated, timeMillis, destination);
+        return true;
+    }
+
+    private static void appendTo(final CachedSecond cached, final long timeMillis, final StringBuilder destination) {
+        final int start = destination.length();
+        destination.append(cached.chars, 0, cached.length);
+        final int offset = cached.millisOffset;
+        if (offset >= 0) {
+            int millis = (int) (timeMillis - 1000 * secondOf(timeMillis));
+            final int pos = start + offset;
+            final int hundreds = millis / 100;
+            millis -= 100 * hundreds;
+            final int tens = millis / 10;
+            destination.setCharAt(pos, (char) (hundreds + '0'));
+            destination.setCharAt(pos + 1, (char) (tens + '0'));
+            destination.setCharAt(pos + 2, (char) (millis - 10 * tens + '0'));
+        }
+    }
+
+    private static long secondOf(final long timeMillis) {
+        final long second = timeMillis / 1000;
+        return timeMillis < 0 && second * 1000 != timeMillis ? second - 1 : second;
+    }
+
+    /**
+     * Formats the second of the specified timestamp, or the timestamp itself if the milliseconds cannot be patched
+     * into the text of its second.
+     */
+    private CachedSecond format(final long timeMillis) {
+        final long second = secondOf(timeMillis) * 1000;
+        final char[] chars = new char[MAX_LENGTH];
+        final char[] probeChars = new char[MAX_LENGTH];
+        final int length = formatUncached(second, chars);
+        final int probeLength = formatUncached(second + PROBE_MILLIS, probeChars);
+        if (length < 0) {
+            return TOO_LONG;
+        }
+        final int millisOffset = findMillis(chars, probeChars, length, probeLength);
+        if (millisOffset >= 0 || length == probeLength && sameChars(chars, probeChars, length)) {
+            return new CachedSecond(second / 1000, true, chars, length, millisOffset);
+        }
+        final int millisLength = formatUncached(timeMillis, chars);
+        return millisLength < 0 ? TOO_LONG : new CachedSecond(timeMillis, false, chars, millisLength, -1);
+    }
+
+    /**
+     * Formats the timestamp into the specified array.
+     *
+     * @return the number of characters written, -1 if the text does not fit in the array
+     */
+    private int formatUncached(final long timeMillis, final char[] buffer) {
+        if (fixedDateFormat != null) {
+            return fixedDateFormat.format(timeMillis, buffer, 0);
+        }
+        final StringBuilder scratch = new StringBuilder(MAX_LENGTH);
+        fastDateFormat.format(timeMillis, scratch);
+        final int length = scratch.length();
+        if (length > buffer.length) {
+            return -1;
+        }
+        scratch.getChars(0, length, buffer, 0);
+        return length;
+    }
+
+    private static boolean sameChars(final char[] first, final char[] probe, final int length) {
+        for (int i = 0; i < length; i++) {
+            if (first[i] != probe[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the index of the three milliseconds digits, the only characters that differ between the text of the
+     * first and the 111th millisecond of a second, or -1 if there are no such digits.
+     */
+    private static int findMillis(final char[] first, final char[] probe, final int length, final int probeLength) {
+        if (length != probeLength) {
+            return -1;
+        }
+        int from = 0;
+        while (from < length && first[from] == probe[from]) {
+            from++;
+        }
+        if (from + 3 > length) {
+            return -1;
+        }
+        for (int i = from; i < from + 3; i++) {
+            if (first[i] != '0' || probe[i] != '1') {
+                return -1;
+            }
+        }
+        for (int i = from + 3; i < length; i++) {
+            if (first[i] != probe[i]) {
+                return -1;
+            }
+        }
+        return from;
+    }
+
+    @Override
+    public String toString() {
+        return "SharedTimestampCache[" + (fixedDateFormat != null ? fixedDateFormat.getFormat()
+                : fastDateFormat.getPattern()) + "]";
+    }
+}
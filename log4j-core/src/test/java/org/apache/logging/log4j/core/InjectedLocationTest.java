@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.logging.log4j.core.appender.AbstractAppender;
+import org.apache.logging.log4j.junit.LoggerContextRule;
+import org.apache.logging.log4j.util.InjectedLocation;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+/**
+ * Tests that a location injected for a logging call is not used by logging calls nested in it.
+ */
+public class InjectedLocationTest {
+
+    @ClassRule
+    public static LoggerContextRule context = new LoggerContextRule("InjectedLocationTest.xml");
+
+    private final LocationAppender outerAppender = new LocationAppender("Outer");
+    private final LocationAppender innerAppender = new LocationAppender("Inner");
+
+    @Before
+    public void before() {
+        ((Logger) context.getLogger("Outer")).addAppender(outerAppender);
+        ((Logger) context.getLogger("Inner")).addAppender(innerAppender);
+    }
+
+    @After
+    public void after() {
+        ((Logger) context.getLogger("Outer")).removeAppender(outerAppender);
+        ((Logger) context.getLogger("Inner")).removeAppender(innerAppender);
+    }
+
+    @Test
+    public void testLoggingFromParameterToString() {
+        final org.apache.logging.log4j.Logger inner = context.getLogger("Inner");
+        final Object parameter = new Object() {
+            @Override
+            public String toString() {
+                inner.info("nested");
+                return "parameter";
+            }
+        };
+        InjectedLocation.set(new StackTraceElement("com.example.Foo", "bar", "Foo.java", 42));
+        try {
+            context.getLogger("Outer").info("Hello {}", parameter);
+        } finally {
+            InjectedLocation.clear();
+        }
+        assertEquals(1, innerAppender.locations.size());
+        assertTrue(innerAppender.locations.get(0).startsWith("nested " + InjectedLocationTest.class.getName()));
+        assertEquals(1, outerAppender.locations.size());
+        assertEquals("Hello parameter com.example.Foo.bar", outerAppender.locations.get(0));
+    }
+
+    @Test
+    public void testNestedInjectedLocation() {
+        final org.apache.logging.log4j.Logger inner = context.getLogger("Inner");
+        final Object parameter = new Object() {
+            @Override
+            public String toString() {
+                InjectedLocation.set(new StackTraceElement("com.example.Nested", "baz", "Nested.java", 7));
+                try {
+                    inner.info("nested");
+                } finally {
+                    InjectedLocation.clear();
+                }
+                return "parameter";
+            }
+        };
+        InjectedLocation.set(new StackTraceElement("com.example.Foo", "bar", "Foo.java", 42));
+        try {
+            context.getLogger("Outer").info("Hello {}", parameter);
+        } finally {
+            InjectedLocation.clear();
+        }
+        assertEquals(1, innerAppender.locations.size());
+        assertEquals("nested com.example.Nested.baz", innerAppender.locations.get(0));
+        assertEquals(1, outerAppender.locations.size());
+        assertEquals("Hello parameter com.example.Foo.bar", outerAppender.locations.get(0));
+    }
+
+    /**
+     * Formats the message before it looks up the location, like a layout with {@code %m %M} does.
+     */
+    private static class LocationAppender extends AbstractAppender {
+
+        final List<String> locations = new ArrayList<>();
+
+        LocationAppender(final String name) {
+            super(name, null, null);
+            start();
+        }
+
+        @Override
+        public void append(final LogEvent event) {
+            final String message = event.getMessage().getFormattedMessage();
+            final StackTraceElement source = event.getSource();
+            locations.add(message + ' ' + source.getClassName() + '.' + source.getMethodName());
+        }
+    }
+}
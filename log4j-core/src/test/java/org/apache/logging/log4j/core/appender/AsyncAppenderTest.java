@@ -53,7 +53,8 @@ public class AsyncAppenderTest {
             "BlockingQueueFactory-ArrayBlockingQueue.xml",
             "BlockingQueueFactory-DisruptorBlockingQueue.xml",
             "BlockingQueueFactory-JCToolsBlockingQueue.xml",
-            "BlockingQueueFactory-LinkedTransferQueue.xml"
+            "BlockingQueueFactory-LinkedTransferQueue.xml",
+            "BlockingQueueFactory-MpscArrayBlockingQueue.xml"
         };
     }
 
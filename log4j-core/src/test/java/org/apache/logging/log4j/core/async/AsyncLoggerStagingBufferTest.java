@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.async;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.categories.AsyncLoggers;
+import org.apache.logging.log4j.core.CoreLoggerContexts;
+import org.apache.logging.log4j.core.config.ConfigurationFactory;
+import org.apache.logging.log4j.core.util.Constants;
+import org.apache.logging.log4j.util.Strings;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests that AsyncLoggers with per-thread staging buffers deliver all events, in order per thread.
+ */
+@Category(AsyncLoggers.class)
+public class AsyncLoggerStagingBufferTest {
+
+    private static final int THREADS = 4;
+    private static final int EVENTS_PER_THREAD = 10_000;
+
+    @BeforeClass
+    public static void beforeClass() {
+        System.setProperty("AsyncLogger.StagingBufferSize", "64");
+        System.setProperty(Constants.LOG4J_CONTEXT_SELECTOR,
+                AsyncLoggerContextSelector.class.getName());
+        System.setProperty(ConfigurationFactory.CONFIGURATION_FILE_PROPERTY,
+                "AsyncLoggerStagingBufferTest.xml");
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        System.clearProperty("AsyncLogger.StagingBufferSize");
+        System.setProperty(Constants.LOG4J_CONTEXT_SELECTOR, Strings.EMPTY);
+    }
+
+    @Test
+    public void testAllEventsLoggedInOrderPerThread() throws Exception {
+        final File file = new File("target", "AsyncLoggerStagingBufferTest.log");
+        file.delete();
+
+        final Logger log = LogManager.getLogger("com.foo.Bar");
+        final Thread[] threads = new Thread[THREADS];
+        for (int i = 0; i < THREADS; i++) {
+            threads[i] = new Thread("staging-" + i) {
+                @Override
+                public void run() {
+                    for (int j = 0; j < EVENTS_PER_THREAD; j++) {
+                        log.info("{}", j);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        CoreLoggerContexts.stopLoggerContext(false, file); // stop async thread
+
+        final Map<String, Integer> next = new HashMap<>();
+        try (final BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final String[] parts = line.split(" ");
+                final Integer expected = next.containsKey(parts[0]) ? next.get(parts[0]) : 0;
+                assertEquals("Out of order event for thread " + parts[0], expected.intValue(),
+                        Integer.parseInt(parts[1]));
+                next.put(parts[0], expected + 1);
+            }
+        }
+        file.delete();
+        assertEquals(THREADS, next.size());
+        for (final Map.Entry<String, Integer> entry : next.entrySet()) {
+            assertEquals("Events of " + entry.getKey(), EVENTS_PER_THREAD, entry.getValue().intValue());
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.async;
+
+import org.apache.logging.log4j.categories.AsyncLoggers;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the AsyncQueueMetrics and LatencyHistogram classes.
+ */
+@Category(AsyncLoggers.class)
+public class AsyncQueueMetricsTest {
+
+    @Test
+    public void testHistogramBucketsCoverAllValues() {
+        long previousHighest = -1;
+        for (int i = 0; LatencyHistogram.highestValueIn(i) > previousHighest
+                && LatencyHistogram.highestValueIn(i) < Long.MAX_VALUE; i++) {
+            previousHighest = LatencyHistogram.highestValueIn(i);
+            assertEquals("bucket of " + previousHighest, i, LatencyHistogram.indexOf(previousHighest));
+            assertEquals("bucket of " + (previousHighest + 1), i + 1, LatencyHistogram.indexOf(previousHighest + 1));
+        }
+        assertEquals(LatencyHistogram.indexOf(Long.MAX_VALUE),
+                LatencyHistogram.indexOf(LatencyHistogram.highestValueIn(LatencyHistogram.indexOf(Long.MAX_VALUE))));
+    }
+
+    @Test
+    public void testHistogramPercentiles() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1000, histogram.getMax());
+        assertEquals(500.5, histogram.getMean(), 0.0001);
+        final long median = histogram.getValueAtPercentile(50);
+        assertTrue("median " + median, median >= 500 && median <= 500 * 1.25);
+        final long p99 = histogram.getValueAtPercentile(99);
+        assertTrue("p99 " + p99, p99 >= 990 && p99 <= 1000);
+        assertEquals(1000, histogram.getValueAtPercentile(100));
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+    }
+
+    @Test
+    public void testQueueFullCounters() {
+        final AsyncQueueMetrics metrics = new AsyncQueueMetrics(false);
+        metrics.recordQueueFull(EventRoute.ENQUEUE);
+        metrics.recordQueueFull(EventRoute.SYNCHRONOUS);
+        metrics.recordQueueFull(EventRoute.DISCARD);
+        metrics.recordQueueFull(EventRoute.DISCARD);
+        metrics.recordBlockedPublish(100);
+        metrics.recordBlockedPublish(300);
+        assertEquals(4, metrics.getQueueFullCount());
+        assertEquals(1, metrics.getEnqueuedWhenFullCount());
+        assertEquals(1, metrics.getSynchronousCount());
+        assertEquals(2, metrics.getDiscardedCount());
+        assertEquals(400, metrics.getBlockedPublishNanos());
+        assertEquals(300, metrics.getMaxBlockedPublishNanos());
+
+        metrics.reset();
+        assertEquals(0, metrics.getQueueFullCount());
+        assertEquals(0, metrics.getMaxBlockedPublishNanos());
+    }
+
+    @Test
+    public void testBatchStatistics() {
+        final AsyncQueueMetrics metrics = new AsyncQueueMetrics(false);
+        for (int i = 0; i < 3; i++) {
+            metrics.recordProcessed(0, 0, false);
+        }
+        metrics.recordProcessed(0, 0, true);
+        metrics.recordProcessed(0, 0, true);
+        assertEquals(5, metrics.getEventCount());
+        assertEquals(2, metrics.getBatchCount());
+        assertEquals(4, metrics.getMaxBatchSize());
+        assertEquals(2.5, metrics.getAverageBatchSize(), 0.0001);
+        assertEquals(0, metrics.getMaxQueueLatencyNanos());
+    }
+
+    @Test
+    public void testLatencyRecordedWhenEnabled() {
+        final AsyncQueueMetrics metrics = new AsyncQueueMetrics(true);
+        final long start = metrics.nanoTimeIfEnabled();
+        metrics.recordProcessed(start - 1000, start, true);
+        assertEquals(1000, metrics.getMaxQueueLatencyNanos());
+        assertTrue(metrics.getQueueLatencyNanos(50) >= 1000);
+        assertEquals(1000, metrics.getMeanQueueLatencyNanos(), 0.0001);
+    }
+
+    @Test
+    public void testConsumersAreMerged() throws Exception {
+        final AsyncQueueMetrics metrics = new AsyncQueueMetrics(true);
+        final AsyncQueueMetrics.Consumer staging = metrics.newConsumer();
+        final int count = 100000;
+        final Thread other = new Thread() {
+            @Override
+            public void run() {
+                for (int i = 0; i < count; i++) {
+                    staging.recordProcessed(0, 3000, (i & 1) == 1);
+                }
+            }
+        };
+        other.start();
+        for (int i = 0; i < count; i++) {
+            metrics.recordProcessed(0, 1000, true);
+        }
+        other.join();
+        assertEquals(2 * count, metrics.getEventCount());
+        assertEquals(count + count / 2, metrics.getBatchCount());
+        assertEquals(2, metrics.getMaxBatchSize());
+        assertEquals(3000, metrics.getMaxQueueLatencyNanos());
+        assertEquals(2000, metrics.getMeanQueueLatencyNanos(), 0.0001);
+        assertTrue(metrics.getQueueLatencyNanos(50) < 3000);
+        assertTrue(metrics.getQueueLatencyNanos(75) >= 3000);
+    }
+}
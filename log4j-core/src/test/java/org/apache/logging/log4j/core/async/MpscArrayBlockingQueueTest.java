@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.async;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.categories.AsyncLoggers;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the MpscArrayBlockingQueue class.
+ */
+@Category(AsyncLoggers.class)
+public class MpscArrayBlockingQueueTest {
+
+    @Test
+    public void testCapacityIsRoundedUpToPowerOfTwo() {
+        assertEquals(1, new MpscArrayBlockingQueue<String>(1).capacity());
+        assertEquals(128, new MpscArrayBlockingQueue<String>(128).capacity());
+        assertEquals(256, new MpscArrayBlockingQueue<String>(129).capacity());
+    }
+
+    @Test
+    public void testOfferFailsWhenFull() {
+        final MpscArrayBlockingQueue<String> queue = new MpscArrayBlockingQueue<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(queue.offer("e" + i));
+        }
+        assertFalse(queue.offer("overflow"));
+        assertEquals(4, queue.size());
+        assertEquals(0, queue.remainingCapacity());
+        assertEquals("e0", queue.poll());
+        assertTrue(queue.offer("e4"));
+    }
+
+    @Test
+    public void testFifoOrderAndDrain() {
+        final MpscArrayBlockingQueue<Integer> queue = new MpscArrayBlockingQueue<>(8);
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+        assertNull(queue.peek());
+        for (int i = 0; i < 6; i++) {
+            queue.offer(i);
+        }
+        assertEquals(Integer.valueOf(0), queue.peek());
+        assertEquals(Integer.valueOf(0), queue.poll());
+        final List<Integer> drained = new ArrayList<>();
+        assertEquals(3, queue.drainTo(drained, 3));
+        assertEquals(2, queue.size());
+        assertEquals(2, queue.drainTo(drained));
+        assertEquals(0, queue.drainTo(drained));
+        assertEquals(5, drained.size());
+        for (int i = 0; i < drained.size(); i++) {
+            assertEquals(Integer.valueOf(i + 1), drained.get(i));
+        }
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testPollWithTimeoutReturnsNullWhenEmpty() throws Exception {
+        final MpscArrayBlockingQueue<String> queue = new MpscArrayBlockingQueue<>(4);
+        assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testOfferWithTimeoutFailsWhenFull() throws Exception {
+        final MpscArrayBlockingQueue<String> queue = new MpscArrayBlockingQueue<>(1);
+        assertTrue(queue.offer("a", 10, TimeUnit.MILLISECONDS));
+        assertFalse(queue.offer("b", 10, TimeUnit.MILLISECONDS));
+    }
+
+    @Test(expected = InterruptedException.class)
+    public void testTakeThrowsWhenInterrupted() throws Exception {
+        final MpscArrayBlockingQueue<String> queue = new MpscArrayBlockingQueue<>(4);
+        Thread.currentThread().interrupt();
+        queue.take();
+    }
+
+    @Test(timeout = 30000)
+    public void testMultipleProducersDeliverAllElementsInProducerOrder() throws Exception {
+        final int producers = 4;
+        final int perProducer = 100_000;
+        final MpscArrayBlockingQueue<long[]> queue = new MpscArrayBlockingQueue<>(64);
+        final Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            final int producer = p;
+            threads[p] = new Thread("producer-" + p) {
+                @Override
+                public void run() {
+                    try {
+                        for (int i = 0; i < perProducer; i++) {
+                            queue.put(new long[] {producer, i});
+                        }
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            };
+            threads[p].start();
+        }
+        final long[] expectedNext = new long[producers];
+        for (int i = 0; i < producers * perProducer; i++) {
+            final long[] element = queue.take();
+            final int producer = (int) element[0];
+            assertEquals("out of order element from producer " + producer, expectedNext[producer], element[1]);
+            expectedNext[producer]++;
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(queue.isEmpty());
+        for (int p = 0; p < producers; p++) {
+            assertEquals(perProducer, expectedNext[p]);
+        }
+    }
+}
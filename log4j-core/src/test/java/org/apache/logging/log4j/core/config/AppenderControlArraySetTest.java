@@ -18,6 +18,8 @@ package org.apache.logging.log4j.core.config;
 
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.core.Appender;
+import org.apache.logging.log4j.core.appender.ConsoleAppender;
+import org.apache.logging.log4j.core.layout.PatternLayout;
 import org.apache.logging.log4j.test.appender.FailOnceAppender;
 import org.junit.Test;
 
@@ -188,4 +190,28 @@ public class AppenderControlArraySetTest {
         assertEquals(3, set.get().length);
         assertArrayEquals(controls, set.get());
     }
-}
\ No newline at end of file
+
+    private AppenderControl createControl(final String name, final String pattern) {
+        final Appender appender = ConsoleAppender.newBuilder().withName(name)
+                .withLayout(PatternLayout.newBuilder().withPattern(pattern).build()).build();
+        return new AppenderControl(appender, Level.INFO, null);
+    }
+
+    @Test
+    public void testLayoutEncodingSharedOnlyWithEquivalentLayouts() throws Exception {
+        final AppenderControlArraySet set = new AppenderControlArraySet();
+        set.add(createControl("A", "%m%n"));
+        set.add(createControl("B", "%p %m%n"));
+        set.add(createControl("C"));
+        assertFalse(set.isLayoutEncodingShared());
+        set.setShareLayoutEncoding(true);
+        assertFalse("no equivalent layouts", set.isLayoutEncodingShared());
+        set.add(createControl("D", "%m%n"));
+        assertTrue(set.isLayoutEncodingShared());
+        set.remove("A");
+        assertFalse(set.isLayoutEncodingShared());
+        set.add(createControl("E", "%m%n"));
+        set.setShareLayoutEncoding(false);
+        assertFalse("disabled", set.isLayoutEncodingShared());
+    }
+}
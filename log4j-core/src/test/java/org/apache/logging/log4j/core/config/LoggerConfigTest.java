@@ -16,18 +16,23 @@ package org.apache.logging.log4j.core.config;/*
  */
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayOutputStream;
 import java.util.HashSet;
 import java.util.List;
 
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.Marker;
 import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.appender.OutputStreamAppender;
 import org.apache.logging.log4j.core.impl.Log4jLogEvent.Builder;
 import org.apache.logging.log4j.core.impl.LogEventFactory;
+import org.apache.logging.log4j.core.layout.PatternLayout;
 import org.apache.logging.log4j.message.Message;
 import org.apache.logging.log4j.message.SimpleMessage;
 import org.junit.Test;
@@ -104,4 +109,47 @@ public class LoggerConfigTest {
             assertEquals("value[" + i + "]", value, actualList.get(i).getValue());
         }
     }
+
+    @Test
+    public void testShareLayoutEncodingFormatsOncePerDistinctLayout() {
+        final LoggerConfig loggerConfig = createForProperties(null);
+        final ByteArrayOutputStream first = new ByteArrayOutputStream();
+        final ByteArrayOutputStream second = new ByteArrayOutputStream();
+        final ByteArrayOutputStream other = new ByteArrayOutputStream();
+        addAppender(loggerConfig, "first", "%p %m%n", first);
+        addAppender(loggerConfig, "second", "%p %m%n", second);
+        addAppender(loggerConfig, "other", "%m%n", other);
+
+        final int[] formatCount = new int[1];
+        final Message message = new SimpleMessage("msg") {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public void formatTo(final StringBuilder buffer) {
+                formatCount[0]++;
+                super.formatTo(buffer);
+            }
+        };
+        loggerConfig.log("name", "fqcn", null, Level.INFO, message, null);
+        assertEquals("formatted once per appender", 3, formatCount[0]);
+
+        formatCount[0] = 0;
+        assertFalse(loggerConfig.isShareLayoutEncoding());
+        loggerConfig.setShareLayoutEncoding(true);
+        loggerConfig.log("name", "fqcn", null, Level.INFO, message, null);
+        assertEquals("formatted once per distinct layout", 2, formatCount[0]);
+
+        assertEquals("INFO msg\nINFO msg\n", first.toString());
+        assertEquals("INFO msg\nINFO msg\n", second.toString());
+        assertEquals("msg\nmsg\n", other.toString());
+    }
+
+    private static void addAppender(final LoggerConfig loggerConfig, final String name, final String pattern,
+            final ByteArrayOutputStream out) {
+        final PatternLayout layout = PatternLayout.newBuilder().withPattern(pattern).build();
+        final OutputStreamAppender appender = OutputStreamAppender.createAppender(layout, null, out, name, false,
+                false);
+        appender.start();
+        loggerConfig.addAppender(appender, null, null);
+    }
 }
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.logging.log4j.junit.LoggerContextRule;
+import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+/**
+ * Tests the shareLayoutEncoding attribute of loggers.
+ */
+public class ShareLayoutEncodingConfigTest {
+
+    @ClassRule
+    public static LoggerContextRule context = new LoggerContextRule("shareLayoutEncodingTest.xml");
+
+    @Test
+    public void testAttribute() {
+        final Configuration config = context.getConfiguration();
+        assertTrue(config.getLoggerConfig("Shared").isShareLayoutEncoding());
+        assertFalse(config.getLoggerConfig("NotShared").isShareLayoutEncoding());
+        assertTrue(config.getLoggerConfig("AsyncShared").isShareLayoutEncoding());
+        assertTrue(config.getRootLogger().isShareLayoutEncoding());
+    }
+
+    @Test
+    public void testSharedLoggerFormatsOnce() {
+        final int[] formatCount = new int[1];
+        final Message message = new SimpleMessage("msg") {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public void formatTo(final StringBuilder buffer) {
+                formatCount[0]++;
+                super.formatTo(buffer);
+            }
+        };
+        context.getLogger("Shared").info(message);
+        assertEquals("formatted once for equivalent layouts", 1, formatCount[0]);
+        formatCount[0] = 0;
+        context.getLogger("NotShared").info(message);
+        assertEquals("formatted once per appender", 2, formatCount[0]);
+    }
+}
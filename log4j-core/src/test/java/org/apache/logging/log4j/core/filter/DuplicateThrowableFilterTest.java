@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.filter;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.Filter;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for <code>DuplicateThrowableFilter</code>.
+ */
+public class DuplicateThrowableFilterTest {
+
+    private static LogEvent createEvent(final Throwable thrown, final long timeMillis) {
+        return Log4jLogEvent.newBuilder() //
+                .setLevel(Level.ERROR) //
+                .setMessage(new SimpleMessage("Hello")) //
+                .setThrown(thrown) //
+                .setTimeMillis(timeMillis).build();
+    }
+
+    private static Throwable newException(final String message) {
+        return new IllegalStateException(message, new NullPointerException());
+    }
+
+    @Test
+    public void testRepeatsWithinWindowAreDenied() {
+        final DuplicateThrowableFilter filter = DuplicateThrowableFilter.newBuilder().setWindowMillis(1000).build();
+        final Throwable[] same = new Throwable[3];
+        for (int i = 0; i < same.length; i++) {
+            same[i] = newException("message " + i);
+        }
+        assertSame(Filter.Result.NEUTRAL, filter.filter(createEvent(same[0], 1000)));
+        assertSame(Filter.Result.DENY, filter.filter(createEvent(same[1], 1500)));
+        assertSame(Filter.Result.DENY, filter.filter(createEvent(same[2], 1999)));
+        // window expired
+        assertSame(Filter.Result.NEUTRAL, filter.filter(createEvent(same[0], 2000)));
+        assertSame(Filter.Result.DENY, filter.filter(createEvent(same[1], 2001)));
+    }
+
+    @Test
+    public void testDistinctStackTracesAreAccepted() {
+        final DuplicateThrowableFilter filter = DuplicateThrowableFilter.newBuilder().build();
+        final Throwable first = newException("message");
+        final Throwable second = newException("message");
+        assertSame(Filter.Result.NEUTRAL, filter.filter(createEvent(first, 0)));
+        assertSame(Filter.Result.NEUTRAL, filter.filter(createEvent(second, 0)));
+        assertSame(Filter.Result.NEUTRAL, filter.filter(createEvent(null, 0)));
+        assertSame(Filter.Result.NEUTRAL, filter.filter(createEvent(null, 0)));
+        assertSame(Filter.Result.DENY, filter.filter(createEvent(first, 0)));
+        filter.clear();
+        assertSame(Filter.Result.NEUTRAL, filter.filter(createEvent(first, 0)));
+    }
+
+    @Test
+    public void testTableIsBounded() {
+        final DuplicateThrowableFilter filter = DuplicateThrowableFilter.newBuilder().setWindowMillis(1000)
+                .setMaxSize(1).build();
+        final Throwable first = newException("message");
+        final Throwable second = newException("message");
+        assertSame(Filter.Result.NEUTRAL, filter.filter(createEvent(first, 0)));
+        // table is full: not tracked
+        assertSame(Filter.Result.NEUTRAL, filter.filter(createEvent(second, 10)));
+        assertSame(Filter.Result.NEUTRAL, filter.filter(createEvent(second, 20)));
+        assertSame(Filter.Result.DENY, filter.filter(createEvent(first, 30)));
+        // first has expired and is evicted
+        assertSame(Filter.Result.NEUTRAL, filter.filter(createEvent(second, 1000)));
+        assertSame(Filter.Result.DENY, filter.filter(createEvent(second, 1010)));
+    }
+}
@@ -27,7 +27,9 @@ import org.apache.logging.log4j.core.Filter;
 import org.apache.logging.log4j.core.Filter.Result;
 import org.apache.logging.log4j.core.LogEvent;
 import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.core.impl.MutableLogEvent;
 import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.message.ReusableMessageFactory;
 import org.apache.logging.log4j.message.SimpleMessage;
 import org.apache.logging.log4j.status.StatusLogger;
 import org.junit.BeforeClass;
@@ -86,4 +88,15 @@ public class RegexFilterTest {
         assertSame(Filter.Result.DENY, filter.filter(null, Level.DEBUG, null, (Message) null, (Throwable) null));
         assertSame(Filter.Result.DENY, filter.filter(null, Level.DEBUG, null, null, (Object[]) null));
     }
+
+    @Test
+    public void testRawMessageOfReusableEventWithMutableParameter() throws Exception {
+        final RegexFilter filter = RegexFilter.createFilter("Hello \\{\\}", null, true, Filter.Result.ACCEPT,
+                Filter.Result.DENY);
+        filter.start();
+        final MutableLogEvent event = new MutableLogEvent();
+        event.setLevel(Level.INFO);
+        event.setMessage(ReusableMessageFactory.INSTANCE.newMessage("Hello {}", new StringBuilder("world")));
+        assertSame(Filter.Result.ACCEPT, filter.filter(event));
+    }
 }
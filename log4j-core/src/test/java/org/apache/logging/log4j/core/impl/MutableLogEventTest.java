@@ -22,13 +22,17 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.MarkerManager;
 import org.apache.logging.log4j.ThreadContext;
 import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.message.ParameterConsumer;
 import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.apache.logging.log4j.message.ReusableMessageFactory;
 import org.apache.logging.log4j.message.SimpleMessage;
 import org.apache.logging.log4j.util.SortedArrayStringMap;
 import org.apache.logging.log4j.util.StringMap;
@@ -283,5 +287,33 @@ public class MutableLogEventTest {
         return result;
     }
 
+    @Test
+    public void testKeepsFormatAndParametersOfReusableParameterizedMessage() {
+        final MutableLogEvent mutable = new MutableLogEvent();
+        mutable.setMessage(ReusableMessageFactory.INSTANCE.newMessage("{} and {}", "abc", 42));
+        assertSame(mutable, mutable.getMessage());
+        assertEquals("abc and 42", mutable.getFormattedMessage());
+        assertEquals("{} and {}", mutable.getFormat());
+        final List<Object> visited = new ArrayList<>();
+        mutable.forEachParameter(new ParameterConsumer<List<Object>>() {
+            @Override
+            public void accept(final Object parameter, final int parameterIndex, final List<Object> state) {
+                state.add(parameter);
+            }
+        }, visited);
+        assertEquals(Arrays.asList("abc", 42), visited);
+
+        mutable.setMessage(ReusableMessageFactory.INSTANCE.newMessage((Object) "object"));
+        assertNull(mutable.getFormat());
+        mutable.clear();
+        assertNull(mutable.getFormat());
+    }
 
-}
\ No newline at end of file
+    @Test
+    public void testKeepsFormatWithMutableParameter() {
+        final MutableLogEvent mutable = new MutableLogEvent();
+        mutable.setMessage(ReusableMessageFactory.INSTANCE.newMessage("{} and {}", new StringBuilder("abc"), 42));
+        assertEquals("abc and 42", mutable.getFormattedMessage());
+        assertEquals("{} and {}", mutable.getFormat());
+    }
+}
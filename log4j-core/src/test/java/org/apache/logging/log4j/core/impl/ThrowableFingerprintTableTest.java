@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.impl;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ThrowableFingerprintTableTest {
+
+    @Test
+    public void testFullTableEvictsIncrementally() {
+        final ThrowableFingerprintTable table = new ThrowableFingerprintTable(1000, 16);
+        for (int i = 0; i < 8; i++) {
+            assertEquals(1, table.record(i, 500));
+        }
+        for (int i = 8; i < 16; i++) {
+            assertEquals(1, table.record(i, 0));
+        }
+        assertEquals(16, table.size());
+        // the clock hand only checks the first eight fingerprints, none of which has expired
+        assertEquals(1, table.record(100, 1200));
+        assertEquals(16, table.size());
+        assertEquals(2, table.record(0, 1200));
+        // the hand continues with the expired fingerprint 8 and replaces it
+        assertEquals(1, table.record(100, 1201));
+        assertEquals(2, table.record(100, 1202));
+        assertEquals(16, table.size());
+        assertEquals(1, table.record(8, 1203));
+        assertEquals(2, table.record(8, 1204));
+        assertEquals(16, table.size());
+    }
+
+    @Test
+    public void testClearResetsSlots() {
+        final ThrowableFingerprintTable table = new ThrowableFingerprintTable(1000, 2);
+        table.record(1, 0);
+        table.record(2, 0);
+        table.clear();
+        assertEquals(0, table.size());
+        assertEquals(1, table.record(3, 10));
+        assertEquals(1, table.record(4, 10));
+        assertEquals(2, table.record(3, 20));
+        assertEquals(2, table.record(4, 20));
+        assertEquals(2, table.size());
+    }
+}
@@ -432,4 +432,19 @@ public final class ThrowableFormatOptionsTest {
         test(new String[] { "10,filters(package1,package2)" }, 10, Strings.LINE_SEPARATOR,
                 Arrays.asList("package1", "package2"));
     }
+
+    /**
+     * Test {@code %throwable{dedup(5000)}{separator(|)} }
+     */
+    @Test
+    public void testDedup() {
+        assertEquals(0, test(new String[] { "full" }, Integer.MAX_VALUE, Strings.LINE_SEPARATOR, null)
+                .getDedupWindowMillis());
+        assertEquals(60000, test(new String[] { "dedup" }, Integer.MAX_VALUE, Strings.LINE_SEPARATOR, null)
+                .getDedupWindowMillis());
+        assertEquals(5000, test(new String[] { "dedup(5000)", "separator(|)" }, Integer.MAX_VALUE, "|", null)
+                .getDedupWindowMillis());
+        assertEquals(5000, test(new String[] { "short,dedup(5000)" }, 2, Strings.LINE_SEPARATOR, null)
+                .getDedupWindowMillis());
+    }
 }
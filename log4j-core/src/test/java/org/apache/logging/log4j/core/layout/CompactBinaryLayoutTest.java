@@ -0,0 +1,342 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.layout;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.MarkerManager;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.core.impl.MutableLogEvent;
+import org.apache.logging.log4j.core.tools.CompactBinaryLogReader;
+import org.apache.logging.log4j.message.ObjectMessage;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.apache.logging.log4j.message.ReusableMessageFactory;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.apache.logging.log4j.spi.MutableThreadContextStack;
+import org.apache.logging.log4j.util.SortedArrayStringMap;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests {@link CompactBinaryLayout} together with {@link CompactBinaryLogReader}.
+ */
+public class CompactBinaryLayoutTest {
+
+    private static LogEvent createEvent(final long timeMillis, final String loggerName, final Object... params) {
+        final SortedArrayStringMap contextData = new SortedArrayStringMap();
+        contextData.putValue("user", "alice");
+        contextData.putValue("request", "r-42");
+        return Log4jLogEvent.newBuilder()
+                .setLoggerName(loggerName)
+                .setLevel(Level.WARN)
+                .setMarker(MarkerManager.getMarker("AUDIT"))
+                .setMessage(new ParameterizedMessage("Processed {} items in {} ms: {} {}", params))
+                .setContextData(contextData)
+                .setContextStack(new MutableThreadContextStack(Arrays.asList("outer", "inner")))
+                .setThreadName("worker-1")
+                .setThreadId(7)
+                .setThreadPriority(5)
+                .setTimeMillis(timeMillis)
+                .build();
+    }
+
+    private static byte[] encode(final CompactBinaryLayout layout, final LogEvent... events) {
+        final SpyByteBufferDestination destination = new SpyByteBufferDestination(64, 64 * 1024);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] header = layout.getHeader();
+        out.write(header, 0, header.length);
+        for (final LogEvent event : events) {
+            layout.encode(event, destination);
+        }
+        destination.drain(destination.getByteBuffer());
+        out.write(destination.drained.array(), 0, destination.drained.position());
+        return out.toByteArray();
+    }
+
+    private static CompactBinaryLogReader reader(final byte[] bytes) {
+        return new CompactBinaryLogReader(new ByteArrayInputStream(bytes));
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        final CompactBinaryLayout layout = CompactBinaryLayout.createDefaultLayout();
+        final LogEvent first = createEvent(1000000L, "com.example.Service", 12, 3.5, true, "x\u00e9\u20ac\ud83d\ude00");
+        final LogEvent second = createEvent(999990L, "com.example.Service", 13L, null, new int[] {1, 2}, 'c');
+        final byte[] bytes = encode(layout, first, second);
+
+        try (final CompactBinaryLogReader reader = reader(bytes)) {
+            final LogEvent read1 = reader.read();
+            assertEquals(1000000L, read1.getTimeMillis());
+            assertEquals(Level.WARN, read1.getLevel());
+            assertEquals("com.example.Service", read1.getLoggerName());
+            assertEquals("worker-1", read1.getThreadName());
+            assertEquals(7, read1.getThreadId());
+            assertEquals(5, read1.getThreadPriority());
+            assertEquals("AUDIT", read1.getMarker().getName());
+            assertTrue(read1.getMessage() instanceof ParameterizedMessage);
+            assertEquals("Processed {} items in {} ms: {} {}", read1.getMessage().getFormat());
+            assertEquals(first.getMessage().getFormattedMessage(), read1.getMessage().getFormattedMessage());
+            assertEquals(first.getContextData().toMap(), read1.getContextData().toMap());
+            assertEquals(Arrays.asList("outer", "inner"), read1.getContextStack().asList());
+            assertNull(read1.getSource());
+
+            final LogEvent read2 = reader.read();
+            assertEquals(999990L, read2.getTimeMillis());
+            assertEquals("Processed 13 items in null ms: [1, 2] c", read2.getMessage().getFormattedMessage());
+            assertNull(reader.read());
+        }
+    }
+
+    @Test
+    public void testRepeatedStringsAreWrittenOnce() {
+        final CompactBinaryLayout layout = CompactBinaryLayout.createDefaultLayout();
+        layout.getHeader();
+        final int firstLength = layout.toByteArray(createEvent(1000L, "com.example.Service", 1, 2, 3, 4)).length;
+        final int secondLength = layout.toByteArray(createEvent(1001L, "com.example.Service", 1, 2, 3, 4)).length;
+        assertTrue("first=" + firstLength + ", second=" + secondLength, secondLength * 2 < firstLength);
+        assertTrue(secondLength < 50);
+    }
+
+    @Test
+    public void testHeaderStartsNewSegment() throws IOException {
+        final CompactBinaryLayout layout = CompactBinaryLayout.createDefaultLayout();
+        encode(layout, createEvent(1000L, "a.b.C", 1, 2, 3, 4));
+        // a new file starts with the header and must not depend on the strings of the previous file
+        final byte[] bytes = encode(layout, createEvent(2000L, "a.b.C", 1, 2, 3, 4));
+        try (final CompactBinaryLogReader reader = reader(bytes)) {
+            final LogEvent event = reader.read();
+            assertEquals("a.b.C", event.getLoggerName());
+            assertEquals(2000L, event.getTimeMillis());
+        }
+    }
+
+    @Test
+    public void testMaxDictionarySizeStartsNewSegment() throws IOException {
+        final CompactBinaryLayout layout = CompactBinaryLayout.newBuilder().setMaxDictionarySize(8).build();
+        final LogEvent[] events = new LogEvent[20];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = createEvent(1000L + i, "logger" + i, i, i, i, i);
+        }
+        final byte[] bytes = encode(layout, events);
+        try (final CompactBinaryLogReader reader = reader(bytes)) {
+            for (int i = 0; i < events.length; i++) {
+                final LogEvent event = reader.read();
+                assertEquals("logger" + i, event.getLoggerName());
+                assertEquals(1000L + i, event.getTimeMillis());
+            }
+            assertNull(reader.read());
+        }
+    }
+
+    @Test
+    public void testThrowableLocationAndPlainMessage() throws IOException {
+        final CompactBinaryLayout layout = CompactBinaryLayout.newBuilder().setLocationInfo(true).build();
+        final Exception exception = new IllegalStateException("boom");
+        final StackTraceElement source = new StackTraceElement("a.b.C", "run", "C.java", 42);
+        final LogEvent event = Log4jLogEvent.newBuilder()
+                .setLoggerName("a.b.C")
+                .setLevel(Level.ERROR)
+                .setMessage(new SimpleMessage("failed"))
+                .setThrown(exception)
+                .setSource(source)
+                .setTimeMillis(5000L)
+                .build();
+        try (final CompactBinaryLogReader reader = reader(encode(layout, event))) {
+            final LogEvent read = reader.read();
+            assertEquals("failed", read.getMessage().getFormattedMessage());
+            assertEquals(source, read.getSource());
+            final CompactBinaryLogReader.RecordedThrowable thrown =
+                    (CompactBinaryLogReader.RecordedThrowable) read.getThrown();
+            assertEquals("java.lang.IllegalStateException", thrown.getClassName());
+            assertEquals("boom", thrown.getMessage());
+            assertTrue(thrown.getStackTraceText().startsWith("java.lang.IllegalStateException: boom"));
+            assertTrue(thrown.getStackTraceText().contains("testThrowableLocationAndPlainMessage"));
+
+            final PatternLayout pattern = PatternLayout.newBuilder().withPattern("%p %c %m%n%ex{short}").build();
+            assertTrue(pattern.toSerializable(read).startsWith("ERROR a.b.C failed"));
+        }
+    }
+
+    @Test
+    public void testFailedEventDoesNotCorruptDictionary() throws IOException {
+        final CompactBinaryLayout layout = CompactBinaryLayout.createDefaultLayout();
+        final SpyByteBufferDestination destination = new SpyByteBufferDestination(64, 64 * 1024);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] header = layout.getHeader();
+        out.write(header, 0, header.length);
+        layout.encode(createEvent(1000L, "a.b.C", 1, 2, 3, 4), destination);
+        final Object failing = new Object() {
+            @Override
+            public String toString() {
+                throw new IllegalStateException("toString failed");
+            }
+        };
+        final LogEvent failedEvent = Log4jLogEvent.newBuilder()
+                .setLoggerName("x.y.Z")
+                .setLevel(Level.ERROR)
+                .setMessage(new ObjectMessage(failing))
+                .setThreadName("worker-2")
+                .setTimeMillis(1500L)
+                .build();
+        try {
+            layout.encode(failedEvent, destination);
+            fail("Expected the message to fail");
+        } catch (final IllegalStateException expected) {
+            // the logger and thread names were added to the dictionary but never written
+        }
+        final LogEvent nextEvent = Log4jLogEvent.newBuilder()
+                .setLoggerName("x.y.Z")
+                .setLevel(Level.ERROR)
+                .setMessage(new SimpleMessage("after the failure"))
+                .setThreadName("worker-2")
+                .setTimeMillis(2000L)
+                .build();
+        layout.encode(nextEvent, destination);
+        destination.drain(destination.getByteBuffer());
+        out.write(destination.drained.array(), 0, destination.drained.position());
+        try (final CompactBinaryLogReader reader = reader(out.toByteArray())) {
+            assertEquals("a.b.C", reader.read().getLoggerName());
+            final LogEvent event = reader.read();
+            assertEquals("x.y.Z", event.getLoggerName());
+            assertEquals("worker-2", event.getThreadName());
+            assertEquals("after the failure", event.getMessage().getFormattedMessage());
+            assertEquals(2000L, event.getTimeMillis());
+            assertNull(reader.read());
+        }
+    }
+
+    @Test(expected = EOFException.class)
+    public void testTruncatedRecord() throws IOException {
+        final byte[] bytes = encode(CompactBinaryLayout.createDefaultLayout(), createEvent(1000L, "a.b.C", 1, 2, 3, 4));
+        try (final CompactBinaryLogReader reader = reader(Arrays.copyOf(bytes, bytes.length - 3))) {
+            reader.read();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidHeader() throws IOException {
+        final byte[] bytes = CompactBinaryLayout.createDefaultLayout().getHeader();
+        bytes[2] = 'X';
+        try (final CompactBinaryLogReader reader = reader(bytes)) {
+            reader.read();
+        }
+    }
+
+    @Test
+    public void testReusableEventWritesFormatAndParameters() throws IOException {
+        final MutableLogEvent event = new MutableLogEvent();
+        event.setLoggerName("a.b.C");
+        event.setLevel(Level.INFO);
+        event.setTimeMillis(3000L);
+        event.setMessage(ReusableMessageFactory.INSTANCE.newMessage("{} took {} ms", "request", 17L));
+        final CompactBinaryLayout layout = CompactBinaryLayout.createDefaultLayout();
+        try (final CompactBinaryLogReader reader = reader(encode(layout, event))) {
+            final LogEvent read = reader.read();
+            assertEquals("{} took {} ms", read.getMessage().getFormat());
+            assertArrayEquals(new Object[] {"request", 17L}, read.getMessage().getParameters());
+            assertEquals("request took 17 ms", read.getMessage().getFormattedMessage());
+        }
+    }
+
+    @Test
+    public void testReusableEventWithMutableParameterWritesText() throws IOException {
+        final StringBuilder state = new StringBuilder("before");
+        final MutableLogEvent event = new MutableLogEvent();
+        event.setLoggerName("a.b.C");
+        event.setLevel(Level.INFO);
+        event.setTimeMillis(3000L);
+        event.setMessage(ReusableMessageFactory.INSTANCE.newMessage("state is {}", state));
+        state.setLength(0);
+        state.append("after");
+        final CompactBinaryLayout layout = CompactBinaryLayout.createDefaultLayout();
+        try (final CompactBinaryLogReader reader = reader(encode(layout, event))) {
+            final LogEvent read = reader.read();
+            assertEquals("state is before", read.getMessage().getFormattedMessage());
+        }
+    }
+
+    @Test
+    public void testFormattedMessageWithMutableParameterWritesText() throws IOException {
+        final StringBuilder state = new StringBuilder("before");
+        final ParameterizedMessage message = new ParameterizedMessage("state is {}", state);
+        message.getFormattedMessage();
+        state.setLength(0);
+        state.append("after");
+        final LogEvent event = Log4jLogEvent.newBuilder()
+                .setLoggerName("a.b.C")
+                .setLevel(Level.INFO)
+                .setMessage(message)
+                .setTimeMillis(3000L)
+                .build();
+        final CompactBinaryLayout layout = CompactBinaryLayout.createDefaultLayout();
+        try (final CompactBinaryLogReader reader = reader(encode(layout, event))) {
+            final LogEvent read = reader.read();
+            assertEquals("state is before", read.getMessage().getFormattedMessage());
+        }
+    }
+
+    @Test
+    public void testEventWithMoreStringsThanTheDictionaryHolds() throws IOException {
+        final CompactBinaryLayout layout = CompactBinaryLayout.newBuilder().setMaxDictionarySize(4).build();
+        final SortedArrayStringMap contextData = new SortedArrayStringMap();
+        for (int i = 0; i < 1000; i++) {
+            contextData.putValue("key" + i, "value" + i);
+        }
+        final LogEvent event = Log4jLogEvent.newBuilder()
+                .setLoggerName("a.b.C")
+                .setLevel(Level.INFO)
+                .setMessage(new SimpleMessage("many keys"))
+                .setContextData(contextData)
+                .setTimeMillis(1000L)
+                .build();
+        final LogEvent next = createEvent(1001L, "a.b.C", 1, 2, 3, 4);
+        try (final CompactBinaryLogReader reader = reader(encode(layout, event, event, next))) {
+            assertEquals(contextData.toMap(), reader.read().getContextData().toMap());
+            assertEquals(contextData.toMap(), reader.read().getContextData().toMap());
+            assertEquals(next.getMessage().getFormattedMessage(), reader.read().getMessage().getFormattedMessage());
+            assertNull(reader.read());
+        }
+    }
+
+    @Test
+    public void testEmptyAndNullThrowableMessages() throws IOException {
+        final CompactBinaryLayout layout = CompactBinaryLayout.createDefaultLayout();
+        final LogEvent empty = Log4jLogEvent.newBuilder()
+                .setLoggerName("a.b.C")
+                .setLevel(Level.ERROR)
+                .setMessage(new SimpleMessage("empty"))
+                .setThrown(new IllegalStateException(""))
+                .build();
+        final LogEvent none = Log4jLogEvent.newBuilder()
+                .setLoggerName("a.b.C")
+                .setLevel(Level.ERROR)
+                .setMessage(new SimpleMessage("none"))
+                .setThrown(new IllegalStateException())
+                .build();
+        try (final CompactBinaryLogReader reader = reader(encode(layout, empty, none))) {
+            assertEquals("", reader.read().getThrown().getMessage());
+            assertNull(reader.read().getThrown().getMessage());
+        }
+    }
+}
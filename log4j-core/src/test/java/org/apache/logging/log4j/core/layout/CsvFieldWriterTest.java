@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.layout;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.QuoteMode;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.MarkerManager;
+import org.apache.logging.log4j.categories.Layouts;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.core.impl.MutableLogEvent;
+import org.apache.logging.log4j.message.ObjectArrayMessage;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.apache.logging.log4j.message.ReusableMessageFactory;
+import org.apache.logging.log4j.spi.MutableThreadContextStack;
+import org.apache.logging.log4j.util.SortedArrayStringMap;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Tests that {@link CsvFieldWriter} prints exactly like Commons CSV.
+ */
+@Category(Layouts.Csv.class)
+public class CsvFieldWriterTest {
+
+    private static final CSVFormat[] FORMATS = {
+            CSVFormat.DEFAULT,
+            CSVFormat.EXCEL,
+            CSVFormat.MYSQL,
+            CSVFormat.RFC4180,
+            CSVFormat.TDF,
+            CSVFormat.DEFAULT.withQuoteMode(QuoteMode.ALL).withNullString("NULL"),
+            CSVFormat.DEFAULT.withQuoteMode(QuoteMode.ALL_NON_NULL).withNullString("NULL"),
+            CSVFormat.DEFAULT.withQuoteMode(QuoteMode.NON_NUMERIC),
+            CSVFormat.DEFAULT.withEscape('\\').withQuoteMode(QuoteMode.NONE),
+            CSVFormat.DEFAULT.withQuote(null).withEscape('!').withDelimiter(';'),
+            CSVFormat.DEFAULT.withQuote(null),
+            CSVFormat.DEFAULT.withQuote('\'').withDelimiter('|').withRecordSeparator("\n"),
+            CSVFormat.DEFAULT.withTrim().withTrailingDelimiter().withNullString(" "),
+    };
+
+    private static final Object[] VALUES = {
+            "plain", "", " ", "a,b", "a;b", "a|b", "a\tb", "say \"hi\"", "it's", "line\nbreak", "cr\rlf", "back\\slash",
+            "esc!ape", "#comment", "!bang", " leading", "trailing ", "\u00e9t\u00e9", "\u00a0nbsp", "-1", null, 42,
+            -7L, 3.5, 2.5f, true, 'c', new BigDecimal("1.50"), Level.WARN, MarkerManager.getMarker("CSV"),
+            new MutableThreadContextStack(Arrays.asList("a", "b")), new ParameterizedMessage("{}", 1),
+    };
+
+    private static String commonsCsv(final CSVFormat format, final Object... values) throws IOException {
+        final StringBuilder buffer = new StringBuilder();
+        format.printRecord(buffer, values);
+        return buffer.toString();
+    }
+
+    private static String fieldWriter(final CSVFormat format, final Object... values) {
+        final CsvFieldWriter writer = new CsvFieldWriter(format);
+        final StringBuilder buffer = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            writer.print(values[i], buffer, i == 0);
+        }
+        writer.println(buffer);
+        return buffer.toString();
+    }
+
+    @Test
+    public void testFieldsMatchCommonsCsv() throws IOException {
+        for (final CSVFormat format : FORMATS) {
+            for (final Object first : VALUES) {
+                for (final Object second : VALUES) {
+                    final String expected = commonsCsv(format, first, second);
+                    assertEquals(format + " " + Arrays.asList(first, second), expected,
+                            fieldWriter(format, first, second));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testNumbersMatchCommonsCsv() throws IOException {
+        final CSVFormat format = CSVFormat.DEFAULT.withQuoteMode(QuoteMode.NON_NUMERIC);
+        final CsvFieldWriter writer = new CsvFieldWriter(format);
+        final StringBuilder buffer = new StringBuilder();
+        writer.print(Long.MIN_VALUE, buffer, true);
+        writer.print(17, buffer, false);
+        writer.println(buffer);
+        assertEquals(commonsCsv(format, Long.MIN_VALUE, 17), buffer.toString());
+    }
+
+    @Test
+    public void testContextDataMatchesCommonsCsv() throws IOException {
+        final SortedArrayStringMap contextData = new SortedArrayStringMap();
+        assertEquals(commonsCsv(CSVFormat.DEFAULT, contextData), fieldWriter(CSVFormat.DEFAULT, contextData));
+        contextData.putValue("user", "alice");
+        contextData.putValue("count", 3);
+        contextData.putValue("none", null);
+        assertEquals(commonsCsv(CSVFormat.DEFAULT, contextData), fieldWriter(CSVFormat.DEFAULT, contextData));
+    }
+
+    @Test
+    public void testParameterLayoutEncode() {
+        final CSVFormat format = CSVFormat.DEFAULT.withQuoteMode(QuoteMode.NON_NUMERIC);
+        final AbstractCsvLayout layout = CsvParameterLayout.createLayout(format);
+        final MutableLogEvent event = new MutableLogEvent();
+        event.setMessage(ReusableMessageFactory.INSTANCE.newMessage("{} {} {}", "IBM", 101.25, 300L));
+        assertEquals("\"IBM\",101.25,300\r\n", encode(layout, event));
+
+        final LogEvent arrayEvent = Log4jLogEvent.newBuilder()
+                .setMessage(new ObjectArrayMessage("a,b", null, 1)).build();
+        assertEquals("\"a,b\",,1\r\n", encode(layout, arrayEvent));
+        assertEquals(layout.toSerializable(arrayEvent), encode(layout, arrayEvent));
+    }
+
+    @Test
+    public void testLogEventLayoutEncode() {
+        final CsvLogEventLayout layout = CsvLogEventLayout.createDefaultLayout();
+        final SortedArrayStringMap contextData = new SortedArrayStringMap();
+        contextData.putValue("user", "alice");
+        final LogEvent event = Log4jLogEvent.newBuilder()
+                .setLoggerName("a.b.C")
+                .setLoggerFqcn("a.b.Logger")
+                .setLevel(Level.INFO)
+                .setMarker(MarkerManager.getMarker("CSV"))
+                .setMessage(new ParameterizedMessage("Hello, {}", "world"))
+                .setContextData(contextData)
+                .setThreadName("main")
+                .setThreadId(1)
+                .setThreadPriority(5)
+                .setTimeMillis(1234L)
+                .setNanoTime(5678L)
+                .build();
+        assertEquals("5678,1234,INFO,1,main,5,\"Hello, world\",a.b.Logger,a.b.C,CSV,,,{user=alice},[]\r\n",
+                encode(layout, event));
+    }
+
+    private static String encode(final AbstractCsvLayout layout, final LogEvent event) {
+        final SpyByteBufferDestination destination = new SpyByteBufferDestination(64, 1024);
+        layout.encode(event, destination);
+        destination.drain(destination.getByteBuffer());
+        return new String(destination.drained.array(), 0, destination.drained.position(), StandardCharsets.UTF_8);
+    }
+}
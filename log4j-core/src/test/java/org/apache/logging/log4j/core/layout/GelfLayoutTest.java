@@ -39,9 +39,11 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
 import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
 import java.util.zip.InflaterInputStream;
 
 import static net.javacrumbs.jsonunit.JsonAssert.assertJsonEquals;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 public class GelfLayoutTest {
@@ -255,6 +257,63 @@ public class GelfLayoutTest {
         testCompressedLayout(CompressionType.OFF, false, true, HOSTNAME, true);
     }
 
+    private static LogEvent createEvent(final String message) {
+        return org.apache.logging.log4j.core.impl.Log4jLogEvent.newBuilder()
+            .setLoggerName("a.b.C")
+            .setLevel(Level.INFO)
+            .setMessage(new org.apache.logging.log4j.message.SimpleMessage(message))
+            .setTimeMillis(1458741206653L)
+            .build();
+    }
+
+    private static String repeat(final String s, final int count) {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append(s);
+        }
+        return sb.toString();
+    }
+
+    private static byte[] encode(final GelfLayout layout, final LogEvent event) {
+        final SpyByteBufferDestination destination = new SpyByteBufferDestination(256, 65536);
+        layout.encode(event, destination);
+        destination.drain(destination.getByteBuffer());
+        return java.util.Arrays.copyOf(destination.drained.array(), destination.drained.position());
+    }
+
+    @Test
+    public void testEncodeReusesCompressionStateAcrossEventsOfDifferentSizes() throws Exception {
+        for (final CompressionType compressionType : new CompressionType[] {CompressionType.GZIP, CompressionType.ZLIB}) {
+            final GelfLayout layout = GelfLayout.newBuilder()
+                .setConfiguration(ctx.getConfiguration())
+                .setHost(HOSTNAME)
+                .setCompressionType(compressionType)
+                .setCompressionThreshold(200)
+                .build();
+            for (final int size : new int[] {1, 5000, 10, 40000, 300}) {
+                final LogEvent event = createEvent(repeat("message \u00e9 ", size));
+                final String expected = layout.toSerializable(event);
+                final byte[] encoded = encode(layout, event);
+                assertArrayEquals(encoded, layout.toByteArray(event));
+                final byte[] uncompressed;
+                if (expected.length() <= 200) {
+                    uncompressed = encoded;
+                } else if (compressionType == CompressionType.GZIP) {
+                    uncompressed = IOUtils.toByteArray(new GZIPInputStream(new ByteArrayInputStream(encoded)));
+                } else {
+                    uncompressed = IOUtils.toByteArray(new InflaterInputStream(new ByteArrayInputStream(encoded),
+                        new Inflater()));
+                }
+                assertEquals(expected, new String(uncompressed, layout.getCharset()));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testChunkSizeMustExceedChunkHeader() {
+        GelfLayout.newBuilder().setChunkSize(12).build();
+    }
+
     @Test
     public void testFormatTimestamp() {
         assertEquals("0", GelfLayout.formatTimestamp(0L).toString());
@@ -17,6 +17,7 @@
 package org.apache.logging.log4j.core.layout;
 
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -24,11 +25,18 @@ import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.ThreadContext;
 import org.apache.logging.log4j.core.Appender;
 import org.apache.logging.log4j.core.BasicConfigurationFactory;
+import org.apache.logging.log4j.core.LogEvent;
 import org.apache.logging.log4j.core.Logger;
 import org.apache.logging.log4j.core.LoggerContext;
 import org.apache.logging.log4j.core.config.ConfigurationFactory;
+import org.apache.logging.log4j.core.impl.ContextDataFactory;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
 import org.apache.logging.log4j.junit.ThreadContextRule;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.apache.logging.log4j.spi.MutableThreadContextStack;
 import org.apache.logging.log4j.test.appender.ListAppender;
+import org.apache.logging.log4j.util.StringMap;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Rule;
@@ -156,4 +164,51 @@ public class HtmlLayoutTest {
             root.addAppender(app);
         }
     }
+
+    @Test
+    public void testEncodeEscapesInPlace() {
+        final HtmlLayout layout = HtmlLayout.newBuilder().build();
+        final StringMap contextData = ContextDataFactory.createContextData();
+        contextData.putValue("a", "<1>");
+        contextData.putValue("b", "2");
+        final LogEvent event = Log4jLogEvent.newBuilder()
+                .setLoggerName("")
+                .setLevel(Level.DEBUG)
+                .setThreadName("<main>")
+                .setMessage(new ParameterizedMessage("{} & \"{}\"\nnext", "<b>", "x"))
+                .setContextData(contextData)
+                .setContextStack(new MutableThreadContextStack(Arrays.asList("one", "<two>")))
+                .build();
+        final String html = layout.toSerializable(event);
+        assertTrue(html, html.contains("<td title=\"&lt;main&gt; thread\">&lt;main&gt;</td>"));
+        assertTrue(html, html.contains("<td title=\"root logger\">root</td>"));
+        assertTrue(html, html.contains("<font color=\"#339933\">DEBUG</font>"));
+        assertTrue(html, html.contains("<td title=\"Message\">&lt;b&gt; &amp; &quot;x&quot;<br />next</td>"));
+        assertTrue(html, html.contains("NDC: [one, &lt;two&gt;]</td>"));
+        assertTrue(html, html.contains("MDC: {a=&lt;1&gt;, b=2}</td>"));
+
+        final SpyByteBufferDestination destination = new SpyByteBufferDestination(64, 4096);
+        layout.encode(event, destination);
+        destination.drain(destination.getByteBuffer());
+        assertEquals(html, new String(destination.drained.array(), 0, destination.drained.position(),
+                StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testEscapeManyLineBreaksAndTags() {
+        final HtmlLayout layout = HtmlLayout.newBuilder().build();
+        final StringBuilder message = new StringBuilder();
+        final StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            message.append("<a>\n");
+            expected.append("&lt;a&gt;<br />");
+        }
+        final LogEvent event = Log4jLogEvent.newBuilder()
+                .setLoggerName("")
+                .setLevel(Level.DEBUG)
+                .setMessage(new SimpleMessage(message.toString()))
+                .build();
+        final String html = layout.toSerializable(event);
+        assertTrue(html, html.contains("<td title=\"Message\">" + expected + "</td>"));
+    }
 }
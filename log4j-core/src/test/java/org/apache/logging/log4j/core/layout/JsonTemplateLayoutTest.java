@@ -0,0 +1,208 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.layout;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.MarkerManager;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.config.DefaultConfiguration;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.message.StringMapMessage;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.apache.logging.log4j.message.StructuredDataMessage;
+import org.apache.logging.log4j.util.SortedArrayStringMap;
+import org.junit.Test;
+
+import static net.javacrumbs.jsonunit.JsonAssert.assertJsonEquals;
+import static org.junit.Assert.*;
+
+public class JsonTemplateLayoutTest {
+
+    private static LogEvent createEvent() {
+        final SortedArrayStringMap contextData = new SortedArrayStringMap();
+        contextData.putValue("user", "alice");
+        contextData.putValue("quote", "say \"hi\"");
+        return Log4jLogEvent.newBuilder()
+                .setLoggerName("a.b.C")
+                .setLoggerFqcn("org.apache.logging.log4j.spi.AbstractLogger")
+                .setLevel(Level.WARN)
+                .setMarker(MarkerManager.getMarker("AUDIT"))
+                .setMessage(new ParameterizedMessage("Hello {}", "world"))
+                .setContextData(contextData)
+                .setThreadName("main")
+                .setThreadId(1)
+                .setThreadPriority(5)
+                .setTimeMillis(1234567890123L)
+                .build();
+    }
+
+    private static JsonTemplateLayout layout(final String template) {
+        return JsonTemplateLayout.newBuilder()
+                .setConfiguration(new DefaultConfiguration())
+                .setEventTemplate(template)
+                .setEventEol(false)
+                .build();
+    }
+
+    @Test
+    public void testDefaultTemplate() {
+        final JsonTemplateLayout layout = JsonTemplateLayout.newBuilder()
+                .setConfiguration(new DefaultConfiguration())
+                .build();
+        final String json = layout.toSerializable(createEvent());
+        assertTrue(json.endsWith("}\n"));
+        assertJsonEquals("{\"timeMillis\":1234567890123,\"thread\":\"main\",\"level\":\"WARN\","
+                + "\"loggerName\":\"a.b.C\",\"marker\":\"AUDIT\",\"message\":\"Hello world\","
+                + "\"contextMap\":{\"quote\":\"say \\\"hi\\\"\",\"user\":\"alice\"},\"endOfBatch\":false,"
+                + "\"loggerFqcn\":\"org.apache.logging.log4j.spi.AbstractLogger\",\"threadId\":1,"
+                + "\"threadPriority\":5}", json);
+    }
+
+    @Test
+    public void testNestedTemplateWithLiterals() {
+        final JsonTemplateLayout layout = layout("{\"@version\":1,\"service\":\"billing\",\"literal\":\"$$level\","
+                + "\"log\":{\"level\":\"$level\",\"logger\":\"$loggerName\"},\"tags\":[\"$marker\",\"static\"],"
+                + "\"enabled\":true,\"nothing\":null}");
+        assertEquals("{\"@version\":1,\"service\":\"billing\",\"literal\":\"$level\","
+                + "\"log\":{\"level\":\"WARN\",\"logger\":\"a.b.C\"},\"tags\":[\"AUDIT\",\"static\"],"
+                + "\"enabled\":true,\"nothing\":null}", layout.toSerializable(createEvent()));
+    }
+
+    @Test
+    public void testFieldsWithoutValueAreOmitted() {
+        final JsonTemplateLayout layout = layout(
+                "{\"thrown\":\"$thrown\",\"message\":\"$message\",\"source\":\"$source\",\"ndc\":\"$contextStack\"}");
+        final LogEvent event = Log4jLogEvent.newBuilder()
+                .setLoggerName("a.b.C")
+                .setLevel(Level.INFO)
+                .setMessage(new SimpleMessage("plain"))
+                .build();
+        assertEquals("{\"message\":\"plain\"}", layout.toSerializable(event));
+    }
+
+    @Test
+    public void testThrownAndSource() {
+        final JsonTemplateLayout layout = layout("{\"thrown\":\"$thrown\",\"source\":\"$source\"}");
+        final LogEvent event = Log4jLogEvent.newBuilder()
+                .setLoggerName("a.b.C")
+                .setLevel(Level.ERROR)
+                .setMessage(new SimpleMessage("failed"))
+                .setThrown(new IllegalStateException("boom"))
+                .setSource(new StackTraceElement("a.b.C", "run", "C.java", 42))
+                .build();
+        final String json = layout.toSerializable(event);
+        assertTrue(json, json.startsWith("{\"thrown\":\"java.lang.IllegalStateException: boom"));
+        assertTrue(json, json.endsWith(
+                "\"source\":{\"class\":\"a.b.C\",\"method\":\"run\",\"file\":\"C.java\",\"line\":42}}"));
+    }
+
+    @Test
+    public void testEncodeMatchesToSerializable() {
+        final JsonTemplateLayout layout = JsonTemplateLayout.newBuilder()
+                .setConfiguration(new DefaultConfiguration())
+                .build();
+        final LogEvent event = createEvent();
+        final SpyByteBufferDestination destination = new SpyByteBufferDestination(64, 4096);
+        layout.encode(event, destination);
+        destination.drain(destination.getByteBuffer());
+        final String encoded = new String(destination.drained.array(), 0, destination.drained.position(),
+                StandardCharsets.UTF_8);
+        assertEquals(layout.toSerializable(event), encoded);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownFieldIsRejected() {
+        layout("{\"x\":\"$noSuchField\"}");
+    }
+
+    @Test
+    public void testEventTemplateUri() {
+        final JsonTemplateLayout layout = JsonTemplateLayout.newBuilder()
+                .setConfiguration(new DefaultConfiguration())
+                .setEventTemplateUri("classpath:JsonTemplateLayoutTest.json")
+                .setEventEol(false)
+                .build();
+        assertEquals("{\"level\":\"WARN\",\"message\":\"Hello world\"}", layout.toSerializable(createEvent()));
+    }
+
+    @Test
+    public void testTimestampResolverWithPattern() {
+        final JsonTemplateLayout layout = layout("{\"@timestamp\":{\"$resolver\":\"timestamp\","
+                + "\"pattern\":\"yyyy-MM-dd'T'HH:mm:ss.SSS\",\"timeZone\":\"UTC\"},"
+                + "\"epoch\":{\"$resolver\":\"timestamp\",\"pattern\":\"UNIX\"},"
+                + "\"millis\":{\"$resolver\":\"timestamp\"}}");
+        assertEquals("{\"@timestamp\":\"2009-02-13T23:31:30.123\",\"epoch\":1234567890,\"millis\":1234567890123}",
+                layout.toSerializable(createEvent()));
+    }
+
+    @Test
+    public void testMdcKeySelection() {
+        final JsonTemplateLayout layout = layout("{\"user\":{\"$resolver\":\"mdc\",\"key\":\"user\"},"
+                + "\"missing\":{\"$resolver\":\"mdc\",\"key\":\"missing\"},"
+                + "\"quote\":{\"$resolver\":\"contextMap\",\"key\":\"quote\"}}");
+        assertEquals("{\"user\":\"alice\",\"quote\":\"say \\\"hi\\\"\"}", layout.toSerializable(createEvent()));
+    }
+
+    @Test
+    public void testExceptionResolverWithTruncation() {
+        final JsonTemplateLayout layout = layout("{\"error\":{"
+                + "\"class\":{\"$resolver\":\"exception\",\"field\":\"className\"},"
+                + "\"message\":{\"$resolver\":\"exception\",\"field\":\"message\"},"
+                + "\"trace\":{\"$resolver\":\"exception\",\"maxLength\":36}}}");
+        final LogEvent event = Log4jLogEvent.newBuilder()
+                .setLevel(Level.ERROR)
+                .setMessage(new SimpleMessage("failed"))
+                .setThrown(new IllegalStateException("boom"))
+                .build();
+        assertEquals("{\"error\":{\"class\":\"java.lang.IllegalStateException\",\"message\":\"boom\","
+                + "\"trace\":\"java.lang.IllegalStateException: boo\"}}", layout.toSerializable(event));
+        final LogEvent withoutException = Log4jLogEvent.newBuilder()
+                .setLevel(Level.ERROR)
+                .setMessage(new SimpleMessage("failed"))
+                .build();
+        assertEquals("{\"error\":{}}", layout.toSerializable(withoutException));
+    }
+
+    @Test
+    public void testStructuredMessage() {
+        final JsonTemplateLayout layout = layout("{\"message\":{\"$resolver\":\"message\",\"structured\":true}}");
+        final LogEvent mapEvent = Log4jLogEvent.newBuilder()
+                .setLevel(Level.INFO)
+                .setMessage(new StringMapMessage().with("action", "login").with("user", "bob"))
+                .build();
+        assertEquals("{\"message\":{\"action\":\"login\",\"user\":\"bob\"}}", layout.toSerializable(mapEvent));
+        final LogEvent structuredDataEvent = Log4jLogEvent.newBuilder()
+                .setLevel(Level.INFO)
+                .setMessage(new StructuredDataMessage("id", "msg", "type").with("count", 3))
+                .build();
+        assertEquals("{\"message\":{\"count\":3}}", layout.toSerializable(structuredDataEvent));
+        assertEquals("{\"message\":\"Hello world\"}", layout.toSerializable(createEvent()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownResolverParameterIsRejected() {
+        layout("{\"x\":{\"$resolver\":\"mdc\",\"kee\":\"user\"}}");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidExceptionFieldIsRejected() {
+        layout("{\"x\":{\"$resolver\":\"exception\",\"field\":\"cause\"}}");
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.layout;
+
+import static org.junit.Assert.assertEquals;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.junit.Test;
+
+public class LevelPatternSelectorTest {
+
+    LoggerContext ctx = LoggerContext.getContext();
+
+    private PatternLayout createLayout(final PatternMatch... patterns) {
+        final PatternSelector selector = LevelPatternSelector.newBuilder().setProperties(patterns)
+                .setDefaultPattern("default %m").setConfiguration(ctx.getConfiguration()).build();
+        return PatternLayout.newBuilder().withPatternSelector(selector)
+                .withConfiguration(ctx.getConfiguration()).build();
+    }
+
+    private LogEvent newEvent(final Level level) {
+        return Log4jLogEvent.newBuilder() //
+                .setLoggerName(this.getClass().getName()) //
+                .setLevel(level) //
+                .setMessage(new SimpleMessage("Hello")).build();
+    }
+
+    @Test
+    public void testStandardAndCustomLevels() throws Exception {
+        final Level notice = Level.forName("SELECTOR_NOTICE", 350);
+        final PatternLayout layout = createLayout(new PatternMatch("ERROR", "error %m"),
+                new PatternMatch("SELECTOR_NOTICE", "notice %m"));
+        assertEquals("error Hello", layout.toSerializable(newEvent(Level.ERROR)));
+        assertEquals("default Hello", layout.toSerializable(newEvent(Level.WARN)));
+        assertEquals("notice Hello", layout.toSerializable(newEvent(notice)));
+    }
+
+    @Test
+    public void testCustomLevelWithStandardIntLevel() throws Exception {
+        final Level audit = Level.forName("SELECTOR_AUDIT", Level.INFO.intLevel());
+        final PatternLayout layout = createLayout(new PatternMatch("INFO", "info %m"),
+                new PatternMatch("SELECTOR_AUDIT", "audit %m"));
+        assertEquals("info Hello", layout.toSerializable(newEvent(Level.INFO)));
+        assertEquals("audit Hello", layout.toSerializable(newEvent(audit)));
+        final PatternLayout auditOnly = createLayout(new PatternMatch("SELECTOR_AUDIT", "audit %m"));
+        assertEquals("default Hello", auditOnly.toSerializable(newEvent(Level.INFO)));
+        assertEquals("audit Hello", auditOnly.toSerializable(newEvent(audit)));
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.layout;
+
+import static org.junit.Assert.assertEquals;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Marker;
+import org.apache.logging.log4j.MarkerManager;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.junit.Test;
+
+public class MarkerPatternSelectorTest {
+
+    LoggerContext ctx = LoggerContext.getContext();
+
+    @Test
+    public void testSelectionFollowsParentChanges() throws Exception {
+        final PatternMatch[] patterns = new PatternMatch[1];
+        patterns[0] = new PatternMatch("SELECTOR_PARENT", "parent %m");
+        final PatternSelector selector = MarkerPatternSelector.newBuilder().setProperties(patterns)
+                .setDefaultPattern("default %m").setConfiguration(ctx.getConfiguration()).build();
+        final PatternLayout layout = PatternLayout.newBuilder().withPatternSelector(selector)
+                .withConfiguration(ctx.getConfiguration()).build();
+        final Marker parent = MarkerManager.getMarker("SELECTOR_PARENT");
+        final Marker child = MarkerManager.getMarker("SELECTOR_CHILD");
+        final LogEvent event = Log4jLogEvent.newBuilder() //
+                .setLoggerName(this.getClass().getName()) //
+                .setMarker(child) //
+                .setLevel(Level.INFO) //
+                .setMessage(new SimpleMessage("Hello")).build();
+        assertEquals("default Hello", layout.toSerializable(event));
+        assertEquals("default Hello", layout.toSerializable(event));
+        child.addParents(parent);
+        assertEquals("parent Hello", layout.toSerializable(event));
+        child.setParents();
+        assertEquals("default Hello", layout.toSerializable(event));
+    }
+
+    @Test
+    public void testSelectionFollowsMarkerCreation() throws Exception {
+        final PatternMatch[] patterns = new PatternMatch[1];
+        patterns[0] = new PatternMatch("SELECTOR_LATE", "late %m");
+        final PatternSelector selector = MarkerPatternSelector.newBuilder().setProperties(patterns)
+                .setDefaultPattern("default %m").setConfiguration(ctx.getConfiguration()).build();
+        final PatternLayout layout = PatternLayout.newBuilder().withPatternSelector(selector)
+                .withConfiguration(ctx.getConfiguration()).build();
+        final Marker child = MarkerManager.getMarker("SELECTOR_LATE_CHILD");
+        final LogEvent childEvent = Log4jLogEvent.newBuilder() //
+                .setLoggerName(this.getClass().getName()) //
+                .setMarker(child) //
+                .setLevel(Level.INFO) //
+                .setMessage(new SimpleMessage("Hello")).build();
+        assertEquals("default Hello", layout.toSerializable(childEvent));
+        final Marker late = MarkerManager.getMarker("SELECTOR_LATE");
+        final LogEvent lateEvent = new Log4jLogEvent.Builder(childEvent).setMarker(late).build();
+        assertEquals("late Hello", layout.toSerializable(lateEvent));
+        assertEquals("default Hello", layout.toSerializable(childEvent));
+        child.addParents(late);
+        assertEquals("late Hello", layout.toSerializable(childEvent));
+    }
+
+    @Test
+    public void testOtherMarkerImplementationsAreNotRemembered() throws Exception {
+        final PatternMatch[] patterns = new PatternMatch[1];
+        patterns[0] = new PatternMatch("SELECTOR_OTHER", "other %m");
+        final PatternSelector selector = MarkerPatternSelector.newBuilder().setProperties(patterns)
+                .setDefaultPattern("default %m").setConfiguration(ctx.getConfiguration()).build();
+        final PatternLayout layout = PatternLayout.newBuilder().withPatternSelector(selector)
+                .withConfiguration(ctx.getConfiguration()).build();
+        final NamedParentMarker marker = new NamedParentMarker("SELECTOR_OTHER_CHILD");
+        final LogEvent event = Log4jLogEvent.newBuilder() //
+                .setLoggerName(this.getClass().getName()) //
+                .setMarker(marker) //
+                .setLevel(Level.INFO) //
+                .setMessage(new SimpleMessage("Hello")).build();
+        assertEquals("default Hello", layout.toSerializable(event));
+        marker.parentName = "SELECTOR_OTHER";
+        assertEquals("other Hello", layout.toSerializable(event));
+    }
+
+    /**
+     * A Marker whose parent is given by name and can change without the MarkerManager knowing.
+     */
+    private static class NamedParentMarker implements Marker {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String name;
+        private volatile String parentName;
+
+        NamedParentMarker(final String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Marker addParents(final Marker... markers) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Marker[] getParents() {
+            return null;
+        }
+
+        @Override
+        public boolean hasParents() {
+            return parentName != null;
+        }
+
+        @Override
+        public boolean isInstanceOf(final Marker m) {
+            return isInstanceOf(m.getName());
+        }
+
+        @Override
+        public boolean isInstanceOf(final String markerName) {
+            return name.equals(markerName) || markerName.equals(parentName);
+        }
+
+        @Override
+        public boolean remove(final Marker marker) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Marker setParents(final Marker... markers) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -28,15 +28,19 @@ import org.apache.logging.log4j.core.Appender;
 import org.apache.logging.log4j.core.BasicConfigurationFactory;
 import org.apache.logging.log4j.core.Logger;
 import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.LogEvent;
 import org.apache.logging.log4j.core.config.ConfigurationFactory;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
 import org.apache.logging.log4j.core.net.Facility;
 import org.apache.logging.log4j.core.util.KeyValuePair;
 import org.apache.logging.log4j.junit.ThreadContextRule;
+import org.apache.logging.log4j.message.ParameterizedMessage;
 import org.apache.logging.log4j.message.StructuredDataCollectionMessage;
 import org.apache.logging.log4j.message.StructuredDataMessage;
 import org.apache.logging.log4j.status.StatusLogger;
 import org.apache.logging.log4j.test.appender.ListAppender;
 import org.apache.logging.log4j.util.ProcessIdUtil;
+import org.apache.logging.log4j.util.SortedArrayStringMap;
 import org.apache.logging.log4j.util.Strings;
 import org.junit.AfterClass;
 import org.junit.Assert;
@@ -525,4 +529,33 @@ public class Rfc5424LayoutTest {
             appender.stop();
         }
     }
+
+    @Test
+    public void testEncodeMatchesToSerializable() {
+        final Rfc5424Layout layout = Rfc5424Layout.createLayout(Facility.LOCAL0, "Event", 3692, true, "RequestContext",
+            null, null, true, "#012", "ATM", null, null, null, null, "%ex{1}", false, null, null);
+        final SortedArrayStringMap contextData = new SortedArrayStringMap();
+        contextData.putValue("escaped", "a \"b\" ]\\\nc");
+        contextData.putValue("loginId", "JohnDoe");
+        final LogEvent event = Log4jLogEvent.newBuilder()
+            .setLoggerName("a.b.C")
+            .setLevel(Level.INFO)
+            .setMessage(new ParameterizedMessage("line {}\r\nline {}", 1, 2))
+            .setContextData(contextData)
+            .setThrown(new IllegalStateException("boom"))
+            .setTimeMillis(1234567890123L)
+            .build();
+        final String serialized = layout.toSerializable(event);
+        assertTrue(serialized, serialized.matches("(?s)<134>1 \\d{4}-\\d\\d-\\d\\dT\\d\\d:\\d\\d:\\d\\d\\.123(Z|[+-]\\d\\d:\\d\\d) .*"));
+        final String expected = String.format(" ATM %s - [RequestContext@3692 escaped=\"a \\\"b\\\" \\]\\\\#012c\" "
+            + "loginId=\"JohnDoe\"] line 1#012line 2#012java.lang.IllegalStateException: boom", PROCESSID);
+        assertTrue(serialized, serialized.contains(expected));
+
+        final SpyByteBufferDestination destination = new SpyByteBufferDestination(64, 4096);
+        layout.encode(event, destination);
+        destination.drain(destination.getByteBuffer());
+        final String encoded = new String(destination.drained.array(), 0, destination.drained.position(),
+            layout.getCharset());
+        assertEquals(serialized, encoded);
+    }
 }
@@ -15,6 +15,7 @@ package org.apache.logging.log4j.core.layout;/*
  * limitations under the license.
  */
 
+import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
@@ -300,6 +301,42 @@ public class StringBuilderEncoderTest {
         // no error
     }
 
+    @Test
+    public void testEncodeText_Utf8SurrogatesAndSmallBuffers() throws Exception {
+        final StringBuilder text = new StringBuilder( // 1, 2, 3 and 4 byte characters and unpaired surrogates
+                "a\u00e9\u20ac\ud83d\ude00 \ud83d x \ude00 \u00ff\u0800\uffff\udbff\udfff\ud83d");
+        final byte[] utf8 = text.toString().getBytes(StandardCharsets.UTF_8);
+        for (int byteBufferSize = 4; byteBufferSize <= 64; byteBufferSize++) {
+            for (int destinationSize = 4; destinationSize <= 64; destinationSize += 7) {
+                final StringBuilderEncoder helper = new StringBuilderEncoder(StandardCharsets.UTF_8, 16,
+                        byteBufferSize);
+                final SpyByteBufferDestination destination = new SpyByteBufferDestination(destinationSize, 256);
+                helper.encode(text, destination);
+                destination.drain(destination.getByteBuffer());
+
+                assertEquals("length", utf8.length, destination.drained.position());
+                for (int i = 0; i < utf8.length; i++) {
+                    assertEquals("byte at " + i, utf8[i], destination.drained.get(i));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testEncodeUtf8_DirectBufferStopsBeforeIncompleteCharacter() throws Exception {
+        final StringBuilder text = new StringBuilder("ab\ud83d\ude00c");
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(4);
+        assertEquals("stops before surrogate pair", 2, TextEncoderHelper.encodeUtf8(text, 0, text.length(), buffer));
+        assertEquals(2, buffer.position());
+        buffer.clear();
+        assertEquals("resumes at surrogate pair", 4, TextEncoderHelper.encodeUtf8(text, 2, text.length(), buffer));
+        assertEquals(4, buffer.position());
+        buffer.flip();
+        final byte[] bytes = new byte[4];
+        buffer.get(bytes);
+        assertArrayEquals("\ud83d\ude00".getBytes(StandardCharsets.UTF_8), bytes);
+    }
+
     private StringBuilder createText(final int length) {
         final StringBuilder result = new StringBuilder(length);
         for (int i = 0; i < length; i++) {
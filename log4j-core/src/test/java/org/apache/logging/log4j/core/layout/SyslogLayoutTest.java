@@ -26,9 +26,12 @@ import org.apache.logging.log4j.core.Appender;
 import org.apache.logging.log4j.core.BasicConfigurationFactory;
 import org.apache.logging.log4j.core.Logger;
 import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.LogEvent;
 import org.apache.logging.log4j.core.config.ConfigurationFactory;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
 import org.apache.logging.log4j.core.net.Facility;
 import org.apache.logging.log4j.junit.ThreadContextRule;
+import org.apache.logging.log4j.message.ParameterizedMessage;
 import org.apache.logging.log4j.message.StructuredDataMessage;
 import org.apache.logging.log4j.test.appender.ListAppender;
 import org.junit.AfterClass;
@@ -120,4 +123,30 @@ public class SyslogLayoutTest {
         assertTrue("Expected line 3 to end with: " + line3 + " Actual " + list.get(2), list.get(2).endsWith(line3));
         assertTrue("Expected line 4 to end with: " + line4 + " Actual " + list.get(3), list.get(3).endsWith(line4));
     }
+
+    @Test
+    public void testEncodeMatchesToSerializable() {
+        final SyslogLayout layout = SyslogLayout.newBuilder()
+            .setFacility(Facility.LOCAL0)
+            .setIncludeNewLine(true)
+            .setEscapeNL("\\n$0")
+            .build();
+        final LogEvent event = Log4jLogEvent.newBuilder()
+            .setLoggerName("a.b.C")
+            .setLevel(Level.WARN)
+            .setMessage(new ParameterizedMessage("line {}\r\nline {}\nline 3", 1, 2))
+            .setTimeMillis(1234567890123L)
+            .build();
+        final String serialized = layout.toSerializable(event);
+        assertTrue(serialized, serialized.startsWith("<132>"));
+        assertTrue(serialized, serialized.matches("(?s)<132>[A-Z][a-z][a-z] [ 1-3]\\d \\d\\d:\\d\\d:30 .*"));
+        assertTrue(serialized, serialized.endsWith(" line 1\\n$0line 2\\n$0line 3\n"));
+
+        final SpyByteBufferDestination destination = new SpyByteBufferDestination(16, 1024);
+        layout.encode(event, destination);
+        destination.drain(destination.getByteBuffer());
+        final String encoded = new String(destination.drained.array(), 0, destination.drained.position(),
+            layout.getCharset());
+        assertEquals(serialized, encoded);
+    }
 }
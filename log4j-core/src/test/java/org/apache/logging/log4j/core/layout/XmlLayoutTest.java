@@ -18,6 +18,7 @@ package org.apache.logging.log4j.core.layout;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -31,6 +32,7 @@ import org.apache.logging.log4j.core.BasicConfigurationFactory;
 import org.apache.logging.log4j.core.Logger;
 import org.apache.logging.log4j.core.LoggerContext;
 import org.apache.logging.log4j.core.config.ConfigurationFactory;
+import org.apache.logging.log4j.core.impl.ContextDataFactory;
 import org.apache.logging.log4j.core.impl.Log4jLogEvent;
 import org.apache.logging.log4j.core.jackson.Log4jXmlObjectMapper;
 import org.apache.logging.log4j.core.lookup.JavaLookup;
@@ -38,7 +40,9 @@ import org.apache.logging.log4j.core.util.KeyValuePair;
 import org.apache.logging.log4j.junit.ThreadContextRule;
 import org.apache.logging.log4j.message.SimpleMessage;
 import org.apache.logging.log4j.spi.AbstractLogger;
+import org.apache.logging.log4j.spi.MutableThreadContextStack;
 import org.apache.logging.log4j.test.appender.ListAppender;
+import org.apache.logging.log4j.util.StringMap;
 import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.BeforeClass;
@@ -381,4 +385,72 @@ public class XmlLayoutTest {
         final String str = layout.toSerializable(LogEventFixtures.createLogEvent());
         assertFalse(str.endsWith("\0"));
     }
+
+    private static Log4jLogEvent createEventWithoutThrowable(final String message) {
+        final StringMap contextData = ContextDataFactory.createContextData();
+        contextData.putValue("MDC.A", "A_Value");
+        contextData.putValue("MDC.B", "B<Value");
+        final Marker marker = MarkerManager.getMarker("StreamChild")
+                .setParents(MarkerManager.getMarker("StreamParent1"), MarkerManager.getMarker("StreamParent2"));
+        return Log4jLogEvent.newBuilder() //
+                .setLoggerName("a.B") //
+                .setLoggerFqcn("f.q.c.n") //
+                .setLevel(Level.INFO) //
+                .setMarker(marker) //
+                .setMessage(new SimpleMessage(message)) //
+                .setContextData(contextData) //
+                .setContextStack(new MutableThreadContextStack(Arrays.asList("stack_msg1", "stack_msg2"))) //
+                .setSource(new StackTraceElement("a.B", "method", "B.java", 42)) //
+                .setThreadName("threadName") //
+                .setThreadId(3) //
+                .setThreadPriority(5) //
+                .setEndOfBatch(true) //
+                .setTimeMillis(1).build();
+    }
+
+    @Test
+    public void testStreamingOutputMatchesJackson() throws Exception {
+        final Log4jLogEvent event = createEventWithoutThrowable("Hello, \"world\" & all");
+        for (final boolean compact : new boolean[] {false, true}) {
+            final XmlLayout layout = XmlLayout.newBuilder()
+                    .setCompact(compact)
+                    .setLocationInfo(true)
+                    .setProperties(true)
+                    .setAdditionalFields(new KeyValuePair[] {
+                        new KeyValuePair("KEY1", "VALUE1"),
+                        new KeyValuePair("KEY2", "${java:runtime}"), })
+                    .setConfiguration(ctx.getConfiguration())
+                    .build();
+            final String jackson = layout.objectWriter.writeValueAsString(layout.wrapLogEvent(event)) + layout.eol;
+            assertEquals(jackson, layout.toSerializable(event));
+        }
+    }
+
+    @Test
+    public void testStreamingOutputEscapesText() throws Exception {
+        final String message = "<&> \"quoted\" 'single' ]]> \u00e9\r\nnext line \u0001";
+        final Log4jLogEvent expected = createEventWithoutThrowable(message);
+        final XmlLayout layout = XmlLayout.newBuilder()
+                .setCompact(true)
+                .setLocationInfo(true)
+                .setProperties(true)
+                .build();
+        final String str = layout.toSerializable(expected);
+        assertTrue(str, str.contains("<item key=\"MDC.B\" value=\"B&lt;Value\"/>"));
+
+        final SpyByteBufferDestination destination = new SpyByteBufferDestination(64, 4096);
+        layout.encode(expected, destination);
+        destination.drain(destination.getByteBuffer());
+        assertEquals(str, new String(destination.drained.array(), 0, destination.drained.position(),
+                StandardCharsets.UTF_8));
+
+        final Log4jLogEvent actual = new Log4jXmlObjectMapper().readValue(str, Log4jLogEvent.class);
+        assertEquals(message.replace('\u0001', '\uFFFD'), actual.getMessage().getFormattedMessage());
+        assertEquals(expected.getContextData(), actual.getContextData());
+        assertEquals(expected.getContextStack(), actual.getContextStack());
+        assertEquals(expected.getSource(), actual.getSource());
+        assertEquals(expected.getMarker(), actual.getMarker());
+        assertEquals(3, actual.getThreadId());
+        assertTrue(actual.isEndOfBatch());
+    }
 }
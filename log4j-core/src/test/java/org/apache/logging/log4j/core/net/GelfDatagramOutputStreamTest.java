@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.net;
+
+import java.io.ByteArrayOutputStream;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class GelfDatagramOutputStreamTest {
+
+    private DatagramSocket receiver;
+
+    @Before
+    public void setUp() throws Exception {
+        receiver = new DatagramSocket(0);
+        receiver.setSoTimeout(5000);
+    }
+
+    @After
+    public void tearDown() {
+        receiver.close();
+    }
+
+    private static byte[] payload(final int length) {
+        final byte[] result = new byte[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = (byte) ('a' + i % 26);
+        }
+        return result;
+    }
+
+    private byte[] receive() throws Exception {
+        final DatagramPacket packet = new DatagramPacket(new byte[65536], 65536);
+        receiver.receive(packet);
+        return Arrays.copyOf(packet.getData(), packet.getLength());
+    }
+
+    @Test
+    public void testSmallMessageIsNotChunked() throws Exception {
+        final byte[] message = payload(100);
+        try (final GelfDatagramOutputStream os = new GelfDatagramOutputStream("localhost", receiver.getLocalPort(),
+                null, null, 512)) {
+            os.write(message);
+            os.flush();
+        }
+        assertArrayEquals(message, receive());
+    }
+
+    @Test
+    public void testLargeMessageIsChunked() throws Exception {
+        final byte[] message = payload(1000);
+        try (final GelfDatagramOutputStream os = new GelfDatagramOutputStream("localhost", receiver.getLocalPort(),
+                null, null, 312)) {
+            os.write(message);
+            os.flush();
+            os.write(message);
+            os.flush();
+        }
+        final byte[][] messageIds = new byte[2][];
+        for (int m = 0; m < 2; m++) {
+            final ByteArrayOutputStream reassembled = new ByteArrayOutputStream();
+            for (int i = 0; i < 4; i++) {
+                final byte[] chunk = receive();
+                assertEquals(0x1e, chunk[0]);
+                assertEquals(0x0f, chunk[1]);
+                assertEquals(i, chunk[10]);
+                assertEquals(4, chunk[11]);
+                assertEquals(i < 3 ? 312 : 100 + GelfDatagramOutputStream.CHUNK_HEADER_SIZE, chunk.length);
+                final byte[] messageId = Arrays.copyOfRange(chunk, 2, 10);
+                if (messageIds[m] == null) {
+                    messageIds[m] = messageId;
+                } else {
+                    assertArrayEquals(messageIds[m], messageId);
+                }
+                reassembled.write(chunk, GelfDatagramOutputStream.CHUNK_HEADER_SIZE,
+                        chunk.length - GelfDatagramOutputStream.CHUNK_HEADER_SIZE);
+            }
+            assertArrayEquals(message, reassembled.toByteArray());
+        }
+        assertFalse(Arrays.equals(messageIds[0], messageIds[1]));
+    }
+
+    @Test
+    public void testMessageWithTooManyChunksIsDropped() throws Exception {
+        final int chunkSize = 16;
+        final int payloadSize = chunkSize - GelfDatagramOutputStream.CHUNK_HEADER_SIZE;
+        final byte[] small = payload(20);
+        try (final GelfDatagramOutputStream os = new GelfDatagramOutputStream("localhost", receiver.getLocalPort(),
+                null, null, chunkSize)) {
+            os.write(payload(payloadSize * GelfDatagramOutputStream.MAX_CHUNKS + 1));
+            os.flush();
+            os.write(small);
+            os.flush();
+        }
+        // the first datagram that arrives is the first chunk of the second message
+        final byte[] chunk = receive();
+        assertEquals(0, chunk[10]);
+        assertEquals(5, chunk[11]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testChunkSizeMustExceedHeader() {
+        new GelfDatagramOutputStream("localhost", 12201, null, null, GelfDatagramOutputStream.CHUNK_HEADER_SIZE);
+    }
+}
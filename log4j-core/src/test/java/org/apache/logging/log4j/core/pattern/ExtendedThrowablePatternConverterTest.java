@@ -57,6 +57,26 @@ public class ExtendedThrowablePatternConverterTest {
         assertTrue("No suffix", result.contains("test suffix"));
     }
 
+    @Test
+    public void testMaxLength() {
+        final Throwable cause = new NullPointerException("null pointer");
+        final Throwable parent = new IllegalArgumentException("IllegalArgument", cause);
+        final LogEvent event = Log4jLogEvent.newBuilder() //
+                .setLoggerName("testLogger") //
+                .setLoggerFqcn(this.getClass().getName()) //
+                .setLevel(Level.DEBUG) //
+                .setMessage(new SimpleMessage("test exception")) //
+                .setThrown(parent).build();
+        final StringBuilder full = new StringBuilder();
+        ExtendedThrowablePatternConverter.newInstance(null, null).format(event, full);
+        final StringBuilder bounded = new StringBuilder();
+        ExtendedThrowablePatternConverter.newInstance(null, null).format(event, bounded, 100);
+        assertTrue("Expected the stack trace to be truncated", bounded.length() < full.length());
+        assertTrue("Expected more than 100 characters", bounded.length() > 100);
+        assertEquals(full.substring(0, 100), bounded.substring(0, 100));
+        assertFalse("Expected the cause to be skipped", bounded.toString().contains("null pointer"));
+    }
+
     @Test
     public void testSuffix() {
         final String suffix = "suffix(test suffix)";
@@ -156,4 +176,75 @@ public class ExtendedThrowablePatternConverterTest {
         final String expected = sw.toString().replaceAll("\r", Strings.EMPTY);
         assertEquals(expected, result);
     }
+
+    private static LogEvent createEvent(final Throwable thrown) {
+        return Log4jLogEvent.newBuilder() //
+                .setLoggerName("testLogger") //
+                .setLoggerFqcn(ExtendedThrowablePatternConverterTest.class.getName()) //
+                .setLevel(Level.DEBUG) //
+                .setMessage(new SimpleMessage("test exception")) //
+                .setThrown(thrown).build();
+    }
+
+    private static String format(final ExtendedThrowablePatternConverter converter, final Throwable thrown) {
+        final StringBuilder sb = new StringBuilder("prefix");
+        converter.format(createEvent(thrown), sb);
+        return sb.toString();
+    }
+
+    @Test
+    public void testLinesAndSeparator() {
+        final Throwable parent = new IllegalArgumentException("IllegalArgument", new NullPointerException("null"));
+        final String full = new ThrowableProxy(parent).getExtendedStackTraceAsString();
+        final String[] lines = full.split(Strings.LINE_SEPARATOR);
+        for (final int count : new int[] {1, 3, lines.length, lines.length + 5}) {
+            final String[] options = {String.valueOf(count), "separator(|)"};
+            final ExtendedThrowablePatternConverter converter = ExtendedThrowablePatternConverter.newInstance(null,
+                    options);
+            final StringBuilder expected = new StringBuilder("prefix ");
+            for (int i = 0; i < Math.min(count, lines.length); i++) {
+                if (i > 0) {
+                    expected.append('|');
+                }
+                expected.append(lines[i]);
+            }
+            assertEquals(expected.toString(), format(converter, parent));
+        }
+    }
+
+    @Test
+    public void testReusesIdenticalStackTrace() {
+        final ExtendedThrowablePatternConverter converter = ExtendedThrowablePatternConverter.newInstance(null, null);
+        final Throwable[] thrown = new Throwable[3];
+        final String[] messages = {"first", "first", "second"};
+        for (int i = 0; i < thrown.length; i++) {
+            thrown[i] = new IllegalStateException("parent", new NullPointerException(messages[i]));
+        }
+        final String first = format(converter, thrown[0]);
+        assertEquals(first, format(converter, thrown[0]));
+        assertEquals(first, format(converter, thrown[1]));
+        final String second = format(converter, thrown[2]);
+        assertEquals(first.replace("NullPointerException: first", "NullPointerException: second"), second);
+        assertEquals("prefix " + new ThrowableProxy(thrown[2]).getExtendedStackTraceAsString(), second);
+    }
+
+    @Test
+    public void testDedup() {
+        final ExtendedThrowablePatternConverter converter = ExtendedThrowablePatternConverter.newInstance(null,
+                new String[] {"dedup"});
+        final Throwable[] thrown = new Throwable[3];
+        for (int i = 0; i < thrown.length; i++) {
+            thrown[i] = new IllegalStateException("message " + i);
+        }
+        final String first = format(converter, thrown[0]);
+        final String reference = first.substring("prefix ".length(), "prefix #123456".length());
+        assertTrue(first, reference.matches("#[0-9a-f]{6}"));
+        assertEquals("prefix " + reference + " " + new ThrowableProxy(thrown[0]).getExtendedStackTraceAsString(),
+                first);
+        assertEquals("prefix same as " + reference + ", 2 times" + Strings.LINE_SEPARATOR, format(converter, thrown[1]));
+        assertEquals("prefix same as " + reference + ", 3 times" + Strings.LINE_SEPARATOR, format(converter, thrown[2]));
+
+        final String other = format(converter, new IllegalStateException("message 0"));
+        assertFalse(other, other.startsWith("prefix same as"));
+    }
 }
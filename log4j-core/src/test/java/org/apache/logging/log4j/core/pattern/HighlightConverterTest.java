@@ -76,6 +76,19 @@ public class HighlightConverterTest {
         Assert.assertEquals(AnsiEscape.createSequence(colorName), converter.getLevelStyle(Level.DEBUG));
     }
 
+    @Test
+    public void testCustomLevels() {
+        final Level notice = Level.forName("HIGHLIGHT_NOTICE", 350);
+        final Level unstyled = Level.forName("HIGHLIGHT_UNSTYLED", 250);
+        final String[] options = { "%-5level: %msg", PatternParser.NO_CONSOLE_NO_ANSI + "=false, "
+                + PatternParser.DISABLE_ANSI + "=false, " + "HIGHLIGHT_NOTICE=blue" };
+        final HighlightConverter converter = HighlightConverter.newInstance(null, options);
+        Assert.assertNotNull(converter);
+        Assert.assertEquals(AnsiEscape.createSequence("blue"), converter.getLevelStyle(notice));
+        Assert.assertEquals("", converter.getLevelStyle(unstyled));
+        Assert.assertEquals(AnsiEscape.createSequence("GREEN"), converter.getLevelStyle(Level.INFO));
+    }
+
     @Test
     public void testLevelNamesNone() {
         final String[] options = { "%-5level: %msg",
@@ -109,4 +122,14 @@ public class HighlightConverterTest {
         converter.format(event, buffer);
         assertEquals("INFO : message in a bottle", buffer.toString());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCustomLevelWithStandardIntLevel() {
+        final Level audit = Level.forName("HIGHLIGHT_AUDIT", Level.INFO.intLevel());
+        final String[] options = {"%msg", "HIGHLIGHT_AUDIT=blue"};
+        final HighlightConverter converter = HighlightConverter.newInstance(null, options);
+        assertEquals(AnsiEscape.createSequence("blue"), converter.getLevelStyle(audit));
+        assertEquals(HighlightConverter.newInstance(null, new String[] {"%msg"}).getLevelStyle(Level.INFO),
+                converter.getLevelStyle(Level.INFO));
+    }
+}
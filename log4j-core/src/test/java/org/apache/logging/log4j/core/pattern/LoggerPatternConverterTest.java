@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.pattern;
+
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class LoggerPatternConverterTest {
+
+    private static String format(final LogEventPatternConverter converter, final String loggerName) {
+        final LogEvent event = Log4jLogEvent.newBuilder().setLoggerName(loggerName).build();
+        final StringBuilder sb = new StringBuilder("prefix ");
+        converter.format(event, sb);
+        return sb.toString();
+    }
+
+    @Test
+    public void testAbbreviatedNamesAreCached() {
+        final LoggerPatternConverter converter = LoggerPatternConverter.newInstance(new String[] {"1."});
+        assertEquals("prefix o.a.l.Foo", format(converter, "org.apache.logging.Foo"));
+        assertEquals("prefix o.a.l.Foo", format(converter, "org.apache.logging.Foo"));
+        assertEquals("prefix c.Bar", format(converter, "com.Bar"));
+        assertEquals("prefix c.Bar", format(converter, "com.Bar"));
+        assertEquals(2, converter.getCacheSize());
+    }
+
+    @Test
+    public void testFullNamesAreNotCached() {
+        final LoggerPatternConverter converter = LoggerPatternConverter.newInstance(null);
+        assertEquals("prefix org.apache.logging.Foo", format(converter, "org.apache.logging.Foo"));
+        assertEquals(0, converter.getCacheSize());
+    }
+
+    @Test
+    public void testCacheIsBounded() {
+        final LoggerPatternConverter converter = LoggerPatternConverter.newInstance(new String[] {"1"});
+        for (int i = 0; i < NamePatternConverter.MAX_CACHE_SIZE + 10; i++) {
+            assertEquals("prefix Logger" + i, format(converter, "org.Logger" + i));
+        }
+        assertEquals(NamePatternConverter.MAX_CACHE_SIZE, converter.getCacheSize());
+    }
+}
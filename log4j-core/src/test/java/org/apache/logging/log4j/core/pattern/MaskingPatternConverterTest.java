@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.pattern;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MaskingPatternConverterTest {
+
+    private static LogEvent createEvent(final String message, final Throwable thrown) {
+        return Log4jLogEvent.newBuilder() //
+                .setLoggerName(MaskingPatternConverterTest.class.getName()) //
+                .setLevel(Level.INFO) //
+                .setMessage(new SimpleMessage(message)) //
+                .setThrown(thrown) //
+                .build();
+    }
+
+    @Test
+    public void testMask() {
+        final MaskingPatternConverter converter = MaskingPatternConverter.newInstance(
+                LoggerContext.getContext().getConfiguration(),
+                new String[] {"%msg", "***", "password=(\\S+)", "token=(\\w+)"});
+        final StringBuilder sb = new StringBuilder("password=kept ");
+        converter.format(createEvent("login password=secret token=abc123", null), sb);
+        assertEquals("password=kept login password=*** token=***", sb.toString());
+    }
+
+    @Test
+    public void testPatternDoesNotSeePrecedingText() {
+        final MaskingPatternConverter converter = MaskingPatternConverter.newInstance(
+                LoggerContext.getContext().getConfiguration(),
+                new String[] {"%ex{short.message}", "***", "secret"});
+        final StringBuilder sb = new StringBuilder("msg");
+        converter.format(createEvent("msg", new IllegalStateException("boom secret")), sb);
+        // %ex adds a space only if the text rendered before it does not end with whitespace
+        assertEquals("msgboom ***", sb.toString());
+    }
+}
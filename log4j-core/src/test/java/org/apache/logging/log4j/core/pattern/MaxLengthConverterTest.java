@@ -21,6 +21,7 @@ import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.core.LogEvent;
 import org.apache.logging.log4j.core.impl.Log4jLogEvent;
 import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.message.ParameterizedMessage;
 import org.apache.logging.log4j.message.SimpleMessage;
 import org.junit.Test;
 
@@ -70,4 +71,31 @@ public class MaxLengthConverterTest {
         MaxLengthConverter.newInstance(null, new String[]{"%m", "21"}).format(event, sb);
         assertEquals("012345678901234567890...", sb.toString());
     }
+
+    @Test
+    public void testOverMaxLengthWithNestedFormattingInfo() throws Exception {
+        final Message message = new ParameterizedMessage("{}-{}", "0123456789", "0123456789");
+        final LogEvent event = Log4jLogEvent.newBuilder()
+            .setLoggerName("MyLogger")
+            .setLevel(Level.DEBUG)
+            .setMessage(message)
+            .build();
+        final StringBuilder sb = new StringBuilder();
+        MaxLengthConverter.newInstance(null, new String[]{"[%-5m] %15.18m", "30"}).format(event, sb);
+        assertEquals("[0123456789-0123456789] 012345...", sb.toString());
+    }
+
+    @Test
+    public void testRootThrowableStartsWithRootCause() throws Exception {
+        final Throwable root = new IllegalStateException("root");
+        final LogEvent event = Log4jLogEvent.newBuilder()
+            .setLoggerName("MyLogger")
+            .setLevel(Level.DEBUG)
+            .setMessage(new SimpleMessage("test"))
+            .setThrown(new RuntimeException("outer", root))
+            .build();
+        final StringBuilder sb = new StringBuilder();
+        MaxLengthConverter.newInstance(null, new String[]{"%rEx", "5000"}).format(event, sb);
+        assertTrue(sb.toString(), sb.toString().startsWith("java.lang.IllegalStateException: root"));
+    }
 }
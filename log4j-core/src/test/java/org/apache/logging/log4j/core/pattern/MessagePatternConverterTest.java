@@ -18,6 +18,7 @@ package org.apache.logging.log4j.core.pattern;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.core.LogEvent;
@@ -79,6 +80,36 @@ public class MessagePatternConverterTest {
         assertEquals("Unexpected result", "${date:now:buhu}", sb.toString());
     }
 
+    @Test
+    public void testMaxLength() {
+        final MessagePatternConverter converter = MessagePatternConverter.newInstance(null, null);
+        final Message msg = new ParameterizedMessage("{} and {}", "0123456789", "abcdefghij");
+        final LogEvent event = Log4jLogEvent.newBuilder() //
+                .setLoggerName("MyLogger") //
+                .setLevel(Level.DEBUG) //
+                .setMessage(msg).build();
+        final StringBuilder sb = new StringBuilder();
+        converter.format(event, sb, 12);
+        assertTrue("Expected the message to be truncated: " + sb, sb.length() < msg.getFormattedMessage().length());
+        assertEquals("0123456789 a", sb.substring(0, 12));
+    }
+
+    @Test
+    public void testMaxLengthWithLookup() {
+        final Configuration config = new DefaultConfigurationBuilder()
+                .addProperty("foo", "bar")
+                .build(true);
+        final MessagePatternConverter converter = MessagePatternConverter.newInstance(config, null);
+        final Message msg = new ParameterizedMessage("${foo} and {}", "0123456789");
+        final LogEvent event = Log4jLogEvent.newBuilder() //
+                .setLoggerName("MyLogger") //
+                .setLevel(Level.DEBUG) //
+                .setMessage(msg).build();
+        final StringBuilder sb = new StringBuilder();
+        converter.format(event, sb, 4);
+        assertEquals("bar and 0123456789", sb.toString());
+    }
+
     @Test
     public void testLookupEnabledByDefault() {
         assertFalse("Expected lookups to be enabled", Constants.FORMAT_MESSAGES_PATTERN_DISABLE_LOOKUPS);
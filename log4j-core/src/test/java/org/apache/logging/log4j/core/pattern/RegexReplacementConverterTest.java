@@ -51,4 +51,24 @@ public class RegexReplacementConverterTest {
         assertEquals("org/apache/logging/log4j/core/pattern/RegexReplacementConverterTest This is a test" +
             Strings.LINE_SEPARATOR, sb.toString());
     }
+
+    @Test
+    public void testPatternDoesNotSeePrecedingText() {
+        final LogEvent event = Log4jLogEvent.newBuilder() //
+                .setLoggerName(RegexReplacementConverterTest.class.getName()) //
+                .setLevel(Level.ERROR) //
+                .setMessage(new SimpleMessage("msg")) //
+                .setThrown(new IllegalStateException("boom")) //
+                .build();
+        final StringBuilder sb = new StringBuilder("msg");
+        final LoggerContext ctx = LoggerContext.getContext();
+        final String[] options = new String[] {
+            "%ex{short.message}", "zzz", "q"
+        };
+        final RegexReplacementConverter converter = RegexReplacementConverter.newInstance(ctx.getConfiguration(),
+            options);
+        converter.format(event, sb);
+        // %ex adds a space only if the text rendered before it does not end with whitespace
+        assertEquals("msgboom", sb.toString());
+    }
 }
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.pattern;
+
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests {@link RegexReplacer}.
+ */
+public class RegexReplacerTest {
+
+    private static final String[] INPUTS = {
+            "",
+            "password=secret token=abc123 card 4111-1111-1111-1111",
+            "no match here",
+            "aaa.bbb.ccc\n\ttabé café 123",
+            "$1 \\ [x] a-b_c",
+    };
+
+    private static final String[][] REPLACEMENTS = {
+            // regex, substitution, uses matcher
+            {"secret", "***", "false"},
+            {"a.b", "-", "true"},
+            {"\\.", "", "false"},
+            {"\\d", "#", "false"},
+            {"\\d+", "#", "false"},
+            {"\\d", "##", "false"},
+            {"[0-9a-f]+", "x", "false"},
+            {"[a-c_-]", "", "false"},
+            {"[\\[\\]]", "|", "false"},
+            {"\\s+", " ", "false"},
+            {"\\w", "\\$", "false"},
+            {"[^a]", "?", "true"},
+            {"(\\d{4})-(\\d{4})-(\\d{4})-(\\d{4})", "****-****-****-$4", "true"},
+            {"token=(\\w+)", "token=<$1>", "true"},
+            {"(?<key>\\w+)=(\\w+)", "${key}=***", "true"},
+            {"x*", "-", "true"},
+            {"^\\w+", "START", "true"},
+            {"\\d$", "END", "true"},
+            {"(a)(b)?", "$2$1$10", "true"},
+    };
+
+    private static String replace(final RegexReplacer replacer, final String prefix, final String input) {
+        final StringBuilder buffer = new StringBuilder(prefix).append(input);
+        replacer.replace(buffer, prefix.length());
+        return buffer.toString();
+    }
+
+    @Test
+    public void testSameAsReplaceAll() {
+        for (final String[] replacement : REPLACEMENTS) {
+            final Pattern pattern = Pattern.compile(replacement[0]);
+            final RegexReplacer replacer = new RegexReplacer(pattern, replacement[1]);
+            assertEquals(replacement[0], Boolean.parseBoolean(replacement[2]), replacer.usesMatcher());
+            for (final String input : INPUTS) {
+                final String expected = "p1 " + pattern.matcher(input).replaceAll(replacement[1]);
+                assertEquals(replacement[0] + " on " + input, expected, replace(replacer, "p1 ", input));
+                // the same thread reuses the matcher
+                assertEquals(replacement[0] + " on " + input, expected, replace(replacer, "p1 ", input));
+            }
+        }
+    }
+
+    @Test
+    public void testLiteralFlag() {
+        final RegexReplacer replacer = new RegexReplacer(Pattern.compile("a.b", Pattern.LITERAL), "x");
+        assertFalse(replacer.usesMatcher());
+        assertEquals("axb x", replace(replacer, "", "axb a.b"));
+    }
+
+    @Test
+    public void testOtherFlagsUseMatcher() {
+        final RegexReplacer replacer = new RegexReplacer(Pattern.compile("abc", Pattern.CASE_INSENSITIVE), "x");
+        assertTrue(replacer.usesMatcher());
+        assertEquals("ABC x", replace(replacer, "ABC ", "aBc"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSubstitution() {
+        replace(new RegexReplacer(Pattern.compile("a"), "$"), "", "a");
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testMissingGroup() {
+        replace(new RegexReplacer(Pattern.compile("a"), "$1"), "", "a");
+    }
+}
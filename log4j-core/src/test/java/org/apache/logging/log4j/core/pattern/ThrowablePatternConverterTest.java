@@ -241,4 +241,40 @@ public class ThrowablePatternConverterTest {
         assertTrue("Each line should end with suffix", everyLineEndsWith(result, "test suffix"));
     }
 
+    @Test
+    public void testLinesSeparatorAndSuffix() {
+        final String[] options = { "3", "separator(|)", "suffix(test suffix)" };
+        final ThrowablePatternConverter converter = ThrowablePatternConverter.newInstance(null, options);
+        final Throwable parent = new IllegalArgumentException("IllegalArgument", new NullPointerException("null"));
+        final LogEvent event = Log4jLogEvent.newBuilder() //
+                .setLoggerName("testLogger") //
+                .setLoggerFqcn(this.getClass().getName()) //
+                .setLevel(Level.DEBUG) //
+                .setMessage(new SimpleMessage("test exception")) //
+                .setThrown(parent).build();
+        final StringBuilder sb = new StringBuilder("prefix");
+        converter.format(event, sb);
+        final StackTraceElement[] trace = parent.getStackTrace();
+        assertEquals("prefix " + parent + " test suffix|\tat " + trace[0] + " test suffix|\tat " + trace[1]
+                + " test suffix", sb.toString());
+    }
+
+
+    @Test
+    public void testSubclassWithoutOverrides() {
+        final ThrowablePatternConverter converter = new ThrowablePatternConverter("Custom", "custom", null, null) {
+        };
+        final LogEvent event = Log4jLogEvent.newBuilder()
+                .setLoggerName("testSubclassWithoutOverrides")
+                .setLevel(Level.DEBUG)
+                .setMessage(new SimpleMessage(""))
+                .setThrown(new IllegalArgumentException("IllegalArgument"))
+                .build();
+        final StringBuilder full = new StringBuilder();
+        converter.format(event, full);
+        assertTrue(full.toString(), full.toString().startsWith("java.lang.IllegalArgumentException: IllegalArgument"));
+        final StringBuilder limited = new StringBuilder();
+        converter.format(event, limited, 20);
+        assertTrue(limited.toString(), limited.length() > 20 && full.toString().startsWith(limited.toString()));
+    }
 }
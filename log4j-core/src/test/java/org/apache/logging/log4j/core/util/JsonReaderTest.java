@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.util;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class JsonReaderTest {
+
+    @Test
+    public void testReadObjectKeepsFieldOrder() {
+        final Object result = JsonReader.read(" {\"b\": 1, \"a\": [true, false, null], \"c\": {\"d\": \"e\"}} ");
+        assertTrue(result instanceof Map);
+        final Map<?, ?> map = (Map<?, ?>) result;
+        assertEquals(Arrays.asList("b", "a", "c"), Arrays.asList(map.keySet().toArray()));
+        assertEquals(1L, map.get("b"));
+        assertEquals(Arrays.asList(Boolean.TRUE, Boolean.FALSE, null), map.get("a"));
+        assertEquals("e", ((Map<?, ?>) map.get("c")).get("d"));
+    }
+
+    @Test
+    public void testReadStringEscapes() {
+        assertEquals("a\"b\\c/d\b\f\n\r\t\u00e9", JsonReader.read("\"a\\\"b\\\\c\\/d\\b\\f\\n\\r\\t\\u00e9\""));
+    }
+
+    @Test
+    public void testReadNumbers() {
+        assertEquals(-42L, JsonReader.read("-42"));
+        assertEquals(1.5e3, JsonReader.read("1.5e3"));
+        assertEquals(new BigDecimal("123456789012345678901234567890"),
+                JsonReader.read("123456789012345678901234567890"));
+    }
+
+    @Test
+    public void testReadEmptyContainers() {
+        assertTrue(((Map<?, ?>) JsonReader.read("{}")).isEmpty());
+        assertTrue(((List<?>) JsonReader.read("[ ]")).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTrailingContentIsRejected() {
+        JsonReader.read("{} x");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnterminatedObjectIsRejected() {
+        JsonReader.read("{\"a\":1");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingColonIsRejected() {
+        JsonReader.read("{\"a\" 1}");
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+
+package org.apache.logging.log4j.core.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the Transform class.
+ */
+public class TransformTest {
+
+    @Test
+    public void testEscapeHtmlTagsInBuilderMatchesStringVersion() {
+        final StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            text.append("<&>\"x".charAt(i % 5));
+        }
+        final StringBuilder buf = new StringBuilder("prefix <kept>");
+        final int start = buf.length();
+        buf.append(text);
+        Transform.escapeHtmlTags(buf, start);
+        assertEquals("prefix <kept>" + Transform.escapeHtmlTags(text.toString()), buf.toString());
+    }
+
+    @Test
+    public void testEscapeHtmlTagsInBuilderWithoutMarkup() {
+        final StringBuilder buf = new StringBuilder("<b>plain text");
+        Transform.escapeHtmlTags(buf, 3);
+        assertEquals("<b>plain text", buf.toString());
+    }
+}
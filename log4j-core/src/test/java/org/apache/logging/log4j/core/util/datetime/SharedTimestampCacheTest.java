@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.core.util.datetime;
+
+import java.util.TimeZone;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.logging.log4j.core.util.datetime.FixedDateFormat.FixedFormat;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests {@link SharedTimestampCache}.
+ */
+public class SharedTimestampCacheTest {
+
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+    private static final long START = 1514764799000L; // 2017-12-31T23:59:59Z
+
+    private static void assertSameAsFormat(final SharedTimestampCache cache, final FastDateFormat format) {
+        final StringBuilder buffer = new StringBuilder();
+        for (long time = START; time < START + 2500; time += 7) {
+            buffer.setLength(0);
+            buffer.append("x");
+            assertTrue(cache.formatTo(time, buffer));
+            assertEquals("x" + format.format(time), buffer.toString());
+        }
+    }
+
+    @Test
+    public void testFixedFormat() {
+        for (final FixedFormat fixedFormat : FixedFormat.values()) {
+            final SharedTimestampCache cache = SharedTimestampCache.create(FixedDateFormat.create(fixedFormat, UTC));
+            assertSameAsFormat(cache, FastDateFormat.getInstance(fixedFormat.getPattern(), UTC));
+        }
+    }
+
+    @Test
+    public void testMillisInTheMiddle() {
+        final FastDateFormat format = FastDateFormat.getInstance("HH:mm:ss SSS 'ms of' EEEE", UTC);
+        assertSameAsFormat(SharedTimestampCache.create(format), format);
+    }
+
+    @Test
+    public void testWithoutMillis() {
+        final FastDateFormat format = FastDateFormat.getInstance("yyyy-MM-dd HH:mm:ss", UTC);
+        assertSameAsFormat(SharedTimestampCache.create(format), format);
+    }
+
+    @Test
+    public void testVariableLengthMillis() {
+        final FastDateFormat format = FastDateFormat.getInstance("ss.S", UTC);
+        assertSameAsFormat(SharedTimestampCache.create(format), format);
+    }
+
+    @Test
+    public void testEarlierSecondIsNotCached() {
+        final SharedTimestampCache cache = SharedTimestampCache.create(FixedDateFormat.create(FixedFormat.ABSOLUTE, UTC));
+        final StringBuilder buffer = new StringBuilder();
+        assertTrue(cache.formatTo(START + 1000, buffer));
+        assertEquals("00:00:00,000", buffer.toString());
+        assertFalse(cache.formatTo(START, buffer));
+        assertEquals("00:00:00,000", buffer.toString());
+        assertTrue(cache.formatTo(START + 1999, buffer));
+        assertEquals("00:00:00,00000:00:00,999", buffer.toString());
+    }
+
+    @Test
+    public void testConcurrentUpdates() throws Exception {
+        final FastDateFormat format = FastDateFormat.getInstance("yyyy-MM-dd HH:mm:ss.SSS", UTC);
+        final SharedTimestampCache cache = SharedTimestampCache.create(format);
+        final AtomicReference<String> failure = new AtomicReference<>();
+        final CountDownLatch start = new CountDownLatch(1);
+        final Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            final int offset = i;
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    final StringBuilder buffer = new StringBuilder();
+                    try {
+                        start.await();
+                    } catch (final InterruptedException e) {
+                        return;
+                    }
+                    for (long time = START + offset; time < START + 20000; time += 3) {
+                        buffer.setLength(0);
+                        if (cache.formatTo(time, buffer) && !format.format(time).contentEquals(buffer)) {
+                            failure.compareAndSet(null, buffer + " at " + time);
+                        }
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        start.countDown();
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(failure.get());
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.maven.location;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+/**
+ * Injects the caller location of {@code Logger} calls into the compiled classes of a project, so that location-based
+ * layout options such as {@code %L}, {@code %M}, {@code %F} and {@code %C} do not need to walk the stack at runtime.
+ * <p>
+ * The processed classes require a Log4j API version that provides
+ * {@code org.apache.logging.log4j.util.InjectedLocation} at runtime.
+ * </p>
+ */
+@Mojo(name = "inject-location", defaultPhase = LifecyclePhase.PROCESS_CLASSES, threadSafe = true)
+public class InjectLocationMojo extends AbstractMojo {
+
+    /**
+     * The directory that contains the classes to process.
+     */
+    @Parameter(defaultValue = "${project.build.outputDirectory}", required = true)
+    private File classesDirectory;
+
+    /**
+     * Skips the location injection.
+     */
+    @Parameter(property = "log4j.location.skip", defaultValue = "false")
+    private boolean skip;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        if (skip) {
+            getLog().info("Skipping Log4j location injection");
+            return;
+        }
+        if (!classesDirectory.isDirectory()) {
+            getLog().debug("No classes to process in " + classesDirectory);
+            return;
+        }
+        final LocationInjector injector = new LocationInjector();
+        final int classes = process(classesDirectory, injector);
+        getLog().info("Injected the location of " + injector.getInjectedCallSites() + " logging calls in " + classes
+                + " classes");
+    }
+
+    private int process(final File directory, final LocationInjector injector) throws MojoExecutionException {
+        int count = 0;
+        final File[] files = directory.listFiles();
+        if (files == null) {
+            return count;
+        }
+        for (final File file : files) {
+            if (file.isDirectory()) {
+                count += process(file, injector);
+            } else if (file.getName().endsWith(".class")) {
+                try {
+                    final byte[] transformed = injector.transform(Files.readAllBytes(file.toPath()));
+                    if (transformed != null) {
+                        Files.write(file.toPath(), transformed);
+                        count++;
+                    }
+                } catch (final IOException | RuntimeException e) {
+                    throw new MojoExecutionException("Unable to inject the logging locations into " + file, e);
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.maven.location;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldInsnNode;
+import org.objectweb.asm.tree.FieldNode;
+import org.objectweb.asm.tree.FrameNode;
+import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.IntInsnNode;
+import org.objectweb.asm.tree.LabelNode;
+import org.objectweb.asm.tree.LdcInsnNode;
+import org.objectweb.asm.tree.LineNumberNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.TryCatchBlockNode;
+import org.objectweb.asm.tree.TypeInsnNode;
+
+/**
+ * Rewrites compiled classes so that calls to {@code org.apache.logging.log4j.Logger} methods carry their caller
+ * location, computed at build time.
+ * <p>
+ * For every call site, a {@code private static final StackTraceElement} field is added to the class and initialized
+ * in the static initializer. The call itself is bracketed by {@code InjectedLocation.set(field)} and
+ * {@code InjectedLocation.clear()}, so that {@code StackLocatorUtil.calcLocation} returns the precomputed location
+ * instead of walking the stack. A catch-all exception handler also clears the location when the call throws.
+ * Classes that were already processed and interfaces are left unchanged.
+ * </p>
+ * <p>
+ * Instances are not thread-safe.
+ * </p>
+ */
+public final class LocationInjector {
+
+    /** Prefix of the names of the fields that hold the injected locations. */
+    public static final String FIELD_PREFIX = "log4j$location$";
+
+    static final String LOGGER_TYPE = "org/apache/logging/log4j/Logger";
+
+    private static final String INJECTED_LOCATION_TYPE = "org/apache/logging/log4j/util/InjectedLocation";
+    private static final String STACK_TRACE_ELEMENT_TYPE = Type.getInternalName(StackTraceElement.class);
+    private static final String STACK_TRACE_ELEMENT_DESC = Type.getDescriptor(StackTraceElement.class);
+    private static final String THROWABLE_TYPE = Type.getInternalName(Throwable.class);
+
+    /** The {@code Logger} methods whose call sites are rewritten. */
+    private static final Set<String> LOGGING_METHODS = new HashSet<>(Arrays.asList("trace", "debug", "info", "warn",
+            "error", "fatal", "log", "printf", "catching", "throwing", "entry", "exit", "traceEntry", "traceExit"));
+
+    private int injectedCallSites;
+
+    /**
+     * Returns the total number of call sites rewritten by this injector.
+     *
+     * @return the number of rewritten call sites
+     */
+    public int getInjectedCallSites() {
+        return injectedCallSites;
+    }
+
+    /**
+     * Rewrites the logging call sites in the specified class.
+     *
+     * @param classFile the contents of a class file
+     * @return the rewritten class file, or {@code null} if the class does not need to be changed
+     */
+    public byte[] transform(final byte[] classFile) {
+        final ClassReader reader = new ClassReader(classFile);
+        final ClassNode classNode = new ClassNode();
+        reader.accept(classNode, 0);
+        if ((classNode.access & Opcodes.ACC_INTERFACE) != 0 || isTransformed(classNode)) {
+            return null;
+        }
+        final List<CallSite> callSites = new ArrayList<>();
+        for (final MethodNode method : classNode.methods) {
+            injectCallSites(classNode, method, callSites);
+        }
+        if (callSites.isEmpty()) {
+            return null;
+        }
+        initializeFields(classNode, callSites);
+        injectedCallSites += callSites.size();
+        final ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        classNode.accept(writer);
+        return writer.toByteArray();
+    }
+
+    private static boolean isTransformed(final ClassNode classNode) {
+        for (final FieldNode field : classNode.fields) {
+            if (field.name.startsWith(FIELD_PREFIX)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void injectCallSites(final ClassNode classNode, final MethodNode method,
+            final List<CallSite> callSites) {
+        final boolean useFrames = (classNode.version & 0xFFFF) >= Opcodes.V1_6;
+        // In a constructor, 'this' is uninitialized until the super or this constructor returns. An exception
+        // handler cannot cover such code without describing the uninitialized 'this' in its frame.
+        boolean thisInitialized = !"<init>".equals(method.name);
+        int pendingNews = 0;
+        int line = -1;
+        LabelNode handler = null;
+        for (AbstractInsnNode insn = method.instructions.getFirst(); insn != null; insn = insn.getNext()) {
+            if (insn instanceof LineNumberNode) {
+                line = ((LineNumberNode) insn).line;
+            } else if (insn.getOpcode() == Opcodes.NEW) {
+                pendingNews++;
+            } else if (insn.getOpcode() == Opcodes.INVOKESPECIAL && "<init>".equals(((MethodInsnNode) insn).name)) {
+                if (pendingNews > 0) {
+                    pendingNews--;
+                } else {
+                    thisInitialized = true;
+                }
+            } else if (isLoggingCall(insn)) {
+                final String fieldName = FIELD_PREFIX + callSites.size();
+                callSites.add(new CallSite(fieldName, method.name, line));
+
+                final InsnList before = new InsnList();
+                before.add(new FieldInsnNode(Opcodes.GETSTATIC, classNode.name, fieldName, STACK_TRACE_ELEMENT_DESC));
+                before.add(new MethodInsnNode(Opcodes.INVOKESTATIC, INJECTED_LOCATION_TYPE, "set",
+                        "(" + STACK_TRACE_ELEMENT_DESC + ")V", false));
+                final LabelNode start = new LabelNode();
+                before.add(start);
+                method.instructions.insertBefore(insn, before);
+
+                final InsnList after = new InsnList();
+                final LabelNode end = new LabelNode();
+                after.add(end);
+                final MethodInsnNode clear = newClear();
+                after.add(clear);
+                method.instructions.insert(insn, after);
+                insn = clear;
+
+                if (thisInitialized) {
+                    if (handler == null) {
+                        handler = new LabelNode();
+                    }
+                    // Handlers are searched in order, so this one must come before any handler around the call
+                    method.tryCatchBlocks.add(0, new TryCatchBlockNode(start, end, handler, null));
+                }
+            }
+        }
+        if (handler != null) {
+            // The handler only uses the exception on the stack, so its frame declares no local variables
+            method.instructions.add(handler);
+            if (useFrames) {
+                method.instructions.add(new FrameNode(Opcodes.F_FULL, 0, new Object[0], 1,
+                        new Object[] {THROWABLE_TYPE}));
+            }
+            method.instructions.add(newClear());
+            method.instructions.add(new InsnNode(Opcodes.ATHROW));
+        }
+    }
+
+    private static MethodInsnNode newClear() {
+        return new MethodInsnNode(Opcodes.INVOKESTATIC, INJECTED_LOCATION_TYPE, "clear", "()V", false);
+    }
+
+    private static boolean isLoggingCall(final AbstractInsnNode insn) {
+        if (insn.getOpcode() != Opcodes.INVOKEINTERFACE) {
+            return false;
+        }
+        final MethodInsnNode methodInsn = (MethodInsnNode) insn;
+        return LOGGER_TYPE.equals(methodInsn.owner) && LOGGING_METHODS.contains(methodInsn.name);
+    }
+
+    private static void initializeFields(final ClassNode classNode, final List<CallSite> callSites) {
+        final String className = Type.getObjectType(classNode.name).getClassName();
+        final InsnList init = new InsnList();
+        for (final CallSite callSite : callSites) {
+            classNode.fields.add(new FieldNode(Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL
+                    | Opcodes.ACC_SYNTHETIC, callSite.fieldName, STACK_TRACE_ELEMENT_DESC, null, null));
+            init.add(new TypeInsnNode(Opcodes.NEW, STACK_TRACE_ELEMENT_TYPE));
+            init.add(new InsnNode(Opcodes.DUP));
+            init.add(new LdcInsnNode(className));
+            init.add(new LdcInsnNode(callSite.methodName));
+            init.add(classNode.sourceFile == null ? new InsnNode(Opcodes.ACONST_NULL)
+                    : new LdcInsnNode(classNode.sourceFile));
+            init.add(pushInt(callSite.line));
+            init.add(new MethodInsnNode(Opcodes.INVOKESPECIAL, STACK_TRACE_ELEMENT_TYPE, "<init>",
+                    "(Ljava/lang/String;Ljava/lang/String;Ljava/lang/String;I)V", false));
+            init.add(new FieldInsnNode(Opcodes.PUTSTATIC, classNode.name, callSite.fieldName,
+                    STACK_TRACE_ELEMENT_DESC));
+        }
+        final MethodNode clinit = findStaticInitializer(classNode);
+        if (clinit == null) {
+            final MethodNode created = new MethodNode(Opcodes.ACC_STATIC, "<clinit>", "()V", null, null);
+            created.instructions.add(init);
+            created.instructions.add(new InsnNode(Opcodes.RETURN));
+            classNode.methods.add(created);
+        } else {
+            // straight-line code at the start of the method does not change any existing stack map frame
+            clinit.instructions.insert(init);
+        }
+    }
+
+    private static MethodNode findStaticInitializer(final ClassNode classNode) {
+        for (final MethodNode method : classNode.methods) {
+            if ("<clinit>".equals(method.name)) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    private static AbstractInsnNode pushInt(final int value) {
+        if (value >= -1 && value <= 5) {
+            return new InsnNode(Opcodes.ICONST_0 + value);
+        }
+        if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            return new IntInsnNode(Opcodes.BIPUSH, value);
+        }
+        if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            return new IntInsnNode(Opcodes.SIPUSH, value);
+        }
+        return new LdcInsnNode(value);
+    }
+
+    private static final class CallSite {
+        final String fieldName;
+        final String methodName;
+        final int line;
+
+        CallSite(final String fieldName, final String methodName, final int line) {
+            this.fieldName = fieldName;
+            this.methodName = methodName;
+            this.line = line;
+        }
+    }
+}
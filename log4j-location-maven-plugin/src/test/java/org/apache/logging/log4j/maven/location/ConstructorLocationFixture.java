@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.maven.location;
+
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Class whose constructor logs before and after the super constructor returns, rewritten by
+ * {@link LocationInjectorTest}.
+ */
+public class ConstructorLocationFixture extends LocationFixture {
+
+    private final Object entry;
+
+    public ConstructorLocationFixture(final Logger logger) {
+        this(logger, logger.traceEntry());
+        logger.info("constructed");
+    }
+
+    private ConstructorLocationFixture(final Logger logger, final Object entry) {
+        this.entry = entry;
+        try {
+            logger.info("caught");
+        } catch (final RuntimeException e) {
+            logger.warn("failed", e);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.maven.location;
+
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Class whose logging calls are rewritten by {@link LocationInjectorTest}.
+ */
+public class LocationFixture {
+
+    // forces a static initializer that the injected field initialization is prepended to
+    private static final Object[] STATIC_STATE = new Object[] {"state"};
+
+    public static void logInfo(final Logger logger) {
+        logger.info("info");
+    }
+
+    public static void logErrorWithParameters(final Logger logger) {
+        logger.error("error {} {}", STATIC_STATE[0], logger.getName());
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.maven.location;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.Marker;
+import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.message.ParameterizedMessageFactory;
+import org.apache.logging.log4j.simple.SimpleLogger;
+import org.apache.logging.log4j.util.PropertiesUtil;
+import org.apache.logging.log4j.util.StackLocatorUtil;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LocationInjectorTest {
+
+    private static final String FIXTURE = LocationFixture.class.getName();
+
+    @Test
+    public void testInjectedLocationMatchesStackWalk() throws Exception {
+        final LocationInjector injector = new LocationInjector();
+        final byte[] transformed = injector.transform(readClass(FIXTURE));
+        assertNotNull(transformed);
+        assertEquals(2, injector.getInjectedCallSites());
+
+        final Class<?> injected = new SingleClassLoader(FIXTURE, transformed).loadClass(FIXTURE);
+        assertNotSame(LocationFixture.class, injected);
+        for (final String methodName : new String[] {"logInfo", "logErrorWithParameters"}) {
+            final StackTraceElement expected = log(LocationFixture.class, methodName);
+            final StackTraceElement actual = log(injected, methodName);
+            assertEquals(expected, actual);
+            assertSame("location should be precomputed", actual, log(injected, methodName));
+        }
+    }
+
+    @Test
+    public void testInjectedLocationIsClearedAfterCall() throws Exception {
+        final byte[] transformed = new LocationInjector().transform(readClass(FIXTURE));
+        final Class<?> injected = new SingleClassLoader(FIXTURE, transformed).loadClass(FIXTURE);
+        final StackTraceElement location = log(injected, "logInfo");
+        assertNotSame(location, StackLocatorUtil.calcLocation(LocationInjectorTest.class.getName()));
+    }
+
+    @Test
+    public void testInjectedLocationIsClearedWhenCallThrows() throws Exception {
+        final byte[] transformed = new LocationInjector().transform(readClass(FIXTURE));
+        final Class<?> injected = new SingleClassLoader(FIXTURE, transformed).loadClass(FIXTURE);
+        final Method method = injected.getMethod("logInfo", Logger.class);
+        try {
+            method.invoke(null, new ThrowingLogger());
+            fail("Expected the logger to throw");
+        } catch (final InvocationTargetException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        final StackTraceElement location = StackLocatorUtil.calcLocation(LocationInjectorTest.class.getName());
+        assertFalse("location should be cleared", FIXTURE.equals(location.getClassName()));
+    }
+
+    @Test
+    public void testConstructorCallSites() throws Exception {
+        final String className = ConstructorLocationFixture.class.getName();
+        final LocationInjector injector = new LocationInjector();
+        final byte[] transformed = injector.transform(readClass(className));
+        assertNotNull(transformed);
+        assertEquals(4, injector.getInjectedCallSites());
+        final Class<?> injected = new SingleClassLoader(className, transformed).loadClass(className);
+        final RecordingLogger logger = new RecordingLogger();
+        injected.getConstructor(Logger.class).newInstance(logger);
+        assertEquals(3, logger.locations.size());
+        for (final StackTraceElement location : logger.locations) {
+            assertEquals(className, location.getClassName());
+            assertEquals("<init>", location.getMethodName());
+        }
+    }
+
+    @Test
+    public void testTransformIsIdempotent() throws Exception {
+        final byte[] transformed = new LocationInjector().transform(readClass(FIXTURE));
+        assertNull(new LocationInjector().transform(transformed));
+    }
+
+    @Test
+    public void testClassWithoutLoggingCallsIsUnchanged() throws Exception {
+        assertNull(new LocationInjector().transform(readClass(LocationInjectorTest.class.getName())));
+    }
+
+    private static StackTraceElement log(final Class<?> fixture, final String methodName) throws Exception {
+        final RecordingLogger logger = new RecordingLogger();
+        final Method method = fixture.getMethod(methodName, Logger.class);
+        method.invoke(null, logger);
+        assertEquals(1, logger.locations.size());
+        return logger.locations.get(0);
+    }
+
+    private static byte[] readClass(final String className) throws IOException {
+        try (final InputStream in = LocationInjectorTest.class.getClassLoader().getResourceAsStream(
+                className.replace('.', '/') + ".class")) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4096];
+            int length;
+            while ((length = in.read(buffer)) >= 0) {
+                out.write(buffer, 0, length);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    private static class RecordingLogger extends SimpleLogger {
+
+        private static final long serialVersionUID = 1L;
+
+        final List<StackTraceElement> locations = new ArrayList<>();
+
+        RecordingLogger() {
+            super("RecordingLogger", Level.ALL, false, false, false, false, null, ParameterizedMessageFactory.INSTANCE,
+                    PropertiesUtil.getProperties(), System.out);
+        }
+
+        @Override
+        public void logMessage(final String fqcn, final Level level, final Marker marker, final Message msg,
+                final Throwable throwable) {
+            locations.add(StackLocatorUtil.calcLocation(fqcn));
+        }
+    }
+
+    private static class ThrowingLogger extends RecordingLogger {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void info(final String message) {
+            throw new IllegalStateException("not logged");
+        }
+    }
+
+    private static class SingleClassLoader extends ClassLoader {
+
+        private final String className;
+        private final byte[] classFile;
+
+        SingleClassLoader(final String className, final byte[] classFile) {
+            super(LocationInjectorTest.class.getClassLoader());
+            this.className = className;
+            this.classFile = classFile;
+        }
+
+        @Override
+        protected Class<?> loadClass(final String name, final boolean resolve) throws ClassNotFoundException {
+            if (className.equals(name)) {
+                synchronized (getClassLoadingLock(name)) {
+                    Class<?> result = findLoadedClass(name);
+                    if (result == null) {
+                        result = defineClass(name, classFile, 0, classFile.length);
+                    }
+                    return result;
+                }
+            }
+            return super.loadClass(name, resolve);
+        }
+    }
+}
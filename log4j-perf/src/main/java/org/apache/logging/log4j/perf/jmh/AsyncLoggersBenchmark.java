@@ -29,6 +29,7 @@ import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -47,6 +48,9 @@ import static org.apache.logging.log4j.perf.util.BenchmarkMessageParams.*;
 // multiple threads (for example, 4 threads):
 // java -jar log4j-perf/target/benchmarks.jar ".*AsyncLoggersBenchmark.*" -f 1 -wi 10 -i 20 -t 4 -si true
 //
+// per-thread staging buffers only (stagingBufferSize=0 publishes directly to the shared RingBuffer):
+// java -jar log4j-perf/target/benchmarks.jar ".*AsyncLoggersBenchmark.*" -f 1 -wi 10 -i 20 -t 16 -p stagingBufferSize=1024
+//
 // Usage help:
 // java -jar log4j-perf/target/benchmarks.jar -help
 //
@@ -55,12 +59,16 @@ public class AsyncLoggersBenchmark {
 
     Logger logger;
 
+    @Param({"0", "1024"})
+    public int stagingBufferSize;
+
     @Setup(Level.Trial)
     public void up() {
         System.setProperty("log4j.configurationFile", "perf-WithoutAnyAppender.xml");
         System.setProperty("Log4jContextSelector", "org.apache.logging.log4j.core.async.AsyncLoggerContextSelector");
         System.setProperty("AsyncLogger.RingBufferSize", "262144");
         System.setProperty("AsyncLogger.WaitStrategy", "Yield");
+        System.setProperty("AsyncLogger.StagingBufferSize", String.valueOf(stagingBufferSize));
         //System.setProperty("log4j2.enable.threadlocals", "true");
         //System.setProperty("log4j.format.msg.async", "true");
 
@@ -73,6 +73,8 @@ public class GelfLayoutBenchmark {
     }
 
     Appender appender;
+    Appender gzipAppender;
+    Appender zlibAppender;
     int j;
 
     @Setup
@@ -88,10 +90,24 @@ public class GelfLayoutBenchmark {
                 .setIncludeStacktrace(true)
                 .setIncludeThreadContext(true)
                 .build());
+        gzipAppender = new DemoAppender(createCompressedLayout(GelfLayout.CompressionType.GZIP));
+        zlibAppender = new DemoAppender(createCompressedLayout(GelfLayout.CompressionType.ZLIB));
 
         j = 0;
     }
 
+    private static GelfLayout createCompressedLayout(final GelfLayout.CompressionType compressionType) {
+        return GelfLayout.newBuilder()
+                .setConfiguration(new NullConfiguration())
+                .setHost("host")
+                .setAdditionalFields(ADDITIONAL_FIELDS)
+                .setCompressionType(compressionType)
+                .setCompressionThreshold(0)
+                .setIncludeStacktrace(true)
+                .setIncludeThreadContext(true)
+                .build();
+    }
+
     @TearDown
     public void tearDown() {
         System.clearProperty("log4j2.enable.direct.encoders");
@@ -112,4 +128,18 @@ public class GelfLayoutBenchmark {
         appender.append(EVENT);
     }
 
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Benchmark
+    public void log4j2GelfGzip() {
+        gzipAppender.append(EVENT);
+    }
+
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Benchmark
+    public void log4j2GelfZlib() {
+        zlibAppender.append(EVENT);
+    }
+
 }
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.logging.log4j.perf.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.Appender;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.config.NullConfiguration;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.core.layout.JsonLayout;
+import org.apache.logging.log4j.core.layout.JsonTemplateLayout;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.apache.logging.log4j.perf.util.DemoAppender;
+import org.apache.logging.log4j.util.SortedArrayStringMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Compares the Jackson based JsonLayout with the garbage-free JsonTemplateLayout rendering the same fields.
+ */
+// HOW TO RUN THIS TEST
+// java -jar target/benchmarks.jar JsonTemplateLayoutBenchmark -f 1 -i 5 -wi 5 -bm sample -tu ns
+// To measure allocations, add: -prof gc
+@State(Scope.Thread)
+public class JsonTemplateLayoutBenchmark {
+    private static final CharSequence MESSAGE =
+            "This is rather long and chatty log message with quite some interesting information and a bit of fun in it which is suitable here";
+    private static final LogEvent EVENT = createLogEvent();
+
+    private static LogEvent createLogEvent() {
+        final SortedArrayStringMap contextData = new SortedArrayStringMap();
+        contextData.putValue("requestId", "5f0c2a4e");
+        contextData.putValue("user", "alice");
+        return Log4jLogEvent.newBuilder() //
+                .setLoggerName("com.mycom.myproject.mypackage.MyClass") //
+                .setLoggerFqcn("org.apache.logging.log4j.spi.AbstractLogger") //
+                .setLevel(Level.DEBUG) //
+                .setMessage(new SimpleMessage(MESSAGE)) //
+                .setContextData(contextData) //
+                .setThreadName("main") //
+                .setThreadId(1) //
+                .setThreadPriority(5) //
+                .setTimeMillis(12345678) //
+                .build();
+    }
+
+    Appender jsonLayoutAppender;
+    Appender jsonTemplateLayoutAppender;
+
+    @Setup
+    public void setUp() {
+        System.setProperty("log4j2.enable.direct.encoders", "true");
+
+        jsonLayoutAppender = new DemoAppender(JsonLayout.newBuilder()
+                .setConfiguration(new NullConfiguration())
+                .setCompact(true)
+                .setEventEol(true)
+                .setProperties(true)
+                .build());
+        jsonTemplateLayoutAppender = new DemoAppender(JsonTemplateLayout.newBuilder()
+                .setConfiguration(new NullConfiguration())
+                .build());
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.clearProperty("log4j2.enable.direct.encoders");
+    }
+
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Benchmark
+    public void jsonLayout() {
+        jsonLayoutAppender.append(EVENT);
+    }
+
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Benchmark
+    public void jsonTemplateLayout() {
+        jsonTemplateLayoutAppender.append(EVENT);
+    }
+}
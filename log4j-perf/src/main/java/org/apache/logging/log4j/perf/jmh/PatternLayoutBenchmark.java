@@ -18,6 +18,7 @@
 package org.apache.logging.log4j.perf.jmh;
 
 import java.nio.charset.Charset;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
@@ -27,6 +28,7 @@ import org.apache.logging.log4j.ThreadContext.ContextStack;
 import org.apache.logging.log4j.core.LogEvent;
 import org.apache.logging.log4j.core.impl.Log4jLogEvent;
 import org.apache.logging.log4j.core.layout.PatternLayout;
+import org.apache.logging.log4j.core.pattern.PatternFormatter;
 import org.apache.logging.log4j.message.Message;
 import org.apache.logging.log4j.message.SimpleMessage;
 import org.openjdk.jmh.annotations.Benchmark;
@@ -73,6 +75,17 @@ public class PatternLayoutBenchmark {
     private final PatternLayout PATTERN_M_D_EX = PatternLayout.createLayout("%d %m%ex%n", null, null, null, CHARSET_DEFAULT, false, true, null, null);
     private final PatternLayout PATTERN_M_C_D_EX = PatternLayout.createLayout("%d %c %m%ex%n", null, null, null, CHARSET_DEFAULT, false, true, null, null);
 
+    // a typical service pattern with more than 10 converters
+    private static final String LONG_PATTERN = "%d{ISO8601} [%t] %-5level %c{1.} %marker %X{user} %X{request} %x - %m%n";
+    private final PatternLayout PATTERN_LONG = PatternLayout.createLayout(LONG_PATTERN, null, null, null, CHARSET_DEFAULT, false, true, null, null);
+    private final PatternFormatter[] LONG_FORMATTERS = parseFormatters(LONG_PATTERN);
+    private final StringBuilder buffer = new StringBuilder(256);
+
+    private static PatternFormatter[] parseFormatters(final String pattern) {
+        final List<PatternFormatter> list = PatternLayout.createPatternParser(null).parse(pattern, false, false, true);
+        return list.toArray(new PatternFormatter[0]);
+    }
+
     private static LogEvent createLogEvent() {
         final Marker marker = null;
         final String fqcn = "com.mycom.myproject.mypackage.MyClass";
@@ -276,4 +289,26 @@ public class PatternLayoutBenchmark {
         return PATTERN_M_C_NOSPACE.toSerializable(EVENT);
     }
 
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public String serializableLongPattern() {
+        return PATTERN_LONG.toSerializable(EVENT);
+    }
+
+    /**
+     * Renders the long pattern by calling each PatternFormatter directly, without the layout.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int formatterLoopLongPattern() {
+        final StringBuilder sb = buffer;
+        sb.setLength(0);
+        final PatternFormatter[] formatters = LONG_FORMATTERS;
+        for (int i = 0; i < formatters.length; i++) {
+            formatters[i].format(EVENT, sb);
+        }
+        return sb.length();
+    }
 }
@@ -22,6 +22,7 @@ import java.nio.CharBuffer;
 import java.nio.charset.CharacterCodingException;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.TimeUnit;
 
 import org.openjdk.jmh.annotations.Benchmark;
@@ -59,6 +60,10 @@ public class StringEncodingBenchmark {
     private static final Charset CHARSET_US_ASCII = Charset.forName(STRING_US_ASCII);
     private static final CharsetEncoder ENCODER_SHIFT_JIS = CHARSET_SHIFT_JIS.newEncoder();
     private static final CharsetEncoder ENCODER_ISO8859_1 = CHARSET_ISO8859_1.newEncoder();
+    private final CharsetEncoder encoderUtf8 = StandardCharsets.UTF_8.newEncoder();
+    private final StringBuilder logMsgBuilder = new StringBuilder(LOGMSG);
+    private final CharBuffer charBuffer = CharBuffer.allocate(LOGMSG.length());
+    private final ByteBuffer byteBuffer = ByteBuffer.allocate(LOGMSG.length() * 3);
 
     @Benchmark
     @BenchmarkMode(Mode.SampleTime)
@@ -139,6 +144,58 @@ public class StringEncodingBenchmark {
         return buf.array();
     }
 
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public byte[] utf8StringGetBytesCharSet() {
+        return LOGMSG.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reuses the encoder and buffers like the generic path in TextEncoderHelper.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int utf8ReusedEncoder() {
+        encoderUtf8.reset();
+        charBuffer.clear();
+        logMsgBuilder.getChars(0, logMsgBuilder.length(), charBuffer.array(), charBuffer.arrayOffset());
+        charBuffer.limit(logMsgBuilder.length());
+        byteBuffer.clear();
+        encoderUtf8.encode(charBuffer, byteBuffer, true);
+        encoderUtf8.flush(byteBuffer);
+        return byteBuffer.position();
+    }
+
+    /**
+     * Same algorithm as TextEncoderHelper.encodeUtf8: no CharsetEncoder, no CharBuffer copy.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int utf8CustomFromStringBuilder() {
+        final byte[] array = byteBuffer.array();
+        final StringBuilder text = logMsgBuilder;
+        final int length = text.length();
+        int pos = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = text.charAt(i);
+            if (c < 0x80) {
+                array[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                array[pos++] = (byte) (0xC0 | (c >> 6));
+                array[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else {
+                // the log message has no surrogates
+                array[pos++] = (byte) (0xE0 | (c >> 12));
+                array[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                array[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return pos;
+    }
+
     @Benchmark
     @BenchmarkMode(Mode.SampleTime)
     @OutputTimeUnit(TimeUnit.NANOSECONDS)
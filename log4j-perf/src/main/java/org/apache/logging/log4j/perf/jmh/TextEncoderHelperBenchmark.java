@@ -19,6 +19,9 @@ package org.apache.logging.log4j.perf.jmh;
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
@@ -58,6 +61,7 @@ public class TextEncoderHelperBenchmark {
     final static String STR = "AB!(%087936DZYXQWEIOP$#^~-=/><nb"; // length=32
     final static String STR_TEXT = "20:01:59.9876 INFO [org.apache.logging.log4j.perf.jmh.TextEncoderHelperBenchmark] AB!(%087936DZYXQWEIOP$#^~-=/><nb"; // length=32
     final static StringBuilder BUFF_TEXT = new StringBuilder(STR_TEXT);
+    final static StringBuilder BUFF_TEXT_NON_ASCII = new StringBuilder(STR_TEXT).append(" \u00e9t\u00e9 \u65e5\u672c\u8a9e \ud83d\ude00");
     final static CharBuffer CHAR_BUFFER = CharBuffer.wrap(STR.toCharArray());
 
     final static LogEvent EVENT = createLogEvent();
@@ -144,6 +148,69 @@ public class TextEncoderHelperBenchmark {
         return destination.count;
     }
 
+    /**
+     * Delegates to UTF-8 but is not equal to it, so StringBuilderEncoder uses the generic CharsetEncoder path.
+     */
+    private static final Charset UTF_8_VIA_CHARSET_ENCODER = new Charset("x-log4j-utf-8-via-charset-encoder", null) {
+        @Override
+        public boolean contains(final Charset cs) {
+            return StandardCharsets.UTF_8.contains(cs);
+        }
+
+        @Override
+        public CharsetDecoder newDecoder() {
+            return StandardCharsets.UTF_8.newDecoder();
+        }
+
+        @Override
+        public CharsetEncoder newEncoder() {
+            return StandardCharsets.UTF_8.newEncoder();
+        }
+    };
+    private final StringBuilderEncoder utf8Encoder = new StringBuilderEncoder(StandardCharsets.UTF_8);
+    private final StringBuilderEncoder utf8CharsetEncoder = new StringBuilderEncoder(UTF_8_VIA_CHARSET_ENCODER);
+    private final StringBuilderEncoder iso8859_1Encoder = new StringBuilderEncoder(StandardCharsets.ISO_8859_1);
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long textEncoderEncodeUtf8() {
+        utf8Encoder.encode(BUFF_TEXT, destination);
+        return destination.count;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long textEncoderEncodeUtf8CharsetEncoder() {
+        utf8CharsetEncoder.encode(BUFF_TEXT, destination);
+        return destination.count;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long textEncoderEncodeIso8859_1() {
+        iso8859_1Encoder.encode(BUFF_TEXT, destination);
+        return destination.count;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long textEncoderEncodeUtf8NonAscii() {
+        utf8Encoder.encode(BUFF_TEXT_NON_ASCII, destination);
+        return destination.count;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long textEncoderEncodeUtf8CharsetEncoderNonAscii() {
+        utf8CharsetEncoder.encode(BUFF_TEXT_NON_ASCII, destination);
+        return destination.count;
+    }
+
 //    @Benchmark
 //    @BenchmarkMode(Mode.SampleTime)
 //    @OutputTimeUnit(TimeUnit.NANOSECONDS)
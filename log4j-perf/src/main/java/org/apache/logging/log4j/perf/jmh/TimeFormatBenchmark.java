@@ -22,9 +22,11 @@ import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.logging.log4j.core.util.datetime.FixedDateFormat;
 import org.apache.logging.log4j.core.util.datetime.FastDateFormat;
+import org.apache.logging.log4j.core.util.datetime.SharedTimestampCache;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Mode;
@@ -57,6 +59,9 @@ public class TimeFormatBenchmark {
     };
     FastDateFormat fastDateFormat = FastDateFormat.getInstance("HH:mm:ss.SSS");
     FixedDateFormat fixedDateFormat = FixedDateFormat.createIfSupported(new String[]{"ABSOLUTE"});
+    SharedTimestampCache fixedSharedCache = SharedTimestampCache.create(fixedDateFormat);
+    SharedTimestampCache fastSharedCache = SharedTimestampCache.create(fastDateFormat);
+    AtomicReference<CachedTime> cachedTime = new AtomicReference<>(new CachedTime(0, ""));
     volatile long midnightToday = 0;
     volatile long midnightTomorrow = 0;
 
@@ -65,6 +70,22 @@ public class TimeFormatBenchmark {
         final ByteBuffer buffer = ByteBuffer.allocate(12);
         final StringBuilder stringBuilder = new StringBuilder(12);
         final char[] charArray = new char[12];
+
+        // per-thread cache of the last formatted timestamp, like DatePatternConverter with ThreadLocals enabled
+        final char[] cachedChars = new char[12];
+        int cachedLength;
+        long previousTime = Long.MIN_VALUE;
+    }
+
+    // like DatePatternConverter with ThreadLocals disabled
+    static final class CachedTime {
+        final long timestampMillis;
+        final String formatted;
+
+        CachedTime(final long timestampMillis, final String formatted) {
+            this.timestampMillis = timestampMillis;
+            this.formatted = formatted;
+        }
     }
 
     private long millisSinceMidnight(final long now) {
@@ -146,6 +167,60 @@ public class TimeFormatBenchmark {
         return new String(state.stringBuilder);
     }
 
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int fixedDateFormatThreadLocalCache(final BufferState state) {
+        final long now = System.currentTimeMillis();
+        if (now != state.previousTime) {
+            state.cachedLength = fixedDateFormat.format(now, state.cachedChars, 0);
+            state.previousTime = now;
+        }
+        state.stringBuilder.setLength(0);
+        state.stringBuilder.append(state.cachedChars, 0, state.cachedLength);
+        return state.stringBuilder.length();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int fixedDateFormatAtomicReferenceCache(final BufferState state) {
+        final long now = System.currentTimeMillis();
+        CachedTime cached = cachedTime.get();
+        if (now != cached.timestampMillis) {
+            final CachedTime newTime = new CachedTime(now, fixedDateFormat.format(now));
+            cached = cachedTime.compareAndSet(cached, newTime) ? newTime : cachedTime.get();
+        }
+        state.stringBuilder.setLength(0);
+        state.stringBuilder.append(cached.formatted);
+        return state.stringBuilder.length();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int fixedDateFormatSharedCache(final BufferState state) {
+        final long now = System.currentTimeMillis();
+        state.stringBuilder.setLength(0);
+        if (!fixedSharedCache.formatTo(now, state.stringBuilder)) {
+            final int len = fixedDateFormat.format(now, state.charArray, 0);
+            state.stringBuilder.append(state.charArray, 0, len);
+        }
+        return state.stringBuilder.length();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int fastDateFormatSharedCache(final BufferState state) {
+        final long now = System.currentTimeMillis();
+        state.stringBuilder.setLength(0);
+        if (!fastSharedCache.formatTo(now, state.stringBuilder)) {
+            fastDateFormat.format(now, state.stringBuilder);
+        }
+        return state.stringBuilder.length();
+    }
+
     int formatCharArrayBitFiddling(final long time, final char[] buffer, int pos) {
         // Calculate values by getting the ms values first and do then
         // shave off the hour minute and second values with multiplications